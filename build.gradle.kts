@@ -26,7 +26,22 @@ dependencies {
 }
 
 tasks.test {
-    useJUnitPlatform()
+    useJUnitPlatform {
+        excludeTags("benchmark")
+    }
+}
+
+// Micro-benchmarks are tagged "benchmark" and only run on demand: ./gradlew benchmark
+tasks.register<Test>("benchmark") {
+    description = "Runs the request hot-path micro-benchmarks."
+    group = "verification"
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    useJUnitPlatform {
+        includeTags("benchmark")
+    }
+    testLogging.showStandardStreams = true
+    outputs.upToDateWhen { false }
 }
 
 // --- Static Analysis ---
@@ -8,15 +8,22 @@ import cli.li.resolver.thread.CaptchaSolverThreadManager;
 import cli.li.resolver.thread.HighLoadDetector;
 import cli.li.resolver.thread.ThreadPoolManager;
 import cli.li.resolver.service.ServiceManager;
+import cli.li.resolver.service.CaptchaResolver;
 import cli.li.resolver.ui.UIManager;
 import cli.li.resolver.ui.UIHelper;
 import cli.li.resolver.logger.LoggerService;
 import cli.li.resolver.http.PlaceholderParser;
 import cli.li.resolver.http.HttpRequestModifier;
+import cli.li.resolver.http.PlaceholderSessionAction;
+import cli.li.resolver.intruder.TokenPayloadGeneratorProvider;
 import cli.li.resolver.settings.SettingsManager;
 import cli.li.resolver.stats.StatisticsCollector;
+import cli.li.resolver.detection.DetectionQueue;
 import cli.li.resolver.detection.DetectionStore;
 import cli.li.resolver.detection.ResponseAnalyzer;
+import cli.li.resolver.provider.AsyncPolling;
+import cli.li.resolver.provider.PollScheduler;
+import cli.li.resolver.provider.PingbackReceiver;
 import cli.li.resolver.provider.ProviderRegistry;
 import cli.li.resolver.provider.selection.ProviderSelector;
 import cli.li.resolver.provider.impl.TwoCaptchaProvider;
@@ -25,6 +32,7 @@ import cli.li.resolver.provider.impl.AntiCaptchaProvider;
 import cli.li.resolver.provider.impl.CapMonsterProvider;
 import cli.li.resolver.provider.impl.CapSolverProvider;
 import cli.li.resolver.provider.impl.SolveCaptchaProvider;
+import cli.li.resolver.provider.impl.SimulatedProvider;
 
 /**
  * ResolverExtension is the main entry point for the reSolver Burp Suite extension.
@@ -39,6 +47,7 @@ public class ResolverExtension implements BurpExtension, ExtensionUnloadingHandl
     private StatisticsCollector statisticsCollector;
     private PlaceholderParser placeholderParser;
     private HttpRequestModifier requestModifier;
+    private CaptchaResolver captchaResolver;
     private UIManager uiManager;
     private HighLoadDetector highLoadDetector;
     private ThreadPoolManager threadPoolManager;
@@ -46,6 +55,9 @@ public class ResolverExtension implements BurpExtension, ExtensionUnloadingHandl
     private ProviderSelector providerSelector;
     private DetectionStore detectionStore;
     private ResponseAnalyzer responseAnalyzer;
+    private DetectionQueue detectionQueue;
+    private TokenPayloadGeneratorProvider payloadGeneratorProvider;
+    private SimulatedProvider simulatedProvider;
     private LoggerService logger;
 
     @Override
@@ -65,6 +77,14 @@ public class ResolverExtension implements BurpExtension, ExtensionUnloadingHandl
         api.http().registerHttpHandler(requestModifier);
         logger.info("ResolverExtension", "HTTP handler registered");
 
+        // Register session handling action for resolution scoped by Burp session rules
+        api.http().registerSessionHandlingAction(new PlaceholderSessionAction(requestModifier));
+        logger.info("ResolverExtension", "Session handling action registered");
+
+        // Register Intruder payload generator streaming pre-solved tokens
+        api.intruder().registerPayloadGeneratorProvider(payloadGeneratorProvider);
+        logger.info("ResolverExtension", "Intruder payload generator registered");
+
         // Add extension tab to Burp UI
         api.userInterface().registerSuiteTab("reSolver", uiManager.getUI());
         logger.info("ResolverExtension", "UI tab registered");
@@ -96,6 +116,11 @@ public class ResolverExtension implements BurpExtension, ExtensionUnloadingHandl
             logger.warning("ResolverExtension", "Invalid log level in settings, using default");
         }
 
+        // Poll outstanding provider tasks at the configured cadence
+        PollScheduler.getInstance().setPollInterval(settingsManager::getPollIntervalMs);
+        // Receive results pushed by providers, if enabled
+        PingbackReceiver.getInstance().configure(settingsManager);
+
         // Initialize thread management components
         threadPoolManager = new ThreadPoolManager(settingsManager);
         logger.info("ResolverExtension", "Thread pool manager initialized with size: " +
@@ -126,21 +151,32 @@ public class ResolverExtension implements BurpExtension, ExtensionUnloadingHandl
         // Initialize detection components
         detectionStore = new DetectionStore();
         responseAnalyzer = new ResponseAnalyzer(detectionStore);
-        logger.info("ResolverExtension", "Detection components initialized");
+        detectionQueue = new DetectionQueue(responseAnalyzer, settingsManager);
+        logger.info("ResolverExtension", "Detection components initialized with " +
+                detectionQueue.getWorkerCount() + " worker(s)");
 
         // Initialize statistics components
         statisticsCollector = new StatisticsCollector(serviceManager);
+        simulatedProvider.useRecordedLatencies(statisticsCollector::getAverageSolvingTimeMs);
         logger.info("ResolverExtension", "Statistics components initialized");
 
+        // Initialize CAPTCHA resolver with its pre-solved token pool
+        captchaResolver = new CaptchaResolver(serviceManager, statisticsCollector, settingsManager);
+        logger.info("ResolverExtension", "CAPTCHA resolver initialized");
+
         // Initialize HTTP processing components
-        placeholderParser = new PlaceholderParser();
+        placeholderParser = new PlaceholderParser(settingsManager);
         requestModifier = new HttpRequestModifier(serviceManager, placeholderParser,
-                statisticsCollector, responseAnalyzer, settingsManager);
+                captchaResolver, detectionQueue, settingsManager, threadManager);
         logger.info("ResolverExtension", "HTTP processing components initialized");
 
+        payloadGeneratorProvider = new TokenPayloadGeneratorProvider(serviceManager, captchaResolver,
+                placeholderParser, settingsManager);
+
         // Initialize UI
         uiManager = new UIManager(api, serviceManager, settingsManager, statisticsCollector,
-                threadManager, detectionStore);
+                captchaResolver.getTokenPool(), detectionQueue, placeholderParser.getCache(), threadManager,
+                detectionStore);
         logger.info("ResolverExtension", "UI manager initialized");
     }
 
@@ -156,8 +192,12 @@ public class ResolverExtension implements BurpExtension, ExtensionUnloadingHandl
         providerRegistry.register(new CapSolverProvider());
         providerRegistry.register(new SolveCaptchaProvider());
 
+        // Dry-run provider for load testing without spending balance, disabled until configured
+        simulatedProvider = new SimulatedProvider(settingsManager);
+        providerRegistry.register(simulatedProvider);
+
         logger.info("ResolverExtension", "Default CAPTCHA providers registered: " +
-                "2Captcha, RuCaptcha, AntiCaptcha, CapMonster, CapSolver, SolveCaptcha");
+                "2Captcha, RuCaptcha, AntiCaptcha, CapMonster, CapSolver, SolveCaptcha, Simulated");
     }
 
     /**
@@ -173,6 +213,18 @@ public class ResolverExtension implements BurpExtension, ExtensionUnloadingHandl
         }
 
         // Clean up threads and executors
+        if (captchaResolver != null) {
+            captchaResolver.shutdown();
+        }
+
+        if (detectionQueue != null) {
+            detectionQueue.shutdown();
+        }
+
+        if (payloadGeneratorProvider != null) {
+            payloadGeneratorProvider.shutdown();
+        }
+
         if (threadManager != null) {
             threadManager.shutdown();
         }
@@ -185,6 +237,11 @@ public class ResolverExtension implements BurpExtension, ExtensionUnloadingHandl
             highLoadDetector.shutdown();
         }
 
+        // Stop provider polling after every user of it has shut down
+        PingbackReceiver.getInstance().stop();
+        PollScheduler.getInstance().shutdown();
+        AsyncPolling.shutdown();
+
         logger.info("ResolverExtension", "Extension resources successfully released");
     }
 }
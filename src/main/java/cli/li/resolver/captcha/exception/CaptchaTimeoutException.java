@@ -0,0 +1,15 @@
+package cli.li.resolver.captcha.exception;
+
+/**
+ * Exception thrown when a CAPTCHA solve runs out of time
+ */
+public class CaptchaTimeoutException extends CaptchaSolverException {
+
+    /**
+     * Constructor with message
+     * @param message Error message
+     */
+    public CaptchaTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -1,6 +1,8 @@
 package cli.li.resolver.captcha.model;
 
 import java.util.Map;
+import java.util.HashMap;
+import java.util.Objects;
 import java.util.Collections;
 
 /**
@@ -16,6 +18,9 @@ public class CaptchaRequest {
      * Additional parameter keys
      */
     public static final String PARAM_TIMEOUT_SECONDS = "timeout_seconds";
+    public static final String PARAM_REUSE = "reuse";
+    public static final String PARAM_REUSE_TTL = "reuse_ttl";
+    public static final String PARAM_FIELD = "field";
 
     /**
      * Constructor for CAPTCHA request
@@ -63,4 +68,67 @@ public class CaptchaRequest {
     public CaptchaType captchaType() {
         return captchaType;
     }
+
+    /**
+     * Get the solve timeout requested by the timeout_seconds parameter
+     * @param defaultSeconds Timeout to use when the parameter is absent or invalid
+     * @return Timeout in seconds
+     */
+    public int timeoutSeconds(int defaultSeconds) {
+        String value = additionalParams.get(PARAM_TIMEOUT_SECONDS);
+        if (value != null) {
+            try {
+                int seconds = Integer.parseInt(value.trim());
+                if (seconds > 0) {
+                    return seconds;
+                }
+            } catch (NumberFormatException e) {
+                // Fall back to the default timeout
+            }
+        }
+        return defaultSeconds;
+    }
+
+    /**
+     * Get the solution field selected by the field parameter, for CAPTCHAs whose
+     * solution has several fields (such as GeeTest challenge, validate and seccode)
+     * @return Field name, or null to use the whole solution
+     */
+    public String field() {
+        String value = additionalParams.get(PARAM_FIELD);
+        return value != null && !value.isBlank() ? value.trim() : null;
+    }
+
+    /**
+     * Get the challenge this request solves, without its field selection.
+     * Placeholders selecting different fields of the same challenge share one solve.
+     * @return Request without the field parameter
+     */
+    public CaptchaRequest withoutField() {
+        if (!additionalParams.containsKey(PARAM_FIELD)) {
+            return this;
+        }
+        Map<String, String> params = new HashMap<>(additionalParams);
+        params.remove(PARAM_FIELD);
+        return new CaptchaRequest(siteKey, url, params, captchaType);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CaptchaRequest other)) {
+            return false;
+        }
+        return captchaType == other.captchaType
+                && Objects.equals(siteKey, other.siteKey)
+                && Objects.equals(url, other.url)
+                && additionalParams.equals(other.additionalParams);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(captchaType, siteKey, url, additionalParams);
+    }
 }
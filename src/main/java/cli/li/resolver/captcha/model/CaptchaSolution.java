@@ -0,0 +1,222 @@
+package cli.li.resolver.captcha.model;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Solution returned by a provider, parsed once so that several placeholders can take
+ * different fields of it. Single-token CAPTCHAs solve to a plain string; multi-field
+ * CAPTCHAs (GeeTest v3 challenge/validate/seccode, GeeTest v4 lot_number/pass_token/
+ * gen_time/captcha_output, AWS WAF) solve to a flat JSON object whose top-level
+ * values are exposed as fields. Nested values are kept as raw JSON text.
+ */
+public final class CaptchaSolution {
+    // Providers prefix GeeTest v3 fields inconsistently ("validate" or "geetest_validate")
+    private static final String GEETEST_PREFIX = "geetest_";
+
+    private final String raw;
+    private final Map<String, String> fields;
+
+    private CaptchaSolution(String raw, Map<String, String> fields) {
+        this.raw = raw;
+        this.fields = fields;
+    }
+
+    /**
+     * Parse a provider solution
+     * @param raw Solution as returned by the provider
+     * @return Parsed solution; without fields if the solution is not a JSON object
+     */
+    public static CaptchaSolution parse(String raw) {
+        Map<String, String> fields = raw != null ? new Parser(raw).parseObject() : null;
+        return new CaptchaSolution(raw, fields != null ? Collections.unmodifiableMap(fields) : Map.of());
+    }
+
+    /**
+     * Get the solution as returned by the provider
+     * @return Raw solution
+     */
+    public String raw() {
+        return raw;
+    }
+
+    /**
+     * Get the top-level fields of a JSON solution
+     * @return Field values by name, empty for single-token solutions
+     */
+    public Map<String, String> fields() {
+        return fields;
+    }
+
+    /**
+     * Select the value a placeholder is replaced with
+     * @param field Field name, or null for the whole solution
+     * @return Field value, the raw solution if no field is selected, or null if the field is missing
+     */
+    public String select(String field) {
+        if (field == null) {
+            return raw;
+        }
+        String value = fields.get(field);
+        if (value == null) {
+            value = field.startsWith(GEETEST_PREFIX)
+                    ? fields.get(field.substring(GEETEST_PREFIX.length()))
+                    : fields.get(GEETEST_PREFIX + field);
+        }
+        return value;
+    }
+
+    /**
+     * Minimal parser for the top level of a JSON object
+     */
+    private static final class Parser {
+        private final String json;
+        private int pos;
+
+        Parser(String json) {
+            this.json = json;
+        }
+
+        /**
+         * @return Top-level values by key, or null if the text is not a well-formed JSON object
+         */
+        Map<String, String> parseObject() {
+            Map<String, String> values = new LinkedHashMap<>();
+            skipWhitespace();
+            if (!consume('{')) {
+                return null;
+            }
+            skipWhitespace();
+            if (consume('}')) {
+                return trailingWhitespaceOnly() ? values : null;
+            }
+            while (true) {
+                skipWhitespace();
+                String key = parseString();
+                skipWhitespace();
+                if (key == null || !consume(':')) {
+                    return null;
+                }
+                skipWhitespace();
+                String value = parseValue();
+                if (value == null) {
+                    return null;
+                }
+                values.put(key, value);
+                skipWhitespace();
+                if (consume(',')) {
+                    continue;
+                }
+                return consume('}') && trailingWhitespaceOnly() ? values : null;
+            }
+        }
+
+        private String parseValue() {
+            if (pos >= json.length()) {
+                return null;
+            }
+            char c = json.charAt(pos);
+            if (c == '"') {
+                return parseString();
+            }
+            int start = pos;
+            if (c == '{' || c == '[') {
+                return skipNested() ? json.substring(start, pos) : null;
+            }
+            // Number, true, false or null: keep the literal text
+            while (pos < json.length() && ",}] \t\r\n".indexOf(json.charAt(pos)) < 0) {
+                pos++;
+            }
+            return pos > start ? json.substring(start, pos) : null;
+        }
+
+        private String parseString() {
+            if (!consume('"')) {
+                return null;
+            }
+            StringBuilder sb = new StringBuilder();
+            while (pos < json.length()) {
+                char c = json.charAt(pos++);
+                if (c == '"') {
+                    return sb.toString();
+                }
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                if (pos >= json.length()) {
+                    return null;
+                }
+                char escaped = json.charAt(pos++);
+                switch (escaped) {
+                    case 'n' -> sb.append('\n');
+                    case 'r' -> sb.append('\r');
+                    case 't' -> sb.append('\t');
+                    case 'b' -> sb.append('\b');
+                    case 'f' -> sb.append('\f');
+                    case 'u' -> {
+                        if (pos + 4 > json.length()) {
+                            return null;
+                        }
+                        try {
+                            sb.append((char) Integer.parseInt(json.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException e) {
+                            return null;
+                        }
+                        pos += 4;
+                    }
+                    default -> sb.append(escaped);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Skip a nested object or array, honouring strings
+         */
+        private boolean skipNested() {
+            int depth = 0;
+            boolean inString = false;
+            while (pos < json.length()) {
+                char c = json.charAt(pos++);
+                if (inString) {
+                    if (c == '\\') {
+                        pos++;
+                    } else if (c == '"') {
+                        inString = false;
+                    }
+                } else if (c == '"') {
+                    inString = true;
+                } else if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    depth--;
+                    if (depth == 0) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private boolean consume(char expected) {
+            if (pos < json.length() && json.charAt(pos) == expected) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void skipWhitespace() {
+            while (pos < json.length() && Character.isWhitespace(json.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private boolean trailingWhitespaceOnly() {
+            skipWhitespace();
+            return pos == json.length();
+        }
+    }
+}
@@ -65,6 +65,20 @@ public enum CaptchaType {
         return displayName;
     }
 
+    /**
+     * Get how long a solved token of this type can be submitted, with a safety margin
+     * below the lifetime enforced by the CAPTCHA vendor
+     * @return Token lifetime in seconds
+     */
+    public int getTokenLifetimeSeconds() {
+        return switch (this) {
+            // Turnstile and AWS WAF tokens are accepted for five minutes
+            case TURNSTILE, AWS_WAF -> 290;
+            // reCAPTCHA and hCaptcha tokens expire after two minutes; unknown lifetimes use the same bound
+            default -> 110;
+        };
+    }
+
     /**
      * Get CAPTCHA type from code string
      * @param code Code string (case-insensitive)
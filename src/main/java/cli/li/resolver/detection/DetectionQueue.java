@@ -0,0 +1,177 @@
+package cli.li.resolver.detection;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+import cli.li.resolver.logger.LoggerService;
+import cli.li.resolver.settings.SettingsManager;
+
+/**
+ * Bounded background queue for response analysis.
+ * Responses are handed over without waiting and analyzed by a fixed number of worker
+ * threads. When the queue is full the oldest pending response is dropped, so a crawl
+ * burst never blocks Burp's response thread or grows memory without bound; detection
+ * is best-effort and a CAPTCHA page seen again later is still picked up.
+ */
+public class DetectionQueue {
+    // Pending responses kept before the oldest is dropped
+    static final int DEFAULT_CAPACITY = 500;
+
+    private final BiConsumer<String, String> analysis;
+    private final ThreadPoolExecutor executor;
+    private final int capacity;
+    private final LoggerService logger;
+
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder analyzed = new LongAdder();
+    private final LongAdder totalAnalysisNanos = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+
+    public DetectionQueue(ResponseAnalyzer responseAnalyzer, SettingsManager settingsManager) {
+        this(responseAnalyzer::analyze, DEFAULT_CAPACITY, settingsManager.getDetectionWorkers());
+    }
+
+    /**
+     * Constructor with injectable analysis
+     * @param analysis Analysis of a page URL and response body
+     * @param capacity Maximum number of pending responses
+     * @param workers Number of worker threads
+     */
+    DetectionQueue(BiConsumer<String, String> analysis, int capacity, int workers) {
+        this.analysis = analysis;
+        this.capacity = capacity;
+        this.logger = LoggerService.getInstance();
+
+        int workerCount = Math.max(1, workers);
+        AtomicInteger threadNumber = new AtomicInteger(1);
+        executor = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(capacity), runnable -> {
+            Thread thread = new Thread(runnable, "CAPTCHA-Detection-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }, new DropOldestPolicy());
+    }
+
+    /**
+     * Queue a response for analysis without waiting for it
+     * @param url URL of the page
+     * @param body Supplier of the response body, read on the worker thread
+     */
+    public void submit(String url, Supplier<String> body) {
+        long enqueuedAt = System.nanoTime();
+        executor.execute(() -> analyze(url, body, enqueuedAt));
+    }
+
+    private void analyze(String url, Supplier<String> body, long enqueuedAt) {
+        long startedAt = System.nanoTime();
+        totalWaitNanos.add(startedAt - enqueuedAt);
+        try {
+            analysis.accept(url, body.get());
+        } catch (RuntimeException e) {
+            logger.error("DetectionQueue", "Error analyzing response: " + e.getMessage(), e);
+        } finally {
+            totalAnalysisNanos.add(System.nanoTime() - startedAt);
+            analyzed.increment();
+        }
+    }
+
+    /**
+     * Get the number of responses waiting for analysis
+     * @return Queue depth
+     */
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Get the maximum number of responses waiting for analysis
+     * @return Queue capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Get the number of worker threads
+     * @return Worker count
+     */
+    public int getWorkerCount() {
+        return executor.getCorePoolSize();
+    }
+
+    /**
+     * Get the number of responses dropped because the queue was full
+     * @return Drop count
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Get the number of responses analyzed
+     * @return Analyzed count
+     */
+    public long getAnalyzed() {
+        return analyzed.sum();
+    }
+
+    /**
+     * Get the average time spent analyzing one response
+     * @return Average analysis latency in milliseconds
+     */
+    public double getAvgAnalysisMs() {
+        long count = analyzed.sum();
+        return count > 0 ? totalAnalysisNanos.sum() / 1_000_000.0 / count : 0;
+    }
+
+    /**
+     * Get the average time a response waited in the queue before analysis
+     * @return Average queue wait in milliseconds
+     */
+    public double getAvgQueueWaitMs() {
+        long count = analyzed.sum();
+        return count > 0 ? totalWaitNanos.sum() / 1_000_000.0 / count : 0;
+    }
+
+    /**
+     * Reset drop, analysis and latency counters
+     */
+    public void resetStatistics() {
+        dropped.reset();
+        analyzed.reset();
+        totalAnalysisNanos.reset();
+        totalWaitNanos.reset();
+    }
+
+    /**
+     * Stop the workers and discard pending responses
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Makes room for a new response by discarding the oldest pending one
+     */
+    private class DropOldestPolicy implements RejectedExecutionHandler {
+        @Override
+        public void rejectedExecution(Runnable task, ThreadPoolExecutor pool) {
+            if (pool.isShutdown()) {
+                return;
+            }
+            // Retry until the task fits, another submitter may refill the slot first
+            while (!pool.getQueue().offer(task)) {
+                if (pool.getQueue().poll() != null) {
+                    dropped.increment();
+                    logger.debug("DetectionQueue", "Detection queue full, dropped oldest pending response");
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package cli.li.resolver.http;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decides which parts of a request body are scanned for placeholders.
+ * Bodies with a binary or compressed content type are skipped entirely, multipart
+ * bodies are split on their boundary and only text-like parts are scanned, and any
+ * other body is scanned whole. Works on raw bytes, so skipped content is never decoded.
+ */
+public final class BodyScanPolicy {
+
+    private static final Set<String> BINARY_TYPE_PREFIXES = Set.of("image/", "audio/", "video/", "font/");
+
+    private static final Set<String> BINARY_TYPES = Set.of(
+            "application/octet-stream",
+            "application/zip",
+            "application/gzip",
+            "application/x-gzip",
+            "application/x-bzip2",
+            "application/x-tar",
+            "application/x-7z-compressed",
+            "application/x-rar-compressed",
+            "application/java-archive",
+            "application/pdf",
+            "application/wasm",
+            "application/grpc",
+            "application/protobuf",
+            "application/x-protobuf",
+            "application/vnd.google.protobuf",
+            "application/msgpack",
+            "application/x-msgpack",
+            "application/cbor",
+            "application/avro"
+    );
+
+    private static final Set<String> TEXT_TYPES = Set.of(
+            "application/json",
+            "application/xml",
+            "application/javascript",
+            "application/graphql",
+            "application/x-www-form-urlencoded"
+    );
+
+    private static final byte[] CRLF = {'\r', '\n'};
+    private static final byte[] HEADERS_END = {'\r', '\n', '\r', '\n'};
+
+    private BodyScanPolicy() {
+    }
+
+    /**
+     * Range of body bytes to scan
+     * @param start Start offset in the body (inclusive)
+     * @param end End offset in the body (exclusive)
+     */
+    public record Range(int start, int end) {
+    }
+
+    /**
+     * Check whether a request body should be scanned at all
+     * @param contentType Content-Type header value, may be null
+     * @param contentEncoding Content-Encoding header value, may be null
+     * @return false for binary content types and compressed bodies
+     */
+    public static boolean isScannable(String contentType, String contentEncoding) {
+        if (contentEncoding != null && !contentEncoding.isBlank()
+                && !contentEncoding.trim().equalsIgnoreCase("identity")) {
+            return false;
+        }
+        return !isBinary(mediaType(contentType));
+    }
+
+    /**
+     * Get the ranges of a body to scan for placeholders
+     * @param contentType Content-Type header value, may be null
+     * @param body Body bytes, possibly truncated to the scan limit
+     * @return Ranges to scan, in order
+     */
+    public static List<Range> scanRanges(String contentType, byte[] body) {
+        String mediaType = mediaType(contentType);
+        if (mediaType.startsWith("multipart/")) {
+            String boundary = parameter(contentType, "boundary");
+            if (boundary != null && !boundary.isEmpty()) {
+                return multipartRanges(body, boundary);
+            }
+        }
+        return List.of(new Range(0, body.length));
+    }
+
+    /**
+     * Find the contents of the text-like parts of a multipart body.
+     * A part truncated by the scan limit is scanned up to the end of the data.
+     */
+    private static List<Range> multipartRanges(byte[] body, String boundary) {
+        byte[] delimiter = ("--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+        byte[] partEnd = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+        List<Range> ranges = new ArrayList<>();
+
+        int position = PlaceholderScanner.indexOf(body, delimiter, 0, body.length);
+        while (position >= 0) {
+            int afterDelimiter = position + delimiter.length;
+            // "--boundary--" closes the body
+            if (afterDelimiter + 1 < body.length && body[afterDelimiter] == '-' && body[afterDelimiter + 1] == '-') {
+                break;
+            }
+            int headersStart = PlaceholderScanner.indexOf(body, CRLF, afterDelimiter, body.length);
+            if (headersStart < 0) {
+                break;
+            }
+            headersStart += CRLF.length;
+
+            int headersEnd = PlaceholderScanner.indexOf(body, HEADERS_END, headersStart - CRLF.length, body.length);
+            if (headersEnd < 0) {
+                break;
+            }
+            int contentStart = headersEnd + HEADERS_END.length;
+            int next = PlaceholderScanner.indexOf(body, partEnd, contentStart, body.length);
+            int contentEnd = next >= 0 ? next : body.length;
+
+            String headers = new String(body, headersStart, Math.max(0, headersEnd - headersStart),
+                    StandardCharsets.ISO_8859_1);
+            if (isTextPart(headers)) {
+                ranges.add(new Range(contentStart, contentEnd));
+            }
+
+            position = next >= 0 ? next + CRLF.length : -1;
+        }
+        return ranges;
+    }
+
+    /**
+     * Check whether a multipart part holds text: form fields without a content type,
+     * or parts declaring a text-like type. File uploads of any other type are skipped.
+     */
+    private static boolean isTextPart(String headers) {
+        for (String line : headers.split("\r\n")) {
+            int colon = line.indexOf(':');
+            if (colon > 0 && line.substring(0, colon).trim().equalsIgnoreCase("Content-Type")) {
+                return isText(mediaType(line.substring(colon + 1)));
+            }
+        }
+        return true;
+    }
+
+    private static boolean isBinary(String mediaType) {
+        if (BINARY_TYPES.contains(mediaType)) {
+            return true;
+        }
+        for (String prefix : BINARY_TYPE_PREFIXES) {
+            if (mediaType.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isText(String mediaType) {
+        return mediaType.isEmpty()
+                || mediaType.startsWith("text/")
+                || mediaType.startsWith("multipart/")
+                || mediaType.endsWith("+json")
+                || mediaType.endsWith("+xml")
+                || TEXT_TYPES.contains(mediaType);
+    }
+
+    /**
+     * Get the lower-case media type of a Content-Type value without parameters
+     */
+    static String mediaType(String contentType) {
+        if (contentType == null) {
+            return "";
+        }
+        int semicolon = contentType.indexOf(';');
+        String type = semicolon >= 0 ? contentType.substring(0, semicolon) : contentType;
+        return type.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Get a parameter of a Content-Type value, unquoted
+     */
+    static String parameter(String contentType, String name) {
+        String[] parts = contentType.split(";");
+        for (int i = 1; i < parts.length; i++) {
+            String part = parts[i].trim();
+            int equals = part.indexOf('=');
+            if (equals > 0 && part.substring(0, equals).trim().equalsIgnoreCase(name)) {
+                String value = part.substring(equals + 1).trim();
+                if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+                    value = value.substring(1, value.length() - 1);
+                }
+                return value;
+            }
+        }
+        return null;
+    }
+}
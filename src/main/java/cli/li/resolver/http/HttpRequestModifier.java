@@ -2,9 +2,19 @@ package cli.li.resolver.http;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import burp.api.montoya.core.ByteArray;
+import burp.api.montoya.core.Annotations;
+import burp.api.montoya.core.ToolType;
 import burp.api.montoya.http.handler.HttpHandler;
 import burp.api.montoya.http.handler.HttpRequestToBeSent;
 import burp.api.montoya.http.handler.HttpResponseReceived;
@@ -14,14 +24,18 @@ import burp.api.montoya.http.message.HttpHeader;
 import burp.api.montoya.http.message.requests.HttpRequest;
 
 import cli.li.resolver.logger.LoggerService;
+import cli.li.resolver.provider.Deadline;
 import cli.li.resolver.service.ServiceManager;
+import cli.li.resolver.service.CaptchaResolver;
+import cli.li.resolver.service.TokenFreshness;
 import cli.li.resolver.settings.SettingsManager;
-import cli.li.resolver.stats.StatisticsCollector;
+import cli.li.resolver.thread.TaskStrategy;
+import cli.li.resolver.thread.CaptchaSolverThreadManager;
 import cli.li.resolver.captcha.model.CaptchaRequest;
-import cli.li.resolver.captcha.model.CaptchaType;
-import cli.li.resolver.provider.SolveRequest;
-import cli.li.resolver.detection.ResponseAnalyzer;
+import cli.li.resolver.captcha.model.CaptchaSolution;
+import cli.li.resolver.detection.DetectionQueue;
 import cli.li.resolver.captcha.exception.CaptchaSolverException;
+import cli.li.resolver.captcha.exception.CaptchaTimeoutException;
 
 /**
  * Modifier for HTTP requests to solve CAPTCHAs and analyzer for HTTP responses
@@ -29,19 +43,23 @@ import cli.li.resolver.captcha.exception.CaptchaSolverException;
 public class HttpRequestModifier implements HttpHandler {
     private final ServiceManager serviceManager;
     private final PlaceholderParser placeholderParser;
-    private final StatisticsCollector statisticsCollector;
-    private final ResponseAnalyzer responseAnalyzer;
+    private final CaptchaResolver captchaResolver;
+    // Responses are analyzed in the background so delivery never waits on detection
+    private final DetectionQueue detectionQueue;
     private final SettingsManager settingsManager;
+    // Solves run on the managed solver pool, admitted according to the configured task strategy
+    private final CaptchaSolverThreadManager threadManager;
     private final LoggerService logger;
 
     public HttpRequestModifier(ServiceManager serviceManager, PlaceholderParser placeholderParser,
-                               StatisticsCollector statisticsCollector, ResponseAnalyzer responseAnalyzer,
-                               SettingsManager settingsManager) {
+                               CaptchaResolver captchaResolver, DetectionQueue detectionQueue,
+                               SettingsManager settingsManager, CaptchaSolverThreadManager threadManager) {
         this.serviceManager = serviceManager;
         this.placeholderParser = placeholderParser;
-        this.statisticsCollector = statisticsCollector;
-        this.responseAnalyzer = responseAnalyzer;
+        this.captchaResolver = captchaResolver;
+        this.detectionQueue = detectionQueue;
         this.settingsManager = settingsManager;
+        this.threadManager = threadManager;
         this.logger = LoggerService.getInstance();
     }
 
@@ -52,47 +70,72 @@ public class HttpRequestModifier implements HttpHandler {
      */
     @Override
     public RequestToBeSentAction handleHttpRequestToBeSent(HttpRequestToBeSent requestToBeSent) {
+        // Skip all traffic when resolution is left to the session handling action
+        if (!settingsManager.isGlobalResolutionEnabled()) {
+            return RequestToBeSentAction.continueWith(requestToBeSent);
+        }
+
+        // Skip tools with placeholder resolution turned off before any parsing
+        ToolType toolType = requestToBeSent.toolSource().toolType();
+        if (!settingsManager.getToolScope().isResolutionEnabled(toolType.name())) {
+            return RequestToBeSentAction.continueWith(requestToBeSent);
+        }
+
+        ResolvedRequest resolved = resolvePlaceholders(requestToBeSent, requestToBeSent.annotations(),
+                toolType == ToolType.INTRUDER);
+        return RequestToBeSentAction.continueWith(resolved.request(), resolved.annotations());
+    }
+
+    /**
+     * Solve the CAPTCHA placeholders of a request and inject the tokens.
+     * Shared by the global HTTP handler and the session handling action.
+     * @param request HTTP request
+     * @param annotations Annotations of the request
+     * @param fromIntruder Whether the request comes from Intruder, which drives token prefetching
+     * @return Request with solved placeholders replaced, or the original request with a note
+     *         if it was released unsolved
+     */
+    public ResolvedRequest resolvePlaceholders(HttpRequest request, Annotations annotations, boolean fromIntruder) {
         // Find all placeholders
-        List<PlaceholderLocation> placeholders = placeholderParser.findPlaceholders(requestToBeSent);
+        List<PlaceholderLocation> placeholders = placeholderParser.findPlaceholders(request);
 
         // If no placeholders, return the original request
         if (placeholders.isEmpty()) {
-            return RequestToBeSentAction.continueWith(requestToBeSent);
+            return new ResolvedRequest(request, annotations);
         }
 
         // Check if we have configured services
         if (!serviceManager.hasConfiguredServices()) {
             // No configured services, return the original request
-            return RequestToBeSentAction.continueWith(requestToBeSent);
+            return new ResolvedRequest(request, annotations);
         }
 
         // Process placeholders and solve CAPTCHAs
-        Map<String, String> solvedTokens = new HashMap<>();
-        for (PlaceholderLocation placeholder : placeholders) {
-            try {
-                String token = solveCaptcha(placeholder.captchaRequest());
-                if (token != null) {
-                    solvedTokens.put(placeholder.placeholder(), token);
-                }
-            } catch (CaptchaSolverException e) {
-                logger.warning("HttpRequestModifier", "Failed to solve CAPTCHA: " + e.getMessage());
-                // Failed to solve CAPTCHA, continue with next placeholder
-            }
+        SolveOutcome outcome = solvePlaceholders(placeholders, fromIntruder);
+        Map<String, String> solvedTokens = outcome.solvedTokens();
+
+        // Released unsolved: forward the original request with a note for the user
+        if (outcome.releaseNote() != null) {
+            return new ResolvedRequest(request, annotate(annotations, outcome.releaseNote()));
+        }
+
+        // Flag tokens sent close to their expiry
+        for (String note : outcome.notes()) {
+            annotations = annotate(annotations, note);
         }
 
         // If no CAPTCHAs were solved, return the original request
         if (solvedTokens.isEmpty()) {
-            return RequestToBeSentAction.continueWith(requestToBeSent);
+            return new ResolvedRequest(request, annotations);
         }
 
         // Replace placeholders with solved tokens
-        HttpRequest modifiedRequest = replacePlaceholders(requestToBeSent, solvedTokens);
-        return RequestToBeSentAction.continueWith(modifiedRequest, requestToBeSent.annotations());
+        return new ResolvedRequest(replacePlaceholders(request, placeholders, solvedTokens), annotations);
     }
 
     /**
      * Implementation of HttpHandler interface for processing HTTP responses.
-     * Analyzes HTML responses for CAPTCHA presence using the ResponseAnalyzer.
+     * Queues HTML responses for CAPTCHA detection and returns without waiting for the analysis.
      */
     @Override
     public ResponseReceivedAction handleHttpResponseReceived(HttpResponseReceived responseReceived) {
@@ -101,6 +144,11 @@ public class HttpRequestModifier implements HttpHandler {
             return ResponseReceivedAction.continueWith(responseReceived);
         }
 
+        // Skip tools with auto-detection turned off, such as high-volume Scanner traffic
+        if (!settingsManager.getToolScope().isDetectionEnabled(responseReceived.toolSource().toolType().name())) {
+            return ResponseReceivedAction.continueWith(responseReceived);
+        }
+
         // Check Content-Type header for text/html to trigger auto-detection
         try {
             String contentType = null;
@@ -111,148 +159,342 @@ public class HttpRequestModifier implements HttpHandler {
                 }
             }
 
-            if (contentType != null && contentType.contains("text/html")) {
-                String responseBody = responseReceived.bodyToString();
-                String url = responseReceived.initiatingRequest().url();
-                if (responseBody != null && !responseBody.isEmpty()) {
-                    responseAnalyzer.analyze(url, responseBody);
-                }
+            if (contentType != null && contentType.contains("text/html") && responseReceived.body().length() > 0) {
+                // The body is decoded on the detection worker, not on Burp's response thread
+                detectionQueue.submit(responseReceived.initiatingRequest().url(), responseReceived::bodyToString);
             }
         } catch (Exception e) {
-            logger.error("HttpRequestModifier", "Error analyzing response: " + e.getMessage(), e);
+            logger.error("HttpRequestModifier", "Error queueing response for analysis: " + e.getMessage(), e);
         }
 
         return ResponseReceivedAction.continueWith(responseReceived);
     }
 
     /**
-     * Solve a CAPTCHA using the ServiceManager's provider-based solve method
-     * @param captchaRequest CAPTCHA request from placeholder parser
-     * @return Solved token or null if failed
-     * @throws CaptchaSolverException If solving fails
+     * Solve all placeholders of a request concurrently, admitted through the solver pool, so the request
+     * waits for the slowest solve rather than the sum of all solves. Placeholders describing
+     * the same challenge are solved once and share the token; placeholders selecting different
+     * fields of one multi-field solution (GeeTest, AWS WAF) share that solve too, and the
+     * solution is parsed once for all of them. Failed placeholders are skipped.
+     * Each challenge gets a deadline from its timeout_seconds parameter or the solve timeout;
+     * if the pool turns the request away or a deadline passes, nothing is solved and the
+     * outcome carries a note explaining why.
+     * @param placeholders Placeholders found in the request
+     * @param fromIntruder Whether the request comes from Intruder, which drives token prefetching
+     * @return Placeholders mapped to solved tokens, or a note if the request is released unsolved
      */
-    private String solveCaptcha(CaptchaRequest captchaRequest) throws CaptchaSolverException {
-        // Build a SolveRequest from the CaptchaRequest
-        CaptchaType captchaType = captchaRequest.captchaType();
-        SolveRequest solveRequest = new SolveRequest(
-                "", // API key will be filled by ServiceManager per provider
-                captchaType.getCode(),
-                captchaRequest.siteKey(),
-                captchaRequest.url(),
-                captchaRequest.additionalParams()
-        );
-
-        long startTime = System.currentTimeMillis();
+    private SolveOutcome solvePlaceholders(List<PlaceholderLocation> placeholders, boolean fromIntruder) {
+        // Group occurrences by the challenge they describe, whatever solution field they select
+        Map<CaptchaRequest, List<PlaceholderLocation>> placeholdersByRequest = new LinkedHashMap<>();
+        for (PlaceholderLocation placeholder : placeholders) {
+            placeholdersByRequest
+                    .computeIfAbsent(placeholder.captchaRequest().withoutField(), key -> new ArrayList<>())
+                    .add(placeholder);
+        }
+
+        Map<String, String> solvedTokens = new HashMap<>();
+        List<CaptchaRequest> requests = new ArrayList<>(placeholdersByRequest.keySet());
+
+        // Intruder traffic is bursty: let the pool measure its rate and solve ahead of it
+        if (fromIntruder) {
+            requests.forEach(captchaResolver::recordDemand);
+        }
+
+        // Deadlines start now, so time spent waiting for a solver thread counts against them
+        List<Deadline> deadlines = new ArrayList<>();
+        for (CaptchaRequest captchaRequest : requests) {
+            deadlines.add(captchaResolver.deadlineFor(captchaRequest));
+        }
+
+        // Each solve holds a pool slot until it completes, but waits on provider polling without holding a thread
+        TaskStrategy strategy = settingsManager.getTaskStrategy();
+        List<CompletableFuture<String>> solves = new ArrayList<>();
         try {
-            String token = serviceManager.solve(solveRequest);
-            long endTime = System.currentTimeMillis();
-
-            // Record statistics
-            statisticsCollector.recordSolveAttempt(
-                    captchaType,
-                    "provider",
-                    true,
-                    endTime - startTime
-            );
-
-            return token;
-        } catch (CaptchaSolverException e) {
-            long endTime = System.currentTimeMillis();
-
-            // Record failed attempt
-            statisticsCollector.recordSolveAttempt(
-                    captchaType,
-                    "provider",
-                    false,
-                    endTime - startTime
-            );
-
-            throw e;
+            for (int i = 0; i < requests.size(); i++) {
+                CaptchaRequest captchaRequest = requests.get(i);
+                Deadline deadline = deadlines.get(i);
+                CompletableFuture<String> solve = threadManager.submitAsync(
+                        () -> captchaResolver.resolveAsync(captchaRequest, deadline), strategy,
+                        deadline.remainingMillis());
+                if (solve == null) {
+                    // Not admitted: forward the request unmodified instead of holding Burp's thread
+                    cancelSolves(solves);
+                    logger.warning("HttpRequestModifier", "Solver pool saturated, forwarding request unmodified");
+                    return SolveOutcome.released(deadline.isExpired()
+                            ? "CAPTCHA solve deadline passed while waiting for a solver thread"
+                            : "CAPTCHA solver pool saturated (" + strategy + ")");
+                }
+                solves.add(solve);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelSolves(solves);
+            logger.warning("HttpRequestModifier", "Interrupted while waiting for a solver thread");
+            return SolveOutcome.solved(solvedTokens, List.of());
         }
+
+        List<String> notes = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            CaptchaRequest captchaRequest = requests.get(i);
+            try {
+                String token = awaitSolve(solves.get(i), deadlines.get(i));
+                token = ensureFresh(captchaRequest, token, deadlines.get(i), notes);
+                putToken(solvedTokens, placeholdersByRequest.get(captchaRequest), token);
+            } catch (TimeoutException e) {
+                cancelSolves(solves);
+                return releaseAtDeadline(captchaRequest);
+            } catch (ExecutionException | CaptchaSolverException e) {
+                Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+                if (cause instanceof CaptchaTimeoutException) {
+                    cancelSolves(solves);
+                    return releaseAtDeadline(captchaRequest);
+                }
+                if (cause instanceof RejectedExecutionException) {
+                    // A paced solve found no free solver thread once its delay passed
+                    cancelSolves(solves);
+                    logger.warning("HttpRequestModifier", "Solver pool saturated, forwarding request unmodified");
+                    return SolveOutcome.released("CAPTCHA solver pool saturated (" + strategy + ")");
+                }
+                // Failed to solve CAPTCHA, continue with next placeholder
+                logger.warning("HttpRequestModifier", "Failed to solve CAPTCHA: " + cause.getMessage());
+            } catch (CancellationException e) {
+                // Cancelled from the settings tab: forward the request unmodified
+                cancelSolves(solves);
+                logger.warning("HttpRequestModifier", "CAPTCHA solves cancelled, forwarding request unmodified");
+                return SolveOutcome.released("CAPTCHA solves cancelled");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancelSolves(solves);
+                logger.warning("HttpRequestModifier", "Interrupted while waiting for CAPTCHA solutions");
+                break;
+            }
+        }
+
+        return SolveOutcome.solved(solvedTokens, notes);
     }
 
     /**
-     * Replace placeholders in a request with solved tokens
-     * @param request Original request
-     * @param solvedTokens Map of placeholders to solved tokens
-     * @return Modified request
+     * Resolve a challenge again in place of a stale token, within the challenge's deadline
+     * @param captchaRequest Challenge the token was solved for
+     * @param staleToken Stale token
+     * @param deadline Deadline of the challenge
+     * @return New token
+     * @throws CaptchaSolverException If the re-solve is not admitted or fails, or the deadline passes
      */
-    private HttpRequest replacePlaceholders(HttpRequest request, Map<String, String> solvedTokens) {
-        // Start with the original request
-        HttpRequest modifiedRequest = request;
-
-        // Replace placeholders in URL
-        String url = modifiedRequest.url();
-        if (url != null) {
-            boolean urlModified = false;
-            for (Map.Entry<String, String> entry : solvedTokens.entrySet()) {
-                if (url.contains(entry.getKey())) {
-                    url = url.replace(entry.getKey(), entry.getValue());
-                    urlModified = true;
+    private String resolveAgain(CaptchaRequest captchaRequest, String staleToken, Deadline deadline)
+            throws CaptchaSolverException {
+        CompletableFuture<String> solve = null;
+        try {
+            solve = threadManager.submitAsync(
+                    () -> captchaResolver.resolveAgainAsync(captchaRequest, staleToken, deadline),
+                    settingsManager.getTaskStrategy(), deadline.remainingMillis());
+            if (solve == null) {
+                if (deadline.isExpired()) {
+                    throw new CaptchaTimeoutException("Deadline passed while waiting for a solver thread");
                 }
+                throw new CaptchaSolverException("Solver pool saturated, expired token not solved again");
             }
-            if (urlModified) {
-                String path = url;
-                // Extract path+query from full URL for withPath()
-                int schemeEnd = url.indexOf("://");
-                if (schemeEnd >= 0) {
-                    int pathStart = url.indexOf('/', schemeEnd + 3);
-                    if (pathStart >= 0) {
-                        path = url.substring(pathStart);
-                    }
-                }
-                modifiedRequest = modifiedRequest.withPath(path);
+            return awaitSolve(solve, deadline);
+        } catch (TimeoutException e) {
+            cancelSolves(List.of(solve));
+            throw new CaptchaTimeoutException("Deadline passed while solving an expired token again");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof CaptchaSolverException cause) {
+                throw cause;
             }
-        }
-
-        // Replace placeholders in body
-        String body = modifiedRequest.bodyToString();
-        if (body != null && !body.isEmpty()) {
-            for (Map.Entry<String, String> entry : solvedTokens.entrySet()) {
-                body = body.replace(entry.getKey(), entry.getValue());
+            if (e.getCause() instanceof RejectedExecutionException) {
+                throw new CaptchaSolverException("Solver pool saturated, expired token not solved again");
             }
-            modifiedRequest = modifiedRequest.withBody(body);
+            throw new CaptchaSolverException("Solving an expired token again failed: " + e.getCause().getMessage(),
+                    e.getCause());
+        } catch (CancellationException e) {
+            throw new CaptchaSolverException("Solving an expired token again was cancelled", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (solve != null) {
+                cancelSolves(List.of(solve));
+            }
+            throw new CaptchaSolverException("Interrupted while solving an expired token again", e);
         }
+    }
 
-        // Replace placeholders in headers
-        List<HttpHeader> originalHeaders = modifiedRequest.headers();
-        List<HttpHeader> updatedHeaders = new ArrayList<>();
-        boolean headersModified = false;
+    /**
+     * Wait for an admitted solve within the deadline
+     * @param solve Admitted solve
+     * @param deadline Deadline of the challenge
+     * @return Solved token
+     */
+    private static String awaitSolve(CompletableFuture<String> solve, Deadline deadline)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        return solve.get(deadline.remainingMillis(), TimeUnit.MILLISECONDS);
+    }
 
-        for (HttpHeader header : originalHeaders) {
-            String value = header.value();
-            boolean headerModified = false;
+    /**
+     * Cancel admitted solves, freeing their pool slots
+     * @param solves Admitted solves
+     */
+    private static void cancelSolves(List<CompletableFuture<String>> solves) {
+        solves.forEach(solve -> solve.cancel(true));
+    }
 
-            for (Map.Entry<String, String> entry : solvedTokens.entrySet()) {
-                if (value.contains(entry.getKey())) {
-                    value = value.replace(entry.getKey(), entry.getValue());
-                    headerModified = true;
-                }
+    /**
+     * Check a token's remaining lifetime just before injection. A token that expired while
+     * queued, pooled or reused is resolved again, admitted through the solver pool like the
+     * first solve; one close to expiry is sent with a note.
+     * @param captchaRequest Challenge the token was solved for
+     * @param token Solved token
+     * @param deadline Deadline of the challenge, also bounding the re-solve
+     * @param notes Notes to attach to the request
+     * @return Token to inject
+     * @throws CaptchaSolverException If the re-solve fails or the deadline passes
+     */
+    private String ensureFresh(CaptchaRequest captchaRequest, String token, Deadline deadline, List<String> notes)
+            throws CaptchaSolverException {
+        TokenFreshness.Freshness freshness = captchaResolver.getTokenFreshness().check(token);
+        switch (freshness.status()) {
+            case STALE -> {
+                logger.warning("HttpRequestModifier", captchaRequest.captchaType() +
+                        " token expired before it could be sent, solving again");
+                return resolveAgain(captchaRequest, token, deadline);
             }
-
-            if (headerModified) {
-                updatedHeaders.add(HttpHeader.httpHeader(header.name(), value));
-                headersModified = true;
-            } else {
-                updatedHeaders.add(header);
+            case NEAR_EXPIRY -> {
+                long secondsLeft = freshness.remainingMs() / 1000;
+                logger.warning("HttpRequestModifier", captchaRequest.captchaType() + " token sent with " +
+                        secondsLeft + "s of its lifetime left");
+                notes.add("CAPTCHA token near expiry (" + captchaRequest.captchaType() + ", " + secondsLeft + "s left)");
+                return token;
+            }
+            default -> {
+                return token;
             }
         }
+    }
 
-        if (headersModified) {
-            // Create a new request with all original headers removed
-            HttpRequest tempRequest = modifiedRequest;
-            for (HttpHeader header : originalHeaders) {
-                tempRequest = tempRequest.withRemovedHeader(header.name());
-            }
+    private SolveOutcome releaseAtDeadline(CaptchaRequest captchaRequest) {
+        int timeoutSeconds = captchaRequest.timeoutSeconds(settingsManager.getSolveTimeout());
+        logger.warning("HttpRequestModifier", "Solve deadline of " + timeoutSeconds + "s passed for " +
+                captchaRequest.captchaType() + ", forwarding request unmodified");
+        return SolveOutcome.released("CAPTCHA solve deadline passed (" + captchaRequest.captchaType() +
+                ", " + timeoutSeconds + "s)");
+    }
 
-            // Add the updated headers
-            for (HttpHeader header : updatedHeaders) {
-                tempRequest = tempRequest.withAddedHeader(header);
+    /**
+     * Map every placeholder of one challenge to the solution field it selects
+     */
+    private void putToken(Map<String, String> solvedTokens, List<PlaceholderLocation> placeholders, String token) {
+        if (token == null) {
+            return;
+        }
+        CaptchaSolution solution = CaptchaSolution.parse(token);
+        for (PlaceholderLocation placeholder : placeholders) {
+            String field = placeholder.captchaRequest().field();
+            String value = solution.select(field);
+            if (value == null) {
+                logger.warning("HttpRequestModifier", "Solution has no field '" + field + "', available: " +
+                        solution.fields().keySet());
+                continue;
             }
+            solvedTokens.put(placeholder.placeholder(), value);
+        }
+    }
+
+    /**
+     * Add a note to the request annotations, keeping any existing notes
+     */
+    private static Annotations annotate(Annotations annotations, String note) {
+        String message = "reSolver: " + note;
+        return annotations.withNotes(annotations.hasNotes() ? annotations.notes() + "\n" + message : message);
+    }
+
+    /**
+     * Request after placeholder resolution
+     * @param request Request to send
+     * @param annotations Annotations to attach
+     */
+    public record ResolvedRequest(HttpRequest request, Annotations annotations) {
+    }
+
+    /**
+     * Result of solving the placeholders of one request
+     * @param solvedTokens Placeholders mapped to solved tokens
+     * @param releaseNote Why the request is forwarded unsolved, or null
+     * @param notes Notes to attach to a solved request, such as tokens close to expiry
+     */
+    private record SolveOutcome(Map<String, String> solvedTokens, String releaseNote, List<String> notes) {
+
+        static SolveOutcome solved(Map<String, String> solvedTokens, List<String> notes) {
+            return new SolveOutcome(solvedTokens, null, notes);
+        }
 
-            modifiedRequest = tempRequest;
+        static SolveOutcome released(String releaseNote) {
+            return new SolveOutcome(Map.of(), releaseNote, List.of());
         }
+    }
 
-        return modifiedRequest;
+    /**
+     * Replace placeholders in a request with solved tokens.
+     * Each part is rewritten in one pass from the offsets recorded by the parser, and
+     * changed headers are applied with a single rebuild of the header list.
+     * @param request Original request
+     * @param placeholders Placeholder locations found in the request
+     * @param solvedTokens Map of placeholders to solved tokens
+     * @return Modified request
+     */
+    private HttpRequest replacePlaceholders(HttpRequest request, List<PlaceholderLocation> placeholders,
+                                            Map<String, String> solvedTokens) {
+        return PlaceholderRewriter.rewrite(request, placeholders, solvedTokens, MontoyaRequestModel.INSTANCE);
+    }
+
+    /**
+     * Montoya requests as seen by the placeholder rewrite
+     */
+    private enum MontoyaRequestModel implements PlaceholderRewriter.RequestModel<HttpRequest, HttpHeader> {
+        INSTANCE;
+
+        @Override
+        public String url(HttpRequest request) {
+            return request.url();
+        }
+
+        @Override
+        public HttpRequest withPath(HttpRequest request, String path) {
+            return request.withPath(path);
+        }
+
+        @Override
+        public byte[] body(HttpRequest request) {
+            return request.body().getBytes();
+        }
+
+        @Override
+        public HttpRequest withBody(HttpRequest request, byte[] body) {
+            // Burp updates Content-Length to the new body
+            return request.withBody(ByteArray.byteArray(body));
+        }
+
+        @Override
+        public List<HttpHeader> headers(HttpRequest request) {
+            return request.headers();
+        }
+
+        @Override
+        public String headerName(HttpHeader header) {
+            return header.name();
+        }
+
+        @Override
+        public String headerValue(HttpHeader header) {
+            return header.value();
+        }
+
+        @Override
+        public HttpHeader header(String name, String value) {
+            return HttpHeader.httpHeader(name, value);
+        }
+
+        @Override
+        public HttpRequest withHeaders(HttpRequest request, List<HttpHeader> headers) {
+            return request.withRemovedHeaders(request.headers()).withAddedHeaders(headers);
+        }
     }
 }
@@ -0,0 +1,133 @@
+package cli.li.resolver.http;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import cli.li.resolver.captcha.model.CaptchaRequest;
+
+/**
+ * Bounded cache from placeholder text to its parsed CAPTCHA request.
+ * Intruder and Repeater resend the same placeholder many times; a hit skips the regex
+ * groups, type lookup and parameter parsing. Lookups are lock-free, and once the
+ * cache is full a miss evicts the least recently used placeholder.
+ */
+public class PlaceholderCache {
+    static final int DEFAULT_CAPACITY = 1024;
+
+    private final int capacity;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // Logical clock ordering accesses for LRU eviction
+    private final AtomicLong ticks = new AtomicLong(0);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public PlaceholderCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor with custom capacity
+     * @param capacity Maximum number of cached placeholders
+     */
+    PlaceholderCache(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Get the parsed request for a placeholder
+     * @param placeholder Full placeholder text
+     * @return Cached request, or null if the placeholder has not been parsed yet
+     */
+    public CaptchaRequest get(String placeholder) {
+        Entry entry = entries.get(placeholder);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        entry.lastUsed = ticks.incrementAndGet();
+        hits.increment();
+        return entry.request;
+    }
+
+    /**
+     * Cache the parsed request for a placeholder, evicting the least recently used one when full
+     * @param placeholder Full placeholder text
+     * @param request Parsed CAPTCHA request, shared between all requests carrying the placeholder
+     */
+    public void put(String placeholder, CaptchaRequest request) {
+        if (entries.size() >= capacity && !entries.containsKey(placeholder)) {
+            evictLeastRecentlyUsed();
+        }
+        entries.put(placeholder, new Entry(request, ticks.incrementAndGet()));
+    }
+
+    private void evictLeastRecentlyUsed() {
+        String eldest = null;
+        long eldestUse = Long.MAX_VALUE;
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            long lastUsed = entry.getValue().lastUsed;
+            if (lastUsed < eldestUse) {
+                eldestUse = lastUsed;
+                eldest = entry.getKey();
+            }
+        }
+        if (eldest != null) {
+            entries.remove(eldest);
+        }
+    }
+
+    /**
+     * Get the number of cached placeholders
+     * @return Cache size
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Get the number of placeholders served from the cache
+     * @return Hit count
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Get the number of placeholders that had to be parsed
+     * @return Miss count
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Get the share of placeholders served from the cache
+     * @return Hit rate (0-1)
+     */
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total > 0 ? (double) hitCount / total : 0;
+    }
+
+    /**
+     * Reset hit and miss counters
+     */
+    public void resetStatistics() {
+        hits.reset();
+        misses.reset();
+    }
+
+    private static final class Entry {
+        private final CaptchaRequest request;
+        private volatile long lastUsed;
+
+        Entry(CaptchaRequest request, long lastUsed) {
+            this.request = request;
+            this.lastUsed = lastUsed;
+        }
+    }
+}
@@ -3,9 +3,11 @@ package cli.li.resolver.http;
 import cli.li.resolver.captcha.model.CaptchaRequest;
 
 /**
- * Class representing a placeholder location in a request
+ * Class representing a placeholder location in a request.
+ * Start and end indexes are byte offsets into the body, or char offsets into the URL or
+ * the header value, depending on the location type; headerIndex is the header position, or -1 outside headers.
  */
 public record PlaceholderLocation(String placeholder, CaptchaRequest captchaRequest,
-                                  PlaceholderLocationType locationType, String headerName, int startIndex,
-                                  int endIndex) {
+                                  PlaceholderLocationType locationType, String headerName, int headerIndex,
+                                  int startIndex, int endIndex) {
 }
@@ -6,18 +6,25 @@ import java.util.List;
 import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.nio.charset.StandardCharsets;
 
+import burp.api.montoya.core.ByteArray;
 import burp.api.montoya.http.message.HttpHeader;
 import burp.api.montoya.http.message.requests.HttpRequest;
 
 import cli.li.resolver.logger.LoggerService;
+import cli.li.resolver.settings.SettingsManager;
 import cli.li.resolver.captcha.model.CaptchaType;
 import cli.li.resolver.captcha.model.CaptchaRequest;
 
 /**
- * Parser for CAPTCHA placeholders in HTTP requests
+ * Parser for CAPTCHA placeholders in HTTP requests.
+ * Placeholders are located with literal searches and parsed once; repeated placeholder
+ * text is served from a {@link PlaceholderCache}.
  */
 public class PlaceholderParser {
+    private final SettingsManager settingsManager;
+    private final PlaceholderCache cache = new PlaceholderCache();
     private final LoggerService logger;
 
     // Regex pattern for CAPTCHA placeholder: {{CAPTCHA[:]TYPE[:]SITEKEY[:]URL[:][OPTIONAL_PARAMS]}}
@@ -25,52 +32,74 @@ public class PlaceholderParser {
             "\\{\\{CAPTCHA\\[:\\]([^\\[:\\]]+)\\[:\\]([^\\[:\\]]+)\\[:\\]([^\\[\\]\\}]+)(?:\\[:\\]([^\\}]+))?\\}\\}"
     );
 
-    public PlaceholderParser() {
+    // Placeholders end at the first closing braces after the marker
+    private static final String CLOSING = "}}";
+    private static final byte[] CLOSING_BYTES = CLOSING.getBytes(StandardCharsets.US_ASCII);
+
+    public PlaceholderParser(SettingsManager settingsManager) {
+        this.settingsManager = settingsManager;
         this.logger = LoggerService.getInstance();
         logger.info("PlaceholderParser", "Placeholder parser initialized");
     }
 
     /**
-     * Find all placeholders in a request
+     * Find all placeholders in a request.
+     * The body is scanned according to the {@link BodyScanPolicy} and only up to the
+     * configured maximum scan length; content beyond it is never copied or decoded.
      * @param request HTTP request
      * @return List of placeholder locations with their parsed parameters
      */
     public List<PlaceholderLocation> findPlaceholders(HttpRequest request) {
-        List<PlaceholderLocation> locations = new ArrayList<>();
         String url = request.url();
+        List<HttpHeader> headers = request.headers();
+        byte[] body = scannableBody(request);
+
+        // Fast reject: most traffic carries no marker, so skip decoding and regex work entirely
+        boolean markerInBody = PlaceholderScanner.containsMarker(body);
+        if (!markerInBody && !url.contains(PlaceholderScanner.MARKER) && !hasMarker(headers)) {
+            return List.of();
+        }
+
+        List<PlaceholderLocation> locations = new ArrayList<>();
         String truncatedUrl = url.length() > 100 ? url.substring(0, 100) + "..." : url;
 
         logger.debug("PlaceholderParser", "Searching for CAPTCHA placeholders in request to: " + truncatedUrl);
 
-        // Check in request body
-        String body = request.bodyToString();
-        if (body != null && !body.isEmpty()) {
-            Matcher matcher = PLACEHOLDER_PATTERN.matcher(body);
-            while (matcher.find()) {
-                PlaceholderLocation location = parsePlaceholder(matcher, PlaceholderLocationType.BODY);
-                if (location == null) continue;
-                locations.add(location);
-                logger.info("PlaceholderParser", "Found CAPTCHA placeholder in body: " + location.captchaRequest().captchaType() +
-                        " for siteKey: " + location.captchaRequest().siteKey());
+        // Check in request body, matching on raw bytes so offsets can be used for byte splicing
+        if (markerInBody) {
+            for (BodyScanPolicy.Range range : BodyScanPolicy.scanRanges(request.headerValue("Content-Type"), body)) {
+                int start = PlaceholderScanner.indexOfMarker(body, range.start(), range.end());
+                while (start >= 0) {
+                    int close = PlaceholderScanner.indexOf(body, CLOSING_BYTES, start, range.end());
+                    if (close < 0) break;
+                    int end = close + CLOSING_BYTES.length;
+                    // Decode the placeholder as UTF-8 so non-ASCII parameter values parse as typed
+                    PlaceholderLocation location = resolvePlaceholder(
+                            new String(body, start, end - start, StandardCharsets.UTF_8),
+                            PlaceholderLocationType.BODY, null, -1, start, end);
+                    if (location != null) {
+                        locations.add(location);
+                        logger.info("PlaceholderParser", "Found CAPTCHA placeholder in body: " +
+                                location.captchaRequest().captchaType() + " for siteKey: " +
+                                location.captchaRequest().siteKey());
+                    }
+                    start = PlaceholderScanner.indexOfMarker(body, location != null ? end : start + 1, range.end());
+                }
             }
         }
 
         // Check in URL
-        Matcher urlMatcher = PLACEHOLDER_PATTERN.matcher(url);
-        while (urlMatcher.find()) {
-            PlaceholderLocation location = parsePlaceholder(urlMatcher, PlaceholderLocationType.URL);
-            if (location == null) continue;
+        for (PlaceholderLocation location : findInText(url, PlaceholderLocationType.URL, null, -1)) {
             locations.add(location);
             logger.info("PlaceholderParser", "Found CAPTCHA placeholder in URL: " + location.captchaRequest().captchaType() +
                     " for siteKey: " + location.captchaRequest().siteKey());
         }
 
         // Check in headers
-        for (HttpHeader header : request.headers()) {
-            Matcher headerMatcher = PLACEHOLDER_PATTERN.matcher(header.value());
-            while (headerMatcher.find()) {
-                PlaceholderLocation location = parsePlaceholder(headerMatcher, PlaceholderLocationType.HEADER, header.name());
-                if (location == null) continue;
+        for (int i = 0; i < headers.size(); i++) {
+            HttpHeader header = headers.get(i);
+            for (PlaceholderLocation location : findInText(header.value(), PlaceholderLocationType.HEADER,
+                    header.name(), i)) {
                 locations.add(location);
                 logger.info("PlaceholderParser", "Found CAPTCHA placeholder in header '" + header.name() + "': " +
                         location.captchaRequest().captchaType() + " for siteKey: " + location.captchaRequest().siteKey());
@@ -87,24 +116,111 @@ public class PlaceholderParser {
     }
 
     /**
-     * Parse a placeholder from a matcher
-     * @param matcher Regex matcher with a match
+     * Get the part of the request body that may be scanned: nothing for binary or compressed
+     * bodies, otherwise at most the configured maximum scan length
+     * @param request HTTP request
+     * @return Body bytes to scan, empty if the body is skipped
+     */
+    private byte[] scannableBody(HttpRequest request) {
+        ByteArray body = request.body();
+        int length = body != null ? body.length() : 0;
+        if (length == 0 || !BodyScanPolicy.isScannable(request.headerValue("Content-Type"),
+                request.headerValue("Content-Encoding"))) {
+            return new byte[0];
+        }
+        int maxScanLength = settingsManager.getMaxBodyScanKb() * 1024;
+        if (length > maxScanLength) {
+            logger.debug("PlaceholderParser", "Request body of " + length + " bytes exceeds the scan limit, " +
+                    "scanning the first " + maxScanLength + " bytes");
+            return body.subArray(0, maxScanLength).getBytes();
+        }
+        return body.getBytes();
+    }
+
+    private static boolean hasMarker(List<HttpHeader> headers) {
+        for (HttpHeader header : headers) {
+            if (header.value().contains(PlaceholderScanner.MARKER)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Find placeholders in a URL or header value
+     * @param text Text to search
      * @param locationType Location type
-     * @return Placeholder location
+     * @param headerName Header name (if location type is HEADER)
+     * @param headerIndex Header position in the request (if location type is HEADER)
+     * @return Placeholders found, in order
      */
-    private PlaceholderLocation parsePlaceholder(Matcher matcher, PlaceholderLocationType locationType) {
-        return parsePlaceholder(matcher, locationType, null);
+    private List<PlaceholderLocation> findInText(String text, PlaceholderLocationType locationType,
+                                                 String headerName, int headerIndex) {
+        List<PlaceholderLocation> locations = new ArrayList<>();
+        int start = text.indexOf(PlaceholderScanner.MARKER);
+        while (start >= 0) {
+            int close = text.indexOf(CLOSING, start);
+            if (close < 0) break;
+            int end = close + CLOSING.length();
+            PlaceholderLocation location = resolvePlaceholder(text.substring(start, end), locationType,
+                    headerName, headerIndex, start, end);
+            if (location != null) {
+                locations.add(location);
+            }
+            start = text.indexOf(PlaceholderScanner.MARKER, location != null ? end : start + 1);
+        }
+        return locations;
     }
 
     /**
-     * Parse a placeholder from a matcher
-     * @param matcher Regex matcher with a match
+     * Resolve a candidate placeholder, from the cache or by parsing it.
+     * A placeholder ends at the first closing braces after its marker, since neither its URL
+     * nor its parameters may contain a brace.
+     * @param placeholder Candidate placeholder text, from the marker to the closing braces
      * @param locationType Location type
      * @param headerName Header name (if location type is HEADER)
-     * @return Placeholder location
+     * @param headerIndex Header position in the request (if location type is HEADER)
+     * @param startIndex Start offset of the placeholder within its location
+     * @param endIndex End offset of the placeholder within its location
+     * @return Placeholder location, or null if the text is not a valid placeholder
      */
-    private PlaceholderLocation parsePlaceholder(Matcher matcher, PlaceholderLocationType locationType, String headerName) {
-        String fullMatch = matcher.group(0);
+    private PlaceholderLocation resolvePlaceholder(String placeholder, PlaceholderLocationType locationType,
+                                                   String headerName, int headerIndex, int startIndex, int endIndex) {
+        CaptchaRequest captchaRequest = parsePlaceholder(placeholder);
+        if (captchaRequest == null) {
+            return null;
+        }
+        return new PlaceholderLocation(placeholder, captchaRequest, locationType, headerName, headerIndex,
+                startIndex, endIndex);
+    }
+
+    /**
+     * Parse a single placeholder, such as the base value of an Intruder payload position
+     * @param placeholder Placeholder text, from the marker to the closing braces
+     * @return Parsed CAPTCHA request, or null if the text is not a valid placeholder
+     */
+    public CaptchaRequest parsePlaceholder(String placeholder) {
+        CaptchaRequest captchaRequest = cache.get(placeholder);
+        if (captchaRequest == null) {
+            Matcher matcher = PLACEHOLDER_PATTERN.matcher(placeholder);
+            if (!matcher.matches()) {
+                return null;
+            }
+            captchaRequest = parseRequest(matcher);
+            if (captchaRequest == null) {
+                return null;
+            }
+            cache.put(placeholder, captchaRequest);
+        }
+        return captchaRequest;
+    }
+
+    /**
+     * Parse the CAPTCHA request described by a placeholder
+     * @param matcher Regex matcher matching the whole placeholder
+     * @return Parsed CAPTCHA request, or null if the CAPTCHA type is unknown
+     */
+    private CaptchaRequest parseRequest(Matcher matcher) {
         String captchaTypeStr = matcher.group(1);
         String siteKey = matcher.group(2);
         String url = matcher.group(3);
@@ -145,21 +261,14 @@ public class PlaceholderParser {
         }
 
         // Create CAPTCHA request with parameters in the correct order
-        CaptchaRequest captchaRequest = new CaptchaRequest(siteKey, url, additionalParams, captchaType);
-
-        PlaceholderLocation location = new PlaceholderLocation(
-                fullMatch,
-                captchaRequest,
-                locationType,
-                headerName,
-                matcher.start(),
-                matcher.end()
-        );
-
-        logger.debug("PlaceholderParser", "Placeholder parsed successfully: " +
-                captchaType + " in " + locationType +
-                (headerName != null ? " (header: " + headerName + ")" : ""));
-
-        return location;
+        return new CaptchaRequest(siteKey, url, additionalParams, captchaType);
+    }
+
+    /**
+     * Get the cache of parsed placeholders
+     * @return Placeholder cache
+     */
+    public PlaceholderCache getCache() {
+        return cache;
     }
 }
@@ -0,0 +1,233 @@
+package cli.li.resolver.http;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.HashMap;
+import java.util.ArrayList;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Offset-based placeholder substitution.
+ * Uses the start/end indexes recorded by the parser to build the rewritten text
+ * or body in a single pass instead of searching it once per solved token.
+ */
+public final class PlaceholderRewriter {
+
+    private PlaceholderRewriter() {
+    }
+
+    /**
+     * Immutable request the rewrite works on; every with* call returns a new request.
+     * Keeps the rewrite independent of the Burp API.
+     * @param <R> Request type
+     * @param <H> Header type
+     */
+    public interface RequestModel<R, H> {
+        String url(R request);
+
+        R withPath(R request, String path);
+
+        byte[] body(R request);
+
+        /**
+         * Replace the body, updating Content-Length to match
+         */
+        R withBody(R request, byte[] body);
+
+        List<H> headers(R request);
+
+        String headerName(H header);
+
+        String headerValue(H header);
+
+        H header(String name, String value);
+
+        /**
+         * Replace all headers of the request at once, keeping their order and duplicates
+         */
+        R withHeaders(R request, List<H> headers);
+    }
+
+    /**
+     * Replace solved placeholders in the URL, headers and body of a request.
+     * Changed headers are written back in a single header-list rebuild, and the body is
+     * replaced last so the Content-Length it sets is the one sent.
+     * @param request Request the placeholders were found in
+     * @param placeholders Placeholder locations, ordered by start index within each part
+     * @param solvedTokens Map of placeholders to solved tokens
+     * @param model Operations on the request type
+     * @param <R> Request type
+     * @param <H> Header type
+     * @return Rewritten request, or the request itself if nothing was replaced
+     */
+    public static <R, H> R rewrite(R request, List<PlaceholderLocation> placeholders,
+                                   Map<String, String> solvedTokens, RequestModel<R, H> model) {
+        List<PlaceholderLocation> bodyLocations = new ArrayList<>();
+        List<PlaceholderLocation> urlLocations = new ArrayList<>();
+        Map<Integer, List<PlaceholderLocation>> headerLocations = new TreeMap<>();
+        for (PlaceholderLocation placeholder : placeholders) {
+            switch (placeholder.locationType()) {
+                case BODY -> bodyLocations.add(placeholder);
+                case URL -> urlLocations.add(placeholder);
+                case HEADER -> headerLocations
+                        .computeIfAbsent(placeholder.headerIndex(), key -> new ArrayList<>())
+                        .add(placeholder);
+            }
+        }
+
+        R rewritten = request;
+
+        if (!urlLocations.isEmpty()) {
+            String url = model.url(request);
+            String rewrittenUrl = splice(url, urlLocations, solvedTokens);
+            if (!rewrittenUrl.equals(url)) {
+                rewritten = model.withPath(rewritten, extractPath(rewrittenUrl));
+            }
+        }
+
+        if (!headerLocations.isEmpty()) {
+            rewritten = rewriteHeaders(rewritten, headerLocations, solvedTokens, model);
+        }
+
+        if (!bodyLocations.isEmpty()) {
+            // Splice token bytes into the raw body, so binary and non-UTF-8 content is preserved
+            byte[] body = model.body(request);
+            byte[] rewrittenBody = splice(body, bodyLocations, solvedTokens);
+            if (rewrittenBody != body) {
+                rewritten = model.withBody(rewritten, rewrittenBody);
+            }
+        }
+
+        return rewritten;
+    }
+
+    /**
+     * Replace solved placeholders in header values and rebuild the header list once
+     * @param request Request whose headers hold the placeholders at their parsed positions
+     * @param locations Placeholder locations by header position
+     * @param solvedTokens Map of placeholders to solved tokens
+     * @param model Operations on the request type
+     * @return Request with rewritten headers, or the request itself if nothing was replaced
+     */
+    static <R, H> R rewriteHeaders(R request, Map<Integer, List<PlaceholderLocation>> locations,
+                                   Map<String, String> solvedTokens, RequestModel<R, H> model) {
+        List<H> headers = model.headers(request);
+        List<H> updatedHeaders = null;
+
+        for (Map.Entry<Integer, List<PlaceholderLocation>> entry : locations.entrySet()) {
+            H header = headers.get(entry.getKey());
+            String value = model.headerValue(header);
+            String rewrittenValue = splice(value, entry.getValue(), solvedTokens);
+            if (!rewrittenValue.equals(value)) {
+                if (updatedHeaders == null) {
+                    updatedHeaders = new ArrayList<>(headers);
+                }
+                updatedHeaders.set(entry.getKey(), model.header(model.headerName(header), rewrittenValue));
+            }
+        }
+
+        return updatedHeaders != null ? model.withHeaders(request, updatedHeaders) : request;
+    }
+
+    /**
+     * Extract path and query from a full URL
+     * @param url Full URL
+     * @return Path with query, or the URL itself if it has no scheme
+     */
+    static String extractPath(String url) {
+        int schemeEnd = url.indexOf("://");
+        if (schemeEnd >= 0) {
+            int pathStart = url.indexOf('/', schemeEnd + 3);
+            if (pathStart >= 0) {
+                return url.substring(pathStart);
+            }
+        }
+        return url;
+    }
+
+    /**
+     * Replace solved placeholders in a text using their recorded offsets.
+     * Locations must belong to this text and be ordered by start index, as returned
+     * by the parser; placeholders without a solved token are left untouched.
+     *
+     * @param source Text the locations were found in
+     * @param locations Placeholder locations within the text
+     * @param solvedTokens Map of placeholders to solved tokens
+     * @return Rewritten text, or the source itself if nothing was replaced
+     */
+    public static String splice(String source, List<PlaceholderLocation> locations, Map<String, String> solvedTokens) {
+        StringBuilder result = null;
+        int copied = 0;
+
+        for (PlaceholderLocation location : locations) {
+            String token = solvedTokens.get(location.placeholder());
+            // Skip unsolved placeholders and anything overlapping an earlier replacement
+            if (token == null || location.startIndex() < copied || location.endIndex() > source.length()) {
+                continue;
+            }
+            if (result == null) {
+                result = new StringBuilder(source.length() + token.length());
+            }
+            result.append(source, copied, location.startIndex()).append(token);
+            copied = location.endIndex();
+        }
+
+        if (result == null) {
+            return source;
+        }
+        return result.append(source, copied, source.length()).toString();
+    }
+
+    /**
+     * Replace solved placeholders in raw body bytes using their recorded byte offsets.
+     * The result is written into one buffer sized exactly for the output, so bytes around
+     * the placeholders are copied as-is and never decoded.
+     *
+     * @param source Body bytes the locations were found in
+     * @param locations Placeholder locations within the body, ordered by start index
+     * @param solvedTokens Map of placeholders to solved tokens
+     * @return Rewritten bytes, or the source itself if nothing was replaced
+     */
+    public static byte[] splice(byte[] source, List<PlaceholderLocation> locations, Map<String, String> solvedTokens) {
+        // First pass: pick the replacements and size the output
+        Map<String, byte[]> tokenBytes = new HashMap<>();
+        PlaceholderLocation[] applied = new PlaceholderLocation[locations.size()];
+        byte[][] replacements = new byte[locations.size()][];
+        int count = 0;
+        int copied = 0;
+        long size = source.length;
+
+        for (PlaceholderLocation location : locations) {
+            String token = solvedTokens.get(location.placeholder());
+            if (token == null || location.startIndex() < copied || location.endIndex() > source.length) {
+                continue;
+            }
+            byte[] bytes = tokenBytes.computeIfAbsent(token, key -> key.getBytes(StandardCharsets.UTF_8));
+            applied[count] = location;
+            replacements[count] = bytes;
+            count++;
+            size += bytes.length - (location.endIndex() - location.startIndex());
+            copied = location.endIndex();
+        }
+
+        if (count == 0) {
+            return source;
+        }
+
+        // Second pass: copy the untouched segments and the tokens
+        byte[] result = new byte[Math.toIntExact(size)];
+        int read = 0;
+        int written = 0;
+        for (int i = 0; i < count; i++) {
+            int segment = applied[i].startIndex() - read;
+            System.arraycopy(source, read, result, written, segment);
+            written += segment;
+            System.arraycopy(replacements[i], 0, result, written, replacements[i].length);
+            written += replacements[i].length;
+            read = applied[i].endIndex();
+        }
+        System.arraycopy(source, read, result, written, source.length - read);
+        return result;
+    }
+}
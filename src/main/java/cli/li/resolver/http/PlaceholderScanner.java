@@ -0,0 +1,115 @@
+package cli.li.resolver.http;
+
+import java.util.Arrays;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Byte-level scanner for the literal CAPTCHA placeholder marker.
+ * Works directly on raw message bytes so that requests without a marker
+ * can be rejected without decoding them into a String or running the regex.
+ */
+public final class PlaceholderScanner {
+
+    /**
+     * Literal prefix every CAPTCHA placeholder starts with
+     */
+    public static final String MARKER = "{{CAPTCHA";
+
+    private static final byte[] MARKER_BYTES = MARKER.getBytes(StandardCharsets.US_ASCII);
+
+    // Horspool shift table for the marker: distance from each byte's last position to the marker end
+    private static final int[] MARKER_SHIFT = new int[256];
+
+    static {
+        Arrays.fill(MARKER_SHIFT, MARKER_BYTES.length);
+        for (int i = 0; i < MARKER_BYTES.length - 1; i++) {
+            MARKER_SHIFT[MARKER_BYTES[i] & 0xFF] = MARKER_BYTES.length - 1 - i;
+        }
+    }
+
+    private PlaceholderScanner() {
+    }
+
+    /**
+     * Check whether the data contains the placeholder marker
+     * @param data Raw bytes to scan
+     * @return true if the marker is present
+     */
+    public static boolean containsMarker(byte[] data) {
+        return data != null && indexOfMarker(data, 0, data.length) >= 0;
+    }
+
+    /**
+     * Check whether a range of the data contains the placeholder marker
+     * @param data Raw bytes to scan
+     * @param from Start index (inclusive)
+     * @param to End index (exclusive)
+     * @return true if the marker is present in the range
+     */
+    public static boolean containsMarker(byte[] data, int from, int to) {
+        return data != null && indexOfMarker(data, from, to) >= 0;
+    }
+
+    /**
+     * Find the first occurrence of the placeholder marker in a range of the data.
+     * Uses a Boyer-Moore-Horspool skip table, so data without a marker is typically
+     * inspected once every few bytes rather than byte by byte.
+     *
+     * @param data Raw bytes to scan
+     * @param from Start index (inclusive)
+     * @param to End index (exclusive)
+     * @return Index of the marker, or -1 if not found
+     */
+    public static int indexOfMarker(byte[] data, int from, int to) {
+        int length = MARKER_BYTES.length;
+        int lastByte = MARKER_BYTES[length - 1];
+        int i = Math.max(from, 0);
+        int last = Math.min(to, data.length) - length;
+
+        while (i <= last) {
+            byte b = data[i + length - 1];
+            if (b == lastByte) {
+                int j = length - 2;
+                while (j >= 0 && data[i + j] == MARKER_BYTES[j]) {
+                    j--;
+                }
+                if (j < 0) {
+                    return i;
+                }
+            }
+            i += MARKER_SHIFT[b & 0xFF];
+        }
+        return -1;
+    }
+
+    /**
+     * Find the first occurrence of a short byte pattern in a range of the data.
+     * Scans for the first pattern byte and only compares the rest on a hit.
+     *
+     * @param data Raw bytes to scan
+     * @param pattern Pattern to look for (non-empty)
+     * @param from Start index (inclusive)
+     * @param to End index (exclusive)
+     * @return Index of the pattern, or -1 if not found
+     */
+    public static int indexOf(byte[] data, byte[] pattern, int from, int to) {
+        int start = Math.max(from, 0);
+        int end = Math.min(to, data.length);
+        int last = end - pattern.length;
+        byte first = pattern[0];
+
+        for (int i = start; i <= last; i++) {
+            if (data[i] != first) {
+                continue;
+            }
+            int j = 1;
+            while (j < pattern.length && data[i + j] == pattern[j]) {
+                j++;
+            }
+            if (j == pattern.length) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,30 @@
+package cli.li.resolver.http;
+
+import burp.api.montoya.http.sessions.ActionResult;
+import burp.api.montoya.http.sessions.SessionHandlingAction;
+import burp.api.montoya.http.sessions.SessionHandlingActionData;
+
+/**
+ * Session handling rule action that solves CAPTCHA placeholders and injects the tokens.
+ * Lets Burp session rules scope resolution to specific tools and hosts, so that with the
+ * global handler switched off, traffic outside the rule scope is not inspected at all.
+ */
+public class PlaceholderSessionAction implements SessionHandlingAction {
+    private final HttpRequestModifier requestModifier;
+
+    public PlaceholderSessionAction(HttpRequestModifier requestModifier) {
+        this.requestModifier = requestModifier;
+    }
+
+    @Override
+    public String name() {
+        return "reSolver: solve CAPTCHA placeholders";
+    }
+
+    @Override
+    public ActionResult performAction(SessionHandlingActionData actionData) {
+        HttpRequestModifier.ResolvedRequest resolved = requestModifier.resolvePlaceholders(
+                actionData.request(), actionData.annotations(), false);
+        return ActionResult.actionResult(resolved.request(), resolved.annotations());
+    }
+}
@@ -0,0 +1,101 @@
+package cli.li.resolver.intruder;
+
+import java.util.concurrent.Executor;
+
+import burp.api.montoya.intruder.GeneratedPayload;
+import burp.api.montoya.intruder.IntruderInsertionPoint;
+import burp.api.montoya.intruder.PayloadGenerator;
+
+import cli.li.resolver.logger.LoggerService;
+import cli.li.resolver.http.PlaceholderParser;
+import cli.li.resolver.service.TokenStream;
+import cli.li.resolver.service.CaptchaResolver;
+import cli.li.resolver.service.ServiceManager;
+import cli.li.resolver.settings.SettingsManager;
+import cli.li.resolver.captcha.model.CaptchaRequest;
+import cli.li.resolver.captcha.model.CaptchaSolution;
+
+/**
+ * Payload generator for one Intruder attack.
+ * The base value of the payload position is a CAPTCHA placeholder; on the first payload
+ * a token stream for it is started, and each payload is the next token to complete.
+ * The attack ends after the configured number of tokens, or when solving keeps failing.
+ */
+class TokenPayloadGenerator implements PayloadGenerator {
+    private final ServiceManager serviceManager;
+    private final CaptchaResolver captchaResolver;
+    private final PlaceholderParser placeholderParser;
+    private final SettingsManager settingsManager;
+    private final Executor solveExecutor;
+    private final LoggerService logger;
+
+    private TokenStream stream;
+    private String field;
+
+    TokenPayloadGenerator(ServiceManager serviceManager, CaptchaResolver captchaResolver,
+                          PlaceholderParser placeholderParser, SettingsManager settingsManager,
+                          Executor solveExecutor) {
+        this.serviceManager = serviceManager;
+        this.captchaResolver = captchaResolver;
+        this.placeholderParser = placeholderParser;
+        this.settingsManager = settingsManager;
+        this.solveExecutor = solveExecutor;
+        this.logger = LoggerService.getInstance();
+    }
+
+    @Override
+    public synchronized GeneratedPayload generatePayloadFor(IntruderInsertionPoint insertionPoint) {
+        if (stream == null && !startStream(insertionPoint.baseValue().toString().trim())) {
+            return GeneratedPayload.end();
+        }
+
+        try {
+            String token = stream.next();
+            if (token == null) {
+                logger.info("TokenPayloadGenerator", "Token stream finished after " + stream.getProduced() +
+                        " token(s), " + stream.getFailed() + " failed solve(s)");
+                return GeneratedPayload.end();
+            }
+            String value = CaptchaSolution.parse(token).select(field);
+            if (value == null) {
+                logger.warning("TokenPayloadGenerator", "Solution has no field '" + field + "'");
+                stream.close();
+                return GeneratedPayload.end();
+            }
+            return GeneratedPayload.payload(value);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stream.close();
+            return GeneratedPayload.end();
+        }
+    }
+
+    /**
+     * Start the token stream for the placeholder marked as the payload position
+     * @param baseValue Base value of the payload position
+     * @return false if there is nothing to solve
+     */
+    private boolean startStream(String baseValue) {
+        CaptchaRequest captchaRequest = placeholderParser.parsePlaceholder(baseValue);
+        if (captchaRequest == null) {
+            logger.warning("TokenPayloadGenerator", "Payload position does not hold a CAPTCHA placeholder: " +
+                    baseValue);
+            return false;
+        }
+        if (!serviceManager.hasConfiguredServices()) {
+            logger.warning("TokenPayloadGenerator", "No CAPTCHA provider configured, generating no payloads");
+            return false;
+        }
+
+        int count = settingsManager.getPayloadTokenCount();
+        int concurrency = settingsManager.getPayloadConcurrency();
+        field = captchaRequest.field();
+        CaptchaRequest challenge = captchaRequest.withoutField();
+        stream = new TokenStream(captchaResolver::solveLive, challenge, count, concurrency,
+                challenge.timeoutSeconds(settingsManager.getSolveTimeout()), solveExecutor,
+                captchaResolver.getTokenFreshness());
+        logger.info("TokenPayloadGenerator", "Generating " + count + " " + challenge.captchaType() +
+                " token(s) with " + concurrency + " solve(s) in flight");
+        return true;
+    }
+}
@@ -0,0 +1,53 @@
+package cli.li.resolver.intruder;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import burp.api.montoya.intruder.AttackConfiguration;
+import burp.api.montoya.intruder.PayloadGenerator;
+import burp.api.montoya.intruder.PayloadGeneratorProvider;
+
+import cli.li.resolver.http.PlaceholderParser;
+import cli.li.resolver.service.CaptchaResolver;
+import cli.li.resolver.service.ServiceManager;
+import cli.li.resolver.settings.SettingsManager;
+
+/**
+ * Intruder payload source producing fresh CAPTCHA tokens.
+ * Each attack gets its own generator, which solves the placeholder marked as the payload
+ * position with several solves in flight, so Intruder consumes tokens as they complete
+ * instead of each request thread blocking on its own solve.
+ */
+public class TokenPayloadGeneratorProvider implements PayloadGeneratorProvider {
+    private final ServiceManager serviceManager;
+    private final CaptchaResolver captchaResolver;
+    private final PlaceholderParser placeholderParser;
+    private final SettingsManager settingsManager;
+    private final ExecutorService solveExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public TokenPayloadGeneratorProvider(ServiceManager serviceManager, CaptchaResolver captchaResolver,
+                                         PlaceholderParser placeholderParser, SettingsManager settingsManager) {
+        this.serviceManager = serviceManager;
+        this.captchaResolver = captchaResolver;
+        this.placeholderParser = placeholderParser;
+        this.settingsManager = settingsManager;
+    }
+
+    @Override
+    public String displayName() {
+        return "reSolver: CAPTCHA tokens";
+    }
+
+    @Override
+    public PayloadGenerator providePayloadGenerator(AttackConfiguration attackConfiguration) {
+        return new TokenPayloadGenerator(serviceManager, captchaResolver, placeholderParser, settingsManager,
+                solveExecutor);
+    }
+
+    /**
+     * Stop solves still in flight for running attacks
+     */
+    public void shutdown() {
+        solveExecutor.shutdownNow();
+    }
+}
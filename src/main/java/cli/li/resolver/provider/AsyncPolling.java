@@ -0,0 +1,114 @@
+package cli.li.resolver.provider;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import cli.li.resolver.captcha.exception.CaptchaSolverException;
+
+/**
+ * Asynchronous execution of provider API calls.
+ * Blocking HTTP calls run on virtual threads, and waits are scheduled on the
+ * {@link PollScheduler} rather than slept, so an outstanding solve holds no thread
+ * while its task is being worked on by the provider.
+ */
+public final class AsyncPolling {
+
+    private static final ExecutorService IO = Executors.newVirtualThreadPerTaskExecutor();
+
+    private AsyncPolling() {
+    }
+
+    /**
+     * Blocking step of a solve, such as one provider API call
+     * @param <T> Result type
+     */
+    @FunctionalInterface
+    public interface IoTask<T> {
+        /**
+         * Run the step
+         * @return Step result; for polls, null while the result is not ready
+         * @throws Exception If the step fails
+         */
+        T run() throws Exception;
+    }
+
+    /**
+     * Run a blocking step on a virtual thread
+     * @param task Step to run
+     * @param <T> Result type
+     * @return Future completing with the step result, or exceptionally with a CaptchaSolverException
+     */
+    public static <T> CompletableFuture<T> call(IoTask<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        IO.execute(() -> {
+            if (result.isDone()) {
+                return;
+            }
+            try {
+                result.complete(task.run());
+            } catch (Throwable e) {
+                result.completeExceptionally(toSolverException(e));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Complete after a delay without holding a thread, for example before a retry
+     * @param delayMillis Delay in milliseconds
+     * @return Future completing after the delay
+     */
+    public static CompletableFuture<Void> delay(long delayMillis) {
+        return PollScheduler.getInstance().delay(delayMillis);
+    }
+
+    /**
+     * Wait for an asynchronous solve, for callers of the synchronous API.
+     * Interrupting the caller cancels the solve.
+     * @param future Solve in progress
+     * @param <T> Result type
+     * @return Solve result
+     * @throws CaptchaSolverException If the solve fails or the caller is interrupted
+     */
+    public static <T> T await(CompletableFuture<T> future) throws CaptchaSolverException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new CaptchaSolverException("CAPTCHA solving interrupted", e);
+        } catch (ExecutionException e) {
+            throw toSolverException(e.getCause());
+        }
+    }
+
+    /**
+     * Convert the failure of an asynchronous step into the exception the synchronous API throws
+     * @param error Failure, possibly wrapped by CompletableFuture
+     * @return The CaptchaSolverException itself, or one wrapping any other failure
+     */
+    public static CaptchaSolverException toSolverException(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof CaptchaSolverException solverException) {
+            return solverException;
+        }
+        if (cause instanceof InterruptedException) {
+            return new CaptchaSolverException("CAPTCHA solving interrupted", cause);
+        }
+        return new CaptchaSolverException("Error solving CAPTCHA: " + cause.getMessage(), cause);
+    }
+
+    /**
+     * Cancel blocking calls in progress
+     */
+    public static void shutdown() {
+        IO.shutdownNow();
+    }
+}
@@ -2,6 +2,7 @@ package cli.li.resolver.provider;
 
 import java.math.BigDecimal;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import cli.li.resolver.captcha.exception.CaptchaSolverException;
 
@@ -14,6 +15,26 @@ public interface CaptchaProvider {
     String displayName();
     Set<String> supportedTypes();
     String solve(SolveRequest request) throws CaptchaSolverException;
+
+    /**
+     * Solve a CAPTCHA within a deadline. Providers that poll for results should
+     * override this to stop polling when the deadline passes.
+     */
+    default String solve(SolveRequest request, Deadline deadline) throws CaptchaSolverException {
+        deadline.check("submitting the task");
+        return solve(request);
+    }
+
+    /**
+     * Solve a CAPTCHA asynchronously within a deadline. Providers that poll for results
+     * should override this to wait between polls without holding a thread; the default
+     * runs the synchronous solve on a virtual thread.
+     *
+     * @return Future completing with the token, or exceptionally with a CaptchaSolverException
+     */
+    default CompletableFuture<String> solveAsync(SolveRequest request, Deadline deadline) {
+        return AsyncPolling.call(() -> solve(request, deadline));
+    }
     BigDecimal fetchBalance(String apiKey) throws Exception;
     boolean isValidKeyFormat(String apiKey);
 }
@@ -0,0 +1,77 @@
+package cli.li.resolver.provider;
+
+import java.util.function.LongSupplier;
+
+import cli.li.resolver.captcha.exception.CaptchaTimeoutException;
+
+/**
+ * Point in time by which a solve must finish.
+ * Created once per request and passed through provider failover and polling,
+ * so every step only uses the time that is left.
+ */
+public final class Deadline {
+    private final long expiresAt;
+    private final LongSupplier clock;
+
+    private Deadline(long expiresAt, LongSupplier clock) {
+        this.expiresAt = expiresAt;
+        this.clock = clock;
+    }
+
+    /**
+     * Create a deadline the given number of seconds from now
+     * @param seconds Time budget in seconds
+     * @return Deadline
+     */
+    public static Deadline afterSeconds(int seconds) {
+        return after(seconds * 1000L, System::currentTimeMillis);
+    }
+
+    /**
+     * Create a deadline with an injectable time source
+     * @param millis Time budget in milliseconds
+     * @param clock Time source in milliseconds
+     * @return Deadline
+     */
+    static Deadline after(long millis, LongSupplier clock) {
+        return new Deadline(clock.getAsLong() + millis, clock);
+    }
+
+    /**
+     * Get the time left before the deadline
+     * @return Remaining milliseconds, 0 once the deadline has passed
+     */
+    public long remainingMillis() {
+        return Math.max(0, expiresAt - clock.getAsLong());
+    }
+
+    /**
+     * Check whether the deadline has passed
+     * @return true if no time is left
+     */
+    public boolean isExpired() {
+        return remainingMillis() <= 0;
+    }
+
+    /**
+     * Fail if the deadline has passed
+     * @param action Description of the step that would have run, for the error message
+     * @throws CaptchaTimeoutException If no time is left
+     */
+    public void check(String action) throws CaptchaTimeoutException {
+        if (isExpired()) {
+            throw new CaptchaTimeoutException("Solve deadline passed before " + action);
+        }
+    }
+
+    /**
+     * Sleep for the given time, cut short at the deadline
+     * @param millis Time to sleep in milliseconds
+     * @throws CaptchaTimeoutException If the deadline has already passed
+     * @throws InterruptedException If interrupted while sleeping
+     */
+    public void sleep(long millis) throws CaptchaTimeoutException, InterruptedException {
+        check("polling for the result");
+        Thread.sleep(Math.min(millis, remainingMillis()));
+    }
+}
@@ -0,0 +1,284 @@
+package cli.li.resolver.provider;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import cli.li.resolver.logger.LoggerService;
+import cli.li.resolver.settings.SettingsManager;
+
+/**
+ * Embedded HTTP receiver for results pushed by providers (2Captcha pingback, Anti-Captcha
+ * style callbackUrl). While it runs, providers pass a callback URL when creating tasks and
+ * the provider calls it as soon as a result is ready; the result completes the pending solve
+ * through the {@link PollScheduler} without waiting for the next poll. Polling continues as
+ * a fallback, so a callback that never arrives only costs the time polling would have taken.
+ * Callback URLs carry a random per-session secret, so only the providers given the URL can
+ * deliver results. Callback URLs are only handed out when a public URL under which providers
+ * reach the receiver is configured; without one the receiver listens on loopback only.
+ */
+public final class PingbackReceiver {
+    static final String PATH_PREFIX = "/resolver/";
+    // Largest callback body read
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+
+    private static PingbackReceiver instance;
+
+    /**
+     * Parser of the callbacks of one provider protocol
+     */
+    @FunctionalInterface
+    public interface PingbackParser {
+        /**
+         * Parse a callback
+         * @param fields Query and form fields of the callback
+         * @param body Raw callback body
+         * @return Task ID and outcome, or null if the callback carries no result
+         */
+        Pingback parse(Map<String, String> fields, String body);
+    }
+
+    /**
+     * Result delivered by a callback
+     * @param taskId Task ID assigned by the provider
+     * @param outcome Result of the task
+     */
+    public record Pingback(String taskId, PollScheduler.PollOutcome outcome) {
+    }
+
+    private final PollScheduler scheduler;
+    private final LoggerService logger;
+    private final String secret;
+    private final Map<String, PingbackParser> parsers = new ConcurrentHashMap<>();
+    private final AtomicLong rejected = new AtomicLong(0);
+    private HttpServer server;
+    private ExecutorService executor;
+    private int requestedPort;
+    private String requestedUrl;
+    private volatile int boundPort;
+    // Public base URL of the callbacks, or null if providers cannot reach the receiver
+    private volatile String baseUrl;
+
+    /**
+     * Get the shared receiver, which delivers to the shared poll scheduler
+     * @return Shared receiver
+     */
+    public static synchronized PingbackReceiver getInstance() {
+        if (instance == null) {
+            instance = new PingbackReceiver(PollScheduler.getInstance());
+        }
+        return instance;
+    }
+
+    /**
+     * Constructor
+     * @param scheduler Scheduler owning the tasks results are delivered to
+     */
+    PingbackReceiver(PollScheduler scheduler) {
+        this.scheduler = scheduler;
+        this.logger = LoggerService.getInstance();
+        byte[] random = new byte[16];
+        new SecureRandom().nextBytes(random);
+        this.secret = HexFormat.of().formatHex(random);
+    }
+
+    /**
+     * Start, restart or stop the receiver to match the pingback settings.
+     * A receiver already running with the same port and URL is left as it is.
+     * @param settings Settings manager
+     * @return true if the receiver runs as configured, false if it could not be started
+     */
+    public synchronized boolean configure(SettingsManager settings) {
+        if (!settings.isPingbackEnabled()) {
+            stop();
+            return true;
+        }
+        int port = settings.getPingbackPort();
+        String publicUrl = settings.getPingbackPublicUrl();
+        if (server != null && port == requestedPort && publicUrl.equals(requestedUrl)) {
+            return true;
+        }
+        try {
+            start(port, publicUrl);
+            return true;
+        } catch (IOException e) {
+            logger.error("PingbackReceiver", "Could not listen for provider callbacks on port " + port +
+                    ", results will be polled: " + e.getMessage(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Start receiving callbacks, restarting if already running
+     * @param port Port to listen on, or 0 for any free port
+     * @param publicUrl URL under which providers reach the port, or blank to listen on loopback only
+     * @throws IOException If the port cannot be bound
+     */
+    public synchronized void start(int port, String publicUrl) throws IOException {
+        stop();
+        boolean reachable = publicUrl != null && !publicUrl.isBlank();
+        // Without a public URL no remote provider can call back, so nothing but loopback is exposed
+        InetSocketAddress address = reachable
+                ? new InetSocketAddress(port) : new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+        HttpServer httpServer = HttpServer.create(address, 0);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        httpServer.setExecutor(executor);
+        httpServer.createContext(PATH_PREFIX, this::handle);
+        httpServer.start();
+        server = httpServer;
+        requestedPort = port;
+        requestedUrl = publicUrl;
+
+        boundPort = httpServer.getAddress().getPort();
+        if (!reachable) {
+            logger.warning("PingbackReceiver", "No public pingback URL configured, listening on loopback port " +
+                    boundPort + " only; providers are not asked to call back and results are polled");
+            return;
+        }
+        String url = publicUrl.trim();
+        baseUrl = url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+        logger.info("PingbackReceiver", "Receiving provider callbacks on port " + boundPort + " as " + baseUrl);
+    }
+
+    /**
+     * Stop receiving callbacks; tasks created with a callback URL are still polled
+     */
+    public synchronized void stop() {
+        baseUrl = null;
+        boundPort = 0;
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            server = null;
+            executor = null;
+            logger.info("PingbackReceiver", "Stopped receiving provider callbacks");
+        }
+    }
+
+    /**
+     * Check whether the receiver is listening
+     * @return true while running
+     */
+    public boolean isRunning() {
+        return boundPort != 0;
+    }
+
+    /**
+     * Get the callback URL for tasks of a provider, registering the parser of its callbacks
+     * @param providerId Provider ID
+     * @param parser Parser of the provider's callbacks
+     * @return Callback URL, or null if the receiver is not running or has no public URL
+     */
+    public String callbackUrl(String providerId, PingbackParser parser) {
+        String url = baseUrl;
+        if (url == null) {
+            return null;
+        }
+        parsers.put(providerId, parser);
+        return url + PATH_PREFIX + secret + "/" + providerId;
+    }
+
+    /**
+     * Get the loopback callback URL for tasks of a local provider, registering the parser of its callbacks
+     * @param providerId Provider ID
+     * @param parser Parser of the provider's callbacks
+     * @return Loopback callback URL, or null if the receiver is not running
+     */
+    String localCallbackUrl(String providerId, PingbackParser parser) {
+        int port = boundPort;
+        if (port == 0) {
+            return null;
+        }
+        parsers.put(providerId, parser);
+        return "http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":" + port +
+                PATH_PREFIX + secret + "/" + providerId;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            int status = deliver(exchange) ? 200 : 404;
+            byte[] response = (status == 200 ? "OK" : "Not Found").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        }
+    }
+
+    /**
+     * Deliver the result carried by a callback to its task
+     * @return true if the callback matched an outstanding task
+     */
+    private boolean deliver(HttpExchange exchange) throws IOException {
+        // Path: /resolver/{secret}/{providerId}
+        String[] segments = exchange.getRequestURI().getPath().substring(PATH_PREFIX.length()).split("/");
+        PingbackParser parser = segments.length == 2 && secret.equals(segments[0]) ? parsers.get(segments[1]) : null;
+        if (parser == null) {
+            rejected.incrementAndGet();
+            return false;
+        }
+
+        String body = readBody(exchange.getRequestBody());
+        Map<String, String> fields = parseFields(exchange.getRequestURI().getRawQuery());
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        if (contentType != null && contentType.startsWith("application/x-www-form-urlencoded")) {
+            fields.putAll(parseFields(body));
+        }
+
+        Pingback pingback = parser.parse(fields, body);
+        if (pingback == null || pingback.taskId() == null) {
+            logger.warning("PingbackReceiver", "Callback from " + segments[1] + " carried no result");
+            return false;
+        }
+        if (!scheduler.deliver(segments[1], pingback.taskId(), pingback.outcome())) {
+            logger.debug("PingbackReceiver", "Callback for task " + pingback.taskId() + " of " + segments[1] +
+                    " matched no outstanding task");
+            return false;
+        }
+        logger.info("PingbackReceiver", "Result of task " + pingback.taskId() + " pushed by " + segments[1]);
+        return true;
+    }
+
+    private static String readBody(InputStream in) throws IOException {
+        byte[] bytes = in.readNBytes(MAX_BODY_BYTES);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, String> parseFields(String encoded) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        if (encoded == null || encoded.isEmpty()) {
+            return fields;
+        }
+        for (String pair : encoded.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = eq >= 0 ? pair.substring(0, eq) : pair;
+            String value = eq >= 0 ? pair.substring(eq + 1) : "";
+            fields.put(URLDecoder.decode(name, StandardCharsets.UTF_8),
+                    URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return fields;
+    }
+
+    /**
+     * Get the number of callbacks rejected for an unknown path or secret
+     * @return Rejected callback count
+     */
+    public long getRejected() {
+        return rejected.get();
+    }
+}
@@ -0,0 +1,162 @@
+package cli.li.resolver.provider;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Adaptive poll timing learned from the observed time providers take to solve each CAPTCHA type.
+ * Until a provider and type have enough history, tasks are polled at the fixed interval. After that,
+ * the first poll waits until the lower percentile of past solve times, polls come faster around
+ * the median where most results become ready, and past the tail percentile the interval grows so
+ * slow tasks cost fewer polls. Poll counts per solve are kept to measure the effect.
+ */
+public final class PollSchedule {
+    // Solve times kept per provider and type
+    static final int HISTORY_SIZE = 100;
+    // Solve times needed before the schedule adapts
+    static final int MIN_SAMPLES = 5;
+    static final double LOW_PERCENTILE = 0.1;
+    static final double TAIL_PERCENTILE = 0.9;
+    // Longest wait between polls past the tail, as a multiple of the poll interval
+    static final int MAX_BACKOFF_FACTOR = 4;
+
+    private final Map<String, History> histories = new ConcurrentHashMap<>();
+    private final AtomicLong solves = new AtomicLong(0);
+    private final AtomicLong polls = new AtomicLong(0);
+
+    /**
+     * Observed solve time distribution
+     * @param low Lower percentile in milliseconds
+     * @param median Median in milliseconds
+     * @param tail Tail percentile in milliseconds
+     * @param samples Number of solve times it is based on
+     */
+    public record Distribution(long low, long median, long tail, int samples) {
+    }
+
+    /**
+     * Get the wait before the next poll of a task
+     * @param provider Provider ID
+     * @param type CAPTCHA type code
+     * @param ageMillis Time since the task was submitted
+     * @param intervalMillis Configured poll interval
+     * @return Wait before the next poll in milliseconds
+     */
+    public long nextDelay(String provider, String type, long ageMillis, long intervalMillis) {
+        Distribution distribution = getDistribution(provider, type);
+        if (distribution == null) {
+            return intervalMillis;
+        }
+        long minDelay = Math.max(1, intervalMillis / 2);
+        if (ageMillis < distribution.low()) {
+            // Nothing is likely to be ready before the lower percentile
+            return Math.max(minDelay, distribution.low() - ageMillis);
+        }
+        if (ageMillis < distribution.tail()) {
+            // Densest at the median, back to the full interval towards the edges
+            double distance = Math.abs(ageMillis - distribution.median())
+                    / (double) Math.max(1, distribution.tail() - distribution.low());
+            long delay = Math.round(intervalMillis * (0.5 + distance));
+            return Math.max(minDelay, Math.min(intervalMillis, delay));
+        }
+        // Past the tail: the longer the task overruns, the less often it is polled
+        long delay = intervalMillis + (ageMillis - distribution.tail()) / 2;
+        return Math.min(intervalMillis * MAX_BACKOFF_FACTOR, delay);
+    }
+
+    /**
+     * Record the time a provider took to solve a task
+     * @param provider Provider ID
+     * @param type CAPTCHA type code
+     * @param solveMillis Time from submission until the result was ready
+     */
+    public void recordSolveTime(String provider, String type, long solveMillis) {
+        histories.computeIfAbsent(key(provider, type), key -> new History()).record(Math.max(0, solveMillis));
+    }
+
+    /**
+     * Record the number of polls a finished task took
+     * @param taskPolls Polls made for the task
+     */
+    public void recordPolls(int taskPolls) {
+        solves.incrementAndGet();
+        polls.addAndGet(taskPolls);
+    }
+
+    /**
+     * Get the observed solve time distribution of a provider and type
+     * @param provider Provider ID
+     * @param type CAPTCHA type code
+     * @return Distribution, or null until enough solve times have been recorded
+     */
+    public Distribution getDistribution(String provider, String type) {
+        History history = histories.get(key(provider, type));
+        return history != null ? history.distribution : null;
+    }
+
+    /**
+     * Get the average number of polls per finished task
+     * @return Average polls per task, or 0 if none has finished
+     */
+    public double getAveragePolls() {
+        long finished = solves.get();
+        return finished == 0 ? 0.0 : (double) polls.get() / finished;
+    }
+
+    /**
+     * Get the number of finished tasks
+     * @return Finished task count
+     */
+    public long getFinished() {
+        return solves.get();
+    }
+
+    /**
+     * Get the number of polls made for finished tasks
+     * @return Poll count
+     */
+    public long getPolls() {
+        return polls.get();
+    }
+
+    /**
+     * Reset the poll counts; learned solve times are kept
+     */
+    public void resetStatistics() {
+        solves.set(0);
+        polls.set(0);
+    }
+
+    private static String key(String provider, String type) {
+        return provider + ":" + type;
+    }
+
+    /**
+     * Most recent solve times of one provider and type
+     */
+    private static final class History {
+        private final long[] samples = new long[HISTORY_SIZE];
+        private int count;
+        private int next;
+        private volatile Distribution distribution;
+
+        synchronized void record(long solveMillis) {
+            samples[next] = solveMillis;
+            next = (next + 1) % samples.length;
+            count = Math.min(count + 1, samples.length);
+            if (count >= MIN_SAMPLES) {
+                long[] sorted = Arrays.copyOf(samples, count);
+                Arrays.sort(sorted);
+                distribution = new Distribution(percentile(sorted, LOW_PERCENTILE), percentile(sorted, 0.5),
+                        percentile(sorted, TAIL_PERCENTILE), count);
+            }
+        }
+
+        private static long percentile(long[] sorted, double percentile) {
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+        }
+    }
+}
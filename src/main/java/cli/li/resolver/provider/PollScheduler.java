@@ -0,0 +1,624 @@
+package cli.li.resolver.provider;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+import cli.li.resolver.logger.LoggerService;
+import cli.li.resolver.captcha.exception.CaptchaSolverException;
+import cli.li.resolver.captcha.exception.CaptchaTimeoutException;
+
+/**
+ * Central scheduler of result polls for every outstanding provider task.
+ * A hashed timing wheel advanced by one thread decides when each task is polled next, and
+ * the polls themselves run on an I/O executor of virtual threads, so an outstanding task
+ * costs a wheel entry rather than a thread. The poll interval is global and read each
+ * time a poll is scheduled, so a change applies to tasks already in flight. When each
+ * poll happens within that cadence is adapted to the solve times observed per provider
+ * and CAPTCHA type (see {@link PollSchedule}).
+ * Tasks that can be polled together, such as those of one 2Captcha-compatible account,
+ * are polled on shared cadence boundaries, and the tasks due in the same tick are polled
+ * with one batched call whose results are routed back to each task.
+ * Outstanding tasks and their states are exposed for monitoring.
+ */
+public final class PollScheduler {
+    static final long DEFAULT_TICK_MILLIS = 50;
+    static final int DEFAULT_WHEEL_SIZE = 512;
+    static final int DEFAULT_POLL_INTERVAL_MILLIS = 2000;
+    // Largest number of tasks polled in one batched call
+    static final int MAX_BATCH_SIZE = 100;
+
+    private static PollScheduler instance;
+
+    /**
+     * State of a provider task
+     */
+    public enum TaskState {
+        /** Submitted to the provider, not polled yet */
+        CREATED,
+        /** Polled at least once, result not ready yet */
+        POLLING,
+        /** Result received */
+        READY,
+        /** Polling failed or the deadline passed */
+        FAILED
+    }
+
+    /**
+     * Snapshot of an outstanding provider task
+     * @param provider Provider ID
+     * @param taskId Task ID assigned by the provider
+     * @param state Task state
+     * @param polls Number of polls made
+     * @param ageMillis Time since the task was registered
+     */
+    public record TaskInfo(String provider, String taskId, TaskState state, int polls, long ageMillis) {
+    }
+
+    /**
+     * Result of polling one task in a batched call
+     * @param token Solution token, or null if the task is not ready or failed
+     * @param error Error of a failed task, or null
+     */
+    public record PollOutcome(String token, CaptchaSolverException error) {
+        public static PollOutcome notReady() {
+            return new PollOutcome(null, null);
+        }
+
+        public static PollOutcome ready(String token) {
+            return new PollOutcome(token, null);
+        }
+
+        public static PollOutcome failed(CaptchaSolverException error) {
+            return new PollOutcome(null, error);
+        }
+    }
+
+    /**
+     * Poll of several tasks in one provider call
+     */
+    @FunctionalInterface
+    public interface BatchPoll {
+        /**
+         * Poll the tasks
+         * @param taskIds Task IDs to poll
+         * @param deadline Latest deadline among the tasks
+         * @return Outcome per task ID; tasks without an outcome are polled individually
+         * @throws Exception If the call fails; every task in it is then polled individually
+         */
+        Map<String, PollOutcome> poll(List<String> taskIds, Deadline deadline) throws Exception;
+    }
+
+    private final long tickMillis;
+    private final List<ArrayDeque<Timer>> wheel;
+    // Batched tasks due in the current tick by batch key; only touched by the wheel thread
+    private final Map<String, List<PollTask>> dueBatches = new HashMap<>();
+    private final int mask;
+    private final Queue<Timer> pending = new ConcurrentLinkedQueue<>();
+    private final Executor io;
+    private final LongSupplier clock;
+    private final long startTime;
+    private final LoggerService logger;
+    private final PollSchedule pollSchedule = new PollSchedule();
+    private final Map<String, PollTask> tasks = new ConcurrentHashMap<>();
+    private final AtomicLong ready = new AtomicLong(0);
+    private final AtomicLong failed = new AtomicLong(0);
+    private final AtomicLong batchCalls = new AtomicLong(0);
+    private final AtomicLong batchedPolls = new AtomicLong(0);
+    private final AtomicLong delivered = new AtomicLong(0);
+    private volatile IntSupplier pollIntervalMillis = () -> DEFAULT_POLL_INTERVAL_MILLIS;
+    private volatile boolean running;
+    private Thread thread;
+
+    // Next tick to process; only touched by the wheel thread
+    private long tick;
+
+    /**
+     * Get the shared scheduler, starting its thread on first use
+     * @return Shared scheduler
+     */
+    public static synchronized PollScheduler getInstance() {
+        if (instance == null) {
+            instance = new PollScheduler(DEFAULT_TICK_MILLIS, DEFAULT_WHEEL_SIZE,
+                    Executors.newVirtualThreadPerTaskExecutor(), System::currentTimeMillis);
+            instance.start();
+        }
+        return instance;
+    }
+
+    /**
+     * Constructor with injectable wheel geometry, I/O executor and clock; the wheel is
+     * advanced by {@link #start()} or by calling {@link #advance(long)} directly
+     * @param tickMillis Duration of one wheel tick
+     * @param wheelSize Number of wheel buckets, rounded up to a power of two
+     * @param io Executor running the polls
+     * @param clock Clock in milliseconds
+     */
+    PollScheduler(long tickMillis, int wheelSize, Executor io, LongSupplier clock) {
+        this.tickMillis = Math.max(1, tickMillis);
+        int size = Integer.highestOneBit(Math.max(2, wheelSize - 1)) << 1;
+        this.wheel = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            wheel.add(new ArrayDeque<>());
+        }
+        this.mask = size - 1;
+        this.io = io;
+        this.clock = clock;
+        this.startTime = clock.getAsLong();
+        this.logger = LoggerService.getInstance();
+    }
+
+    /**
+     * Set the source of the poll interval
+     * @param pollIntervalMillis Interval between polls of a task in milliseconds
+     */
+    public void setPollInterval(IntSupplier pollIntervalMillis) {
+        this.pollIntervalMillis = pollIntervalMillis;
+    }
+
+    /**
+     * Poll a provider task until its result is ready, waiting the poll interval before each poll.
+     * Polling stops as soon as the target completes, including when a caller cancels it; the
+     * wait before a poll is cut short at the deadline, where the poll is expected to fail.
+     * @param provider Provider ID
+     * @param type CAPTCHA type code
+     * @param taskId Task ID assigned by the provider
+     * @param target Future to complete with the result
+     * @param deadline Solve deadline
+     * @param poll Poll returning the result, or null while it is not ready
+     */
+    public void poll(String provider, String type, String taskId, CompletableFuture<String> target,
+                     Deadline deadline, AsyncPolling.IoTask<String> poll) {
+        poll(provider, type, taskId, target, deadline, poll, null, null);
+    }
+
+    /**
+     * Poll a provider task until its result is ready, batching its polls with those of other
+     * tasks that share the batch key. Batched tasks are polled on multiples of the poll interval,
+     * so tasks registered at different times still become due in the same tick.
+     * @param provider Provider ID
+     * @param type CAPTCHA type code
+     * @param taskId Task ID assigned by the provider
+     * @param target Future to complete with the result
+     * @param deadline Solve deadline
+     * @param poll Poll of this task alone, used when it is the only task due or the batch cannot answer for it
+     * @param batchKey Key of the tasks that can be polled together, or null to poll individually
+     * @param batchPoll Poll of several tasks sharing the batch key
+     */
+    public void poll(String provider, String type, String taskId, CompletableFuture<String> target,
+                     Deadline deadline, AsyncPolling.IoTask<String> poll, String batchKey, BatchPoll batchPoll) {
+        PollTask task = new PollTask(provider, type, taskId, target, deadline, poll,
+                batchPoll != null ? batchKey : null, batchPoll, clock.getAsLong());
+        tasks.put(task.key(), task);
+        target.whenComplete((token, error) -> {
+            tasks.remove(task.key(), task);
+            if (error == null) {
+                task.state = TaskState.READY;
+                ready.incrementAndGet();
+            } else if (!target.isCancelled()) {
+                task.state = TaskState.FAILED;
+                failed.incrementAndGet();
+            }
+            if (!target.isCancelled()) {
+                pollSchedule.recordPolls(task.polls.get());
+                logger.debug("PollScheduler", "Task " + taskId + " of " + provider + " finished as " +
+                        task.state + " after " + task.polls.get() + " poll(s)");
+            }
+        });
+        scheduleNextPoll(task);
+    }
+
+    private void scheduleNextPoll(PollTask task) {
+        if (task.target.isDone()) {
+            return;
+        }
+        long interval = Math.max(tickMillis, pollIntervalMillis.getAsInt());
+        long delay = pollSchedule.nextDelay(task.provider, task.type, clock.getAsLong() - task.createdAt, interval);
+        if (task.batchKey == null) {
+            schedule(Math.min(delay, task.deadline.remainingMillis()), () -> io.execute(() -> runPoll(task)));
+            return;
+        }
+        schedule(Math.min(alignedDelay(delay, interval), task.deadline.remainingMillis()),
+                () -> dueBatches.computeIfAbsent(task.batchKey, key -> new ArrayList<>()).add(task));
+    }
+
+    /**
+     * Delay to the interval boundary nearest to the wanted delay, so tasks polled on
+     * boundaries are due together while still waiting the wanted delay on average.
+     * Polls of batched tasks are therefore never closer together than one interval.
+     */
+    private long alignedDelay(long delay, long interval) {
+        long elapsed = clock.getAsLong() - startTime;
+        long earliest = elapsed + Math.max(tickMillis, delay - interval / 2);
+        long boundary = (earliest + interval - 1) / interval * interval;
+        return boundary - elapsed;
+    }
+
+    /**
+     * Complete a task with its result, learning how long the provider took to solve it.
+     * The result became ready between the previous poll and this one.
+     */
+    private void completeReady(PollTask task, String token) {
+        long age = clock.getAsLong() - task.createdAt;
+        pollSchedule.recordSolveTime(task.provider, task.type, (task.notReadyAge + age) / 2);
+        task.target.complete(token);
+    }
+
+    private void pollAgain(PollTask task) {
+        task.notReadyAge = clock.getAsLong() - task.createdAt;
+        scheduleNextPoll(task);
+    }
+
+    /**
+     * Poll the batched tasks due in this tick, one call per batch key
+     */
+    private void flushBatches() {
+        if (dueBatches.isEmpty()) {
+            return;
+        }
+        for (List<PollTask> due : dueBatches.values()) {
+            for (int from = 0; from < due.size(); from += MAX_BATCH_SIZE) {
+                List<PollTask> batch = List.copyOf(due.subList(from, Math.min(due.size(), from + MAX_BATCH_SIZE)));
+                try {
+                    io.execute(() -> runBatch(batch));
+                } catch (RuntimeException e) {
+                    logger.error("PollScheduler", "Batched poll could not be started: " + e.getMessage());
+                }
+            }
+        }
+        dueBatches.clear();
+    }
+
+    private void runBatch(List<PollTask> batch) {
+        List<PollTask> pollable = new ArrayList<>(batch.size());
+        Deadline latest = null;
+        for (PollTask task : batch) {
+            if (task.target.isDone()) {
+                continue;
+            }
+            if (task.deadline.isExpired()) {
+                task.target.completeExceptionally(new CaptchaTimeoutException(
+                        "Solve deadline passed before polling for the result"));
+                continue;
+            }
+            pollable.add(task);
+            if (latest == null || task.deadline.remainingMillis() > latest.remainingMillis()) {
+                latest = task.deadline;
+            }
+        }
+        if (pollable.size() <= 1) {
+            pollable.forEach(this::runPoll);
+            return;
+        }
+
+        Map<String, PollOutcome> outcomes;
+        try {
+            outcomes = pollable.get(0).batchPoll.poll(pollable.stream().map(task -> task.taskId).toList(), latest);
+            batchCalls.incrementAndGet();
+        } catch (Throwable e) {
+            // One failed call must not fail every solve in the batch; each task gets its own poll instead
+            logger.warning("PollScheduler", "Batched poll of " + pollable.size() + " task(s) failed, " +
+                    "polling them individually: " + AsyncPolling.toSolverException(e).getMessage());
+            outcomes = Map.of();
+        }
+
+        for (PollTask task : pollable) {
+            PollOutcome outcome = outcomes.get(task.taskId);
+            if (outcome == null) {
+                // The batched response could not be attributed to this task; poll it alongside the others
+                pollIndividually(task);
+                continue;
+            }
+            batchedPolls.incrementAndGet();
+            task.state = TaskState.POLLING;
+            task.polls.incrementAndGet();
+            if (outcome.error() != null) {
+                task.target.completeExceptionally(outcome.error());
+            } else if (outcome.token() != null) {
+                completeReady(task, outcome.token());
+            } else {
+                pollAgain(task);
+            }
+        }
+    }
+
+    private void pollIndividually(PollTask task) {
+        try {
+            io.execute(() -> runPoll(task));
+        } catch (RuntimeException e) {
+            task.target.completeExceptionally(AsyncPolling.toSolverException(e));
+        }
+    }
+
+    private void runPoll(PollTask task) {
+        if (task.target.isDone()) {
+            return;
+        }
+        task.state = TaskState.POLLING;
+        task.polls.incrementAndGet();
+        try {
+            String value = task.poll.run();
+            if (value != null) {
+                completeReady(task, value);
+            } else {
+                pollAgain(task);
+            }
+        } catch (Throwable e) {
+            task.target.completeExceptionally(AsyncPolling.toSolverException(e));
+        }
+    }
+
+    /**
+     * Deliver a result pushed by the provider, completing the task without waiting for its next poll.
+     * The task keeps its poll schedule until then, so a result that is never pushed is still polled for.
+     * @param provider Provider ID
+     * @param taskId Task ID assigned by the provider
+     * @param outcome Pushed result
+     * @return true if an outstanding task was completed
+     */
+    public boolean deliver(String provider, String taskId, PollOutcome outcome) {
+        PollTask task = tasks.get(provider + ":" + taskId);
+        if (task == null || task.target.isDone()) {
+            return false;
+        }
+        if (outcome.error() != null) {
+            if (!task.target.completeExceptionally(outcome.error())) {
+                return false;
+            }
+            delivered.incrementAndGet();
+            return true;
+        }
+        if (outcome.token() == null) {
+            return false;
+        }
+        if (!task.target.complete(outcome.token())) {
+            return false;
+        }
+        // A pushed result arrives when it became ready, so its age is the exact solve time
+        pollSchedule.recordSolveTime(task.provider, task.type, clock.getAsLong() - task.createdAt);
+        delivered.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Complete after a delay without holding a thread, for example before a retry
+     * @param delayMillis Delay in milliseconds
+     * @return Future completing on the I/O executor after the delay
+     */
+    public CompletableFuture<Void> delay(long delayMillis) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        schedule(delayMillis, () -> io.execute(() -> result.complete(null)));
+        return result;
+    }
+
+    /**
+     * Run an action on the wheel thread after a delay, rounded up to whole ticks.
+     * Actions must be short; anything blocking belongs on the I/O executor.
+     */
+    private void schedule(long delayMillis, Runnable action) {
+        long due = clock.getAsLong() + Math.max(0, delayMillis) - startTime;
+        pending.add(new Timer((due + tickMillis - 1) / tickMillis, action));
+    }
+
+    /**
+     * Process every tick up to a point in time, firing the timers that are due
+     * @param now Current time in milliseconds
+     */
+    void advance(long now) {
+        long lastTick = (now - startTime) / tickMillis;
+        while (tick <= lastTick) {
+            placePending();
+            Iterator<Timer> bucket = wheel.get((int) (tick & mask)).iterator();
+            while (bucket.hasNext()) {
+                Timer timer = bucket.next();
+                if (timer.rounds > 0) {
+                    timer.rounds--;
+                    continue;
+                }
+                bucket.remove();
+                try {
+                    timer.action.run();
+                } catch (RuntimeException e) {
+                    logger.error("PollScheduler", "Scheduled action failed: " + e.getMessage());
+                }
+            }
+            flushBatches();
+            tick++;
+        }
+    }
+
+    /**
+     * Move newly scheduled timers into their buckets; overdue ones go into the current tick
+     */
+    private void placePending() {
+        Timer timer;
+        while ((timer = pending.poll()) != null) {
+            long due = Math.max(timer.dueTick, tick);
+            timer.rounds = (due - tick) / wheel.size();
+            wheel.get((int) (due & mask)).add(timer);
+        }
+    }
+
+    /**
+     * Start the wheel thread
+     */
+    synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = Thread.ofPlatform().name("CAPTCHA-Poll-Scheduler").daemon(true).start(this::run);
+    }
+
+    private void run() {
+        while (running) {
+            long sleep = startTime + tick * tickMillis - clock.getAsLong();
+            if (sleep > 0) {
+                try {
+                    Thread.sleep(sleep);
+                } catch (InterruptedException e) {
+                    break;
+                }
+            }
+            advance(clock.getAsLong());
+        }
+    }
+
+    /**
+     * Get the outstanding tasks
+     * @return Snapshot of the tasks being polled
+     */
+    public List<TaskInfo> getTasks() {
+        long now = clock.getAsLong();
+        List<TaskInfo> snapshot = new ArrayList<>(tasks.size());
+        for (PollTask task : tasks.values()) {
+            snapshot.add(new TaskInfo(task.provider, task.taskId, task.state, task.polls.get(),
+                    now - task.createdAt));
+        }
+        return snapshot;
+    }
+
+    /**
+     * Get the number of tasks in a state; READY and FAILED count tasks finished since the last reset
+     * @param state Task state
+     * @return Task count
+     */
+    public long getCount(TaskState state) {
+        return switch (state) {
+            case READY -> ready.get();
+            case FAILED -> failed.get();
+            default -> tasks.values().stream().filter(task -> task.state == state).count();
+        };
+    }
+
+    /**
+     * Get the number of outstanding tasks
+     * @return Tasks registered and not finished
+     */
+    public int getOutstanding() {
+        return tasks.size();
+    }
+
+    /**
+     * Get the adaptive poll timing and the poll counts per finished task
+     * @return Poll schedule
+     */
+    public PollSchedule getSchedule() {
+        return pollSchedule;
+    }
+
+    /**
+     * Get the number of batched poll calls made
+     * @return Batched call count
+     */
+    public long getBatchCalls() {
+        return batchCalls.get();
+    }
+
+    /**
+     * Get the number of task polls answered by batched calls
+     * @return Batched task poll count
+     */
+    public long getBatchedPolls() {
+        return batchedPolls.get();
+    }
+
+    /**
+     * Get the number of task results pushed by providers
+     * @return Delivered result count
+     */
+    public long getDelivered() {
+        return delivered.get();
+    }
+
+    /**
+     * Reset the finished task, batching, delivery and poll counts
+     */
+    public void resetStatistics() {
+        ready.set(0);
+        failed.set(0);
+        batchCalls.set(0);
+        batchedPolls.set(0);
+        delivered.set(0);
+        pollSchedule.resetStatistics();
+    }
+
+    /**
+     * Stop the wheel thread and the I/O executor
+     */
+    public synchronized void shutdown() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+        if (io instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Wheel entry firing an action at a tick
+     */
+    private static final class Timer {
+        private final long dueTick;
+        private final Runnable action;
+        // Wheel revolutions left before the timer fires
+        private long rounds;
+
+        private Timer(long dueTick, Runnable action) {
+            this.dueTick = dueTick;
+            this.action = action;
+        }
+    }
+
+    /**
+     * Provider task being polled
+     */
+    private static final class PollTask {
+        private final String provider;
+        private final String type;
+        private final String taskId;
+        private final CompletableFuture<String> target;
+        private final Deadline deadline;
+        private final AsyncPolling.IoTask<String> poll;
+        private final String batchKey;
+        private final BatchPoll batchPoll;
+        private final long createdAt;
+        private final AtomicInteger polls = new AtomicInteger(0);
+        private volatile TaskState state = TaskState.CREATED;
+        // Task age at the last poll that found the result not ready
+        private volatile long notReadyAge;
+
+        private PollTask(String provider, String type, String taskId, CompletableFuture<String> target,
+                         Deadline deadline, AsyncPolling.IoTask<String> poll, String batchKey, BatchPoll batchPoll,
+                         long createdAt) {
+            this.provider = provider;
+            this.type = type;
+            this.taskId = taskId;
+            this.target = target;
+            this.deadline = deadline;
+            this.poll = poll;
+            this.batchKey = batchKey;
+            this.batchPoll = batchPoll;
+            this.createdAt = createdAt;
+        }
+
+        private String key() {
+            return provider + ":" + taskId;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package cli.li.resolver.provider;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import cli.li.resolver.captcha.exception.CaptchaSolverException;
@@ -70,20 +71,32 @@ public class ProviderService {
      * Solve a CAPTCHA request using the underlying provider, recording statistics.
      *
      * @param request the solve request containing all CAPTCHA parameters
+     * @param deadline the point in time by which the solve must finish
      * @return the solution token/string
      * @throws CaptchaSolverException if solving fails
      */
-    public String solve(SolveRequest request) throws CaptchaSolverException {
+    public String solve(SolveRequest request, Deadline deadline) throws CaptchaSolverException {
+        return AsyncPolling.await(solveAsync(request, deadline));
+    }
+
+    /**
+     * Solve a CAPTCHA request asynchronously using the underlying provider, recording statistics.
+     *
+     * @param request the solve request containing all CAPTCHA parameters
+     * @param deadline the point in time by which the solve must finish
+     * @return future completing with the solution token/string, or exceptionally with a CaptchaSolverException
+     */
+    public CompletableFuture<String> solveAsync(SolveRequest request, Deadline deadline) {
         long startTime = System.currentTimeMillis();
-        try {
-            String result = provider.solve(request);
-            long elapsed = System.currentTimeMillis() - startTime;
-            statistics.recordSuccess(elapsed);
-            return result;
-        } catch (CaptchaSolverException e) {
-            statistics.recordFailure();
-            throw e;
-        }
+        CompletableFuture<String> result = provider.solveAsync(request, deadline);
+        result.whenComplete((token, error) -> {
+            if (error == null) {
+                statistics.recordSuccess(System.currentTimeMillis() - startTime);
+            } else if (!result.isCancelled()) {
+                statistics.recordFailure();
+            }
+        });
+        return result;
     }
 
     // ---- Balance ----
@@ -13,6 +13,8 @@ public class ProviderStatistics {
     private final AtomicInteger successfulRequests = new AtomicInteger(0);
     private final AtomicInteger failedRequests = new AtomicInteger(0);
     private final AtomicLong totalSolveTimeMs = new AtomicLong(0);
+    private final AtomicInteger retries = new AtomicInteger(0);
+    private final AtomicLong totalRetryLatencyMs = new AtomicLong(0);
 
     /**
      * Record a successful solve attempt.
@@ -33,6 +35,16 @@ public class ProviderStatistics {
         failedRequests.incrementAndGet();
     }
 
+    /**
+     * Record a retry after a transient failure.
+     *
+     * @param addedLatencyMs time the retry added: the failed attempt plus the backoff before the next one
+     */
+    public void recordRetry(long addedLatencyMs) {
+        retries.incrementAndGet();
+        totalRetryLatencyMs.addAndGet(addedLatencyMs);
+    }
+
     /**
      * Get success rate as a percentage.
      *
@@ -86,6 +98,28 @@ public class ProviderStatistics {
         return failedRequests.get();
     }
 
+    /**
+     * Get number of retries after transient failures.
+     *
+     * @return retry count
+     */
+    public int getRetries() {
+        return retries.get();
+    }
+
+    /**
+     * Get average latency added per retry in milliseconds.
+     *
+     * @return average added latency, or 0 if there were no retries
+     */
+    public double getAvgRetryLatencyMs() {
+        int count = retries.get();
+        if (count == 0) {
+            return 0.0;
+        }
+        return (double) totalRetryLatencyMs.get() / count;
+    }
+
     /**
      * Reset all statistics to zero.
      */
@@ -94,5 +128,7 @@ public class ProviderStatistics {
         successfulRequests.set(0);
         failedRequests.set(0);
         totalSolveTimeMs.set(0);
+        retries.set(0);
+        totalRetryLatencyMs.set(0);
     }
 }
@@ -2,12 +2,17 @@ package cli.li.resolver.provider.base;
 
 import java.util.Map;
 import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
 
 import burp.api.montoya.http.RequestOptions;
 import burp.api.montoya.http.message.requests.HttpRequest;
 import burp.api.montoya.http.message.HttpRequestResponse;
 
 import cli.li.resolver.ResolverExtension;
+import cli.li.resolver.provider.Deadline;
+import cli.li.resolver.provider.AsyncPolling;
+import cli.li.resolver.provider.PollScheduler;
+import cli.li.resolver.provider.PingbackReceiver;
 import cli.li.resolver.provider.CaptchaProvider;
 import cli.li.resolver.provider.SolveRequest;
 import cli.li.resolver.captcha.exception.CaptchaSolverException;
@@ -18,8 +23,8 @@ import cli.li.resolver.captcha.exception.CaptchaSolverException;
  */
 public abstract class JsonProtocolProvider implements CaptchaProvider {
 
-    private static final int POLL_INTERVAL = 2000;
-    private static final int MAX_POLLS = 60;
+    // Time budget of solves made without a deadline
+    private static final int DEFAULT_TIMEOUT_SECONDS = 120;
 
     /**
      * Get the base URL for the provider API (must end with '/').
@@ -38,7 +43,8 @@ public abstract class JsonProtocolProvider implements CaptchaProvider {
 
     /**
      * Extract the solution token from the solution JSON string.
-     * The default implementation tries fields: "gRecaptchaResponse", "token", "text".
+     * The default implementation tries fields: "gRecaptchaResponse", "token", "text",
+     * and otherwise returns the whole solution object for multi-field CAPTCHAs.
      *
      * @param solutionJson the solution JSON string
      * @return the extracted token
@@ -61,80 +67,143 @@ public abstract class JsonProtocolProvider implements CaptchaProvider {
             return token;
         }
 
+        // Multi-field solutions (GeeTest, AWS WAF) are passed on whole; placeholders select their fields
+        if (solutionJson != null && solutionJson.trim().startsWith("{") && !solutionJson.trim().equals("{}")) {
+            return solutionJson.trim();
+        }
+
         throw new CaptchaSolverException("Could not extract token from solution: " + solutionJson);
     }
 
     @Override
     public String solve(SolveRequest request) throws CaptchaSolverException {
-        try {
-            // Build createTask JSON
-            Map<String, Object> taskFields = buildTaskObject(request);
-            String taskJson = buildJsonObject(taskFields);
-            String createTaskBody = "{\"clientKey\":" + escapeJsonString(request.apiKey())
-                    + ",\"task\":" + taskJson + "}";
-
-            // Send createTask request
-            String createTaskUrl = baseUrl() + "createTask";
-            String createResponse = sendPostJson(createTaskUrl, createTaskBody);
-
-            // Check for errors
-            int errorId = parseJsonInt(createResponse, "errorId");
-            if (errorId != 0) {
-                String errorDesc = parseJsonString(createResponse, "errorDescription");
-                if (errorDesc == null) {
-                    errorDesc = "Unknown error (errorId=" + errorId + ")";
-                }
-                throw new CaptchaSolverException("Error creating task: " + errorDesc);
-            }
+        return solve(request, Deadline.afterSeconds(DEFAULT_TIMEOUT_SECONDS));
+    }
 
-            // Extract taskId
-            int taskId = parseJsonInt(createResponse, "taskId");
-            if (taskId == 0) {
-                throw new CaptchaSolverException("No taskId in response: " + createResponse);
-            }
+    @Override
+    public String solve(SolveRequest request, Deadline deadline) throws CaptchaSolverException {
+        return AsyncPolling.await(solveAsync(request, deadline));
+    }
 
+    /**
+     * Create the task, then poll for its result without holding a thread between polls.
+     */
+    @Override
+    public CompletableFuture<String> solveAsync(SolveRequest request, Deadline deadline) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        AsyncPolling.call(() -> createTask(request, deadline)).whenComplete((taskId, error) -> {
+            if (error != null) {
+                result.completeExceptionally(AsyncPolling.toSolverException(error));
+                return;
+            }
             // Build getTaskResult JSON
             String getResultBody = "{\"clientKey\":" + escapeJsonString(request.apiKey())
                     + ",\"taskId\":" + taskId + "}";
+            // Poll until the result is ready at the global cadence; the deadline ends the polling
+            PollScheduler.getInstance().poll(id(), request.type(), String.valueOf(taskId), result, deadline,
+                    () -> pollResult(getResultBody, deadline));
+        });
+        return result;
+    }
 
-            // Poll for result
-            String getResultUrl = baseUrl() + "getTaskResult";
-            for (int attempt = 0; attempt < MAX_POLLS; attempt++) {
-                Thread.sleep(POLL_INTERVAL);
+    /**
+     * Send the createTask request.
+     *
+     * @param request  the solve request
+     * @param deadline the solve deadline
+     * @return the task ID
+     * @throws Exception if the task cannot be created
+     */
+    private int createTask(SolveRequest request, Deadline deadline) throws Exception {
+        // Build createTask JSON
+        Map<String, Object> taskFields = buildTaskObject(request);
+        String taskJson = buildJsonObject(taskFields);
+        String createTaskBody = "{\"clientKey\":" + escapeJsonString(request.apiKey())
+                + ",\"task\":" + taskJson;
+        String callbackUrl = PingbackReceiver.getInstance().callbackUrl(id(), this::parsePingback);
+        if (callbackUrl != null) {
+            // The provider posts the result to the receiver as soon as it is ready
+            createTaskBody += ",\"callbackUrl\":" + escapeJsonString(callbackUrl);
+        }
+        createTaskBody += "}";
+
+        // Send createTask request
+        String createTaskUrl = baseUrl() + "createTask";
+        String createResponse = sendPostJson(createTaskUrl, createTaskBody, deadline);
+
+        // Check for errors
+        int errorId = parseJsonInt(createResponse, "errorId");
+        if (errorId != 0) {
+            throw new CaptchaSolverException("Error creating task: " + describeError(createResponse, errorId));
+        }
 
-                String resultResponse = sendPostJson(getResultUrl, getResultBody);
+        // Extract taskId
+        int taskId = parseJsonInt(createResponse, "taskId");
+        if (taskId == 0) {
+            throw new CaptchaSolverException("No taskId in response: " + createResponse);
+        }
+        return taskId;
+    }
 
-                // Check for errors
-                errorId = parseJsonInt(resultResponse, "errorId");
-                if (errorId != 0) {
-                    String errorDesc = parseJsonString(resultResponse, "errorDescription");
-                    if (errorDesc == null) {
-                        errorDesc = "Unknown error (errorId=" + errorId + ")";
-                    }
-                    throw new CaptchaSolverException("Error getting result: " + errorDesc);
-                }
+    /**
+     * Poll for the task result once (getTaskResult).
+     *
+     * @param getResultBody the getTaskResult request body
+     * @param deadline      the solve deadline
+     * @return the token, or null if the result is not ready yet
+     * @throws Exception if the request fails or the provider reports an error
+     */
+    private String pollResult(String getResultBody, Deadline deadline) throws Exception {
+        String resultResponse = sendPostJson(baseUrl() + "getTaskResult", getResultBody, deadline);
+        return parseTaskResult(resultResponse);
+    }
 
-                // Check status
-                String status = parseJsonString(resultResponse, "status");
-                if ("ready".equals(status)) {
-                    // Extract solution object as substring
-                    String solutionJson = extractJsonObject(resultResponse, "solution");
-                    if (solutionJson == null) {
-                        throw new CaptchaSolverException("No solution in response: " + resultResponse);
-                    }
-                    return extractToken(solutionJson);
-                }
-                // If not ready, continue polling
-            }
+    /**
+     * Parse a task result, as returned by getTaskResult or posted to the callback URL.
+     *
+     * @param resultResponse the task result JSON
+     * @return the token, or null if the result is not ready yet
+     * @throws CaptchaSolverException if the provider reports an error
+     */
+    private String parseTaskResult(String resultResponse) throws CaptchaSolverException {
+        // Check for errors
+        int errorId = parseJsonInt(resultResponse, "errorId");
+        if (errorId != 0) {
+            throw new CaptchaSolverException("Error getting result: " + describeError(resultResponse, errorId));
+        }
+
+        // Check status
+        String status = parseJsonString(resultResponse, "status");
+        if (!"ready".equals(status)) {
+            return null;
+        }
+
+        // Extract solution object as substring
+        String solutionJson = extractJsonObject(resultResponse, "solution");
+        if (solutionJson == null) {
+            throw new CaptchaSolverException("No solution in response: " + resultResponse);
+        }
+        return extractToken(solutionJson);
+    }
 
-            throw new CaptchaSolverException("Max polling attempts reached, CAPTCHA not solved");
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new CaptchaSolverException("CAPTCHA solving interrupted", e);
+    /**
+     * Read the task result posted to the callback URL, which carries the task ID.
+     *
+     * @param fields the callback fields
+     * @param body   the posted task result JSON
+     * @return the pushed result, or null if the callback names no task
+     */
+    PingbackReceiver.Pingback parsePingback(Map<String, String> fields, String body) {
+        int taskId = parseJsonInt(body, "taskId");
+        if (taskId == 0) {
+            return null;
+        }
+        try {
+            String token = parseTaskResult(body);
+            return new PingbackReceiver.Pingback(String.valueOf(taskId), token != null
+                    ? PollScheduler.PollOutcome.ready(token) : PollScheduler.PollOutcome.notReady());
         } catch (CaptchaSolverException e) {
-            throw e;
-        } catch (Exception e) {
-            throw new CaptchaSolverException("Error solving CAPTCHA: " + e.getMessage(), e);
+            return new PingbackReceiver.Pingback(String.valueOf(taskId), PollScheduler.PollOutcome.failed(e));
         }
     }
 
@@ -146,11 +215,7 @@ public abstract class JsonProtocolProvider implements CaptchaProvider {
 
         int errorId = parseJsonInt(response, "errorId");
         if (errorId != 0) {
-            String errorDesc = parseJsonString(response, "errorDescription");
-            if (errorDesc == null) {
-                errorDesc = "Unknown error (errorId=" + errorId + ")";
-            }
-            throw new Exception("Error getting balance: " + errorDesc);
+            throw new Exception("Error getting balance: " + describeError(response, errorId));
         }
 
         double balance = parseJsonDouble(response, "balance");
@@ -172,13 +237,34 @@ public abstract class JsonProtocolProvider implements CaptchaProvider {
      * @throws Exception if the request fails
      */
     private String sendPostJson(String url, String jsonBody) throws Exception {
+        return sendPostJson(url, jsonBody, null);
+    }
+
+    /**
+     * Send a POST request that must complete before the deadline.
+     * The response timeout is set to the time left, so a slow provider cannot hold
+     * the solve past its deadline.
+     *
+     * @param url      the target URL
+     * @param jsonBody the request body
+     * @param deadline the solve deadline, or null for no limit
+     * @return the response body as a string
+     * @throws Exception if the request fails or the deadline has passed
+     */
+    private String sendPostJson(String url, String jsonBody, Deadline deadline) throws Exception {
+        RequestOptions options = RequestOptions.requestOptions().withUpstreamTLSVerification();
+        if (deadline != null) {
+            deadline.check("sending a request to " + url);
+            options = options.withResponseTimeout(deadline.remainingMillis());
+        }
+
         HttpRequest request = HttpRequest.httpRequestFromUrl(url)
                 .withMethod("POST")
                 .withHeader("Content-Type", "application/json")
                 .withBody(jsonBody);
 
         HttpRequestResponse requestResponse = ResolverExtension.api.http()
-                .sendRequest(request, RequestOptions.requestOptions().withUpstreamTLSVerification());
+                .sendRequest(request, options);
 
         if (requestResponse.response() == null) {
             throw new Exception("No response received from server: " + url);
@@ -193,6 +279,23 @@ public abstract class JsonProtocolProvider implements CaptchaProvider {
         return requestResponse.response().bodyToString();
     }
 
+    /**
+     * Describe an error response by its error code and description, so callers
+     * can tell transient errors (such as ERROR_NO_SLOT_AVAILABLE) from terminal ones.
+     *
+     * @param response the error response JSON
+     * @param errorId  the non-zero error ID
+     * @return error description
+     */
+    private String describeError(String response, int errorId) {
+        String errorCode = parseJsonString(response, "errorCode");
+        String errorDesc = parseJsonString(response, "errorDescription");
+        if (errorDesc == null) {
+            errorDesc = "Unknown error (errorId=" + errorId + ")";
+        }
+        return errorCode != null ? errorCode + ": " + errorDesc : errorDesc;
+    }
+
     // ---- JSON building helpers (no org.json dependency) ----
 
     /**
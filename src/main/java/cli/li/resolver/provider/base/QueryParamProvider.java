@@ -1,18 +1,27 @@
 package cli.li.resolver.provider.base;
 
 import java.util.Map;
+import java.util.List;
+import java.util.Set;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.math.BigDecimal;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
 
 import burp.api.montoya.http.RequestOptions;
 import burp.api.montoya.http.message.requests.HttpRequest;
 import burp.api.montoya.http.message.HttpRequestResponse;
 
 import cli.li.resolver.ResolverExtension;
+import cli.li.resolver.provider.Deadline;
+import cli.li.resolver.provider.AsyncPolling;
+import cli.li.resolver.provider.PollScheduler;
+import cli.li.resolver.provider.PingbackReceiver;
 import cli.li.resolver.provider.CaptchaProvider;
 import cli.li.resolver.provider.SolveRequest;
 import cli.li.resolver.captcha.exception.CaptchaSolverException;
@@ -23,9 +32,11 @@ import cli.li.resolver.captcha.exception.CaptchaSolverException;
  */
 public abstract class QueryParamProvider implements CaptchaProvider {
 
-    private static final int POLL_INTERVAL = 2000;
-    private static final int MAX_POLLS = 60;
+    // Time budget of solves made without a deadline
+    private static final int DEFAULT_TIMEOUT_SECONDS = 120;
     private static final Pattern OK_PATTERN = Pattern.compile("OK\\|(.+)");
+    // Types whose answers are plain tokens that never contain the '|' separating batched answers
+    private static final Set<String> BATCHABLE_TYPES = Set.of("recaptchav2", "recaptchav3", "hcaptcha", "turnstile");
 
     /**
      * Get the base URL for the provider API (must end with '/').
@@ -59,61 +70,189 @@ public abstract class QueryParamProvider implements CaptchaProvider {
      */
     protected abstract Map<String, String> buildBalanceParams(String apiKey);
 
+    /**
+     * Check whether results of a CAPTCHA type can be polled in batched requests.
+     * Batched answers are separated by '|', so types whose answers may contain it
+     * (FunCaptcha tokens, multi-field and coordinate answers) are polled individually.
+     *
+     * @param type the CAPTCHA type code
+     * @return true if tasks of the type can share a batched poll
+     */
+    protected boolean isBatchable(String type) {
+        return BATCHABLE_TYPES.contains(type);
+    }
+
+    /**
+     * Build the parameters for polling several tasks in one request (res.php with ids).
+     *
+     * @param apiKey  the API key
+     * @param taskIds the task IDs to poll
+     * @return map of form parameters
+     */
+    protected Map<String, String> buildBatchResultParams(String apiKey, List<String> taskIds) {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("key", apiKey);
+        params.put("action", "get");
+        params.put("ids", String.join(",", taskIds));
+        return params;
+    }
+
     @Override
     public String solve(SolveRequest request) throws CaptchaSolverException {
-        try {
-            // Build and send task submission request
-            Map<String, String> submitParams = buildSubmitParams(request);
-            String submitUrl = baseUrl() + "in.php";
-            String submitResponse = sendPost(submitUrl, buildFormData(submitParams));
-
-            // Parse "OK|taskId" response
-            if (submitResponse.startsWith("ERROR")) {
-                throw new CaptchaSolverException("Error creating task: " + submitResponse);
-            }
+        return solve(request, Deadline.afterSeconds(DEFAULT_TIMEOUT_SECONDS));
+    }
+
+    @Override
+    public String solve(SolveRequest request, Deadline deadline) throws CaptchaSolverException {
+        return AsyncPolling.await(solveAsync(request, deadline));
+    }
 
-            Matcher matcher = OK_PATTERN.matcher(submitResponse);
-            if (!matcher.find()) {
-                throw new CaptchaSolverException("Invalid response format: " + submitResponse);
+    /**
+     * Submit the task, then poll for its result without holding a thread between polls.
+     */
+    @Override
+    public CompletableFuture<String> solveAsync(SolveRequest request, Deadline deadline) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        AsyncPolling.call(() -> submitTask(request, deadline)).whenComplete((taskId, error) -> {
+            if (error != null) {
+                result.completeExceptionally(AsyncPolling.toSolverException(error));
+                return;
             }
+            // Poll until the result is ready at the global cadence; the deadline ends the polling.
+            // Tasks of the same account are polled together in one batched request where answers allow
+            String resultFormData = buildFormData(buildResultParams(request.apiKey(), taskId));
+            String batchKey = isBatchable(request.type()) ? id() + ":" + request.apiKey() : null;
+            PollScheduler.getInstance().poll(id(), request.type(), taskId, result, deadline,
+                    () -> pollResult(resultFormData, deadline),
+                    batchKey, (taskIds, batchDeadline) -> pollResults(request.apiKey(), taskIds, batchDeadline));
+        });
+        return result;
+    }
 
-            String taskId = matcher.group(1);
+    /**
+     * Submit the task (in.php).
+     *
+     * @param request  the solve request
+     * @param deadline the solve deadline
+     * @return the task ID
+     * @throws Exception if the submission fails
+     */
+    private String submitTask(SolveRequest request, Deadline deadline) throws Exception {
+        // Build and send task submission request
+        Map<String, String> submitParams = buildSubmitParams(request);
+        String callbackUrl = PingbackReceiver.getInstance().callbackUrl(id(), QueryParamProvider::parsePingback);
+        if (callbackUrl != null) {
+            // The provider pushes the result to the receiver as soon as it is ready
+            submitParams = new LinkedHashMap<>(submitParams);
+            submitParams.put("pingback", callbackUrl);
+        }
+        String submitUrl = baseUrl() + "in.php";
+        String submitResponse = sendPost(submitUrl, buildFormData(submitParams), deadline);
 
-            // Poll for result
-            String resultUrl = baseUrl() + "res.php";
-            Map<String, String> resultParams = buildResultParams(request.apiKey(), taskId);
-            String resultFormData = buildFormData(resultParams);
+        // Parse "OK|taskId" response
+        if (submitResponse.startsWith("ERROR")) {
+            throw new CaptchaSolverException("Error creating task: " + submitResponse);
+        }
 
-            for (int attempt = 0; attempt < MAX_POLLS; attempt++) {
-                Thread.sleep(POLL_INTERVAL);
+        Matcher matcher = OK_PATTERN.matcher(submitResponse);
+        if (!matcher.find()) {
+            throw new CaptchaSolverException("Invalid response format: " + submitResponse);
+        }
 
-                String resultResponse = sendPost(resultUrl, resultFormData);
+        return matcher.group(1);
+    }
 
-                if ("CAPCHA_NOT_READY".equals(resultResponse)) {
-                    continue;
-                }
+    /**
+     * Poll for the task result once (res.php).
+     *
+     * @param resultFormData the encoded result parameters
+     * @param deadline       the solve deadline
+     * @return the token, or null if the result is not ready yet
+     * @throws Exception if the request fails or the provider reports an error
+     */
+    private String pollResult(String resultFormData, Deadline deadline) throws Exception {
+        String resultResponse = sendPost(baseUrl() + "res.php", resultFormData, deadline);
 
-                if (resultResponse.startsWith("ERROR")) {
-                    throw new CaptchaSolverException("Error getting result: " + resultResponse);
-                }
+        if ("CAPCHA_NOT_READY".equals(resultResponse)) {
+            return null;
+        }
 
-                matcher = OK_PATTERN.matcher(resultResponse);
-                if (matcher.find()) {
-                    return matcher.group(1);
-                } else {
-                    throw new CaptchaSolverException("Invalid result format: " + resultResponse);
-                }
+        if (resultResponse.startsWith("ERROR")) {
+            throw new CaptchaSolverException("Error getting result: " + resultResponse);
+        }
+
+        Matcher matcher = OK_PATTERN.matcher(resultResponse);
+        if (matcher.find()) {
+            return matcher.group(1);
+        }
+        throw new CaptchaSolverException("Invalid result format: " + resultResponse);
+    }
+
+    /**
+     * Poll for the results of several tasks at once (res.php with ids).
+     * The response holds one pipe-separated answer per task, in request order.
+     *
+     * @param apiKey   the API key
+     * @param taskIds  the task IDs to poll
+     * @param deadline the latest deadline among the tasks
+     * @return outcome per task ID, or an empty map if the answers cannot be told apart
+     * @throws Exception if the request fails
+     */
+    private Map<String, PollScheduler.PollOutcome> pollResults(String apiKey, List<String> taskIds,
+                                                              Deadline deadline) throws Exception {
+        String response = sendPost(baseUrl() + "res.php",
+                buildFormData(buildBatchResultParams(apiKey, taskIds)), deadline);
+        return parseBatchResponse(response, taskIds);
+    }
+
+    /**
+     * Split a batched result response into per-task outcomes.
+     * An error for the whole request, or an answer count that differs from the task count
+     * (a solution containing '|'), leaves the tasks to be polled individually.
+     *
+     * @param response the res.php response
+     * @param taskIds  the polled task IDs, in request order
+     * @return outcome per task ID, or an empty map if the answers cannot be attributed
+     */
+    private static Map<String, PollScheduler.PollOutcome> parseBatchResponse(String response, List<String> taskIds) {
+        String[] answers = response.split("\\|", -1);
+        if (answers.length != taskIds.size()) {
+            return Map.of();
+        }
+
+        Map<String, PollScheduler.PollOutcome> outcomes = new HashMap<>();
+        for (int i = 0; i < answers.length; i++) {
+            String answer = answers[i].trim();
+            if ("CAPCHA_NOT_READY".equals(answer)) {
+                outcomes.put(taskIds.get(i), PollScheduler.PollOutcome.notReady());
+            } else if (answer.startsWith("ERROR")) {
+                outcomes.put(taskIds.get(i), PollScheduler.PollOutcome.failed(
+                        new CaptchaSolverException("Error getting result: " + answer)));
+            } else if (!answer.isEmpty()) {
+                outcomes.put(taskIds.get(i), PollScheduler.PollOutcome.ready(answer));
             }
+        }
+        return outcomes;
+    }
 
-            throw new CaptchaSolverException("Max polling attempts reached, CAPTCHA not solved");
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new CaptchaSolverException("CAPTCHA solving interrupted", e);
-        } catch (CaptchaSolverException e) {
-            throw e;
-        } catch (Exception e) {
-            throw new CaptchaSolverException("Error solving CAPTCHA: " + e.getMessage(), e);
+    /**
+     * Read the result pushed to the pingback URL, sent as the fields id and code.
+     *
+     * @param fields the callback fields
+     * @param body   the raw callback body
+     * @return the pushed result, or null if the callback names no task
+     */
+    static PingbackReceiver.Pingback parsePingback(Map<String, String> fields, String body) {
+        String taskId = fields.get("id");
+        String code = fields.get("code");
+        if (taskId == null || code == null || code.isEmpty()) {
+            return null;
+        }
+        if (code.startsWith("ERROR")) {
+            return new PingbackReceiver.Pingback(taskId, PollScheduler.PollOutcome.failed(
+                    new CaptchaSolverException("Error getting result: " + code)));
         }
+        return new PingbackReceiver.Pingback(taskId, PollScheduler.PollOutcome.ready(code));
     }
 
     @Override
@@ -148,13 +287,34 @@ public abstract class QueryParamProvider implements CaptchaProvider {
      * @throws Exception if the request fails
      */
     private String sendPost(String url, String formData) throws Exception {
+        return sendPost(url, formData, null);
+    }
+
+    /**
+     * Send a POST request that must complete before the deadline.
+     * The response timeout is set to the time left, so a slow provider cannot hold
+     * the solve past its deadline.
+     *
+     * @param url      the target URL
+     * @param formData the request body
+     * @param deadline the solve deadline, or null for no limit
+     * @return the response body as a string
+     * @throws Exception if the request fails or the deadline has passed
+     */
+    private String sendPost(String url, String formData, Deadline deadline) throws Exception {
+        RequestOptions options = RequestOptions.requestOptions().withUpstreamTLSVerification();
+        if (deadline != null) {
+            deadline.check("sending a request to " + url);
+            options = options.withResponseTimeout(deadline.remainingMillis());
+        }
+
         HttpRequest request = HttpRequest.httpRequestFromUrl(url)
                 .withMethod("POST")
                 .withHeader("Content-Type", "application/x-www-form-urlencoded")
                 .withBody(formData);
 
         HttpRequestResponse requestResponse = ResolverExtension.api.http()
-                .sendRequest(request, RequestOptions.requestOptions().withUpstreamTLSVerification());
+                .sendRequest(request, options);
 
         if (requestResponse.response() == null) {
             throw new Exception("No response received from server: " + url);
@@ -0,0 +1,199 @@
+package cli.li.resolver.provider.impl;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+import cli.li.resolver.provider.Deadline;
+import cli.li.resolver.provider.SolveRequest;
+import cli.li.resolver.provider.CaptchaProvider;
+import cli.li.resolver.settings.SettingsManager;
+import cli.li.resolver.captcha.model.CaptchaType;
+import cli.li.resolver.captcha.exception.CaptchaSolverException;
+import cli.li.resolver.captcha.exception.CaptchaTimeoutException;
+
+/**
+ * Dry-run provider returning synthetic tokens without contacting any solving service.
+ * Each solve waits for a latency drawn from a log-normal distribution around a configured
+ * median, or around the average solve time recorded for the CAPTCHA type before it was
+ * first simulated, so simulated solves never feed their own latency; it fails at a
+ * configured rate with a transient provider error. Lets queueing, retries, failover and
+ * throughput be load-tested with realistic timing and without spending balance.
+ * Accepts any non-blank API key.
+ */
+public class SimulatedProvider implements CaptchaProvider {
+
+    private static final Set<String> SUPPORTED_TYPES = Set.of(
+            "recaptchav2", "recaptchav3", "hcaptcha", "turnstile",
+            "funcaptcha", "geetest", "geetestv4", "awswaf"
+    );
+
+    private static final String BASE64URL = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+    private static final String HEX = "0123456789abcdef";
+
+    private final Supplier<Profile> profile;
+    private final Supplier<Random> random;
+    private final Sleeper sleeper;
+    private volatile ToDoubleFunction<CaptchaType> recordedLatencyMs = type -> 0;
+    // Recorded averages as they were before the first simulated solve of each type
+    private final Map<CaptchaType, Double> recordedSnapshot = new ConcurrentHashMap<>();
+
+    public SimulatedProvider(SettingsManager settingsManager) {
+        this(() -> new Profile(settingsManager.getSimulatedMedianMs(),
+                        settingsManager.getSimulatedSpreadPercent() / 100.0,
+                        settingsManager.getSimulatedFailurePercent() / 100.0,
+                        settingsManager.isSimulatedRecordedLatency()),
+                ThreadLocalRandom::current, Thread::sleep);
+    }
+
+    /**
+     * Constructor with injectable profile, randomness and sleep
+     * @param profile Source of the current simulation profile
+     * @param random Source of randomness
+     * @param sleeper Sleep used to simulate latency
+     */
+    SimulatedProvider(Supplier<Profile> profile, Supplier<Random> random, Sleeper sleeper) {
+        this.profile = profile;
+        this.random = random;
+        this.sleeper = sleeper;
+    }
+
+    /**
+     * Simulation parameters
+     * @param medianMs Median solve time in milliseconds
+     * @param spread Log-normal sigma of the solve time; 0 makes every solve take the median
+     * @param failureRate Share of solves that fail (0-1)
+     * @param useRecorded Whether to take the median from recorded per-type statistics where available
+     */
+    record Profile(long medianMs, double spread, double failureRate, boolean useRecorded) {
+    }
+
+    /**
+     * Sleep that may be interrupted
+     */
+    @FunctionalInterface
+    interface Sleeper {
+        void sleep(long millis) throws InterruptedException;
+    }
+
+    /**
+     * Set the source of recorded average solve times per CAPTCHA type
+     * @param recordedLatencyMs Average solve time in milliseconds, or 0 if none was recorded
+     */
+    public void useRecordedLatencies(ToDoubleFunction<CaptchaType> recordedLatencyMs) {
+        this.recordedLatencyMs = recordedLatencyMs;
+        recordedSnapshot.clear();
+    }
+
+    @Override
+    public String id() {
+        return "simulated";
+    }
+
+    @Override
+    public String displayName() {
+        return "Simulated (dry run)";
+    }
+
+    @Override
+    public Set<String> supportedTypes() {
+        return SUPPORTED_TYPES;
+    }
+
+    @Override
+    public String solve(SolveRequest request) throws CaptchaSolverException {
+        return solve(request, Deadline.afterSeconds(120));
+    }
+
+    @Override
+    public String solve(SolveRequest request, Deadline deadline) throws CaptchaSolverException {
+        deadline.check("submitting the task");
+        Profile current = profile.get();
+        Random rnd = random.get();
+
+        long latency = sampleLatency(request.type(), current, rnd);
+        long remaining = deadline.remainingMillis();
+        try {
+            sleeper.sleep(Math.min(latency, remaining));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CaptchaSolverException("CAPTCHA solving interrupted", e);
+        }
+        if (latency >= remaining) {
+            throw new CaptchaTimeoutException("Solve deadline passed before the simulated solution was ready");
+        }
+
+        if (rnd.nextDouble() < current.failureRate()) {
+            throw new CaptchaSolverException("Simulated failure: ERROR_CAPTCHA_UNSOLVABLE");
+        }
+        return syntheticToken(request, rnd);
+    }
+
+    /**
+     * Draw a solve time from a log-normal distribution around the median
+     */
+    long sampleLatency(String type, Profile current, Random rnd) {
+        double median = current.medianMs();
+        // Snapshot even while unused, so turning recorded latency on later excludes earlier simulated solves
+        double recorded = CaptchaType.fromCodeOptional(type)
+                .map(captchaType -> recordedSnapshot.computeIfAbsent(captchaType,
+                        key -> recordedLatencyMs.applyAsDouble(key)))
+                .orElse(0.0);
+        if (current.useRecorded() && recorded > 0) {
+            median = recorded;
+        }
+        return Math.max(0, Math.round(median * Math.exp(current.spread() * rnd.nextGaussian())));
+    }
+
+    /**
+     * Build a token shaped like the real solution of the CAPTCHA type
+     */
+    static String syntheticToken(SolveRequest request, Random rnd) {
+        return switch (request.type()) {
+            case "recaptchav2", "recaptchav3" -> "03AFcWeA" + randomString(BASE64URL, 500, rnd);
+            case "hcaptcha" -> "P1_eyJ0eXAiOiJKV1QiLCJhbGciOiJIUzI1NiJ9." + randomString(BASE64URL, 400, rnd) +
+                    "." + randomString(BASE64URL, 43, rnd);
+            case "turnstile" -> "0." + randomString(BASE64URL, 300, rnd) + "." + randomString(HEX, 64, rnd);
+            case "funcaptcha" -> randomString(HEX, 17, rnd) + "." + randomString(HEX, 10, rnd) +
+                    "|r=eu-west-1|meta=3|metabgclr=transparent|pk=" + request.siteKey();
+            case "geetest" -> {
+                String validate = randomString(HEX, 32, rnd);
+                yield "{\"challenge\":\"" + randomString(HEX, 34, rnd) + "\",\"validate\":\"" + validate +
+                        "\",\"seccode\":\"" + validate + "|jordan\"}";
+            }
+            case "geetestv4" -> "{\"captcha_id\":\"" + request.siteKey() + "\",\"lot_number\":\"" +
+                    randomString(HEX, 32, rnd) + "\",\"pass_token\":\"" + randomString(HEX, 64, rnd) +
+                    "\",\"gen_time\":\"" + System.currentTimeMillis() / 1000 + "\",\"captcha_output\":\"" +
+                    randomString(BASE64URL, 120, rnd) + "\"}";
+            case "awswaf" -> "{\"captcha_voucher\":\"" + randomString(BASE64URL, 200, rnd) +
+                    "\",\"existing_token\":\"" + randomString(HEX, 8, rnd) + "-" + randomString(HEX, 4, rnd) + "-" +
+                    randomString(HEX, 4, rnd) + "-" + randomString(HEX, 4, rnd) + "-" +
+                    randomString(HEX, 12, rnd) + ":" + randomString(BASE64URL, 40, rnd) + "\"}";
+            default -> "SIMULATED_" + randomString(BASE64URL, 64, rnd);
+        };
+    }
+
+    private static String randomString(String alphabet, int length, Random rnd) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append(alphabet.charAt(rnd.nextInt(alphabet.length())));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public BigDecimal fetchBalance(String apiKey) {
+        // Nothing is spent in a dry run
+        return new BigDecimal("9999.99");
+    }
+
+    @Override
+    public boolean isValidKeyFormat(String apiKey) {
+        return apiKey != null && !apiKey.isBlank();
+    }
+}
@@ -0,0 +1,229 @@
+package cli.li.resolver.service;
+
+import java.util.concurrent.CompletableFuture;
+
+import cli.li.resolver.logger.LoggerService;
+import cli.li.resolver.settings.SettingsManager;
+import cli.li.resolver.stats.StatisticsCollector;
+import cli.li.resolver.captcha.model.CaptchaType;
+import cli.li.resolver.captcha.model.CaptchaRequest;
+import cli.li.resolver.captcha.exception.CaptchaSolverException;
+import cli.li.resolver.provider.Deadline;
+import cli.li.resolver.provider.AsyncPolling;
+import cli.li.resolver.provider.SolveRequest;
+
+/**
+ * Resolves parsed CAPTCHA requests to tokens.
+ * Reuses tokens for placeholders that opt in to reuse, serves pre-solved tokens
+ * from the token pool when available and falls back to a live solve through
+ * the ServiceManager, recording solve statistics and when each token was issued.
+ */
+public class CaptchaResolver {
+    private final ServiceManager serviceManager;
+    private final StatisticsCollector statisticsCollector;
+    private final SettingsManager settingsManager;
+    private final TokenPool tokenPool;
+    private final TokenReuseCache reuseCache;
+    private final TokenFreshness tokenFreshness;
+    private final LoggerService logger;
+
+    public CaptchaResolver(ServiceManager serviceManager, StatisticsCollector statisticsCollector,
+                           SettingsManager settingsManager) {
+        this.serviceManager = serviceManager;
+        this.statisticsCollector = statisticsCollector;
+        this.settingsManager = settingsManager;
+        this.logger = LoggerService.getInstance();
+        this.tokenPool = new TokenPool(this::solveLive, settingsManager);
+        this.reuseCache = new TokenReuseCache(this::resolveFresh);
+        this.tokenFreshness = new TokenFreshness();
+    }
+
+    /**
+     * Create the deadline for solving a CAPTCHA request: its timeout_seconds parameter,
+     * or the configured solve timeout
+     * @param captchaRequest CAPTCHA request from placeholder parser
+     * @return Deadline starting now
+     */
+    public Deadline deadlineFor(CaptchaRequest captchaRequest) {
+        return Deadline.afterSeconds(captchaRequest.timeoutSeconds(settingsManager.getSolveTimeout()));
+    }
+
+    /**
+     * Resolve a CAPTCHA request, reusing a token when the placeholder allows it
+     * @param captchaRequest CAPTCHA request from placeholder parser
+     * @param deadline Point in time by which the token is needed
+     * @return Solved token
+     * @throws CaptchaSolverException If solving fails or the deadline passes
+     */
+    public String resolve(CaptchaRequest captchaRequest, Deadline deadline) throws CaptchaSolverException {
+        return reuseCache.resolve(captchaRequest, deadline);
+    }
+
+    /**
+     * Resolve a CAPTCHA request without holding a thread while a provider solves it.
+     * Pooled tokens complete at once and live solves complete from the provider's polling;
+     * reused tokens go through the reuse cache, whose shared solves are awaited on a virtual thread.
+     * Cancelling the returned future stops a live solve.
+     * @param captchaRequest CAPTCHA request from placeholder parser
+     * @param deadline Point in time by which the token is needed
+     * @return Future completing with the solved token, or exceptionally with a CaptchaSolverException
+     */
+    public CompletableFuture<String> resolveAsync(CaptchaRequest captchaRequest, Deadline deadline) {
+        if (TokenReuseCache.isReusable(captchaRequest)) {
+            return AsyncPolling.call(() -> resolve(captchaRequest, deadline));
+        }
+
+        String pooledToken = takePooled(captchaRequest);
+        if (pooledToken != null) {
+            return CompletableFuture.completedFuture(pooledToken);
+        }
+
+        long startTime = System.currentTimeMillis();
+        CompletableFuture<String> solve = solveLiveAsync(captchaRequest, deadline);
+        solve.thenRun(() -> tokenPool.recordSolveLatency(captchaRequest, System.currentTimeMillis() - startTime));
+        return solve;
+    }
+
+    /**
+     * Resolve a CAPTCHA request again after its token was found stale. The stale token is no
+     * longer reused, and the new token comes from the reuse cache, the pool or a live solve
+     * like any other.
+     * @param captchaRequest CAPTCHA request from placeholder parser
+     * @param staleToken Token found stale
+     * @param deadline Point in time by which the token is needed
+     * @return Future completing with the new token, or exceptionally with a CaptchaSolverException
+     */
+    public CompletableFuture<String> resolveAgainAsync(CaptchaRequest captchaRequest, String staleToken,
+                                                       Deadline deadline) {
+        reuseCache.invalidate(captchaRequest, staleToken);
+        return resolveAsync(captchaRequest, deadline);
+    }
+
+    /**
+     * Get a fresh token, preferring a pre-solved token from the pool
+     * @param captchaRequest CAPTCHA request from placeholder parser
+     * @param deadline Point in time by which the token is needed
+     * @return Solved token
+     * @throws CaptchaSolverException If solving fails
+     */
+    private String resolveFresh(CaptchaRequest captchaRequest, Deadline deadline) throws CaptchaSolverException {
+        String pooledToken = takePooled(captchaRequest);
+        if (pooledToken != null) {
+            return pooledToken;
+        }
+
+        long startTime = System.currentTimeMillis();
+        String token = solveLive(captchaRequest, deadline);
+        tokenPool.recordSolveLatency(captchaRequest, System.currentTimeMillis() - startTime);
+        return token;
+    }
+
+    private String takePooled(CaptchaRequest captchaRequest) {
+        String pooledToken = tokenPool.take(captchaRequest);
+        if (pooledToken != null) {
+            logger.info("CaptchaResolver", "Using pre-solved " + captchaRequest.captchaType() + " token from pool");
+        }
+        return pooledToken;
+    }
+
+    /**
+     * Record that a request for this CAPTCHA arrived from bursty traffic such as Intruder,
+     * so that tokens are prefetched ahead of the following requests
+     * @param captchaRequest CAPTCHA request from placeholder parser
+     */
+    public void recordDemand(CaptchaRequest captchaRequest) {
+        // Reused tokens already cover bursts, prefetching would only waste solves
+        if (!TokenReuseCache.isReusable(captchaRequest)) {
+            tokenPool.recordDemand(captchaRequest);
+        }
+    }
+
+    /**
+     * Solve a CAPTCHA using the ServiceManager's provider-based solve method
+     * @param captchaRequest CAPTCHA request from placeholder parser
+     * @param deadline Point in time by which the solve must finish
+     * @return Solved token
+     * @throws CaptchaSolverException If solving fails
+     */
+    public String solveLive(CaptchaRequest captchaRequest, Deadline deadline) throws CaptchaSolverException {
+        return AsyncPolling.await(solveLiveAsync(captchaRequest, deadline));
+    }
+
+    /**
+     * Solve a CAPTCHA asynchronously with the providers, recording solve statistics and the token's issue time
+     * before the returned future completes. Cancelling the returned future stops the solve.
+     * @param captchaRequest CAPTCHA request from placeholder parser
+     * @param deadline Point in time by which the solve must finish
+     * @return Future completing with the solved token, or exceptionally with a CaptchaSolverException
+     */
+    private CompletableFuture<String> solveLiveAsync(CaptchaRequest captchaRequest, Deadline deadline) {
+        // Build a SolveRequest from the CaptchaRequest
+        CaptchaType captchaType = captchaRequest.captchaType();
+        SolveRequest solveRequest = new SolveRequest(
+                "", // API key will be filled by ServiceManager per provider
+                captchaType.getCode(),
+                captchaRequest.siteKey(),
+                captchaRequest.url(),
+                captchaRequest.additionalParams()
+        );
+
+        long startTime = System.currentTimeMillis();
+        CompletableFuture<String> solve = serviceManager.solveAsync(solveRequest, deadline);
+        CompletableFuture<String> result = new CompletableFuture<>();
+        // Cancelling the result stops the provider solve
+        result.whenComplete((token, error) -> {
+            if (result.isCancelled()) {
+                solve.cancel(true);
+            }
+        });
+        solve.whenComplete((token, error) -> {
+            if (solve.isCancelled()) {
+                return;
+            }
+            long elapsed = System.currentTimeMillis() - startTime;
+            if (error == null) {
+                // Tracked before the caller sees the token, so its freshness can be checked at injection
+                tokenFreshness.recordIssued(token, captchaType);
+            }
+            statisticsCollector.recordSolveAttempt(captchaType, "provider", error == null, elapsed);
+            if (error == null) {
+                result.complete(token);
+            } else {
+                result.completeExceptionally(AsyncPolling.toSolverException(error));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Get the pre-solved token pool
+     * @return Token pool
+     */
+    public TokenPool getTokenPool() {
+        return tokenPool;
+    }
+
+    /**
+     * Get the token reuse cache
+     * @return Token reuse cache
+     */
+    public TokenReuseCache getReuseCache() {
+        return reuseCache;
+    }
+
+    /**
+     * Get the issue times of solved tokens
+     * @return Token freshness tracker
+     */
+    public TokenFreshness getTokenFreshness() {
+        return tokenFreshness;
+    }
+
+    /**
+     * Stop background work
+     */
+    public void shutdown() {
+        tokenPool.shutdown();
+        reuseCache.clear();
+    }
+}
@@ -0,0 +1,146 @@
+package cli.li.resolver.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import cli.li.resolver.captcha.model.CaptchaRequest;
+
+/**
+ * Predicts how many solves must be in flight for a CAPTCHA request so that
+ * bursty traffic (such as an Intruder attack) finds a ready token.
+ * Tracks an exponentially weighted arrival interval and solve latency per request
+ * and applies Little's law: tokens needed = arrival rate x solve latency.
+ */
+public class DemandPredictor {
+    // Weight of the newest sample in the moving averages
+    private static final double ALPHA = 0.3;
+    // Latency assumed until the first solve for a request completes
+    private static final long DEFAULT_LATENCY_MS = 20_000L;
+    // Extra share of in-flight solves to absorb rate jitter
+    private static final double HEADROOM = 1.2;
+    // Upper bound on prefetched solves per request, to cap spending on a runaway estimate
+    private static final int MAX_DEPTH = 50;
+    // Demand stops once no request arrived for this many average intervals (at least MIN_QUIET_MS)
+    private static final int QUIET_INTERVALS = 4;
+    private static final long MIN_QUIET_MS = 5_000L;
+
+    private final Map<CaptchaRequest, Demand> demands = new ConcurrentHashMap<>();
+
+    /**
+     * Record that a request for this CAPTCHA arrived
+     * @param request CAPTCHA request
+     * @param now Current time in milliseconds
+     */
+    public void recordArrival(CaptchaRequest request, long now) {
+        demands.computeIfAbsent(request, key -> new Demand()).recordArrival(now);
+    }
+
+    /**
+     * Record how long a solve for this CAPTCHA took
+     * @param request CAPTCHA request
+     * @param latencyMs Solve latency in milliseconds
+     */
+    public void recordLatency(CaptchaRequest request, long latencyMs) {
+        Demand demand = demands.get(request);
+        if (demand != null) {
+            demand.recordLatency(latencyMs);
+        }
+    }
+
+    /**
+     * Get the current arrival rate for a CAPTCHA
+     * @param request CAPTCHA request
+     * @param now Current time in milliseconds
+     * @return Requests per second, 0 when there is no ongoing demand
+     */
+    public double getArrivalRate(CaptchaRequest request, long now) {
+        Demand demand = demands.get(request);
+        return demand != null ? demand.arrivalRate(now) : 0;
+    }
+
+    /**
+     * Get the number of tokens that should be pooled or in flight for a CAPTCHA
+     * @param request CAPTCHA request
+     * @param now Current time in milliseconds
+     * @return Target depth, 0 when there is no ongoing demand
+     */
+    public int targetDepth(CaptchaRequest request, long now) {
+        Demand demand = demands.get(request);
+        if (demand == null) {
+            return 0;
+        }
+        double rate = demand.arrivalRate(now);
+        if (rate <= 0) {
+            return 0;
+        }
+        double needed = rate * demand.latencyMs() / 1000.0 * HEADROOM;
+        return (int) Math.max(1, Math.min(MAX_DEPTH, Math.ceil(needed)));
+    }
+
+    /**
+     * Get the number of CAPTCHAs with ongoing demand
+     * @param now Current time in milliseconds
+     * @return Active CAPTCHA count
+     */
+    public int getActiveCount(long now) {
+        int active = 0;
+        for (Demand demand : demands.values()) {
+            if (demand.arrivalRate(now) > 0) {
+                active++;
+            }
+        }
+        return active;
+    }
+
+    /**
+     * Forget CAPTCHAs that have not been requested for a while
+     * @param now Current time in milliseconds
+     * @param maxIdleMs Idle time after which a CAPTCHA is forgotten
+     */
+    public void evictIdle(long now, long maxIdleMs) {
+        demands.values().removeIf(demand -> demand.idleFor(now) > maxIdleMs);
+    }
+
+    /**
+     * Arrival and latency estimates of one CAPTCHA request
+     */
+    private static final class Demand {
+        private long lastArrival = -1;
+        private double intervalMs = Double.NaN;
+        private double latencyMs = DEFAULT_LATENCY_MS;
+        private boolean latencySampled = false;
+
+        synchronized void recordArrival(long now) {
+            if (lastArrival >= 0) {
+                // Concurrent arrivals are clamped to 1ms so the rate stays finite
+                double interval = Math.max(1, now - lastArrival);
+                intervalMs = Double.isNaN(intervalMs) ? interval : ALPHA * interval + (1 - ALPHA) * intervalMs;
+            }
+            lastArrival = Math.max(lastArrival, now);
+        }
+
+        synchronized void recordLatency(long latency) {
+            latencyMs = latencySampled ? ALPHA * latency + (1 - ALPHA) * latencyMs : latency;
+            latencySampled = true;
+        }
+
+        synchronized double arrivalRate(long now) {
+            if (Double.isNaN(intervalMs)) {
+                return 0;
+            }
+            long quietMs = Math.max(MIN_QUIET_MS, (long) (QUIET_INTERVALS * intervalMs));
+            if (now - lastArrival > quietMs) {
+                return 0;
+            }
+            return 1000.0 / intervalMs;
+        }
+
+        synchronized double latencyMs() {
+            return latencyMs;
+        }
+
+        synchronized long idleFor(long now) {
+            return now - lastArrival;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package cli.li.resolver.service;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.DoubleSupplier;
+
+import cli.li.resolver.captcha.exception.CaptchaSolverException;
+import cli.li.resolver.captcha.exception.CaptchaTimeoutException;
+
+/**
+ * Retry policy for provider solve attempts.
+ * Transient failures (no free worker, HTTP 5xx, network errors) are retried on the same
+ * provider with exponential backoff and jitter; terminal failures (bad key, zero balance,
+ * bad parameters) go straight to the next provider. Retries are limited per provider and
+ * per request, and never outlast the solve deadline.
+ */
+public class RetryPolicy {
+    private static final long BASE_DELAY_MS = 1000L;
+    private static final long MAX_DELAY_MS = 8000L;
+    // Requests may spend at most this many providers' worth of retries
+    private static final int REQUEST_BUDGET_PROVIDERS = 2;
+
+    // Provider error codes that are never worth retrying
+    private static final List<String> TERMINAL_ERRORS = List.of(
+            "ERROR_WRONG_USER_KEY", "ERROR_KEY_DOES_NOT_EXIST", "ERROR_ZERO_BALANCE",
+            "ERROR_IP_NOT_ALLOWED", "ERROR_IP_BANNED", "ERROR_ACCOUNT_SUSPENDED",
+            "ERROR_WRONG_GOOGLEKEY", "ERROR_GOOGLEKEY", "ERROR_PAGEURL", "ERROR_BAD_PARAMETERS",
+            "ERROR_BAD_TOKEN_OR_PAGEURL", "ERROR_WRONG_CAPTCHA_ID", "ERROR_NO_SUCH_METHOD");
+    // Provider error codes reporting a temporary condition on the provider side
+    private static final List<String> TRANSIENT_ERRORS = List.of(
+            "ERROR_NO_SLOT_AVAILABLE", "ERROR_CAPTCHA_UNSOLVABLE", "ERROR_TOO_MUCH_REQUESTS",
+            "ERROR_SERVICE_UNAVAILABLE", "MAX_USER_TURN");
+
+    private final int retriesPerProvider;
+    private final int retriesPerRequest;
+    private final DoubleSupplier random;
+
+    /**
+     * Create a policy from the configured retry count
+     * @param maxRetries Retries allowed per provider
+     */
+    public RetryPolicy(int maxRetries) {
+        this(maxRetries, maxRetries * REQUEST_BUDGET_PROVIDERS, () -> ThreadLocalRandom.current().nextDouble());
+    }
+
+    /**
+     * Constructor with explicit budgets and injectable jitter source
+     * @param retriesPerProvider Retries allowed on one provider
+     * @param retriesPerRequest Retries allowed across all providers of one request
+     * @param random Source of jitter in [0, 1)
+     */
+    RetryPolicy(int retriesPerProvider, int retriesPerRequest, DoubleSupplier random) {
+        this.retriesPerProvider = Math.max(0, retriesPerProvider);
+        this.retriesPerRequest = Math.max(0, retriesPerRequest);
+        this.random = random;
+    }
+
+    /**
+     * Check whether a failed attempt may be retried
+     * @param error Failure of the attempt
+     * @param providerRetries Retries already made on this provider
+     * @param requestRetries Retries already made for this request
+     * @return true if the failure is transient and both budgets allow another attempt
+     */
+    public boolean shouldRetry(CaptchaSolverException error, int providerRetries, int requestRetries) {
+        return providerRetries < retriesPerProvider
+                && requestRetries < retriesPerRequest
+                && isTransient(error);
+    }
+
+    /**
+     * Get the delay before a retry: exponential in the retry number, with the upper
+     * half randomized so that concurrent requests do not retry in lockstep
+     * @param retry Retry number on the provider, starting at 1
+     * @return Delay in milliseconds
+     */
+    public long backoffMillis(int retry) {
+        long ceiling = Math.min(MAX_DELAY_MS, BASE_DELAY_MS << Math.min(Math.max(0, retry - 1), 16));
+        long half = ceiling / 2;
+        return half + (long) (random.getAsDouble() * (ceiling - half));
+    }
+
+    /**
+     * Classify a solve failure
+     * @param error Failure of a solve attempt
+     * @return true if the failure is temporary and a retry may succeed
+     */
+    public static boolean isTransient(CaptchaSolverException error) {
+        // Running out of time or being cancelled is final
+        if (error instanceof CaptchaTimeoutException || error.getCause() instanceof InterruptedException) {
+            return false;
+        }
+
+        String message = error.getMessage() != null ? error.getMessage() : "";
+        for (String code : TERMINAL_ERRORS) {
+            if (message.contains(code)) {
+                return false;
+            }
+        }
+        for (String code : TRANSIENT_ERRORS) {
+            if (message.contains(code)) {
+                return true;
+            }
+        }
+
+        // Server errors, rate limiting and network failures reported by the provider base classes
+        return message.contains("HTTP error code: 5")
+                || message.contains("HTTP error code: 429")
+                || message.contains("No response received")
+                || message.toLowerCase().contains("timed out");
+    }
+}
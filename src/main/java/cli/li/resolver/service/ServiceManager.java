@@ -5,17 +5,20 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import cli.li.resolver.util.ApiKeyUtils;
 import cli.li.resolver.logger.LoggerService;
 import cli.li.resolver.settings.SettingsManager;
 import cli.li.resolver.captcha.exception.CaptchaSolverException;
+import cli.li.resolver.captcha.exception.CaptchaTimeoutException;
+import cli.li.resolver.provider.Deadline;
+import cli.li.resolver.provider.AsyncPolling;
 import cli.li.resolver.provider.CaptchaProvider;
 import cli.li.resolver.provider.ProviderConfig;
 import cli.li.resolver.provider.ProviderRegistry;
 import cli.li.resolver.provider.ProviderService;
 import cli.li.resolver.provider.SolveRequest;
-import cli.li.resolver.provider.selection.CircuitBreaker;
 import cli.li.resolver.provider.selection.ProviderSelector;
 
 /**
@@ -109,12 +112,40 @@ public class ServiceManager {
     }
 
     /**
-     * Solve a CAPTCHA using available providers with fallback
+     * Solve a CAPTCHA using available providers with fallback, within the configured solve timeout
      * @param solveRequest The solve request
      * @return Solved CAPTCHA token
      * @throws CaptchaSolverException If solving fails with all providers
      */
     public String solve(SolveRequest solveRequest) throws CaptchaSolverException {
+        return solve(solveRequest, Deadline.afterSeconds(settingsManager.getSolveTimeout()));
+    }
+
+    /**
+     * Solve a CAPTCHA using available providers with fallback.
+     * Each provider only gets the time left before the deadline, and failover stops once it has passed.
+     * Transient failures are retried on the same provider with backoff, within the retry budgets
+     * derived from the max retries setting.
+     * @param solveRequest The solve request
+     * @param deadline Point in time by which the solve must finish
+     * @return Solved CAPTCHA token
+     * @throws CaptchaTimeoutException If the deadline passes before a provider solves the CAPTCHA
+     * @throws CaptchaSolverException If solving fails with all providers
+     */
+    public String solve(SolveRequest solveRequest, Deadline deadline) throws CaptchaSolverException {
+        return AsyncPolling.await(solveAsync(solveRequest, deadline));
+    }
+
+    /**
+     * Solve a CAPTCHA asynchronously using available providers with fallback.
+     * Provider polls and retry backoff hold no thread while waiting, so many solves can be
+     * outstanding at once. Cancelling the returned future stops the solve.
+     * @param solveRequest The solve request
+     * @param deadline Point in time by which the solve must finish
+     * @return Future completing with the solved token, or exceptionally with a CaptchaTimeoutException
+     * if the deadline passes, or a CaptchaSolverException if solving fails with all providers
+     */
+    public CompletableFuture<String> solveAsync(SolveRequest solveRequest, Deadline deadline) {
         logger.info("ServiceManager", "Solving CAPTCHA type: " + solveRequest.type());
 
         // Use ProviderSelector to get ordered providers for the given CAPTCHA type
@@ -122,45 +153,131 @@ public class ServiceManager {
                 solveRequest.type(), providerServices);
 
         if (orderedProviders.isEmpty()) {
-            throw new CaptchaSolverException("No available provider for CAPTCHA type: " +
-                    solveRequest.type());
+            return CompletableFuture.failedFuture(new CaptchaSolverException(
+                    "No available provider for CAPTCHA type: " + solveRequest.type()));
         }
 
-        CaptchaSolverException lastException = null;
+        return new FailoverSolve(solveRequest, deadline, orderedProviders).start();
+    }
 
-        for (ProviderService ps : orderedProviders) {
-            CircuitBreaker breaker = providerSelector.getCircuitBreaker(ps.getId());
-            try {
-                logger.info("ServiceManager", "Trying provider: " + ps.getDisplayName() +
-                        " for type: " + solveRequest.type());
+    /**
+     * One solve trying the ordered providers in turn, retrying transient failures with backoff.
+     * Each step starts when the previous one completes, so the state needs no locking.
+     */
+    private final class FailoverSolve {
+        private final SolveRequest solveRequest;
+        private final Deadline deadline;
+        private final List<ProviderService> providers;
+        private final RetryPolicy retryPolicy = new RetryPolicy(settingsManager.getMaxRetries());
+        private final CompletableFuture<String> result = new CompletableFuture<>();
+
+        private int providerIndex = -1;
+        private int providerRetries;
+        private int requestRetries;
+        private CaptchaSolverException lastException;
+        private volatile CompletableFuture<String> currentAttempt;
+
+        FailoverSolve(SolveRequest solveRequest, Deadline deadline, List<ProviderService> providers) {
+            this.solveRequest = solveRequest;
+            this.deadline = deadline;
+            this.providers = providers;
+        }
 
-                // Build request with this provider's API key
-                SolveRequest requestWithKey = new SolveRequest(
-                        ps.getApiKey(),
-                        solveRequest.type(),
-                        solveRequest.siteKey(),
-                        solveRequest.pageUrl(),
-                        solveRequest.params()
-                );
+        CompletableFuture<String> start() {
+            // Cancelling the solve stops the provider attempt in progress
+            result.whenComplete((token, error) -> {
+                CompletableFuture<String> attempt = currentAttempt;
+                if (result.isCancelled() && attempt != null) {
+                    attempt.cancel(true);
+                }
+            });
+            nextProvider();
+            return result;
+        }
 
-                String token = ps.solve(requestWithKey);
-                breaker.recordSuccess();
+        private void nextProvider() {
+            if (++providerIndex >= providers.size()) {
+                result.completeExceptionally(new CaptchaSolverException(
+                        "All providers failed to solve CAPTCHA type: " + solveRequest.type(), lastException));
+                return;
+            }
 
-                logger.info("ServiceManager", "CAPTCHA solved successfully by provider: " +
-                        ps.getDisplayName());
-                return token;
+            ProviderService ps = providers.get(providerIndex);
+            if (deadline.isExpired()) {
+                result.completeExceptionally(new CaptchaTimeoutException("Solve deadline passed before provider " +
+                        ps.getDisplayName() + " could be tried for CAPTCHA type: " + solveRequest.type()));
+                return;
+            }
 
-            } catch (CaptchaSolverException e) {
-                breaker.recordFailure();
-                lastException = e;
-                logger.warning("ServiceManager", "Provider " + ps.getDisplayName() +
-                        " failed: " + e.getMessage() + ", trying next provider");
+            logger.info("ServiceManager", "Trying provider: " + ps.getDisplayName() +
+                    " for type: " + solveRequest.type());
+
+            // Build request with this provider's API key
+            SolveRequest requestWithKey = new SolveRequest(
+                    ps.getApiKey(),
+                    solveRequest.type(),
+                    solveRequest.siteKey(),
+                    solveRequest.pageUrl(),
+                    solveRequest.params()
+            );
+
+            providerRetries = 0;
+            attempt(ps, requestWithKey);
+        }
+
+        private void attempt(ProviderService ps, SolveRequest requestWithKey) {
+            if (result.isDone()) {
+                return;
             }
+            long attemptStart = System.currentTimeMillis();
+            CompletableFuture<String> attempt = ps.solveAsync(requestWithKey, deadline);
+            currentAttempt = attempt;
+            attempt.whenComplete((token, error) -> {
+                if (error == null) {
+                    providerSelector.getCircuitBreaker(ps.getId()).recordSuccess();
+                    logger.info("ServiceManager", "CAPTCHA solved successfully by provider: " +
+                            ps.getDisplayName() + (providerRetries > 0 ? " after " + providerRetries + " retries" : ""));
+                    result.complete(token);
+                    return;
+                }
+                if (result.isDone()) {
+                    return;
+                }
+                onFailure(ps, requestWithKey, AsyncPolling.toSolverException(error), attemptStart);
+            });
         }
 
-        throw new CaptchaSolverException("All providers failed to solve CAPTCHA type: " +
-                solveRequest.type(),
-                lastException);
+        private void onFailure(ProviderService ps, SolveRequest requestWithKey, CaptchaSolverException e,
+                               long attemptStart) {
+            if (e instanceof CaptchaTimeoutException) {
+                // Out of time: no provider can finish, and the breaker should not count our own budget
+                logger.warning("ServiceManager", "Provider " + ps.getDisplayName() + " ran out of time: " +
+                        e.getMessage());
+                result.completeExceptionally(e);
+                return;
+            }
+            lastException = e;
+
+            long backoff = retryPolicy.backoffMillis(providerRetries + 1);
+            if (retryPolicy.shouldRetry(e, providerRetries, requestRetries)
+                    && backoff < deadline.remainingMillis()) {
+                providerRetries++;
+                requestRetries++;
+                logger.warning("ServiceManager", "Provider " + ps.getDisplayName() +
+                        " failed transiently: " + e.getMessage() + ", retry " + providerRetries +
+                        " in " + backoff + "ms");
+                AsyncPolling.delay(backoff).thenRun(() -> {
+                    ps.getStatistics().recordRetry(System.currentTimeMillis() - attemptStart);
+                    attempt(ps, requestWithKey);
+                });
+                return;
+            }
+
+            providerSelector.getCircuitBreaker(ps.getId()).recordFailure();
+            logger.warning("ServiceManager", "Provider " + ps.getDisplayName() +
+                    " failed: " + e.getMessage() + ", trying next provider");
+            nextProvider();
+        }
     }
 
     /**
@@ -0,0 +1,134 @@
+package cli.li.resolver.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import cli.li.resolver.captcha.model.CaptchaType;
+
+/**
+ * Tracks when each solved token was issued, so its remaining lifetime can be checked
+ * just before it is injected. Queueing, retries, failover, the token pool and token
+ * reuse all add time between the solve and the send; a token that expired on the way
+ * costs a whole solve plus a rejected round trip to the target.
+ * Lifetimes come from {@link CaptchaType#getTokenLifetimeSeconds()}.
+ */
+public class TokenFreshness {
+    // Share of the lifetime below which a token is flagged as near expiry
+    static final double NEAR_EXPIRY_FRACTION = 0.25;
+    // Expired entries are kept this long for diagnostics, then purged
+    private static final long RETENTION_MS = 60_000;
+    // Purging only starts once this many tokens are tracked
+    private static final int PURGE_THRESHOLD = 256;
+
+    private final LongSupplier clock;
+    private final Map<String, Issued> issued = new ConcurrentHashMap<>();
+
+    private final AtomicLong stale = new AtomicLong(0);
+    private final AtomicLong nearExpiry = new AtomicLong(0);
+
+    public TokenFreshness() {
+        this(System::currentTimeMillis);
+    }
+
+    /**
+     * Constructor with injectable time source
+     * @param clock Time source in milliseconds
+     */
+    TokenFreshness(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Freshness of a token at the time of the check
+     */
+    public enum Status {
+        /** Issued recently enough to be sent as is */
+        FRESH,
+        /** Still valid, but less than a quarter of its lifetime left */
+        NEAR_EXPIRY,
+        /** Past its lifetime, must be solved again */
+        STALE,
+        /** Not issued through this resolver, e.g. a hard-coded value */
+        UNKNOWN
+    }
+
+    /**
+     * Result of a freshness check
+     * @param status Freshness status
+     * @param remainingMs Lifetime left in milliseconds, 0 if stale, -1 if unknown
+     */
+    public record Freshness(Status status, long remainingMs) {
+    }
+
+    /**
+     * Record that a token was just issued by a provider
+     * @param token Solved token
+     * @param type CAPTCHA type, which determines the lifetime
+     */
+    public void recordIssued(String token, CaptchaType type) {
+        if (token == null) {
+            return;
+        }
+        long now = clock.getAsLong();
+        if (issued.size() >= PURGE_THRESHOLD) {
+            issued.values().removeIf(entry -> entry.expiresAt() + RETENTION_MS <= now);
+        }
+        issued.put(token, new Issued(now, now + type.getTokenLifetimeSeconds() * 1000L));
+    }
+
+    /**
+     * Check the remaining lifetime of a token, counting stale and near-expiry tokens
+     * @param token Token about to be injected
+     * @return Freshness of the token
+     */
+    public Freshness check(String token) {
+        Issued entry = token != null ? issued.get(token) : null;
+        if (entry == null) {
+            return new Freshness(Status.UNKNOWN, -1);
+        }
+        long remaining = entry.expiresAt() - clock.getAsLong();
+        if (remaining <= 0) {
+            // Kept until retention purges it: a shared or reused token may be checked again
+            stale.incrementAndGet();
+            return new Freshness(Status.STALE, 0);
+        }
+        long lifetime = entry.expiresAt() - entry.issuedAt();
+        if (remaining < lifetime * NEAR_EXPIRY_FRACTION) {
+            nearExpiry.incrementAndGet();
+            return new Freshness(Status.NEAR_EXPIRY, remaining);
+        }
+        return new Freshness(Status.FRESH, remaining);
+    }
+
+    /**
+     * Get the number of tokens found stale before injection
+     * @return Stale count
+     */
+    public long getStale() {
+        return stale.get();
+    }
+
+    /**
+     * Get the number of tokens injected with less than a quarter of their lifetime left
+     * @return Near-expiry count
+     */
+    public long getNearExpiry() {
+        return nearExpiry.get();
+    }
+
+    /**
+     * Get the number of tracked tokens
+     * @return Tracked token count
+     */
+    public int size() {
+        return issued.size();
+    }
+
+    /**
+     * Issue time and expiry of a token
+     */
+    private record Issued(long issuedAt, long expiresAt) {
+    }
+}
@@ -0,0 +1,341 @@
+package cli.li.resolver.service;
+
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import cli.li.resolver.logger.LoggerService;
+import cli.li.resolver.settings.SettingsManager;
+import cli.li.resolver.provider.Deadline;
+import cli.li.resolver.captcha.model.CaptchaRequest;
+import cli.li.resolver.captcha.exception.CaptchaSolverException;
+
+/**
+ * Pool of pre-solved CAPTCHA tokens.
+ * Keeps up to the configured number of tokens per distinct CAPTCHA request
+ * (type, site key, page URL and parameters), refills them in the background and
+ * evicts tokens once their per-type lifetime has passed. A request becomes pooled
+ * the first time it is asked for and stops being refilled when it goes idle.
+ * For bursty demand (Intruder attacks) the depth is raised to the number of
+ * solves the DemandPredictor expects to be needed, and winds down with the burst.
+ * Refill solves across all keys are limited to the solver thread pool size, so prefetching
+ * cannot start more provider solves than placeholder resolution is admitted to.
+ */
+public class TokenPool {
+    // Keys not requested for this long are no longer refilled
+    private static final long IDLE_TIMEOUT_MS = 5 * 60 * 1000L;
+    // Pause refilling a key after a failed solve, so a broken challenge does not burn balance
+    private static final long FAILURE_BACKOFF_MS = 10_000L;
+    private static final long MAINTENANCE_INTERVAL_MS = 1000L;
+
+    private final TokenSolver solver;
+    private final SettingsManager settingsManager;
+    private final LongSupplier clock;
+    private final Executor refillExecutor;
+    private final ScheduledExecutorService maintenanceExecutor;
+    private final Semaphore refillSlots;
+    private final LoggerService logger;
+    private final Map<CaptchaRequest, KeyPool> pools = new ConcurrentHashMap<>();
+    private final DemandPredictor demandPredictor = new DemandPredictor();
+
+    private final AtomicLong hits = new AtomicLong(0);
+    private final AtomicLong misses = new AtomicLong(0);
+    private final AtomicLong wasted = new AtomicLong(0);
+    private final AtomicLong refilled = new AtomicLong(0);
+
+    public TokenPool(TokenSolver solver, SettingsManager settingsManager) {
+        this(solver, settingsManager, System::currentTimeMillis, Executors.newVirtualThreadPerTaskExecutor(),
+                Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                        .name("resolver-token-pool")
+                        .daemon(true)
+                        .factory()));
+    }
+
+    /**
+     * Constructor with injectable time source and executors
+     * @param solver Source of solved tokens
+     * @param settingsManager Settings manager providing the pool depth
+     * @param clock Time source in milliseconds
+     * @param refillExecutor Executor running refill solves
+     * @param maintenanceExecutor Executor for periodic eviction and refill, or null to disable it
+     */
+    TokenPool(TokenSolver solver, SettingsManager settingsManager, LongSupplier clock, Executor refillExecutor,
+              ScheduledExecutorService maintenanceExecutor) {
+        this.solver = solver;
+        this.settingsManager = settingsManager;
+        this.clock = clock;
+        this.refillExecutor = refillExecutor;
+        this.maintenanceExecutor = maintenanceExecutor;
+        this.refillSlots = new Semaphore(Math.max(1, settingsManager.getThreadPoolSize()));
+        this.logger = LoggerService.getInstance();
+
+        if (maintenanceExecutor != null) {
+            maintenanceExecutor.scheduleWithFixedDelay(this::maintain,
+                    MAINTENANCE_INTERVAL_MS, MAINTENANCE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Record demand for a request from bursty traffic, so the pool prefetches
+     * enough tokens to keep up with its arrival rate
+     * @param request CAPTCHA request
+     */
+    public void recordDemand(CaptchaRequest request) {
+        if (settingsManager.isIntruderPrefetchEnabled()) {
+            demandPredictor.recordArrival(request, clock.getAsLong());
+        }
+    }
+
+    /**
+     * Record the latency of a solve made outside the pool
+     * @param request CAPTCHA request
+     * @param latencyMs Solve latency in milliseconds
+     */
+    public void recordSolveLatency(CaptchaRequest request, long latencyMs) {
+        demandPredictor.recordLatency(request, latencyMs);
+    }
+
+    /**
+     * Take a pre-solved token for a request and schedule a refill.
+     * @param request CAPTCHA request
+     * @return Unexpired token, or null if the pool is disabled or has none for this request
+     */
+    public String take(CaptchaRequest request) {
+        long now = clock.getAsLong();
+        int depth = targetDepth(request, now);
+        KeyPool pool = pools.get(request);
+        if (pool == null) {
+            if (depth <= 0) {
+                return null;
+            }
+            pool = pools.computeIfAbsent(request, key -> new KeyPool());
+        }
+        pool.lastDemandAt = now;
+
+        String token = null;
+        PooledToken pooled;
+        while ((pooled = pool.tokens.pollFirst()) != null) {
+            if (pooled.expiresAt() > now) {
+                token = pooled.token();
+                break;
+            }
+            wasted.incrementAndGet();
+        }
+
+        if (token != null) {
+            hits.incrementAndGet();
+            logger.debug("TokenPool", "Pool hit for " + request.captchaType() + ", " +
+                    pool.tokens.size() + " token(s) left");
+        } else {
+            misses.incrementAndGet();
+            logger.debug("TokenPool", "Pool miss for " + request.captchaType());
+        }
+
+        refill(request, pool, depth, now);
+        return token;
+    }
+
+    /**
+     * Evict expired tokens, drop idle keys and top up active ones
+     */
+    void maintain() {
+        try {
+            long now = clock.getAsLong();
+            demandPredictor.evictIdle(now, IDLE_TIMEOUT_MS);
+
+            for (Map.Entry<CaptchaRequest, KeyPool> entry : pools.entrySet()) {
+                KeyPool pool = entry.getValue();
+                pool.tokens.removeIf(pooled -> {
+                    if (pooled.expiresAt() <= now) {
+                        wasted.incrementAndGet();
+                        return true;
+                    }
+                    return false;
+                });
+
+                int depth = targetDepth(entry.getKey(), now);
+                boolean idle = now - pool.lastDemandAt > IDLE_TIMEOUT_MS;
+                if (depth <= 0 || idle) {
+                    if (pool.tokens.isEmpty() && pool.inFlight.get() == 0) {
+                        pools.remove(entry.getKey(), pool);
+                    }
+                    continue;
+                }
+
+                refill(entry.getKey(), pool, depth, now);
+            }
+        } catch (Exception e) {
+            logger.error("TokenPool", "Error during pool maintenance: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Get the number of tokens to keep pooled or in flight for a request: the configured
+     * pool size, raised to the predicted demand while prefetching is active
+     */
+    private int targetDepth(CaptchaRequest request, long now) {
+        int depth = settingsManager.getTokenPoolSize();
+        if (settingsManager.isIntruderPrefetchEnabled()) {
+            depth = Math.max(depth, demandPredictor.targetDepth(request, now));
+        }
+        return depth;
+    }
+
+    /**
+     * Start solves until pooled plus in-flight tokens reach the target depth, or all refill slots are taken
+     */
+    private void refill(CaptchaRequest request, KeyPool pool, int depth, long now) {
+        while (now >= pool.backoffUntil) {
+            int inFlight = pool.inFlight.get();
+            if (pool.tokens.size() + inFlight >= depth) {
+                return;
+            }
+            if (!refillSlots.tryAcquire()) {
+                // Maintenance tops the key up once a refill slot frees
+                return;
+            }
+            if (pool.inFlight.compareAndSet(inFlight, inFlight + 1)) {
+                refillExecutor.execute(() -> solveInto(request, pool));
+            } else {
+                refillSlots.release();
+            }
+        }
+    }
+
+    private void solveInto(CaptchaRequest request, KeyPool pool) {
+        long startTime = clock.getAsLong();
+        try {
+            Deadline deadline = Deadline.afterSeconds(request.timeoutSeconds(settingsManager.getSolveTimeout()));
+            String token = solver.solve(request, deadline);
+            demandPredictor.recordLatency(request, clock.getAsLong() - startTime);
+            if (token == null) {
+                pool.backoffUntil = clock.getAsLong() + FAILURE_BACKOFF_MS;
+                return;
+            }
+            long expiresAt = clock.getAsLong() + request.captchaType().getTokenLifetimeSeconds() * 1000L;
+            pool.tokens.addLast(new PooledToken(token, expiresAt));
+            refilled.incrementAndGet();
+        } catch (CaptchaSolverException e) {
+            pool.backoffUntil = clock.getAsLong() + FAILURE_BACKOFF_MS;
+            logger.warning("TokenPool", "Failed to pre-solve " + request.captchaType() + ": " + e.getMessage());
+        } finally {
+            pool.inFlight.decrementAndGet();
+            refillSlots.release();
+        }
+    }
+
+    /**
+     * Get the number of tokens currently pooled
+     * @return Pooled token count across all keys
+     */
+    public int getDepth() {
+        int depth = 0;
+        for (KeyPool pool : pools.values()) {
+            depth += pool.tokens.size();
+        }
+        return depth;
+    }
+
+    /**
+     * Get the number of distinct CAPTCHA requests being pooled
+     * @return Pooled key count
+     */
+    public int getKeyCount() {
+        return pools.size();
+    }
+
+    /**
+     * Get the number of CAPTCHAs currently being prefetched for bursty traffic
+     * @return Prefetching CAPTCHA count
+     */
+    public int getPrefetchingCount() {
+        return demandPredictor.getActiveCount(clock.getAsLong());
+    }
+
+    /**
+     * Get the number of requests served from the pool
+     * @return Hit count
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Get the number of requests the pool could not serve
+     * @return Miss count
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Get the share of requests served from the pool
+     * @return Hit rate (0-1)
+     */
+    public double getHitRate() {
+        long total = hits.get() + misses.get();
+        return total > 0 ? (double) hits.get() / total : 0;
+    }
+
+    /**
+     * Get the number of pre-solved tokens that expired unused
+     * @return Wasted token count
+     */
+    public long getWasted() {
+        return wasted.get();
+    }
+
+    /**
+     * Get the number of tokens solved into the pool
+     * @return Refilled token count
+     */
+    public long getRefilled() {
+        return refilled.get();
+    }
+
+    /**
+     * Reset hit, miss, waste and refill counters
+     */
+    public void resetStatistics() {
+        hits.set(0);
+        misses.set(0);
+        wasted.set(0);
+        refilled.set(0);
+    }
+
+    /**
+     * Stop background maintenance and discard pooled tokens
+     */
+    public void shutdown() {
+        if (maintenanceExecutor != null) {
+            maintenanceExecutor.shutdownNow();
+        }
+        if (refillExecutor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+        pools.clear();
+    }
+
+    private record PooledToken(String token, long expiresAt) {
+    }
+
+    /**
+     * Tokens and refill state of one CAPTCHA request
+     */
+    private static final class KeyPool {
+        private final Deque<PooledToken> tokens = new ConcurrentLinkedDeque<>();
+        private final AtomicInteger inFlight = new AtomicInteger(0);
+        private volatile long lastDemandAt;
+        private volatile long backoffUntil;
+    }
+}
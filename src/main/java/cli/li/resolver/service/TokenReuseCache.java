@@ -0,0 +1,232 @@
+package cli.li.resolver.service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import cli.li.resolver.logger.LoggerService;
+import cli.li.resolver.provider.Deadline;
+import cli.li.resolver.captcha.model.CaptchaRequest;
+import cli.li.resolver.captcha.exception.CaptchaSolverException;
+import cli.li.resolver.captcha.exception.CaptchaTimeoutException;
+
+/**
+ * Opt-in reuse of solved tokens for targets that do not enforce single use.
+ * A placeholder with {@code reuse=N} serves one token to up to N requests, and
+ * {@code reuse_ttl=S} keeps serving it for S seconds; the token lifetime of the
+ * CAPTCHA type bounds the window either way. Concurrent requests for the same
+ * placeholder share a single in-flight solve instead of each starting their own.
+ */
+public class TokenReuseCache {
+    private final TokenSolver solver;
+    private final LongSupplier clock;
+    private final LoggerService logger;
+    private final Map<CaptchaRequest, ReusableToken> tokens = new ConcurrentHashMap<>();
+    private final Map<CaptchaRequest, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong reused = new AtomicLong(0);
+    private final AtomicLong sharedSolves = new AtomicLong(0);
+
+    public TokenReuseCache(TokenSolver solver) {
+        this(solver, System::currentTimeMillis);
+    }
+
+    /**
+     * Constructor with injectable time source
+     * @param solver Source of fresh tokens
+     * @param clock Time source in milliseconds
+     */
+    TokenReuseCache(TokenSolver solver, LongSupplier clock) {
+        this.solver = solver;
+        this.clock = clock;
+        this.logger = LoggerService.getInstance();
+    }
+
+    /**
+     * Check whether a request opts in to token reuse
+     * @param request CAPTCHA request
+     * @return true if the request has a valid reuse or reuse_ttl parameter
+     */
+    public static boolean isReusable(CaptchaRequest request) {
+        return ReusePolicy.of(request) != null;
+    }
+
+    /**
+     * Resolve a request, reusing a previously solved token while its budget lasts
+     * @param request CAPTCHA request
+     * @param deadline Point in time by which the token is needed
+     * @return Solved token
+     * @throws CaptchaSolverException If solving fails
+     */
+    public String resolve(CaptchaRequest request, Deadline deadline) throws CaptchaSolverException {
+        ReusePolicy policy = ReusePolicy.of(request);
+        if (policy == null) {
+            return solver.solve(request, deadline);
+        }
+
+        while (true) {
+            ReusableToken cached = tokens.get(request);
+            if (cached != null) {
+                String token = cached.use(clock.getAsLong());
+                if (token != null) {
+                    reused.incrementAndGet();
+                    logger.debug("TokenReuseCache", "Reusing " + request.captchaType() + " token, " +
+                            cached.describeBudget() + " left");
+                    return token;
+                }
+                tokens.remove(request, cached);
+            }
+
+            CompletableFuture<String> solve = new CompletableFuture<>();
+            CompletableFuture<String> existing = inFlight.putIfAbsent(request, solve);
+            if (existing != null) {
+                // Another request is already solving this placeholder: wait and take a use of its token
+                sharedSolves.incrementAndGet();
+                await(existing, deadline);
+                continue;
+            }
+
+            try {
+                String token = solver.solve(request, deadline);
+                long now = clock.getAsLong();
+                // Drop spent tokens of other placeholders so the cache does not grow unbounded
+                tokens.values().removeIf(other -> other.isSpent(now));
+                tokens.put(request, new ReusableToken(token, policy.uses() - 1, now + policy.ttlMs()));
+                solve.complete(token);
+                return token;
+            } catch (CaptchaSolverException e) {
+                solve.completeExceptionally(e);
+                throw e;
+            } catch (RuntimeException e) {
+                solve.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(request, solve);
+            }
+        }
+    }
+
+    private static void await(CompletableFuture<String> solve, Deadline deadline) throws CaptchaSolverException {
+        try {
+            solve.get(deadline.remainingMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new CaptchaTimeoutException("Solve deadline passed while waiting for a shared CAPTCHA solve");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof CaptchaSolverException cause) {
+                throw cause;
+            }
+            throw new CaptchaSolverException("Shared CAPTCHA solve failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CaptchaSolverException("Interrupted while waiting for a shared CAPTCHA solve", e);
+        }
+    }
+
+    /**
+     * Stop serving a token found stale, so the next resolve solves a fresh one.
+     * A token cached since by another request is kept.
+     * @param request CAPTCHA request
+     * @param token Stale token
+     */
+    public void invalidate(CaptchaRequest request, String token) {
+        tokens.computeIfPresent(request, (key, cached) -> cached.token.equals(token) ? null : cached);
+    }
+
+    /**
+     * Get the number of requests served with a reused token
+     * @return Reuse count
+     */
+    public long getReused() {
+        return reused.get();
+    }
+
+    /**
+     * Get the number of requests that waited on another request's solve
+     * @return Shared solve count
+     */
+    public long getSharedSolves() {
+        return sharedSolves.get();
+    }
+
+    /**
+     * Drop all cached tokens
+     */
+    public void clear() {
+        tokens.clear();
+    }
+
+    /**
+     * Reuse budget parsed from the placeholder parameters.
+     * @param uses Total requests one token may serve, or -1 for unlimited within the window
+     * @param ttlMs Window during which the token is served
+     */
+    record ReusePolicy(int uses, long ttlMs) {
+
+        static ReusePolicy of(CaptchaRequest request) {
+            Map<String, String> params = request.additionalParams();
+            Integer uses = parsePositive(params.get(CaptchaRequest.PARAM_REUSE));
+            Integer ttlSeconds = parsePositive(params.get(CaptchaRequest.PARAM_REUSE_TTL));
+            long lifetimeMs = request.captchaType().getTokenLifetimeSeconds() * 1000L;
+
+            if (ttlSeconds != null) {
+                // A token is never served past its lifetime, whatever window was asked for
+                return new ReusePolicy(uses != null ? uses : -1, Math.min(ttlSeconds * 1000L, lifetimeMs));
+            }
+            if (uses != null && uses > 1) {
+                return new ReusePolicy(uses, lifetimeMs);
+            }
+            return null;
+        }
+
+        private static Integer parsePositive(String value) {
+            if (value == null) {
+                return null;
+            }
+            try {
+                int parsed = Integer.parseInt(value.trim());
+                return parsed > 0 ? parsed : null;
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * A solved token with its remaining uses and expiry
+     */
+    private static final class ReusableToken {
+        private final String token;
+        private final long expiresAt;
+        // Remaining uses, or a negative value for unlimited
+        private int usesLeft;
+
+        ReusableToken(String token, int usesLeft, long expiresAt) {
+            this.token = token;
+            this.usesLeft = usesLeft;
+            this.expiresAt = expiresAt;
+        }
+
+        synchronized boolean isSpent(long now) {
+            return now >= expiresAt || usesLeft == 0;
+        }
+
+        synchronized String use(long now) {
+            if (isSpent(now)) {
+                return null;
+            }
+            if (usesLeft > 0) {
+                usesLeft--;
+            }
+            return token;
+        }
+
+        synchronized String describeBudget() {
+            return usesLeft < 0 ? "unlimited uses" : usesLeft + " use(s)";
+        }
+    }
+}
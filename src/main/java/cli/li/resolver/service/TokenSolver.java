@@ -0,0 +1,20 @@
+package cli.li.resolver.service;
+
+import cli.li.resolver.provider.Deadline;
+import cli.li.resolver.captcha.model.CaptchaRequest;
+import cli.li.resolver.captcha.exception.CaptchaSolverException;
+
+/**
+ * Source of solved tokens for parsed CAPTCHA requests
+ */
+@FunctionalInterface
+public interface TokenSolver {
+    /**
+     * Solve a CAPTCHA request
+     * @param request CAPTCHA request
+     * @param deadline Point in time by which the solve must finish
+     * @return Solved token
+     * @throws CaptchaSolverException If solving fails
+     */
+    String solve(CaptchaRequest request, Deadline deadline) throws CaptchaSolverException;
+}
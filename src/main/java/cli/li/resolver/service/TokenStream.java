@@ -0,0 +1,166 @@
+package cli.li.resolver.service;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import cli.li.resolver.logger.LoggerService;
+import cli.li.resolver.provider.Deadline;
+import cli.li.resolver.captcha.model.CaptchaRequest;
+import cli.li.resolver.captcha.exception.CaptchaSolverException;
+
+/**
+ * Pipelined producer of fresh tokens for one CAPTCHA request.
+ * Keeps up to {@code concurrency} solves in flight and hands out tokens in completion
+ * order, starting the next solve each time a token is taken, so a consumer such as an
+ * Intruder attack receives tokens as fast as they complete instead of waiting for each
+ * solve in turn. Solved tokens wait for at most {@code concurrency} takes, which keeps
+ * them well within their lifetime; one that expired anyway is replaced by a new solve.
+ */
+public class TokenStream {
+    // Consecutive failed solves after which no new solve is started
+    static final int MAX_CONSECUTIVE_FAILURES = 5;
+
+    private final TokenSolver solver;
+    private final CaptchaRequest request;
+    private final int concurrency;
+    private final int timeoutSeconds;
+    private final Executor executor;
+    private final TokenFreshness freshness;
+    private final LoggerService logger;
+    private final BlockingQueue<Result> completed = new LinkedBlockingQueue<>();
+    private final Object takeLock = new Object();
+
+    // Tokens still to be started, solves in flight and solve outcomes, guarded by this
+    private int remaining;
+    private int inFlight;
+    private int consecutiveFailures;
+    private int produced;
+    private int failed;
+
+    /**
+     * Constructor
+     * @param solver Source of fresh tokens
+     * @param request CAPTCHA request to solve
+     * @param count Number of tokens to produce
+     * @param concurrency Maximum number of solves in flight
+     * @param timeoutSeconds Timeout of each solve
+     * @param executor Executor running the solves
+     * @param freshness Issue times of solved tokens, or null to skip the freshness check
+     */
+    public TokenStream(TokenSolver solver, CaptchaRequest request, int count, int concurrency, int timeoutSeconds,
+                       Executor executor, TokenFreshness freshness) {
+        this.solver = solver;
+        this.request = request;
+        this.concurrency = Math.max(1, concurrency);
+        this.timeoutSeconds = timeoutSeconds;
+        this.executor = executor;
+        this.freshness = freshness;
+        this.logger = LoggerService.getInstance();
+        this.remaining = Math.max(0, count);
+        startSolves();
+    }
+
+    /**
+     * Take the next solved token, waiting for the first solve in flight to complete
+     * @return Solved token, or null once all tokens have been produced or solving keeps failing
+     * @throws InterruptedException If interrupted while waiting
+     */
+    public String next() throws InterruptedException {
+        // One consumer at a time, so no consumer waits for a result another one took
+        synchronized (takeLock) {
+            return takeNext();
+        }
+    }
+
+    private String takeNext() throws InterruptedException {
+        while (true) {
+            synchronized (this) {
+                if (inFlight == 0 && completed.isEmpty()) {
+                    return null;
+                }
+            }
+            Result result = completed.take();
+            synchronized (this) {
+                inFlight--;
+                if (result.token() != null && isFresh(result.token())) {
+                    consecutiveFailures = 0;
+                    produced++;
+                    startSolves();
+                    return result.token();
+                }
+                if (result.token() != null) {
+                    // Expired while waiting to be taken: solve a replacement
+                    remaining++;
+                } else {
+                    failed++;
+                    if (++consecutiveFailures >= MAX_CONSECUTIVE_FAILURES) {
+                        if (remaining > 0) {
+                            logger.error("TokenStream", consecutiveFailures + " consecutive " +
+                                    request.captchaType() + " solves failed, stopping after " + produced + " token(s)");
+                        }
+                        remaining = 0;
+                    } else {
+                        // Replace the failed solve so the stream still produces the requested count
+                        remaining++;
+                    }
+                }
+                startSolves();
+            }
+        }
+    }
+
+    private boolean isFresh(String token) {
+        return freshness == null || freshness.check(token).status() != TokenFreshness.Status.STALE;
+    }
+
+    /**
+     * Start solves until the concurrency limit or the token count is reached
+     */
+    private synchronized void startSolves() {
+        while (remaining > 0 && inFlight < concurrency) {
+            remaining--;
+            inFlight++;
+            executor.execute(this::solveOne);
+        }
+    }
+
+    private void solveOne() {
+        try {
+            completed.add(new Result(solver.solve(request, Deadline.afterSeconds(timeoutSeconds))));
+        } catch (CaptchaSolverException | RuntimeException e) {
+            logger.warning("TokenStream", "Failed to solve " + request.captchaType() + ": " + e.getMessage());
+            completed.add(new Result(null));
+        }
+    }
+
+    /**
+     * Stop starting new solves; solves already in flight run to completion
+     */
+    public synchronized void close() {
+        remaining = 0;
+    }
+
+    /**
+     * Get the number of tokens handed out
+     * @return Produced token count
+     */
+    public synchronized int getProduced() {
+        return produced;
+    }
+
+    /**
+     * Get the number of failed solves
+     * @return Failed solve count
+     */
+    public synchronized int getFailed() {
+        return failed;
+    }
+
+    /**
+     * Outcome of one solve
+     * @param token Solved token, or null if the solve failed
+     */
+    private record Result(String token) {
+    }
+}
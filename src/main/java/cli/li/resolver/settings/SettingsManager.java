@@ -10,6 +10,7 @@ import java.io.IOException;
 
 import cli.li.resolver.logger.LoggerService;
 import cli.li.resolver.provider.ProviderConfig;
+import cli.li.resolver.thread.TaskStrategy;
 
 /**
  * Manager for extension settings.
@@ -30,6 +31,10 @@ public class SettingsManager {
 
     // In-memory cache of settings JSON
     private volatile String cachedSettings;
+    // Parsed per-tool scope, read on every HTTP message without touching the JSON
+    private volatile ToolScope toolScope;
+    // Global resolution switch, the first check on every HTTP message
+    private volatile boolean globalResolutionEnabled;
 
     public SettingsManager() {
         this.logger = LoggerService.getInstance();
@@ -50,6 +55,9 @@ public class SettingsManager {
 
         // Initialize default settings if they don't exist
         initializeDefaultSettings();
+
+        toolScope = loadToolScope();
+        globalResolutionEnabled = getJsonBoolValue(cachedSettings, "globalResolutionEnabled", true);
     }
 
     /**
@@ -587,6 +595,85 @@ public class SettingsManager {
         logger.info("SettingsManager", "High load threshold updated to: " + threshold);
     }
 
+    /**
+     * Get the strategy used to admit solves to the thread pool
+     * @return Task strategy
+     */
+    public TaskStrategy getTaskStrategy() {
+        String value = getJsonStringValue(cachedSettings, "taskStrategy");
+        if (value != null) {
+            try {
+                return TaskStrategy.valueOf(value);
+            } catch (IllegalArgumentException e) {
+                logger.warning("SettingsManager", "Invalid task strategy in settings: " + value);
+            }
+        }
+        return TaskStrategy.BLOCKING;
+    }
+
+    /**
+     * Set the strategy used to admit solves to the thread pool
+     * @param strategy Task strategy
+     */
+    public void setTaskStrategy(TaskStrategy strategy) {
+        cachedSettings = setJsonStringValue(cachedSettings, "taskStrategy", strategy.name());
+        writeRawToFile(settingsFile, cachedSettings);
+        logger.info("SettingsManager", "Task strategy updated to: " + strategy);
+    }
+
+    /**
+     * Get whether the global HTTP handler resolves placeholders in all traffic.
+     * When disabled, placeholders are only resolved by the session handling action.
+     * @return true if global resolution is enabled
+     */
+    public boolean isGlobalResolutionEnabled() {
+        return globalResolutionEnabled;
+    }
+
+    /**
+     * Set whether the global HTTP handler resolves placeholders in all traffic
+     * @param enabled true to enable global resolution
+     */
+    public void setGlobalResolutionEnabled(boolean enabled) {
+        cachedSettings = setJsonBoolValue(cachedSettings, "globalResolutionEnabled", enabled);
+        writeRawToFile(settingsFile, cachedSettings);
+        globalResolutionEnabled = enabled;
+        logger.info("SettingsManager", "Global resolution updated to: " + enabled);
+    }
+
+    /**
+     * Get the per-tool switches for placeholder resolution and auto-detection
+     * @return Current tool scope snapshot
+     */
+    public ToolScope getToolScope() {
+        return toolScope;
+    }
+
+    /**
+     * Set the per-tool switches for placeholder resolution and auto-detection
+     * @param scope Tool scope
+     */
+    public void setToolScope(ToolScope scope) {
+        cachedSettings = setJsonStringValue(cachedSettings, "resolutionDisabledTools",
+                ToolScope.formatTools(scope.resolutionDisabled()));
+        cachedSettings = setJsonStringValue(cachedSettings, "detectionDisabledTools",
+                ToolScope.formatTools(scope.detectionDisabled()));
+        writeRawToFile(settingsFile, cachedSettings);
+        toolScope = scope;
+        logger.info("SettingsManager", "Tool scope updated, resolution disabled for: " +
+                scope.resolutionDisabled() + ", detection disabled for: " + scope.detectionDisabled());
+    }
+
+    private ToolScope loadToolScope() {
+        String resolutionDisabled = getJsonStringValue(cachedSettings, "resolutionDisabledTools");
+        String detectionDisabled = getJsonStringValue(cachedSettings, "detectionDisabledTools");
+        return new ToolScope(
+                resolutionDisabled != null ? ToolScope.parseTools(resolutionDisabled)
+                        : ToolScope.DEFAULT.resolutionDisabled(),
+                detectionDisabled != null ? ToolScope.parseTools(detectionDisabled)
+                        : ToolScope.DEFAULT.detectionDisabled());
+    }
+
     /**
      * Get the solve timeout in seconds
      * @return Solve timeout
@@ -625,6 +712,250 @@ public class SettingsManager {
         logger.info("SettingsManager", "Max retries updated to: " + retries);
     }
 
+    /**
+     * Get the number of pre-solved tokens kept per CAPTCHA request
+     * @return Token pool size, 0 when the pool is disabled
+     */
+    public int getTokenPoolSize() {
+        Integer value = getJsonIntValue(cachedSettings, "tokenPoolSize");
+        return value != null ? value : 0;
+    }
+
+    /**
+     * Set the number of pre-solved tokens kept per CAPTCHA request
+     * @param size Token pool size, 0 to disable the pool
+     */
+    public void setTokenPoolSize(int size) {
+        cachedSettings = setJsonIntValue(cachedSettings, "tokenPoolSize", size);
+        writeRawToFile(settingsFile, cachedSettings);
+        logger.info("SettingsManager", "Token pool size updated to: " + size);
+    }
+
+    /**
+     * Get the maximum number of request body bytes scanned for placeholders
+     * @return Maximum body scan length in kilobytes
+     */
+    public int getMaxBodyScanKb() {
+        Integer value = getJsonIntValue(cachedSettings, "maxBodyScanKb");
+        return value != null && value > 0 ? value : 1024;
+    }
+
+    /**
+     * Set the maximum number of request body bytes scanned for placeholders
+     * @param kilobytes Maximum body scan length in kilobytes
+     */
+    public void setMaxBodyScanKb(int kilobytes) {
+        cachedSettings = setJsonIntValue(cachedSettings, "maxBodyScanKb", kilobytes);
+        writeRawToFile(settingsFile, cachedSettings);
+        logger.info("SettingsManager", "Max body scan length updated to: " + kilobytes + " KB");
+    }
+
+    /**
+     * Get whether tokens are prefetched for Intruder attacks
+     * @return true if Intruder prefetching is enabled
+     */
+    public boolean isIntruderPrefetchEnabled() {
+        return getJsonBoolValue(cachedSettings, "intruderPrefetchEnabled", true);
+    }
+
+    /**
+     * Set whether tokens are prefetched for Intruder attacks
+     * @param enabled true to enable Intruder prefetching
+     */
+    public void setIntruderPrefetchEnabled(boolean enabled) {
+        cachedSettings = setJsonBoolValue(cachedSettings, "intruderPrefetchEnabled", enabled);
+        writeRawToFile(settingsFile, cachedSettings);
+        logger.info("SettingsManager", "Intruder prefetch updated to: " + enabled);
+    }
+
+    /**
+     * Get the number of tokens an Intruder payload generator produces per attack
+     * @return Payload token count
+     */
+    public int getPayloadTokenCount() {
+        Integer value = getJsonIntValue(cachedSettings, "payloadTokenCount");
+        return value != null && value > 0 ? value : 100;
+    }
+
+    /**
+     * Set the number of tokens an Intruder payload generator produces per attack
+     * @param count Payload token count
+     */
+    public void setPayloadTokenCount(int count) {
+        cachedSettings = setJsonIntValue(cachedSettings, "payloadTokenCount", count);
+        writeRawToFile(settingsFile, cachedSettings);
+        logger.info("SettingsManager", "Payload token count updated to: " + count);
+    }
+
+    /**
+     * Get the number of solves an Intruder payload generator keeps in flight
+     * @return Payload solve concurrency
+     */
+    public int getPayloadConcurrency() {
+        Integer value = getJsonIntValue(cachedSettings, "payloadConcurrency");
+        return value != null && value > 0 ? value : 10;
+    }
+
+    /**
+     * Set the number of solves an Intruder payload generator keeps in flight
+     * @param concurrency Payload solve concurrency
+     */
+    public void setPayloadConcurrency(int concurrency) {
+        cachedSettings = setJsonIntValue(cachedSettings, "payloadConcurrency", concurrency);
+        writeRawToFile(settingsFile, cachedSettings);
+        logger.info("SettingsManager", "Payload solve concurrency updated to: " + concurrency);
+    }
+
+    /**
+     * Get the interval between result polls of an outstanding provider task
+     * @return Poll interval in milliseconds
+     */
+    public int getPollIntervalMs() {
+        Integer value = getJsonIntValue(cachedSettings, "pollIntervalMs");
+        return value != null && value > 0 ? value : 2000;
+    }
+
+    /**
+     * Set the interval between result polls of an outstanding provider task
+     * @param intervalMs Poll interval in milliseconds
+     */
+    public void setPollIntervalMs(int intervalMs) {
+        cachedSettings = setJsonIntValue(cachedSettings, "pollIntervalMs", intervalMs);
+        writeRawToFile(settingsFile, cachedSettings);
+        logger.info("SettingsManager", "Poll interval updated to: " + intervalMs + "ms");
+    }
+
+    /**
+     * Get the median latency of the simulated provider
+     * @return Median simulated solve time in milliseconds
+     */
+    public int getSimulatedMedianMs() {
+        Integer value = getJsonIntValue(cachedSettings, "simulatedMedianMs");
+        return value != null && value >= 0 ? value : 15000;
+    }
+
+    /**
+     * Set the median latency of the simulated provider
+     * @param medianMs Median simulated solve time in milliseconds
+     */
+    public void setSimulatedMedianMs(int medianMs) {
+        cachedSettings = setJsonIntValue(cachedSettings, "simulatedMedianMs", medianMs);
+        writeRawToFile(settingsFile, cachedSettings);
+        logger.info("SettingsManager", "Simulated median latency updated to: " + medianMs + " ms");
+    }
+
+    /**
+     * Get the latency spread of the simulated provider
+     * @return Log-normal sigma of the simulated solve time, in percent
+     */
+    public int getSimulatedSpreadPercent() {
+        Integer value = getJsonIntValue(cachedSettings, "simulatedSpreadPercent");
+        return value != null && value >= 0 ? value : 50;
+    }
+
+    /**
+     * Set the latency spread of the simulated provider
+     * @param spreadPercent Log-normal sigma of the simulated solve time, in percent
+     */
+    public void setSimulatedSpreadPercent(int spreadPercent) {
+        cachedSettings = setJsonIntValue(cachedSettings, "simulatedSpreadPercent", spreadPercent);
+        writeRawToFile(settingsFile, cachedSettings);
+        logger.info("SettingsManager", "Simulated latency spread updated to: " + spreadPercent + "%");
+    }
+
+    /**
+     * Get the failure rate of the simulated provider
+     * @return Share of simulated solves that fail, in percent
+     */
+    public int getSimulatedFailurePercent() {
+        Integer value = getJsonIntValue(cachedSettings, "simulatedFailurePercent");
+        return value != null && value >= 0 ? value : 5;
+    }
+
+    /**
+     * Set the failure rate of the simulated provider
+     * @param failurePercent Share of simulated solves that fail, in percent
+     */
+    public void setSimulatedFailurePercent(int failurePercent) {
+        cachedSettings = setJsonIntValue(cachedSettings, "simulatedFailurePercent", failurePercent);
+        writeRawToFile(settingsFile, cachedSettings);
+        logger.info("SettingsManager", "Simulated failure rate updated to: " + failurePercent + "%");
+    }
+
+    /**
+     * Get whether the simulated provider takes its median latency from recorded per-type statistics
+     * @return true to use recorded solve times where available
+     */
+    public boolean isSimulatedRecordedLatency() {
+        return getJsonBoolValue(cachedSettings, "simulatedRecordedLatency", false);
+    }
+
+    /**
+     * Set whether the simulated provider takes its median latency from recorded per-type statistics
+     * @param enabled true to use recorded solve times where available
+     */
+    public void setSimulatedRecordedLatency(boolean enabled) {
+        cachedSettings = setJsonBoolValue(cachedSettings, "simulatedRecordedLatency", enabled);
+        writeRawToFile(settingsFile, cachedSettings);
+        logger.info("SettingsManager", "Simulated recorded latency updated to: " + enabled);
+    }
+
+    /**
+     * Get whether providers push results to the embedded pingback receiver
+     * @return true to receive results by pingback
+     */
+    public boolean isPingbackEnabled() {
+        return getJsonBoolValue(cachedSettings, "pingbackEnabled", false);
+    }
+
+    /**
+     * Set whether providers push results to the embedded pingback receiver
+     * @param enabled true to receive results by pingback
+     */
+    public void setPingbackEnabled(boolean enabled) {
+        cachedSettings = setJsonBoolValue(cachedSettings, "pingbackEnabled", enabled);
+        writeRawToFile(settingsFile, cachedSettings);
+        logger.info("SettingsManager", "Pingback receiver updated to: " + enabled);
+    }
+
+    /**
+     * Get the local port of the pingback receiver
+     * @return Port number
+     */
+    public int getPingbackPort() {
+        Integer value = getJsonIntValue(cachedSettings, "pingbackPort");
+        return value != null && value > 0 ? value : 8765;
+    }
+
+    /**
+     * Set the local port of the pingback receiver
+     * @param port Port number
+     */
+    public void setPingbackPort(int port) {
+        cachedSettings = setJsonIntValue(cachedSettings, "pingbackPort", port);
+        writeRawToFile(settingsFile, cachedSettings);
+        logger.info("SettingsManager", "Pingback port updated to: " + port);
+    }
+
+    /**
+     * Get the URL under which providers reach the pingback receiver
+     * @return Public URL, or empty to listen on loopback only
+     */
+    public String getPingbackPublicUrl() {
+        String value = getJsonStringValue(cachedSettings, "pingbackPublicUrl");
+        return value != null ? value : "";
+    }
+
+    /**
+     * Set the URL under which providers reach the pingback receiver
+     * @param url Public URL, or empty to listen on loopback only
+     */
+    public void setPingbackPublicUrl(String url) {
+        cachedSettings = setJsonStringValue(cachedSettings, "pingbackPublicUrl", url);
+        writeRawToFile(settingsFile, cachedSettings);
+        logger.info("SettingsManager", "Pingback public URL updated to: " + url);
+    }
+
     /**
      * Get whether auto-detection is enabled
      * @return true if auto-detection is enabled
@@ -643,6 +974,25 @@ public class SettingsManager {
         logger.info("SettingsManager", "Auto detection updated to: " + enabled);
     }
 
+    /**
+     * Get the number of background threads analyzing responses for CAPTCHAs
+     * @return Detection worker count
+     */
+    public int getDetectionWorkers() {
+        Integer value = getJsonIntValue(cachedSettings, "detectionWorkers");
+        return value != null ? value : 2;
+    }
+
+    /**
+     * Set the number of background threads analyzing responses for CAPTCHAs
+     * @param workers Detection worker count
+     */
+    public void setDetectionWorkers(int workers) {
+        cachedSettings = setJsonIntValue(cachedSettings, "detectionWorkers", workers);
+        writeRawToFile(settingsFile, cachedSettings);
+        logger.info("SettingsManager", "Detection workers updated to: " + workers);
+    }
+
     /**
      * Get the log level
      * @return Log level string
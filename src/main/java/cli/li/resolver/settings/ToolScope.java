@@ -0,0 +1,101 @@
+package cli.li.resolver.settings;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable per-tool switches for placeholder resolution and response auto-detection.
+ * Tools are identified by their Burp tool type name (PROXY, SCANNER, ...); only the
+ * disabled tools are stored, so tools added by newer Burp versions start enabled.
+ * A snapshot is shared between threads and replaced as a whole when settings change.
+ *
+ * @param resolutionDisabled Tools whose requests are not scanned for placeholders
+ * @param detectionDisabled Tools whose responses are not analyzed for CAPTCHAs
+ */
+public record ToolScope(Set<String> resolutionDisabled, Set<String> detectionDisabled) {
+
+    /**
+     * Default scope: placeholders are resolved for every tool, and detection skips the
+     * high-volume Scanner (including crawling) and Intruder traffic
+     */
+    public static final ToolScope DEFAULT = new ToolScope(Set.of(), Set.of("SCANNER", "INTRUDER"));
+
+    public ToolScope {
+        resolutionDisabled = Set.copyOf(resolutionDisabled);
+        detectionDisabled = Set.copyOf(detectionDisabled);
+    }
+
+    /**
+     * Check whether placeholders are resolved in requests from a tool
+     * @param tool Tool type name
+     * @return true if resolution is enabled
+     */
+    public boolean isResolutionEnabled(String tool) {
+        return !resolutionDisabled.contains(tool);
+    }
+
+    /**
+     * Check whether responses from a tool are analyzed for CAPTCHAs
+     * @param tool Tool type name
+     * @return true if detection is enabled
+     */
+    public boolean isDetectionEnabled(String tool) {
+        return !detectionDisabled.contains(tool);
+    }
+
+    /**
+     * Get a copy with placeholder resolution switched for one tool
+     * @param tool Tool type name
+     * @param enabled Whether resolution is enabled
+     * @return Updated scope
+     */
+    public ToolScope withResolution(String tool, boolean enabled) {
+        return new ToolScope(toggle(resolutionDisabled, tool, enabled), detectionDisabled);
+    }
+
+    /**
+     * Get a copy with auto-detection switched for one tool
+     * @param tool Tool type name
+     * @param enabled Whether detection is enabled
+     * @return Updated scope
+     */
+    public ToolScope withDetection(String tool, boolean enabled) {
+        return new ToolScope(resolutionDisabled, toggle(detectionDisabled, tool, enabled));
+    }
+
+    private static Set<String> toggle(Set<String> disabled, String tool, boolean enabled) {
+        Set<String> updated = new HashSet<>(disabled);
+        if (enabled) {
+            updated.remove(tool);
+        } else {
+            updated.add(tool);
+        }
+        return updated;
+    }
+
+    /**
+     * Parse a comma-separated list of tool names
+     * @param value Stored list, may be empty
+     * @return Set of tool names
+     */
+    static Set<String> parseTools(String value) {
+        if (value == null || value.isBlank()) {
+            return Set.of();
+        }
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(tool -> !tool.isEmpty())
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Format tool names as a sorted comma-separated list for storage
+     * @param tools Tool names
+     * @return Stored list
+     */
+    static String formatTools(Set<String> tools) {
+        return tools.stream().sorted().collect(Collectors.joining(","));
+    }
+}
@@ -79,6 +79,16 @@ public class StatisticsCollector {
         return successful > 0 ? (double) totalSolvingTimeMs.get() / successful : 0;
     }
 
+    /**
+     * Get the average solving time of one CAPTCHA type
+     * @param captchaType CAPTCHA type
+     * @return Average solving time in milliseconds, 0 if none was recorded
+     */
+    public double getAverageSolvingTimeMs(CaptchaType captchaType) {
+        TypeStats stats = typeStats.get(captchaType);
+        return stats != null ? stats.getAverageSolvingTimeMs() : 0;
+    }
+
     /**
      * Get statistics for all CAPTCHA types
      * @return Map of CAPTCHA type to statistics
@@ -1,10 +1,20 @@
 package cli.li.resolver.thread;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
 import cli.li.resolver.logger.LoggerService;
+import cli.li.resolver.provider.AsyncPolling;
 
 /**
  * Manager for CAPTCHA solver threads.
- * Provides thread pool management, high load detection, and task cancellation.
+ * Provides thread pool management, high load detection, strategy-based task
+ * admission, and task cancellation.
  */
 public record CaptchaSolverThreadManager(ThreadPoolManager threadPoolManager,
                                          HighLoadDetector highLoadDetector, LoggerService logger) {
@@ -13,6 +23,136 @@ public record CaptchaSolverThreadManager(ThreadPoolManager threadPoolManager,
         logger.info("CaptchaSolverThreadManager", "Thread manager initialized");
     }
 
+    /**
+     * Submit a solve task to the thread pool, admitting it according to the strategy.
+     * BLOCKING waits for a free slot, NON_BLOCKING gives up when the pool is saturated,
+     * RATE_LIMITED waits for a free slot after pacing admissions while load is high; a paced
+     * task is submitted once its delay has passed, so the caller does not wait out the delay,
+     * and its future fails with a RejectedExecutionException if no slot frees up in time.
+     * No strategy waits longer than the given limit.
+     * @param task Task to execute
+     * @param strategy Admission strategy
+     * @param maxWaitMillis Maximum time to wait for admission in milliseconds
+     * @param <T> Result type
+     * @return Future representing the result, or null if the task was not admitted
+     * @throws InterruptedException If interrupted while waiting for admission
+     */
+    public <T> Future<T> submit(Callable<T> task, TaskStrategy strategy, long maxWaitMillis)
+            throws InterruptedException {
+        highLoadDetector.registerRequest();
+
+        Future<T> future = switch (strategy) {
+            case BLOCKING -> threadPoolManager.submit(task, maxWaitMillis);
+            case NON_BLOCKING -> threadPoolManager.trySubmit(task);
+            case RATE_LIMITED -> {
+                long delay = highLoadDetector.reserveAdmissionDelay();
+                if (delay >= maxWaitMillis) {
+                    yield null;
+                }
+                if (delay > 0) {
+                    logger.debug("CaptchaSolverThreadManager", "High load, delaying task by " + delay + "ms");
+                    yield submitAfter(wait -> threadPoolManager.submit(task, wait), delay, maxWaitMillis - delay);
+                }
+                yield threadPoolManager.submit(task, maxWaitMillis);
+            }
+        };
+
+        if (future == null) {
+            logger.warning("CaptchaSolverThreadManager", "Task not admitted to the thread pool (" + strategy + ")");
+        }
+        return future;
+    }
+
+    /**
+     * Submit an asynchronous solve, admitting it according to the strategy like {@link #submit}.
+     * The solve holds its pool slot until its future completes, so outstanding solves are
+     * limited by the pool even though they do not occupy its threads.
+     * @param task Task starting the solve and returning its future
+     * @param strategy Admission strategy
+     * @param maxWaitMillis Maximum time to wait for admission in milliseconds
+     * @param <T> Result type
+     * @return Future completing with the solve's result, or null if the task was not admitted;
+     *         cancelling it cancels the solve
+     * @throws InterruptedException If interrupted while waiting for admission
+     */
+    public <T> CompletableFuture<T> submitAsync(Supplier<CompletableFuture<T>> task, TaskStrategy strategy,
+                                                long maxWaitMillis) throws InterruptedException {
+        highLoadDetector.registerRequest();
+
+        CompletableFuture<T> future = switch (strategy) {
+            case BLOCKING -> threadPoolManager.submitAsync(task, maxWaitMillis);
+            case NON_BLOCKING -> threadPoolManager.trySubmitAsync(task);
+            case RATE_LIMITED -> {
+                long delay = highLoadDetector.reserveAdmissionDelay();
+                if (delay >= maxWaitMillis) {
+                    yield null;
+                }
+                if (delay > 0) {
+                    logger.debug("CaptchaSolverThreadManager", "High load, delaying task by " + delay + "ms");
+                    yield submitAfter(wait -> threadPoolManager.submitAsync(task, wait), delay, maxWaitMillis - delay);
+                }
+                yield threadPoolManager.submitAsync(task, maxWaitMillis);
+            }
+        };
+
+        if (future == null) {
+            logger.warning("CaptchaSolverThreadManager", "Task not admitted to the thread pool (" + strategy + ")");
+        }
+        return future;
+    }
+
+    /**
+     * Admission of a task to the pool
+     */
+    @FunctionalInterface
+    private interface Admission<T> {
+        /**
+         * Submit the task
+         * @param maxWaitMillis Maximum time to wait for a slot in milliseconds
+         * @return Future of the task, or null if it was not admitted
+         * @throws InterruptedException If interrupted while waiting for a slot
+         */
+        Future<T> admit(long maxWaitMillis) throws InterruptedException;
+    }
+
+    /**
+     * Submit a task once a delay has passed, without holding the caller's thread during the delay.
+     * Cancelling the returned future before admission drops the task, after admission cancels it.
+     */
+    private <T> CompletableFuture<T> submitAfter(Admission<T> admission, long delayMillis, long maxWaitMillis) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AsyncPolling.delay(delayMillis).thenRun(() -> AsyncPolling.call(() -> {
+            if (result.isDone()) {
+                return null;
+            }
+            Future<T> admitted = null;
+            try {
+                admitted = admission.admit(maxWaitMillis);
+                if (admitted == null) {
+                    logger.warning("CaptchaSolverThreadManager", "Delayed task not admitted to the thread pool");
+                    result.completeExceptionally(new RejectedExecutionException("Thread pool saturated"));
+                    return null;
+                }
+                Future<T> running = admitted;
+                result.whenComplete((value, error) -> {
+                    if (result.isCancelled()) {
+                        running.cancel(true);
+                    }
+                });
+                result.complete(admitted.get());
+            } catch (ExecutionException e) {
+                result.completeExceptionally(e.getCause());
+            } catch (CancellationException | InterruptedException e) {
+                if (admitted != null) {
+                    admitted.cancel(true);
+                }
+                result.cancel(false);
+            }
+            return null;
+        }));
+        return result;
+    }
+
     /**
      * Shutdown the thread manager and all its resources
      */
@@ -2,6 +2,7 @@ package cli.li.resolver.thread;
 
 import java.util.Iterator;
 import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
 
 import cli.li.resolver.settings.SettingsManager;
 
@@ -9,12 +10,15 @@ import cli.li.resolver.settings.SettingsManager;
  * Detector for high load situations using a sliding window of timestamps.
  * No scheduled executor is needed - timestamps older than 60 seconds are
  * cleaned up lazily when queried.
+ * Under high load it also paces admissions so they fall back to the threshold rate.
  */
 public class HighLoadDetector {
     private static final long WINDOW_MS = 60_000L; // 60 seconds
 
     private final SettingsManager settingsManager;
     private final ConcurrentLinkedDeque<Long> timestamps = new ConcurrentLinkedDeque<>();
+    // Earliest time the next rate-limited admission may start
+    private final AtomicLong nextAdmissionAt = new AtomicLong(0);
 
     public HighLoadDetector(SettingsManager settingsManager) {
         this.settingsManager = settingsManager;
@@ -37,6 +41,22 @@ public class HighLoadDetector {
         return timestamps.size() > settingsManager.getHighLoadThreshold();
     }
 
+    /**
+     * Reserve an admission slot for a rate-limited task.
+     * While load is high, admissions are spaced evenly so that no more than the
+     * threshold start per minute; otherwise tasks are admitted immediately.
+     * @return Milliseconds the caller should wait before starting its task
+     */
+    public long reserveAdmissionDelay() {
+        if (!isHighLoad()) {
+            return 0;
+        }
+        long interval = WINDOW_MS / Math.max(1, settingsManager.getHighLoadThreshold());
+        long now = System.currentTimeMillis();
+        long slot = nextAdmissionAt.getAndUpdate(next -> Math.max(next, now) + interval);
+        return Math.max(0, slot - now);
+    }
+
     /**
      * Get the number of requests in the last minute.
      * Removes expired timestamps before counting.
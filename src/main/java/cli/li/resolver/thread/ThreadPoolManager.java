@@ -1,32 +1,55 @@
 package cli.li.resolver.thread;
 
+import java.util.Queue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 import cli.li.resolver.settings.SettingsManager;
 
 /**
  * Manager for thread pool used to solve CAPTCHAs.
+ * The pool accepts at most as many tasks as it has threads plus a bounded queue;
+ * callers either wait for a free slot ({@link #submit}) or are turned away ({@link #trySubmit}).
+ * Asynchronous tasks ({@link #submitAsync}) take a slot the same way and hold it until the
+ * future they return completes, so outstanding asynchronous solves count against the pool
+ * without occupying its threads; at most as many run at once as the pool has threads, the
+ * rest wait in the queue.
  * Uses ConcurrentLinkedQueue for tracking active tasks instead of synchronized ArrayList.
  */
 public class ThreadPoolManager {
-    private final ExecutorService threadPool;
+    // Tasks that may wait for a thread, per pool thread
+    private static final int QUEUE_SLOTS_PER_THREAD = 2;
+
+    private final ThreadPoolExecutor threadPool;
     private final SettingsManager settingsManager;
+    private final Semaphore slots;
+    private final int queueCapacity;
     private final AtomicInteger activeThreads = new AtomicInteger(0);
     private final ConcurrentLinkedQueue<Future<?>> activeTasks = new ConcurrentLinkedQueue<>();
+    private final Queue<AsyncTask<?>> asyncQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger asyncRunning = new AtomicInteger(0);
 
     public ThreadPoolManager(SettingsManager settingsManager) {
         this.settingsManager = settingsManager;
 
         // Create thread pool with size from settings
         int poolSize = settingsManager.getThreadPoolSize();
-        threadPool = Executors.newFixedThreadPool(poolSize, new ThreadFactory() {
+        queueCapacity = poolSize * QUEUE_SLOTS_PER_THREAD;
+        slots = new Semaphore(poolSize + queueCapacity);
+        threadPool = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), new ThreadFactory() {
             private final AtomicInteger threadNumber = new AtomicInteger(1);
 
             @Override
@@ -39,24 +62,224 @@ public class ThreadPoolManager {
     }
 
     /**
-     * Submit a task to the thread pool
+     * Submit a task to the thread pool, waiting for a free slot if the pool is saturated
      * @param task Task to execute
      * @param <T> Result type
      * @return Future representing the result
+     * @throws InterruptedException If interrupted while waiting for a slot
+     */
+    public <T> Future<T> submit(Callable<T> task) throws InterruptedException {
+        slots.acquire();
+        return execute(task);
+    }
+
+    /**
+     * Submit a task to the thread pool, waiting a limited time for a free slot
+     * @param task Task to execute
+     * @param maxWaitMillis Maximum time to wait for a slot in milliseconds
+     * @param <T> Result type
+     * @return Future representing the result, or null if no slot freed up in time
+     * @throws InterruptedException If interrupted while waiting for a slot
+     */
+    public <T> Future<T> submit(Callable<T> task, long maxWaitMillis) throws InterruptedException {
+        if (!slots.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+            return null;
+        }
+        return execute(task);
+    }
+
+    /**
+     * Submit a task to the thread pool unless it is saturated
+     * @param task Task to execute
+     * @param <T> Result type
+     * @return Future representing the result, or null if all threads and queue slots are taken
+     */
+    public <T> Future<T> trySubmit(Callable<T> task) {
+        if (!slots.tryAcquire()) {
+            return null;
+        }
+        return execute(task);
+    }
+
+    /**
+     * Submit an asynchronous task, waiting a limited time for a free slot. The slot is held
+     * until the task's future completes or the returned future is cancelled.
+     * @param task Task starting the asynchronous work and returning its future
+     * @param maxWaitMillis Maximum time to wait for a slot in milliseconds
+     * @param <T> Result type
+     * @return Future completing with the task's result, or null if no slot freed up in time;
+     *         cancelling it cancels the task's future
+     * @throws InterruptedException If interrupted while waiting for a slot
+     */
+    public <T> CompletableFuture<T> submitAsync(Supplier<CompletableFuture<T>> task, long maxWaitMillis)
+            throws InterruptedException {
+        if (!slots.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+            return null;
+        }
+        return dispatch(task);
+    }
+
+    /**
+     * Submit an asynchronous task unless the pool is saturated. The slot is held until the
+     * task's future completes or the returned future is cancelled.
+     * @param task Task starting the asynchronous work and returning its future
+     * @param <T> Result type
+     * @return Future completing with the task's result, or null if all slots are taken
+     */
+    public <T> CompletableFuture<T> trySubmitAsync(Supplier<CompletableFuture<T>> task) {
+        if (!slots.tryAcquire()) {
+            return null;
+        }
+        return dispatch(task);
+    }
+
+    private <T> CompletableFuture<T> dispatch(Supplier<CompletableFuture<T>> task) {
+        activeTasks.removeIf(Future::isDone);
+
+        AsyncTask<T> asyncTask = new AsyncTask<>(task);
+        asyncTask.result.whenComplete((value, error) -> asyncTask.finish());
+        activeTasks.add(asyncTask.result);
+        asyncQueue.add(asyncTask);
+        startQueued();
+        return asyncTask.result;
+    }
+
+    /**
+     * Start queued asynchronous tasks while fewer run than the pool has threads
+     */
+    private void startQueued() {
+        while (!asyncQueue.isEmpty()) {
+            int running = asyncRunning.get();
+            if (running >= getPoolSize()) {
+                return;
+            }
+            if (!asyncRunning.compareAndSet(running, running + 1)) {
+                continue;
+            }
+            AsyncTask<?> next = asyncQueue.poll();
+            if (next == null || !next.start()) {
+                // Taken by another caller or cancelled while queued
+                asyncRunning.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Asynchronous task holding a slot from admission until its future completes
      */
-    public <T> Future<T> submit(Callable<T> task) {
+    private final class AsyncTask<T> {
+        private static final int QUEUED = 0;
+        private static final int STARTED = 1;
+        private static final int FINISHED = 2;
+
+        private final Supplier<CompletableFuture<T>> task;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+        private volatile CompletableFuture<T> started;
+
+        AsyncTask(Supplier<CompletableFuture<T>> task) {
+            this.task = task;
+        }
+
+        /**
+         * Start the task unless it was cancelled while queued
+         * @return true if started
+         */
+        boolean start() {
+            if (!state.compareAndSet(QUEUED, STARTED)) {
+                return false;
+            }
+            activeThreads.incrementAndGet();
+            try {
+                CompletableFuture<T> future = task.get();
+                started = future;
+                future.whenComplete((value, error) -> {
+                    if (error == null) {
+                        result.complete(value);
+                    } else {
+                        result.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                                ? error.getCause() : error);
+                    }
+                });
+                if (result.isCancelled()) {
+                    future.cancel(true);
+                }
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+            return true;
+        }
+
+        /**
+         * Give the slot back once the result is complete or cancelled
+         */
+        void finish() {
+            if (state.compareAndSet(QUEUED, FINISHED)) {
+                asyncQueue.remove(this);
+                slots.release();
+                return;
+            }
+            if (!state.compareAndSet(STARTED, FINISHED)) {
+                return;
+            }
+            CompletableFuture<T> future = started;
+            if (result.isCancelled() && future != null) {
+                future.cancel(true);
+            }
+            activeThreads.decrementAndGet();
+            asyncRunning.decrementAndGet();
+            slots.release();
+            startQueued();
+        }
+    }
+
+    private <T> Future<T> execute(Callable<T> task) {
         // Clean completed futures before adding new ones
         activeTasks.removeIf(Future::isDone);
 
-        activeThreads.incrementAndGet();
-        Future<T> future = threadPool.submit(() -> {
+        FutureTask<T> future = new FutureTask<>(() -> {
+            activeThreads.incrementAndGet();
             try {
                 return task.call();
             } finally {
                 activeThreads.decrementAndGet();
             }
-        });
+        }) {
+            // Set by whichever of the pool thread and a cancellation before it claims the slot
+            private final AtomicBoolean claimed = new AtomicBoolean(false);
+
+            @Override
+            public void run() {
+                if (!claimed.compareAndSet(false, true)) {
+                    // Cancelled while queued; the slot was already given back
+                    return;
+                }
+                try {
+                    super.run();
+                } finally {
+                    // Freed only once the thread is back, even if the task was cancelled while running
+                    slots.release();
+                }
+            }
 
+            @Override
+            protected void done() {
+                // A task cancelled before it started never occupies a thread: drop it from
+                // the queue and give its slot back now
+                if (isCancelled() && claimed.compareAndSet(false, true)) {
+                    threadPool.remove(this);
+                    slots.release();
+                }
+            }
+        };
+
+        try {
+            threadPool.execute(future);
+        } catch (RuntimeException e) {
+            // Rejected after shutdown: the task never runs, so give its slot back
+            future.cancel(false);
+            throw e;
+        }
         activeTasks.add(future);
 
         return future;
@@ -71,13 +294,29 @@ public class ThreadPoolManager {
     }
 
     /**
-     * Get the number of active threads
-     * @return Active thread count
+     * Get the number of running tasks, including asynchronous tasks whose future is outstanding
+     * @return Active task count
      */
     public int getActiveThreadCount() {
         return activeThreads.get();
     }
 
+    /**
+     * Get the number of tasks waiting for a free thread
+     * @return Queued task count
+     */
+    public int getQueuedTaskCount() {
+        return threadPool.getQueue().size() + asyncQueue.size();
+    }
+
+    /**
+     * Get the maximum number of tasks that may wait for a free thread
+     * @return Queue capacity
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
     /**
      * Cancel all running tasks
      * @return Number of tasks cancelled
@@ -27,6 +27,16 @@ public class HelpPanel extends JPanel {
                 "</ol>" +
                 "<p>The extension will automatically detect and solve CAPTCHAs when requests are sent through " +
                 "Burp Suite. You can monitor the CAPTCHA solving process in the <b>Logs</b> tab.</p>" +
+                "<h3>Session handling rules</h3>" +
+                "<p>To resolve placeholders only for selected tools and hosts, add the " +
+                "<b>reSolver: solve CAPTCHA placeholders</b> action to a Burp session handling rule " +
+                "and untick <b>Resolve placeholders in all traffic</b> in the <b>Settings</b> tab. " +
+                "Traffic outside the rule scope is then not inspected for placeholders.</p>" +
+                "<h3>Intruder payloads</h3>" +
+                "<p>To feed Intruder with fresh tokens, mark a placeholder as the payload position and choose " +
+                "the <b>reSolver: CAPTCHA tokens</b> extension-generated payload type. Several solves run ahead " +
+                "of the attack (<i>Payload Concurrency</i>) and each request receives the next token to complete, " +
+                "until <i>Payload Tokens</i> tokens have been generated.</p>" +
                 "<p>Additionally, reSolver features <b>Auto-Detection</b> that passively scans HTTP responses for " +
                 "embedded CAPTCHAs and generates ready-to-use placeholders in the <b>Detections</b> tab.</p>"
         ));
@@ -73,11 +83,11 @@ public class HelpPanel extends JPanel {
                 "<tr><td>5</td><td>FunCaptcha (Arkose Labs)</td><td><code>funcaptcha</code></td>" +
                 "    <td><code>timeout_seconds</code></td></tr>" +
                 "<tr><td>6</td><td>GeeTest v3</td><td><code>geetest</code></td>" +
-                "    <td><code>timeout_seconds</code></td></tr>" +
+                "    <td><code>field</code>, <code>timeout_seconds</code></td></tr>" +
                 "<tr><td>7</td><td>GeeTest v4</td><td><code>geetestv4</code></td>" +
-                "    <td><code>timeout_seconds</code></td></tr>" +
+                "    <td><code>field</code>, <code>timeout_seconds</code></td></tr>" +
                 "<tr><td>8</td><td>AWS WAF CAPTCHA</td><td><code>awswaf</code></td>" +
-                "    <td><code>timeout_seconds</code></td></tr>" +
+                "    <td><code>field</code>, <code>timeout_seconds</code></td></tr>" +
                 "</table>"
         ));
 
@@ -96,7 +106,10 @@ public class HelpPanel extends JPanel {
                 "</table>" +
                 "<p>Providers are used in order of their <b>priority</b> (lower number = higher priority). " +
                 "You can adjust priorities in the Services tab using the Priority Up/Down buttons. " +
-                "Each provider shows which CAPTCHA types it supports in the <i>Supported Types</i> column.</p>"
+                "Each provider shows which CAPTCHA types it supports in the <i>Supported Types</i> column.</p>" +
+                "<p><b>Simulated (dry run)</b> returns synthetic tokens without contacting any service, after a " +
+                "latency and with a failure rate set in the <b>Simulation</b> settings. Enable it with any API key " +
+                "to load-test Intruder and Repeater setups, queueing and failover without spending balance.</p>"
         ));
 
         // Auto-Detection feature
@@ -139,7 +152,9 @@ public class HelpPanel extends JPanel {
                 "<h3>1. Custom Timeout</h3>" +
                 "<p>Specify a custom timeout by adding the <code>timeout_seconds</code> parameter:</p>" +
                 "<pre>timeout_seconds=60</pre>" +
-                "<p>Valid range: 10&ndash;120 seconds. Default: 30 seconds.</p>" +
+                "<p>Default: the <i>Solve Timeout</i> setting (120 seconds). The timeout covers waiting for " +
+                "a solver thread, every provider tried and result polling. When it passes, the request is " +
+                "sent unmodified with a note in its annotations.</p>" +
                 "<h3>2. Invisible reCAPTCHA (v2 only)</h3>" +
                 "<p>For invisible reCAPTCHA v2, add the <code>invisible</code> parameter:</p>" +
                 "<pre>invisible</pre>" +
@@ -149,6 +164,21 @@ public class HelpPanel extends JPanel {
                 "<h3>4. Action and Min Score (reCAPTCHA v3 only)</h3>" +
                 "<p>Configure the action name and minimum score threshold:</p>" +
                 "<pre>action=login\nmin_score=0.7</pre>" +
+                "<h3>5. Token Reuse</h3>" +
+                "<p>For targets that accept the same token more than once, let one solve serve several requests. " +
+                "<code>reuse</code> sets how many requests a token serves, <code>reuse_ttl</code> how many seconds " +
+                "it is served for. Requests arriving while the token is being solved wait for it instead of " +
+                "starting their own solve:</p>" +
+                "<pre>reuse=10\nreuse_ttl=60</pre>" +
+                "<p>Without <code>reuse_ttl</code> the token is served until it expires (about 2 minutes for " +
+                "reCAPTCHA and hCaptcha).</p>" +
+                "<h3>6. Solution Fields (GeeTest, AWS WAF)</h3>" +
+                "<p>Some CAPTCHAs solve to several values, such as GeeTest v3 <code>challenge</code>, " +
+                "<code>validate</code> and <code>seccode</code>. Select one with the <code>field</code> parameter; " +
+                "placeholders for the same challenge that select different fields share a single solve:</p>" +
+                "<pre>{{CAPTCHA[:]geetest[:]GT[:]URL[:]challenge=CHALLENGE,field=validate}}\n" +
+                "{{CAPTCHA[:]geetest[:]GT[:]URL[:]challenge=CHALLENGE,field=seccode}}</pre>" +
+                "<p>Without <code>field</code> the whole solution object is inserted.</p>" +
                 "<h3>Combining parameters</h3>" +
                 "<p>You can combine multiple parameters using commas:</p>" +
                 "<pre>{{CAPTCHA[:]recaptchav2[:]SITEKEY[:]URL[:]invisible,enterprise,timeout_seconds=60}}</pre>"
@@ -173,7 +203,7 @@ public class HelpPanel extends JPanel {
                 "<p>Not all providers support all CAPTCHA types. Check the <i>Supported Types</i> column " +
                 "in the Services tab to verify your provider supports the type you need.</p>" +
                 "<h3>5. Timeout Issues</h3>" +
-                "<p>If CAPTCHAs are timing out, try increasing the timeout value using the " +
+                "<p>If CAPTCHAs are timing out, try increasing the <i>Solve Timeout</i> setting or the " +
                 "<code>timeout_seconds</code> parameter, or check if the provider service is experiencing high load.</p>" +
                 "<h3>6. No Provider Available</h3>" +
                 "<p>Ensure at least one provider is enabled with a valid API key and positive balance. " +
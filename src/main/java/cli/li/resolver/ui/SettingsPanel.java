@@ -2,16 +2,24 @@ package cli.li.resolver.ui;
 
 import javax.swing.*;
 import javax.swing.border.TitledBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.table.AbstractTableModel;
 import java.awt.*;
 
+import burp.api.montoya.core.ToolType;
+
 import cli.li.resolver.logger.LoggerService;
+import cli.li.resolver.provider.PingbackReceiver;
 import cli.li.resolver.settings.SettingsManager;
+import cli.li.resolver.settings.ToolScope;
+import cli.li.resolver.thread.TaskStrategy;
 import cli.li.resolver.thread.CaptchaSolverThreadManager;
 
 /**
  * Panel for extension settings.
  * Provides monitoring cards, preset selection, and configuration controls
- * for thread pool, solving, and detection settings.
+ * for thread pool, solving, detection and per-tool scope settings.
  */
 public class SettingsPanel extends BasePanel {
     private final SettingsManager settingsManager;
@@ -32,15 +40,36 @@ public class SettingsPanel extends BasePanel {
     // Performance spinners
     private JSpinner threadPoolSizeSpinner;
     private JSpinner highLoadThresholdSpinner;
+    private JComboBox<TaskStrategy> taskStrategyCombo;
 
     // Solving spinners
     private JSpinner solveTimeoutSpinner;
     private JSpinner maxRetriesSpinner;
+    private JSpinner tokenPoolSizeSpinner;
+    private JSpinner maxBodyScanSpinner;
+    private JSpinner payloadTokenCountSpinner;
+    private JSpinner payloadConcurrencySpinner;
+    private JSpinner pollIntervalSpinner;
+    private JSpinner simulatedMedianSpinner;
+    private JSpinner simulatedSpreadSpinner;
+    private JSpinner simulatedFailureSpinner;
+    private JCheckBox simulatedRecordedCheckbox;
+    private JCheckBox intruderPrefetchCheckbox;
+
+    // Pingback controls
+    private JCheckBox pingbackCheckbox;
+    private JSpinner pingbackPortSpinner;
+    private JTextField pingbackUrlField;
 
     // Detection controls
     private JCheckBox autoDetectionCheckbox;
+    private JSpinner detectionWorkersSpinner;
     private JComboBox<String> logLevelCombo;
 
+    // Tool scope
+    private JCheckBox globalResolutionCheckbox;
+    private ToolScopeTableModel toolScopeModel;
+
     // Unsaved changes label
     private JLabel unsavedLabel;
 
@@ -69,20 +98,59 @@ public class SettingsPanel extends BasePanel {
                 settingsManager.getThreadPoolSize(), 1, 100, 1));
         highLoadThresholdSpinner = new JSpinner(new SpinnerNumberModel(
                 settingsManager.getHighLoadThreshold(), 1, 1000, 10));
+        taskStrategyCombo = new JComboBox<>(TaskStrategy.values());
+        taskStrategyCombo.setSelectedItem(settingsManager.getTaskStrategy());
 
         // Solving
         solveTimeoutSpinner = new JSpinner(new SpinnerNumberModel(
                 settingsManager.getSolveTimeout(), 10, 600, 10));
         maxRetriesSpinner = new JSpinner(new SpinnerNumberModel(
                 settingsManager.getMaxRetries(), 0, 10, 1));
+        tokenPoolSizeSpinner = new JSpinner(new SpinnerNumberModel(
+                settingsManager.getTokenPoolSize(), 0, 20, 1));
+        maxBodyScanSpinner = new JSpinner(new SpinnerNumberModel(
+                settingsManager.getMaxBodyScanKb(), 16, 65536, 256));
+        payloadTokenCountSpinner = new JSpinner(new SpinnerNumberModel(
+                settingsManager.getPayloadTokenCount(), 1, 10000, 10));
+        payloadConcurrencySpinner = new JSpinner(new SpinnerNumberModel(
+                settingsManager.getPayloadConcurrency(), 1, 50, 1));
+        pollIntervalSpinner = new JSpinner(new SpinnerNumberModel(
+                settingsManager.getPollIntervalMs(), 250, 30000, 250));
+        intruderPrefetchCheckbox = new JCheckBox("Prefetch tokens for Intruder attacks");
+        intruderPrefetchCheckbox.setSelected(settingsManager.isIntruderPrefetchEnabled());
 
         // Detection
         autoDetectionCheckbox = new JCheckBox("Enable automatic CAPTCHA detection");
         autoDetectionCheckbox.setSelected(settingsManager.isAutoDetectionEnabled());
+        detectionWorkersSpinner = new JSpinner(new SpinnerNumberModel(
+                settingsManager.getDetectionWorkers(), 1, 16, 1));
 
         logLevelCombo = new JComboBox<>(new String[]{"DEBUG", "INFO", "WARNING", "ERROR"});
         logLevelCombo.setSelectedItem(settingsManager.getLogLevel());
 
+        // Simulation
+        simulatedMedianSpinner = new JSpinner(new SpinnerNumberModel(
+                settingsManager.getSimulatedMedianMs(), 0, 300000, 1000));
+        simulatedSpreadSpinner = new JSpinner(new SpinnerNumberModel(
+                settingsManager.getSimulatedSpreadPercent(), 0, 200, 10));
+        simulatedFailureSpinner = new JSpinner(new SpinnerNumberModel(
+                settingsManager.getSimulatedFailurePercent(), 0, 100, 1));
+        simulatedRecordedCheckbox = new JCheckBox("Use recorded solve times per CAPTCHA type");
+        simulatedRecordedCheckbox.setSelected(settingsManager.isSimulatedRecordedLatency());
+
+        // Pingback
+        pingbackCheckbox = new JCheckBox("Receive results by pingback");
+        pingbackCheckbox.setSelected(settingsManager.isPingbackEnabled());
+        pingbackPortSpinner = new JSpinner(new SpinnerNumberModel(
+                settingsManager.getPingbackPort(), 1, 65535, 1));
+        pingbackPortSpinner.setEditor(new JSpinner.NumberEditor(pingbackPortSpinner, "#"));
+        pingbackUrlField = new JTextField(settingsManager.getPingbackPublicUrl(), 24);
+
+        // Tool scope
+        globalResolutionCheckbox = new JCheckBox("Resolve placeholders in all traffic");
+        globalResolutionCheckbox.setSelected(settingsManager.isGlobalResolutionEnabled());
+        toolScopeModel = new ToolScopeTableModel(settingsManager.getToolScope());
+
         // Presets
         presetCombo = new JComboBox<>(new String[]{
                 "Custom",
@@ -197,7 +265,8 @@ public class SettingsPanel extends BasePanel {
         currentLoadStatus.setForeground(highLoad ? UIHelper.getErrorColor() : UIHelper.getSuccessColor());
 
         tasksRunningValue.setText(String.valueOf(active));
-        tasksRunningSubtext.setText("active");
+        int queued = threadManager.threadPoolManager().getQueuedTaskCount();
+        tasksRunningSubtext.setText(queued > 0 ? "active, " + queued + " queued" : "active");
     }
 
     private void applyThreadUsageColor(int pct) {
@@ -225,6 +294,12 @@ public class SettingsPanel extends BasePanel {
         sectionsPanel.add(createSolvingSection());
         sectionsPanel.add(Box.createVerticalStrut(8));
         sectionsPanel.add(createDetectionSection());
+        sectionsPanel.add(Box.createVerticalStrut(8));
+        sectionsPanel.add(createSimulationSection());
+        sectionsPanel.add(Box.createVerticalStrut(8));
+        sectionsPanel.add(createPingbackSection());
+        sectionsPanel.add(Box.createVerticalStrut(8));
+        sectionsPanel.add(createToolScopeSection());
         sectionsPanel.add(Box.createVerticalGlue());
 
         JScrollPane scrollPane = new JScrollPane(sectionsPanel);
@@ -249,7 +324,7 @@ public class SettingsPanel extends BasePanel {
     private JPanel createPerformanceSection() {
         JPanel section = new JPanel(new GridBagLayout());
         section.setBorder(createSectionBorder("Performance"));
-        section.setMaximumSize(new Dimension(Integer.MAX_VALUE, 130));
+        section.setMaximumSize(new Dimension(Integer.MAX_VALUE, 170));
 
         GridBagConstraints c = new GridBagConstraints();
         c.insets = new Insets(4, 8, 4, 8);
@@ -263,6 +338,10 @@ public class SettingsPanel extends BasePanel {
         addSettingRow(section, c, 1, "High Load Threshold:", highLoadThresholdSpinner,
                 "Requests per minute to trigger high load mode");
 
+        // Task Strategy
+        addSettingRow(section, c, 2, "Task Strategy:", taskStrategyCombo,
+                "When the pool is full: wait, send the request unsolved, or pace solves under high load");
+
         // Track changes for preset detection and unsaved indicator
         threadPoolSizeSpinner.addChangeListener(e -> {
             markUnsaved();
@@ -276,6 +355,7 @@ public class SettingsPanel extends BasePanel {
                 presetCombo.setSelectedItem("Custom");
             }
         });
+        taskStrategyCombo.addActionListener(e -> markUnsaved());
 
         return section;
     }
@@ -283,7 +363,7 @@ public class SettingsPanel extends BasePanel {
     private JPanel createSolvingSection() {
         JPanel section = new JPanel(new GridBagLayout());
         section.setBorder(createSectionBorder("Solving"));
-        section.setMaximumSize(new Dimension(Integer.MAX_VALUE, 130));
+        section.setMaximumSize(new Dimension(Integer.MAX_VALUE, 450));
 
         GridBagConstraints c = new GridBagConstraints();
         c.insets = new Insets(4, 8, 4, 8);
@@ -293,10 +373,43 @@ public class SettingsPanel extends BasePanel {
                 "Maximum time to wait for CAPTCHA solution");
 
         addSettingRow(section, c, 1, "Max Retries:", maxRetriesSpinner,
-                "Number of retry attempts on solve failure");
+                "Retries per provider on transient failures, with backoff");
+
+        addSettingRow(section, c, 2, "Token Pool Size:", tokenPoolSizeSpinner,
+                "Pre-solved tokens kept ready per CAPTCHA (0 disables the pool)");
+
+        addSettingRow(section, c, 3, "Max Body Scan (KB):", maxBodyScanSpinner,
+                "Request body bytes scanned for placeholders; binary bodies and file uploads are skipped");
+
+        addSettingRow(section, c, 4, "Payload Tokens:", payloadTokenCountSpinner,
+                "Tokens generated per Intruder attack by the reSolver payload generator");
+
+        addSettingRow(section, c, 5, "Payload Concurrency:", payloadConcurrencySpinner,
+                "Solves the payload generator keeps in flight ahead of Intruder");
+
+        addSettingRow(section, c, 6, "Poll Interval (ms):", pollIntervalSpinner,
+                "How often outstanding provider tasks are polled for their result");
+
+        c.gridx = 0;
+        c.gridy = 14;
+        c.gridwidth = 2;
+        section.add(intruderPrefetchCheckbox, c);
+
+        c.gridy = 15;
+        JLabel prefetchDesc = new JLabel("Solve ahead of Intruder requests based on their rate and solve latency");
+        prefetchDesc.setFont(prefetchDesc.getFont().deriveFont(Font.PLAIN, 10f));
+        prefetchDesc.setForeground(UIHelper.getSecondaryTextColor());
+        section.add(prefetchDesc, c);
+        c.gridwidth = 1;
 
         solveTimeoutSpinner.addChangeListener(e -> markUnsaved());
         maxRetriesSpinner.addChangeListener(e -> markUnsaved());
+        tokenPoolSizeSpinner.addChangeListener(e -> markUnsaved());
+        maxBodyScanSpinner.addChangeListener(e -> markUnsaved());
+        payloadTokenCountSpinner.addChangeListener(e -> markUnsaved());
+        payloadConcurrencySpinner.addChangeListener(e -> markUnsaved());
+        pollIntervalSpinner.addChangeListener(e -> markUnsaved());
+        intruderPrefetchCheckbox.addActionListener(e -> markUnsaved());
 
         return section;
     }
@@ -304,7 +417,7 @@ public class SettingsPanel extends BasePanel {
     private JPanel createDetectionSection() {
         JPanel section = new JPanel(new GridBagLayout());
         section.setBorder(createSectionBorder("Detection"));
-        section.setMaximumSize(new Dimension(Integer.MAX_VALUE, 130));
+        section.setMaximumSize(new Dimension(Integer.MAX_VALUE, 180));
 
         GridBagConstraints c = new GridBagConstraints();
         c.insets = new Insets(4, 8, 4, 8);
@@ -324,19 +437,37 @@ public class SettingsPanel extends BasePanel {
         descLabel.setForeground(UIHelper.getSecondaryTextColor());
         section.add(descLabel, c);
 
-        // Log Level
+        // Detection Workers
         c.gridx = 0;
         c.gridy = 2;
         c.gridwidth = 1;
-        section.add(new JLabel("Log Level:"), c);
+        section.add(new JLabel("Detection Workers:"), c);
 
         c.gridx = 1;
         c.gridy = 2;
-        section.add(logLevelCombo, c);
+        section.add(detectionWorkersSpinner, c);
 
         c.gridx = 0;
         c.gridy = 3;
         c.gridwidth = 2;
+        JLabel workersDesc = new JLabel("Background threads analyzing responses, applied on extension reload");
+        workersDesc.setFont(workersDesc.getFont().deriveFont(Font.PLAIN, 10f));
+        workersDesc.setForeground(UIHelper.getSecondaryTextColor());
+        section.add(workersDesc, c);
+
+        // Log Level
+        c.gridx = 0;
+        c.gridy = 4;
+        c.gridwidth = 1;
+        section.add(new JLabel("Log Level:"), c);
+
+        c.gridx = 1;
+        c.gridy = 4;
+        section.add(logLevelCombo, c);
+
+        c.gridx = 0;
+        c.gridy = 5;
+        c.gridwidth = 2;
         JLabel logDesc = new JLabel("Minimum log level to display");
         logDesc.setFont(logDesc.getFont().deriveFont(Font.PLAIN, 10f));
         logDesc.setForeground(UIHelper.getSecondaryTextColor());
@@ -350,11 +481,141 @@ public class SettingsPanel extends BasePanel {
         section.add(Box.createHorizontalGlue(), c);
 
         autoDetectionCheckbox.addActionListener(e -> markUnsaved());
+        detectionWorkersSpinner.addChangeListener(e -> markUnsaved());
         logLevelCombo.addActionListener(e -> markUnsaved());
 
         return section;
     }
 
+    private JPanel createSimulationSection() {
+        JPanel section = new JPanel(new GridBagLayout());
+        section.setBorder(createSectionBorder("Simulation"));
+        section.setMaximumSize(new Dimension(Integer.MAX_VALUE, 250));
+
+        GridBagConstraints c = new GridBagConstraints();
+        c.insets = new Insets(4, 8, 4, 8);
+        c.anchor = GridBagConstraints.WEST;
+
+        addSettingRow(section, c, 0, "Median Latency (ms):", simulatedMedianSpinner,
+                "Typical solve time of the Simulated (dry run) provider");
+
+        addSettingRow(section, c, 1, "Latency Spread (%):", simulatedSpreadSpinner,
+                "Log-normal spread of simulated solve times (0 makes every solve take the median)");
+
+        addSettingRow(section, c, 2, "Failure Rate (%):", simulatedFailureSpinner,
+                "Share of simulated solves failing with a transient provider error");
+
+        c.gridx = 0;
+        c.gridy = 6;
+        c.gridwidth = 2;
+        section.add(simulatedRecordedCheckbox, c);
+
+        c.gridy = 7;
+        JLabel recordedDesc = new JLabel("Center simulated latency on the average real solve time seen for each type");
+        recordedDesc.setFont(recordedDesc.getFont().deriveFont(Font.PLAIN, 10f));
+        recordedDesc.setForeground(UIHelper.getSecondaryTextColor());
+        section.add(recordedDesc, c);
+        c.gridwidth = 1;
+
+        simulatedMedianSpinner.addChangeListener(e -> markUnsaved());
+        simulatedSpreadSpinner.addChangeListener(e -> markUnsaved());
+        simulatedFailureSpinner.addChangeListener(e -> markUnsaved());
+        simulatedRecordedCheckbox.addActionListener(e -> markUnsaved());
+
+        return section;
+    }
+
+    private JPanel createPingbackSection() {
+        JPanel section = new JPanel(new GridBagLayout());
+        section.setBorder(createSectionBorder("Pingback"));
+        section.setMaximumSize(new Dimension(Integer.MAX_VALUE, 200));
+
+        GridBagConstraints c = new GridBagConstraints();
+        c.insets = new Insets(4, 8, 4, 8);
+        c.anchor = GridBagConstraints.WEST;
+
+        c.gridx = 0;
+        c.gridy = 0;
+        c.gridwidth = 2;
+        section.add(pingbackCheckbox, c);
+
+        c.gridy = 1;
+        JLabel pingbackDesc = new JLabel("Providers push results to a local receiver as soon as they are ready; "
+                + "polling continues as a fallback");
+        pingbackDesc.setFont(pingbackDesc.getFont().deriveFont(Font.PLAIN, 10f));
+        pingbackDesc.setForeground(UIHelper.getSecondaryTextColor());
+        section.add(pingbackDesc, c);
+        c.gridwidth = 1;
+
+        addSettingRow(section, c, 1, "Receiver Port:", pingbackPortSpinner,
+                "Local port the receiver listens on");
+
+        addSettingRow(section, c, 2, "Public URL:", pingbackUrlField,
+                "URL under which providers reach the port; required for providers to call back");
+
+        pingbackCheckbox.addActionListener(e -> markUnsaved());
+        pingbackPortSpinner.addChangeListener(e -> markUnsaved());
+        pingbackUrlField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                markUnsaved();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                markUnsaved();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                markUnsaved();
+            }
+        });
+
+        return section;
+    }
+
+    private JPanel createToolScopeSection() {
+        JPanel section = new JPanel(new BorderLayout(0, 4));
+        section.setBorder(createSectionBorder("Tool Scope"));
+
+        JLabel globalDesc = new JLabel("Turn off to resolve only through the \"reSolver: solve CAPTCHA " +
+                "placeholders\" session handling rule action");
+        globalDesc.setFont(globalDesc.getFont().deriveFont(Font.PLAIN, 10f));
+        globalDesc.setForeground(UIHelper.getSecondaryTextColor());
+
+        JLabel descLabel = new JLabel("Burp tools whose requests are scanned for placeholders " +
+                "and whose responses are analyzed for CAPTCHAs");
+        descLabel.setFont(descLabel.getFont().deriveFont(Font.PLAIN, 10f));
+        descLabel.setForeground(UIHelper.getSecondaryTextColor());
+        descLabel.setBorder(BorderFactory.createEmptyBorder(6, 0, 0, 0));
+
+        JPanel header = new JPanel();
+        header.setLayout(new BoxLayout(header, BoxLayout.Y_AXIS));
+        header.setBorder(BorderFactory.createEmptyBorder(0, 8, 0, 8));
+        globalResolutionCheckbox.setAlignmentX(Component.LEFT_ALIGNMENT);
+        globalDesc.setAlignmentX(Component.LEFT_ALIGNMENT);
+        descLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
+        header.add(globalResolutionCheckbox);
+        header.add(globalDesc);
+        header.add(descLabel);
+
+        JTable table = new JTable(toolScopeModel);
+        table.setRowSelectionAllowed(false);
+        table.getTableHeader().setReorderingAllowed(false);
+        table.setPreferredScrollableViewportSize(
+                new Dimension(400, table.getRowHeight() * toolScopeModel.getRowCount()));
+
+        section.add(header, BorderLayout.NORTH);
+        section.add(new JScrollPane(table), BorderLayout.CENTER);
+        section.setMaximumSize(new Dimension(Integer.MAX_VALUE, section.getPreferredSize().height));
+
+        globalResolutionCheckbox.addActionListener(e -> markUnsaved());
+        toolScopeModel.addTableModelListener(e -> markUnsaved());
+
+        return section;
+    }
+
     // ---- Button Panel (SOUTH) ----
 
     private JPanel createButtonPanel() {
@@ -501,10 +762,27 @@ public class SettingsPanel extends BasePanel {
     private void saveSettings() {
         settingsManager.setThreadPoolSize((Integer) threadPoolSizeSpinner.getValue());
         settingsManager.setHighLoadThreshold((Integer) highLoadThresholdSpinner.getValue());
+        settingsManager.setTaskStrategy((TaskStrategy) taskStrategyCombo.getSelectedItem());
         settingsManager.setSolveTimeout((Integer) solveTimeoutSpinner.getValue());
         settingsManager.setMaxRetries((Integer) maxRetriesSpinner.getValue());
+        settingsManager.setTokenPoolSize((Integer) tokenPoolSizeSpinner.getValue());
+        settingsManager.setMaxBodyScanKb((Integer) maxBodyScanSpinner.getValue());
+        settingsManager.setPayloadTokenCount((Integer) payloadTokenCountSpinner.getValue());
+        settingsManager.setPayloadConcurrency((Integer) payloadConcurrencySpinner.getValue());
+        settingsManager.setPollIntervalMs((Integer) pollIntervalSpinner.getValue());
+        settingsManager.setIntruderPrefetchEnabled(intruderPrefetchCheckbox.isSelected());
         settingsManager.setAutoDetectionEnabled(autoDetectionCheckbox.isSelected());
+        settingsManager.setDetectionWorkers((Integer) detectionWorkersSpinner.getValue());
         settingsManager.setLogLevel((String) logLevelCombo.getSelectedItem());
+        settingsManager.setSimulatedMedianMs((Integer) simulatedMedianSpinner.getValue());
+        settingsManager.setSimulatedSpreadPercent((Integer) simulatedSpreadSpinner.getValue());
+        settingsManager.setSimulatedFailurePercent((Integer) simulatedFailureSpinner.getValue());
+        settingsManager.setSimulatedRecordedLatency(simulatedRecordedCheckbox.isSelected());
+        settingsManager.setPingbackEnabled(pingbackCheckbox.isSelected());
+        settingsManager.setPingbackPort((Integer) pingbackPortSpinner.getValue());
+        settingsManager.setPingbackPublicUrl(pingbackUrlField.getText().trim());
+        settingsManager.setGlobalResolutionEnabled(globalResolutionCheckbox.isSelected());
+        settingsManager.setToolScope(toolScopeModel.getScope());
 
         // Apply log level immediately
         try {
@@ -514,15 +792,40 @@ public class SettingsPanel extends BasePanel {
         } catch (IllegalArgumentException ignored) {
             // Invalid level name, keep current
         }
+
+        // Start, move or stop the pingback receiver
+        if (!PingbackReceiver.getInstance().configure(settingsManager)) {
+            JOptionPane.showMessageDialog(UIHelper.getBurpFrame(),
+                    "Could not listen on port " + pingbackPortSpinner.getValue()
+                            + "; results will be polled instead",
+                    "Pingback", JOptionPane.WARNING_MESSAGE);
+        }
     }
 
     private void resetToDefaults() {
         threadPoolSizeSpinner.setValue(10);
         highLoadThresholdSpinner.setValue(50);
+        taskStrategyCombo.setSelectedItem(TaskStrategy.BLOCKING);
         solveTimeoutSpinner.setValue(120);
         maxRetriesSpinner.setValue(2);
+        tokenPoolSizeSpinner.setValue(0);
+        maxBodyScanSpinner.setValue(1024);
+        payloadTokenCountSpinner.setValue(100);
+        payloadConcurrencySpinner.setValue(10);
+        pollIntervalSpinner.setValue(2000);
+        intruderPrefetchCheckbox.setSelected(true);
         autoDetectionCheckbox.setSelected(true);
+        detectionWorkersSpinner.setValue(2);
         logLevelCombo.setSelectedItem("INFO");
+        simulatedMedianSpinner.setValue(15000);
+        simulatedSpreadSpinner.setValue(50);
+        simulatedFailureSpinner.setValue(5);
+        simulatedRecordedCheckbox.setSelected(false);
+        pingbackCheckbox.setSelected(false);
+        pingbackPortSpinner.setValue(8765);
+        pingbackUrlField.setText("");
+        globalResolutionCheckbox.setSelected(true);
+        toolScopeModel.setScope(ToolScope.DEFAULT);
         presetCombo.setSelectedItem("Balanced (10 threads)");
 
         saveSettings();
@@ -559,4 +862,74 @@ public class SettingsPanel extends BasePanel {
             );
         }
     }
+
+    /**
+     * Table model with one row per Burp tool and checkboxes for resolution and detection
+     */
+    private static class ToolScopeTableModel extends AbstractTableModel {
+        private final String[] columnNames = {"Tool", "Resolve Placeholders", "Detect CAPTCHAs"};
+        private final ToolType[] tools = ToolType.values();
+        private ToolScope scope;
+
+        ToolScopeTableModel(ToolScope scope) {
+            this.scope = scope;
+        }
+
+        ToolScope getScope() {
+            return scope;
+        }
+
+        void setScope(ToolScope scope) {
+            this.scope = scope;
+            fireTableDataChanged();
+        }
+
+        @Override
+        public int getRowCount() {
+            return tools.length;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return columnNames.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return columnNames[column];
+        }
+
+        @Override
+        public Class<?> getColumnClass(int columnIndex) {
+            return columnIndex == 0 ? String.class : Boolean.class;
+        }
+
+        @Override
+        public boolean isCellEditable(int rowIndex, int columnIndex) {
+            return columnIndex > 0;
+        }
+
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            ToolType tool = tools[rowIndex];
+            return switch (columnIndex) {
+                case 0 -> tool.toolName();
+                case 1 -> scope.isResolutionEnabled(tool.name());
+                case 2 -> scope.isDetectionEnabled(tool.name());
+                default -> null;
+            };
+        }
+
+        @Override
+        public void setValueAt(Object value, int rowIndex, int columnIndex) {
+            String tool = tools[rowIndex].name();
+            boolean enabled = Boolean.TRUE.equals(value);
+            if (columnIndex == 1) {
+                scope = scope.withResolution(tool, enabled);
+            } else if (columnIndex == 2) {
+                scope = scope.withDetection(tool, enabled);
+            }
+            fireTableCellUpdated(rowIndex, columnIndex);
+        }
+    }
 }
@@ -9,9 +9,14 @@ import java.util.Map;
 import java.util.ArrayList;
 
 import cli.li.resolver.captcha.model.CaptchaType;
+import cli.li.resolver.detection.DetectionQueue;
+import cli.li.resolver.http.PlaceholderCache;
+import cli.li.resolver.provider.PollSchedule;
+import cli.li.resolver.provider.PollScheduler;
 import cli.li.resolver.provider.ProviderService;
 import cli.li.resolver.provider.ProviderStatistics;
 import cli.li.resolver.service.ServiceManager;
+import cli.li.resolver.service.TokenPool;
 import cli.li.resolver.stats.StatisticsCollector;
 import cli.li.resolver.ui.renderer.SuccessRateCellRenderer;
 
@@ -21,6 +26,9 @@ import cli.li.resolver.ui.renderer.SuccessRateCellRenderer;
 public class StatisticsPanel extends JPanel {
     private final StatisticsCollector statisticsCollector;
     private final ServiceManager serviceManager;
+    private final TokenPool tokenPool;
+    private final DetectionQueue detectionQueue;
+    private final PlaceholderCache placeholderCache;
 
     // Summary card components
     private JLabel totalAttemptsValue;
@@ -29,6 +37,16 @@ public class StatisticsPanel extends JPanel {
     private JProgressBar successRateBar;
     private JLabel avgTimeValue;
     private JLabel avgTimeSubtext;
+    private JLabel poolDepthValue;
+    private JLabel poolDepthSubtext;
+    private JLabel detectionQueueValue;
+    private JLabel detectionQueueSubtext;
+    private JLabel parseCacheValue;
+    private JLabel parseCacheSubtext;
+    private JLabel providerTasksValue;
+    private JLabel providerTasksSubtext;
+    private JLabel pollsPerSolveValue;
+    private JLabel pollsPerSolveSubtext;
 
     private JTable typeStatsTable;
     private TypeStatsTableModel typeStatsTableModel;
@@ -36,17 +54,27 @@ public class StatisticsPanel extends JPanel {
     private JTable providerStatsTable;
     private ProviderStatsTableModel providerStatsTableModel;
 
-    public StatisticsPanel(StatisticsCollector statisticsCollector, ServiceManager serviceManager) {
+    public StatisticsPanel(StatisticsCollector statisticsCollector, ServiceManager serviceManager,
+                           TokenPool tokenPool, DetectionQueue detectionQueue,
+                           PlaceholderCache placeholderCache) {
         this.statisticsCollector = statisticsCollector;
         this.serviceManager = serviceManager;
+        this.tokenPool = tokenPool;
+        this.detectionQueue = detectionQueue;
+        this.placeholderCache = placeholderCache;
 
         setLayout(new BorderLayout(0, 8));
         setBorder(BorderFactory.createEmptyBorder(8, 8, 8, 8));
 
-        JPanel summaryPanel = new JPanel(new GridLayout(1, 3, 10, 0));
+        JPanel summaryPanel = new JPanel(new GridLayout(2, 4, 10, 10));
         summaryPanel.add(createTotalAttemptsCard());
         summaryPanel.add(createSuccessRateCard());
         summaryPanel.add(createAvgTimeCard());
+        summaryPanel.add(createTokenPoolCard());
+        summaryPanel.add(createDetectionQueueCard());
+        summaryPanel.add(createParseCacheCard());
+        summaryPanel.add(createProviderTasksCard());
+        summaryPanel.add(createPollsPerSolveCard());
 
         JSplitPane splitPane = new JSplitPane(JSplitPane.VERTICAL_SPLIT,
                 createTypeStatsPanel(), createProviderStatsPanel());
@@ -114,6 +142,10 @@ public class StatisticsPanel extends JPanel {
                     JOptionPane.YES_NO_OPTION);
             if (result == JOptionPane.YES_OPTION) {
                 statisticsCollector.reset();
+                tokenPool.resetStatistics();
+                detectionQueue.resetStatistics();
+                placeholderCache.resetStatistics();
+                PollScheduler.getInstance().resetStatistics();
                 refreshData();
             }
         });
@@ -208,6 +240,141 @@ public class StatisticsPanel extends JPanel {
         return card;
     }
 
+    /**
+     * Create card for the pre-solved token pool.
+     */
+    private JPanel createTokenPoolCard() {
+        JPanel card = createCardPanel();
+
+        JLabel titleLabel = new JLabel("Token Pool");
+        titleLabel.setFont(titleLabel.getFont().deriveFont(Font.PLAIN, 11f));
+        titleLabel.setForeground(UIHelper.getSecondaryTextColor());
+        titleLabel.setHorizontalAlignment(SwingConstants.CENTER);
+
+        poolDepthValue = new JLabel("0");
+        poolDepthValue.setFont(poolDepthValue.getFont().deriveFont(Font.BOLD, 24f));
+        poolDepthValue.setHorizontalAlignment(SwingConstants.CENTER);
+
+        poolDepthSubtext = new JLabel("no requests");
+        poolDepthSubtext.setFont(poolDepthSubtext.getFont().deriveFont(Font.PLAIN, 11f));
+        poolDepthSubtext.setForeground(UIHelper.getSecondaryTextColor());
+        poolDepthSubtext.setHorizontalAlignment(SwingConstants.CENTER);
+
+        card.add(titleLabel, BorderLayout.NORTH);
+        card.add(poolDepthValue, BorderLayout.CENTER);
+        card.add(poolDepthSubtext, BorderLayout.SOUTH);
+
+        return card;
+    }
+
+    /**
+     * Create card for the background detection queue.
+     */
+    private JPanel createDetectionQueueCard() {
+        JPanel card = createCardPanel();
+
+        JLabel titleLabel = new JLabel("Detection Queue");
+        titleLabel.setFont(titleLabel.getFont().deriveFont(Font.PLAIN, 11f));
+        titleLabel.setForeground(UIHelper.getSecondaryTextColor());
+        titleLabel.setHorizontalAlignment(SwingConstants.CENTER);
+
+        detectionQueueValue = new JLabel("0");
+        detectionQueueValue.setFont(detectionQueueValue.getFont().deriveFont(Font.BOLD, 24f));
+        detectionQueueValue.setHorizontalAlignment(SwingConstants.CENTER);
+
+        detectionQueueSubtext = new JLabel("0 dropped");
+        detectionQueueSubtext.setFont(detectionQueueSubtext.getFont().deriveFont(Font.PLAIN, 11f));
+        detectionQueueSubtext.setForeground(UIHelper.getSecondaryTextColor());
+        detectionQueueSubtext.setHorizontalAlignment(SwingConstants.CENTER);
+
+        card.add(titleLabel, BorderLayout.NORTH);
+        card.add(detectionQueueValue, BorderLayout.CENTER);
+        card.add(detectionQueueSubtext, BorderLayout.SOUTH);
+
+        return card;
+    }
+
+    /**
+     * Create card for the parsed placeholder cache.
+     */
+    private JPanel createParseCacheCard() {
+        JPanel card = createCardPanel();
+
+        JLabel titleLabel = new JLabel("Placeholder Cache");
+        titleLabel.setFont(titleLabel.getFont().deriveFont(Font.PLAIN, 11f));
+        titleLabel.setForeground(UIHelper.getSecondaryTextColor());
+        titleLabel.setHorizontalAlignment(SwingConstants.CENTER);
+
+        parseCacheValue = new JLabel("N/A");
+        parseCacheValue.setFont(parseCacheValue.getFont().deriveFont(Font.BOLD, 24f));
+        parseCacheValue.setHorizontalAlignment(SwingConstants.CENTER);
+
+        parseCacheSubtext = new JLabel("0 hits, 0 misses");
+        parseCacheSubtext.setFont(parseCacheSubtext.getFont().deriveFont(Font.PLAIN, 11f));
+        parseCacheSubtext.setForeground(UIHelper.getSecondaryTextColor());
+        parseCacheSubtext.setHorizontalAlignment(SwingConstants.CENTER);
+
+        card.add(titleLabel, BorderLayout.NORTH);
+        card.add(parseCacheValue, BorderLayout.CENTER);
+        card.add(parseCacheSubtext, BorderLayout.SOUTH);
+
+        return card;
+    }
+
+    /**
+     * Create card for provider tasks being polled.
+     */
+    private JPanel createProviderTasksCard() {
+        JPanel card = createCardPanel();
+
+        JLabel titleLabel = new JLabel("Provider Tasks");
+        titleLabel.setFont(titleLabel.getFont().deriveFont(Font.PLAIN, 11f));
+        titleLabel.setForeground(UIHelper.getSecondaryTextColor());
+        titleLabel.setHorizontalAlignment(SwingConstants.CENTER);
+
+        providerTasksValue = new JLabel("0");
+        providerTasksValue.setFont(providerTasksValue.getFont().deriveFont(Font.BOLD, 24f));
+        providerTasksValue.setHorizontalAlignment(SwingConstants.CENTER);
+
+        providerTasksSubtext = new JLabel("0 ready, 0 failed");
+        providerTasksSubtext.setFont(providerTasksSubtext.getFont().deriveFont(Font.PLAIN, 11f));
+        providerTasksSubtext.setForeground(UIHelper.getSecondaryTextColor());
+        providerTasksSubtext.setHorizontalAlignment(SwingConstants.CENTER);
+
+        card.add(titleLabel, BorderLayout.NORTH);
+        card.add(providerTasksValue, BorderLayout.CENTER);
+        card.add(providerTasksSubtext, BorderLayout.SOUTH);
+
+        return card;
+    }
+
+    /**
+     * Create card for result polls per provider task.
+     */
+    private JPanel createPollsPerSolveCard() {
+        JPanel card = createCardPanel();
+
+        JLabel titleLabel = new JLabel("Polls per Solve");
+        titleLabel.setFont(titleLabel.getFont().deriveFont(Font.PLAIN, 11f));
+        titleLabel.setForeground(UIHelper.getSecondaryTextColor());
+        titleLabel.setHorizontalAlignment(SwingConstants.CENTER);
+
+        pollsPerSolveValue = new JLabel("N/A");
+        pollsPerSolveValue.setFont(pollsPerSolveValue.getFont().deriveFont(Font.BOLD, 24f));
+        pollsPerSolveValue.setHorizontalAlignment(SwingConstants.CENTER);
+
+        pollsPerSolveSubtext = new JLabel("0 polls, 0 tasks");
+        pollsPerSolveSubtext.setFont(pollsPerSolveSubtext.getFont().deriveFont(Font.PLAIN, 11f));
+        pollsPerSolveSubtext.setForeground(UIHelper.getSecondaryTextColor());
+        pollsPerSolveSubtext.setHorizontalAlignment(SwingConstants.CENTER);
+
+        card.add(titleLabel, BorderLayout.NORTH);
+        card.add(pollsPerSolveValue, BorderLayout.CENTER);
+        card.add(pollsPerSolveSubtext, BorderLayout.SOUTH);
+
+        return card;
+    }
+
     /**
      * Create a styled card panel with border and padding.
      */
@@ -270,6 +437,54 @@ public class StatisticsPanel extends JPanel {
             }
         }
 
+        // Update Token Pool card
+        long poolRequests = tokenPool.getHits() + tokenPool.getMisses();
+        poolDepthValue.setText(String.valueOf(tokenPool.getDepth()));
+        poolDepthValue.setToolTipText(tokenPool.getKeyCount() + " pooled CAPTCHA(s), " +
+                tokenPool.getPrefetchingCount() + " prefetching for Intruder, " +
+                tokenPool.getRefilled() + " token(s) pre-solved");
+        if (poolRequests == 0) {
+            poolDepthSubtext.setText(tokenPool.getWasted() + " wasted");
+        } else {
+            poolDepthSubtext.setText(String.format("%.1f%% hit rate, %d wasted",
+                    tokenPool.getHitRate() * 100, tokenPool.getWasted()));
+        }
+
+        // Update Detection Queue card
+        detectionQueueValue.setText(String.valueOf(detectionQueue.getQueueDepth()));
+        detectionQueueValue.setToolTipText(String.format(
+                "%d of %d pending, %d worker(s), %d analyzed, avg wait %.0f ms",
+                detectionQueue.getQueueDepth(), detectionQueue.getCapacity(), detectionQueue.getWorkerCount(),
+                detectionQueue.getAnalyzed(), detectionQueue.getAvgQueueWaitMs()));
+        detectionQueueSubtext.setText(String.format("%d dropped, avg %.1f ms",
+                detectionQueue.getDropped(), detectionQueue.getAvgAnalysisMs()));
+
+        // Update Placeholder Cache card
+        long cacheLookups = placeholderCache.getHits() + placeholderCache.getMisses();
+        parseCacheValue.setText(cacheLookups == 0 ? "N/A"
+                : String.format("%.1f%%", placeholderCache.getHitRate() * 100));
+        parseCacheValue.setToolTipText(placeholderCache.size() + " parsed placeholder(s) cached");
+        parseCacheSubtext.setText(placeholderCache.getHits() + " hits, " + placeholderCache.getMisses() + " misses");
+
+        // Update Provider Tasks card
+        PollScheduler pollScheduler = PollScheduler.getInstance();
+        providerTasksValue.setText(String.valueOf(pollScheduler.getOutstanding()));
+        providerTasksValue.setToolTipText(pollScheduler.getCount(PollScheduler.TaskState.CREATED) + " created, " +
+                pollScheduler.getCount(PollScheduler.TaskState.POLLING) + " polling, " +
+                pollScheduler.getBatchedPolls() + " poll(s) answered by " + pollScheduler.getBatchCalls() +
+                " batched call(s), " +
+                pollScheduler.getDelivered() + " result(s) pushed by pingback");
+        providerTasksSubtext.setText(pollScheduler.getCount(PollScheduler.TaskState.READY) + " ready, " +
+                pollScheduler.getCount(PollScheduler.TaskState.FAILED) + " failed");
+
+        // Update Polls per Solve card
+        PollSchedule pollSchedule = pollScheduler.getSchedule();
+        pollsPerSolveValue.setText(pollSchedule.getFinished() == 0 ? "N/A"
+                : String.format("%.1f", pollSchedule.getAveragePolls()));
+        pollsPerSolveValue.setToolTipText("Result polls per finished provider task, " +
+                "timed by the solve times observed per provider and CAPTCHA type");
+        pollsPerSolveSubtext.setText(pollSchedule.getPolls() + " polls, " + pollSchedule.getFinished() + " tasks");
+
         // Update type statistics table
         typeStatsTableModel.refreshData();
 
@@ -356,7 +571,8 @@ public class StatisticsPanel extends JPanel {
      * Table model for per-provider statistics.
      */
     private class ProviderStatsTableModel extends AbstractTableModel {
-        private final String[] columnNames = {"Provider", "Requests", "Successful", "Failed", "Success Rate", "Avg Time (ms)"};
+        private final String[] columnNames = {"Provider", "Requests", "Successful", "Failed", "Success Rate",
+                "Avg Time (ms)", "Retries", "Avg Retry Delay (ms)"};
         private final List<ProviderStatsRow> rows = new ArrayList<>();
 
         @Override
@@ -384,6 +600,8 @@ public class StatisticsPanel extends JPanel {
                 case 3 -> row.failed;
                 case 4 -> row.totalRequests == 0 ? "N/A" : String.format("%.1f%%", row.successRate);
                 case 5 -> row.totalRequests == 0 ? "N/A" : String.format("%.0f", row.avgTimeMs);
+                case 6 -> row.retries;
+                case 7 -> row.retries == 0 ? "N/A" : String.format("%.0f", row.avgRetryLatencyMs);
                 default -> null;
             };
         }
@@ -402,7 +620,9 @@ public class StatisticsPanel extends JPanel {
                         stats.getSuccessfulRequests(),
                         stats.getFailedRequests(),
                         stats.getSuccessRate(),
-                        stats.getAvgSolveTimeMs()
+                        stats.getAvgSolveTimeMs(),
+                        stats.getRetries(),
+                        stats.getAvgRetryLatencyMs()
                 ));
             }
 
@@ -416,15 +636,19 @@ public class StatisticsPanel extends JPanel {
             private final int failed;
             private final double successRate;
             private final double avgTimeMs;
+            private final int retries;
+            private final double avgRetryLatencyMs;
 
             ProviderStatsRow(String providerName, int totalRequests, int successful, int failed,
-                             double successRate, double avgTimeMs) {
+                             double successRate, double avgTimeMs, int retries, double avgRetryLatencyMs) {
                 this.providerName = providerName;
                 this.totalRequests = totalRequests;
                 this.successful = successful;
                 this.failed = failed;
                 this.successRate = successRate;
                 this.avgTimeMs = avgTimeMs;
+                this.retries = retries;
+                this.avgRetryLatencyMs = avgRetryLatencyMs;
             }
         }
     }
@@ -7,12 +7,15 @@ import java.util.List;
 
 import burp.api.montoya.MontoyaApi;
 
+import cli.li.resolver.detection.DetectionQueue;
 import cli.li.resolver.detection.DetectionStore;
+import cli.li.resolver.http.PlaceholderCache;
 import cli.li.resolver.logger.LoggerService;
 import cli.li.resolver.settings.SettingsManager;
 import cli.li.resolver.stats.StatisticsCollector;
 import cli.li.resolver.thread.CaptchaSolverThreadManager;
 import cli.li.resolver.service.ServiceManager;
+import cli.li.resolver.service.TokenPool;
 
 /**
  * Main UI manager for the extension.
@@ -22,6 +25,9 @@ public final class UIManager {
     private final ServiceManager serviceManager;
     private final SettingsManager settingsManager;
     private final StatisticsCollector statisticsCollector;
+    private final TokenPool tokenPool;
+    private final DetectionQueue detectionQueue;
+    private final PlaceholderCache placeholderCache;
     private final CaptchaSolverThreadManager threadManager;
     private final DetectionStore detectionStore;
     private final LoggerService logger;
@@ -39,11 +45,15 @@ public final class UIManager {
     private final List<Timer> timers = new ArrayList<>();
 
     public UIManager(MontoyaApi api, ServiceManager serviceManager, SettingsManager settingsManager,
-                     StatisticsCollector statisticsCollector, CaptchaSolverThreadManager threadManager,
-                     DetectionStore detectionStore) {
+                     StatisticsCollector statisticsCollector, TokenPool tokenPool, DetectionQueue detectionQueue,
+                     PlaceholderCache placeholderCache,
+                     CaptchaSolverThreadManager threadManager, DetectionStore detectionStore) {
         this.serviceManager = serviceManager;
         this.settingsManager = settingsManager;
         this.statisticsCollector = statisticsCollector;
+        this.tokenPool = tokenPool;
+        this.detectionQueue = detectionQueue;
+        this.placeholderCache = placeholderCache;
         this.threadManager = threadManager;
         this.detectionStore = detectionStore;
         this.logger = LoggerService.getInstance();
@@ -70,7 +80,8 @@ public final class UIManager {
         try {
             settingsPanel = new SettingsPanel(settingsManager, threadManager);
             servicesPanel = new ServicesPanel(serviceManager);
-            statisticsPanel = new StatisticsPanel(statisticsCollector, serviceManager);
+            statisticsPanel = new StatisticsPanel(statisticsCollector, serviceManager, tokenPool, detectionQueue,
+                    placeholderCache);
             detectionPanel = new DetectionPanel(detectionStore);
             helpPanel = new HelpPanel();
             logsPanel = new LogsPanel();
@@ -0,0 +1,100 @@
+package cli.li.resolver.captcha.model;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("CaptchaRequest")
+class CaptchaRequestTest {
+
+    @Test
+    @DisplayName("Requests with the same type, site key, URL and params are equal")
+    void equalRequestsAreEqual() {
+        CaptchaRequest a = new CaptchaRequest("key", "https://example.com",
+                Map.of("action", "login", "min_score", "0.7"), CaptchaType.RECAPTCHA_V3);
+        CaptchaRequest b = new CaptchaRequest("key", "https://example.com",
+                Map.of("min_score", "0.7", "action", "login"), CaptchaType.RECAPTCHA_V3);
+
+        assertThat(a.equals(b)).isTrue();
+        assertThat(a.hashCode()).isEqualTo(b.hashCode());
+    }
+
+    @Test
+    @DisplayName("Requests differing in type are not equal")
+    void differentTypeIsNotEqual() {
+        CaptchaRequest a = new CaptchaRequest("key", "https://example.com", null, CaptchaType.RECAPTCHA_V2);
+        CaptchaRequest b = new CaptchaRequest("key", "https://example.com", null, CaptchaType.HCAPTCHA);
+
+        assertThat(a.equals(b)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Requests differing in params are not equal")
+    void differentParamsAreNotEqual() {
+        CaptchaRequest a = new CaptchaRequest("key", "https://example.com",
+                Map.of("action", "login"), CaptchaType.RECAPTCHA_V3);
+        CaptchaRequest b = new CaptchaRequest("key", "https://example.com",
+                Map.of("action", "signup"), CaptchaType.RECAPTCHA_V3);
+
+        assertThat(a.equals(b)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Null params are treated as empty params")
+    void nullParamsEqualEmptyParams() {
+        CaptchaRequest a = new CaptchaRequest("key", "https://example.com", null, CaptchaType.TURNSTILE);
+        CaptchaRequest b = new CaptchaRequest("key", "https://example.com", Map.of(), CaptchaType.TURNSTILE);
+
+        assertThat(a.equals(b)).isTrue();
+    }
+
+    @Test
+    @DisplayName("timeout_seconds overrides the default timeout")
+    void timeoutSecondsOverridesDefault() {
+        CaptchaRequest request = new CaptchaRequest("key", "https://example.com",
+                Map.of("timeout_seconds", "45"), CaptchaType.RECAPTCHA_V2);
+
+        assertThat(request.timeoutSeconds(120)).isEqualTo(45);
+    }
+
+    @Test
+    @DisplayName("Missing or invalid timeout_seconds falls back to the default timeout")
+    void invalidTimeoutSecondsFallsBack() {
+        CaptchaRequest missing = new CaptchaRequest("key", "https://example.com", null, CaptchaType.RECAPTCHA_V2);
+        CaptchaRequest invalid = new CaptchaRequest("key", "https://example.com",
+                Map.of("timeout_seconds", "soon"), CaptchaType.RECAPTCHA_V2);
+        CaptchaRequest zero = new CaptchaRequest("key", "https://example.com",
+                Map.of("timeout_seconds", "0"), CaptchaType.RECAPTCHA_V2);
+
+        assertThat(missing.timeoutSeconds(120)).isEqualTo(120);
+        assertThat(invalid.timeoutSeconds(120)).isEqualTo(120);
+        assertThat(zero.timeoutSeconds(120)).isEqualTo(120);
+    }
+
+    @Test
+    @DisplayName("Requests selecting different fields of one challenge share it")
+    void withoutFieldIdentifiesChallenge() {
+        CaptchaRequest validate = new CaptchaRequest("gt", "https://example.com",
+                Map.of("challenge", "abc", "field", "validate"), CaptchaType.GEETEST);
+        CaptchaRequest seccode = new CaptchaRequest("gt", "https://example.com",
+                Map.of("challenge", "abc", "field", "seccode"), CaptchaType.GEETEST);
+
+        assertThat(validate.field()).isEqualTo("validate");
+        assertThat(validate.equals(seccode)).isFalse();
+        assertThat(validate.withoutField()).isEqualTo(seccode.withoutField());
+        assertThat(validate.withoutField().field()).isNull();
+        assertThat(validate.withoutField().additionalParams()).containsEntry("challenge", "abc");
+    }
+
+    @Test
+    @DisplayName("Request without a field is its own challenge")
+    void withoutFieldKeepsRequestWithoutField() {
+        CaptchaRequest request = new CaptchaRequest("gt", "https://example.com",
+                Map.of("challenge", "abc"), CaptchaType.GEETEST);
+
+        assertThat(request.withoutField()).isSameAs(request);
+    }
+}
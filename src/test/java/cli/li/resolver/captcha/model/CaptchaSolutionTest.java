@@ -0,0 +1,65 @@
+package cli.li.resolver.captcha.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("CaptchaSolution")
+class CaptchaSolutionTest {
+
+    private static final String GEETEST_SOLUTION =
+            "{\"challenge\":\"1a2b3c\",\"validate\":\"4d5e6f\",\"seccode\":\"4d5e6f|jordan\"}";
+
+    @Test
+    @DisplayName("Plain token is selected whole and has no fields")
+    void plainTokenHasNoFields() {
+        CaptchaSolution solution = CaptchaSolution.parse("03AGdBq24PBCbwiDRaS_MJ7Z");
+
+        assertThat(solution.fields()).isEmpty();
+        assertThat(solution.select(null)).isEqualTo("03AGdBq24PBCbwiDRaS_MJ7Z");
+        assertThat(solution.select("validate")).isNull();
+    }
+
+    @Test
+    @DisplayName("JSON solution exposes its top-level fields")
+    void jsonSolutionExposesFields() {
+        CaptchaSolution solution = CaptchaSolution.parse(GEETEST_SOLUTION);
+
+        assertThat(solution.select("challenge")).isEqualTo("1a2b3c");
+        assertThat(solution.select("validate")).isEqualTo("4d5e6f");
+        assertThat(solution.select("seccode")).isEqualTo("4d5e6f|jordan");
+        assertThat(solution.select(null)).isEqualTo(GEETEST_SOLUTION);
+    }
+
+    @Test
+    @DisplayName("GeeTest fields match with or without the geetest_ prefix")
+    void geetestPrefixIsOptional() {
+        CaptchaSolution prefixed = CaptchaSolution.parse("{\"geetest_validate\":\"v\"}");
+        CaptchaSolution plain = CaptchaSolution.parse("{\"validate\":\"v\"}");
+
+        assertThat(prefixed.select("validate")).isEqualTo("v");
+        assertThat(plain.select("geetest_validate")).isEqualTo("v");
+    }
+
+    @Test
+    @DisplayName("Escapes are decoded and non-string values kept as raw JSON")
+    void escapesAndRawValues() {
+        CaptchaSolution solution = CaptchaSolution.parse(
+                "{ \"token\" : \"a\\\"b\\u0041\", \"gen_time\": 1700000000, \"cookie\": {\"n\": \"}\"}, \"ok\": true }");
+
+        assertThat(solution.select("token")).isEqualTo("a\"bA");
+        assertThat(solution.select("gen_time")).isEqualTo("1700000000");
+        assertThat(solution.select("cookie")).isEqualTo("{\"n\": \"}\"}");
+        assertThat(solution.select("ok")).isEqualTo("true");
+    }
+
+    @Test
+    @DisplayName("Malformed JSON is treated as a plain token")
+    void malformedJsonHasNoFields() {
+        CaptchaSolution solution = CaptchaSolution.parse("{\"validate\":\"4d5e");
+
+        assertThat(solution.fields()).isEmpty();
+        assertThat(solution.select(null)).isEqualTo("{\"validate\":\"4d5e");
+    }
+}
@@ -0,0 +1,128 @@
+package cli.li.resolver.detection;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("DetectionQueue")
+class DetectionQueueTest {
+
+    private final List<String> analyzedUrls = new CopyOnWriteArrayList<>();
+    private final CountDownLatch firstStarted = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private DetectionQueue queue;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (queue != null) {
+            queue.shutdown();
+        }
+    }
+
+    private void blockingAnalysis(String url, String body) {
+        firstStarted.countDown();
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        analyzedUrls.add(url);
+    }
+
+    private void awaitAnalyzed(long count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (queue.getAnalyzed() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    @DisplayName("submit returns without waiting for the analysis")
+    void submitDoesNotWait() throws Exception {
+        queue = new DetectionQueue(this::blockingAnalysis, 10, 1);
+
+        queue.submit("https://a.test", () -> "<html>");
+        assertThat(firstStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(analyzedUrls).isEmpty();
+        release.countDown();
+        awaitAnalyzed(1);
+        assertThat(analyzedUrls).containsExactly("https://a.test");
+    }
+
+    @Test
+    @DisplayName("full queue drops the oldest pending response")
+    void fullQueueDropsOldest() throws Exception {
+        queue = new DetectionQueue(this::blockingAnalysis, 2, 1);
+
+        queue.submit("https://1.test", () -> "body");
+        assertThat(firstStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        queue.submit("https://2.test", () -> "body");
+        queue.submit("https://3.test", () -> "body");
+        queue.submit("https://4.test", () -> "body");
+
+        assertThat(queue.getQueueDepth()).isEqualTo(2);
+        assertThat(queue.getDropped()).isEqualTo(1L);
+
+        release.countDown();
+        awaitAnalyzed(3);
+        assertThat(analyzedUrls).containsExactly("https://1.test", "https://3.test", "https://4.test");
+    }
+
+    @Test
+    @DisplayName("body supplier is read on the worker thread")
+    void bodyReadOnWorker() throws Exception {
+        List<String> readers = new CopyOnWriteArrayList<>();
+        queue = new DetectionQueue((url, body) -> analyzedUrls.add(url), 10, 1);
+
+        queue.submit("https://a.test", () -> {
+            readers.add(Thread.currentThread().getName());
+            return "body";
+        });
+        awaitAnalyzed(1);
+
+        assertThat(readers).hasSize(1);
+        assertThat(readers.get(0)).startsWith("CAPTCHA-Detection-");
+    }
+
+    @Test
+    @DisplayName("failing analysis is counted and does not stop the worker")
+    void failingAnalysisKeepsWorkerRunning() throws Exception {
+        queue = new DetectionQueue((url, body) -> {
+            if (url.contains("bad")) {
+                throw new IllegalStateException("broken detector");
+            }
+            analyzedUrls.add(url);
+        }, 10, 1);
+
+        queue.submit("https://bad.test", () -> "body");
+        queue.submit("https://good.test", () -> "body");
+        awaitAnalyzed(2);
+
+        assertThat(analyzedUrls).containsExactly("https://good.test");
+        assertThat(queue.getAnalyzed()).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("resetStatistics clears counters")
+    void resetStatisticsClearsCounters() throws Exception {
+        queue = new DetectionQueue((url, body) -> { }, 10, 2);
+
+        queue.submit("https://a.test", () -> "body");
+        awaitAnalyzed(1);
+        queue.resetStatistics();
+
+        assertThat(queue.getAnalyzed()).isZero();
+        assertThat(queue.getDropped()).isZero();
+        assertThat(queue.getAvgAnalysisMs()).isZero();
+        assertThat(queue.getWorkerCount()).isEqualTo(2);
+    }
+}
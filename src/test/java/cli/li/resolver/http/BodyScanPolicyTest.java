@@ -0,0 +1,113 @@
+package cli.li.resolver.http;
+
+import java.util.List;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("BodyScanPolicy")
+class BodyScanPolicyTest {
+
+    private static final String PLACEHOLDER = "{{CAPTCHA[:]hcaptcha[:]key[:]https://example.com}}";
+
+    @Test
+    @DisplayName("binary content types are not scanned")
+    void binaryContentTypesAreSkipped() {
+        assertThat(BodyScanPolicy.isScannable("application/octet-stream", null)).isFalse();
+        assertThat(BodyScanPolicy.isScannable("image/png", null)).isFalse();
+        assertThat(BodyScanPolicy.isScannable("application/x-protobuf", null)).isFalse();
+        assertThat(BodyScanPolicy.isScannable("Application/GRPC; charset=binary", null)).isFalse();
+    }
+
+    @Test
+    @DisplayName("compressed bodies are not scanned")
+    void compressedBodiesAreSkipped() {
+        assertThat(BodyScanPolicy.isScannable("application/json", "gzip")).isFalse();
+        assertThat(BodyScanPolicy.isScannable("application/json", "br")).isFalse();
+        assertThat(BodyScanPolicy.isScannable("application/json", "identity")).isTrue();
+    }
+
+    @Test
+    @DisplayName("text, unknown and missing content types are scanned")
+    void textAndUnknownTypesAreScanned() {
+        assertThat(BodyScanPolicy.isScannable("application/json; charset=utf-8", null)).isTrue();
+        assertThat(BodyScanPolicy.isScannable("application/x-www-form-urlencoded", null)).isTrue();
+        assertThat(BodyScanPolicy.isScannable("application/vnd.custom", null)).isTrue();
+        assertThat(BodyScanPolicy.isScannable(null, null)).isTrue();
+    }
+
+    @Test
+    @DisplayName("non-multipart bodies are scanned whole")
+    void plainBodyIsOneRange() {
+        byte[] body = bytes("token=" + PLACEHOLDER);
+
+        assertThat(BodyScanPolicy.scanRanges("application/x-www-form-urlencoded", body))
+                .containsExactly(new BodyScanPolicy.Range(0, body.length));
+    }
+
+    @Test
+    @DisplayName("multipart bodies scan form fields and text parts but skip binary file parts")
+    void multipartScansOnlyTextParts() {
+        String body = "--XyZ\r\n" +
+                "Content-Disposition: form-data; name=\"token\"\r\n\r\n" +
+                PLACEHOLDER + "\r\n" +
+                "--XyZ\r\n" +
+                "Content-Disposition: form-data; name=\"file\"; filename=\"a.bin\"\r\n" +
+                "Content-Type: application/octet-stream\r\n\r\n" +
+                "{{CAPTCHA in binary}}\r\n" +
+                "--XyZ\r\n" +
+                "Content-Disposition: form-data; name=\"meta\"\r\n" +
+                "Content-Type: application/json\r\n\r\n" +
+                "{\"a\":1}\r\n" +
+                "--XyZ--\r\n";
+        byte[] data = bytes(body);
+
+        List<BodyScanPolicy.Range> ranges = BodyScanPolicy.scanRanges("multipart/form-data; boundary=XyZ", data);
+
+        assertThat(ranges).hasSize(2);
+        assertThat(text(data, ranges.get(0))).isEqualTo(PLACEHOLDER);
+        assertThat(text(data, ranges.get(1))).isEqualTo("{\"a\":1}");
+    }
+
+    @Test
+    @DisplayName("quoted boundary parameters are unquoted")
+    void quotedBoundary() {
+        byte[] data = bytes("--a b\r\nContent-Disposition: form-data; name=\"x\"\r\n\r\nvalue\r\n--a b--\r\n");
+
+        List<BodyScanPolicy.Range> ranges = BodyScanPolicy.scanRanges("multipart/form-data; boundary=\"a b\"", data);
+
+        assertThat(ranges).hasSize(1);
+        assertThat(text(data, ranges.get(0))).isEqualTo("value");
+    }
+
+    @Test
+    @DisplayName("a part truncated by the scan limit is scanned up to the end of the data")
+    void truncatedPartRunsToEnd() {
+        byte[] data = bytes("--b\r\nContent-Disposition: form-data; name=\"x\"\r\n\r\n" + PLACEHOLDER + "tail");
+
+        List<BodyScanPolicy.Range> ranges = BodyScanPolicy.scanRanges("multipart/form-data; boundary=b", data);
+
+        assertThat(ranges).hasSize(1);
+        assertThat(text(data, ranges.get(0))).isEqualTo(PLACEHOLDER + "tail");
+    }
+
+    @Test
+    @DisplayName("multipart without a boundary is scanned whole")
+    void multipartWithoutBoundary() {
+        byte[] body = bytes(PLACEHOLDER);
+
+        assertThat(BodyScanPolicy.scanRanges("multipart/form-data", body))
+                .containsExactly(new BodyScanPolicy.Range(0, body.length));
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private static String text(byte[] data, BodyScanPolicy.Range range) {
+        return new String(data, range.start(), range.end() - range.start(), StandardCharsets.ISO_8859_1);
+    }
+}
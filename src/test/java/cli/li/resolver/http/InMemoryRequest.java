@@ -0,0 +1,105 @@
+package cli.li.resolver.http;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable in-memory request standing in for a Montoya request: every with* call returns
+ * a new request with a copied header list, and replacing the body updates Content-Length.
+ */
+record InMemoryRequest(String url, List<Header> headers, byte[] body) {
+
+    record Header(String name, String value) {
+    }
+
+    static final PlaceholderRewriter.RequestModel<InMemoryRequest, Header> MODEL = new Model();
+
+    InMemoryRequest withBody(byte[] newBody) {
+        List<Header> copy = new ArrayList<>(headers);
+        for (int i = 0; i < copy.size(); i++) {
+            if (copy.get(i).name().equalsIgnoreCase("Content-Length")) {
+                copy.set(i, new Header(copy.get(i).name(), String.valueOf(newBody.length)));
+            }
+        }
+        return new InMemoryRequest(url, copy, newBody);
+    }
+
+    InMemoryRequest withRemovedHeader(String name) {
+        List<Header> copy = new ArrayList<>(headers.size());
+        boolean removed = false;
+        for (Header header : headers) {
+            if (!removed && header.name().equalsIgnoreCase(name)) {
+                removed = true;
+                continue;
+            }
+            copy.add(header);
+        }
+        return new InMemoryRequest(url, copy, body);
+    }
+
+    InMemoryRequest withAddedHeader(Header header) {
+        List<Header> copy = new ArrayList<>(headers.size() + 1);
+        copy.addAll(headers);
+        copy.add(header);
+        return new InMemoryRequest(url, copy, body);
+    }
+
+    String header(String name) {
+        for (Header header : headers) {
+            if (header.name().equalsIgnoreCase(name)) {
+                return header.value();
+            }
+        }
+        return null;
+    }
+
+    private static final class Model implements PlaceholderRewriter.RequestModel<InMemoryRequest, Header> {
+
+        @Override
+        public String url(InMemoryRequest request) {
+            return request.url();
+        }
+
+        @Override
+        public InMemoryRequest withPath(InMemoryRequest request, String path) {
+            String url = request.url();
+            String origin = url.substring(0, url.length() - PlaceholderRewriter.extractPath(url).length());
+            return new InMemoryRequest(origin + path, request.headers(), request.body());
+        }
+
+        @Override
+        public byte[] body(InMemoryRequest request) {
+            return request.body();
+        }
+
+        @Override
+        public InMemoryRequest withBody(InMemoryRequest request, byte[] body) {
+            return request.withBody(body);
+        }
+
+        @Override
+        public List<Header> headers(InMemoryRequest request) {
+            return request.headers();
+        }
+
+        @Override
+        public String headerName(Header header) {
+            return header.name();
+        }
+
+        @Override
+        public String headerValue(Header header) {
+            return header.value();
+        }
+
+        @Override
+        public Header header(String name, String value) {
+            return new Header(name, value);
+        }
+
+        @Override
+        public InMemoryRequest withHeaders(InMemoryRequest request, List<Header> headers) {
+            return new InMemoryRequest(request.url(), new ArrayList<>(headers), request.body());
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package cli.li.resolver.http;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import cli.li.resolver.captcha.model.CaptchaRequest;
+import cli.li.resolver.captcha.model.CaptchaType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("PlaceholderCache")
+class PlaceholderCacheTest {
+
+    private static CaptchaRequest request(String siteKey) {
+        return new CaptchaRequest(siteKey, "https://example.com", Map.of(), CaptchaType.HCAPTCHA);
+    }
+
+    @Test
+    @DisplayName("get returns the cached request and counts a hit")
+    void getReturnsCachedRequest() {
+        PlaceholderCache cache = new PlaceholderCache();
+        CaptchaRequest request = request("key");
+        cache.put("{{CAPTCHA[:]hcaptcha[:]key[:]https://example.com}}", request);
+
+        assertThat(cache.get("{{CAPTCHA[:]hcaptcha[:]key[:]https://example.com}}")).isSameAs(request);
+        assertThat(cache.getHits()).isEqualTo(1L);
+        assertThat(cache.getMisses()).isEqualTo(0L);
+    }
+
+    @Test
+    @DisplayName("unknown placeholder counts a miss")
+    void unknownPlaceholderIsMiss() {
+        PlaceholderCache cache = new PlaceholderCache();
+
+        assertThat(cache.get("{{CAPTCHA[:]hcaptcha[:]other[:]https://example.com}}")).isNull();
+        assertThat(cache.getMisses()).isEqualTo(1L);
+        assertThat(cache.getHitRate()).isEqualTo(0.0);
+    }
+
+    @Test
+    @DisplayName("full cache evicts the least recently used placeholder")
+    void evictsLeastRecentlyUsed() {
+        PlaceholderCache cache = new PlaceholderCache(2);
+        cache.put("a", request("a"));
+        cache.put("b", request("b"));
+        cache.get("a");
+
+        cache.put("c", request("c"));
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("a")).isNotNull();
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("c")).isNotNull();
+    }
+
+    @Test
+    @DisplayName("replacing a cached placeholder does not evict another")
+    void replacingDoesNotEvict() {
+        PlaceholderCache cache = new PlaceholderCache(2);
+        cache.put("a", request("a"));
+        cache.put("b", request("b"));
+
+        cache.put("a", request("a2"));
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("b")).isNotNull();
+    }
+
+    @Test
+    @DisplayName("resetStatistics clears counters but keeps entries")
+    void resetStatisticsKeepsEntries() {
+        PlaceholderCache cache = new PlaceholderCache();
+        cache.put("a", request("a"));
+        cache.get("a");
+        cache.get("b");
+
+        cache.resetStatistics();
+
+        assertThat(cache.getHits()).isEqualTo(0L);
+        assertThat(cache.getMisses()).isEqualTo(0L);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,156 @@
+package cli.li.resolver.http;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cost of injecting tokens into a request. Headers: the previous per-token
+ * String.replace over every header followed by one-by-one header removal and
+ * re-adding, compared with {@link PlaceholderRewriter#rewrite}, on the same immutable
+ * in-memory request, where every with* call copies the header list as a Montoya
+ * request does. Bodies: decode, String.replace and re-encode, compared with splicing
+ * the token bytes into the raw body. Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+@DisplayName("PlaceholderRewriter benchmark")
+class PlaceholderRewriterBenchmarkTest {
+
+    private static final String PLACEHOLDER = "{{CAPTCHA[:]recaptchav2[:]6LeIxAcTAAAAAJcZVRqyHh71UMIEGNQ_MXjiZKhI[:]https://example.com}}";
+    private static final String TOKEN = "03AGdBq24PBCbwiDRaS_MJ7Z".repeat(20);
+
+    private static final int ROUNDS = 20_000;
+
+    @Test
+    @DisplayName("one-by-one header rebuild vs single rebuild on 50+ headers")
+    void manyHeaders() {
+        for (int count : new int[]{50, 100, 200}) {
+            compareHeaders(count);
+        }
+    }
+
+    @Test
+    @DisplayName("string round-trip vs byte splice on multipart bodies with one placeholder")
+    void largeBodies() {
+        for (int size : new int[]{64 * 1024, 1024 * 1024, 8 * 1024 * 1024}) {
+            compareBody(size);
+        }
+    }
+
+    private static void compareBody(int size) {
+        byte[] body = multipartBody(size);
+        String latin1 = new String(body, StandardCharsets.ISO_8859_1);
+        List<PlaceholderLocation> locations = PlaceholderRewriterTest.locate(latin1, PLACEHOLDER);
+        Map<String, String> solvedTokens = Map.of(PLACEHOLDER, TOKEN);
+        assertThat(locations).hasSize(1);
+
+        int rounds = (int) Math.max(10, 256L * 1024 * 1024 / size);
+        long stringNs = measure(rounds, () -> {
+            String text = new String(body, StandardCharsets.UTF_8);
+            for (Map.Entry<String, String> entry : solvedTokens.entrySet()) {
+                text = text.replace(entry.getKey(), entry.getValue());
+            }
+            return text.getBytes(StandardCharsets.UTF_8).length;
+        });
+        long spliceNs = measure(rounds, () -> PlaceholderRewriter.splice(body, locations, solvedTokens).length);
+
+        System.out.printf("body=%,11d bytes  string-round-trip=%,12d ns/request  byte-splice=%,11d ns/request  (x%.1f)%n",
+                size, stringNs, spliceNs, (double) stringNs / Math.max(spliceNs, 1));
+    }
+
+    /**
+     * Build a multipart upload with a form field placeholder followed by a binary file part
+     */
+    private static byte[] multipartBody(int size) {
+        byte[] head = ("--boundary\r\nContent-Disposition: form-data; name=\"g-recaptcha-response\"\r\n\r\n"
+                + PLACEHOLDER + "\r\n--boundary\r\nContent-Disposition: form-data; name=\"file\"; "
+                + "filename=\"a.bin\"\r\nContent-Type: application/octet-stream\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII);
+        byte[] body = new byte[size];
+        new Random(42).nextBytes(body);
+        System.arraycopy(head, 0, body, 0, head.length);
+        return body;
+    }
+
+    private static void compareHeaders(int count) {
+        List<InMemoryRequest.Header> headers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            headers.add(new InMemoryRequest.Header("X-Custom-Header-" + i,
+                    "value-" + i + "-" + "abcdefghij".repeat(4)));
+        }
+        int target = count / 2;
+        String value = "prefix " + PLACEHOLDER;
+        headers.set(target, new InMemoryRequest.Header("X-Captcha-Token", value));
+        InMemoryRequest request = new InMemoryRequest("https://example.com/login", List.copyOf(headers), new byte[0]);
+        List<PlaceholderLocation> locations = List.of(
+                PlaceholderRewriterTest.inHeader(PLACEHOLDER, target, value.indexOf(PLACEHOLDER)));
+        Map<String, String> solvedTokens = Map.of(PLACEHOLDER, TOKEN);
+
+        InMemoryRequest rewritten = PlaceholderRewriter.rewrite(request, locations, solvedTokens, InMemoryRequest.MODEL);
+        assertThat(oneByOne(request, solvedTokens).headers()).isEqualTo(rewritten.headers());
+
+        long oneByOneNs = measure(ROUNDS, () -> oneByOne(request, solvedTokens).headers().size());
+        long singleNs = measure(ROUNDS, () ->
+                PlaceholderRewriter.rewrite(request, locations, solvedTokens, InMemoryRequest.MODEL).headers().size());
+
+        System.out.printf("headers=%4d  one-by-one=%,10d ns/request  single-rebuild=%,8d ns/request  (x%.1f)%n",
+                count, oneByOneNs, singleNs, (double) oneByOneNs / Math.max(singleNs, 1));
+    }
+
+    /**
+     * Previous approach: replace every token in every header value, then remove each
+     * header and re-add the updated ones, each call yielding a new request
+     */
+    private static InMemoryRequest oneByOne(InMemoryRequest request, Map<String, String> solvedTokens) {
+        List<InMemoryRequest.Header> updated = new ArrayList<>();
+        boolean modified = false;
+        for (InMemoryRequest.Header header : request.headers()) {
+            String value = header.value();
+            for (Map.Entry<String, String> entry : solvedTokens.entrySet()) {
+                if (value.contains(entry.getKey())) {
+                    value = value.replace(entry.getKey(), entry.getValue());
+                    modified = true;
+                }
+            }
+            updated.add(new InMemoryRequest.Header(header.name(), value));
+        }
+        if (!modified) {
+            return request;
+        }
+        InMemoryRequest rebuilt = request;
+        for (InMemoryRequest.Header header : request.headers()) {
+            rebuilt = rebuilt.withRemovedHeader(header.name());
+        }
+        for (InMemoryRequest.Header header : updated) {
+            rebuilt = rebuilt.withAddedHeader(header);
+        }
+        return rebuilt;
+    }
+
+    private static long measure(int rounds, Check check) {
+        long sink = 0;
+        for (int i = 0; i < rounds; i++) {
+            sink += check.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            sink += check.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        assertThat(sink).isPositive();
+        return elapsed / rounds;
+    }
+
+    @FunctionalInterface
+    private interface Check {
+        int run();
+    }
+}
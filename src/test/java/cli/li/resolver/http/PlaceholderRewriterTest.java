@@ -0,0 +1,204 @@
+package cli.li.resolver.http;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import cli.li.resolver.captcha.model.CaptchaRequest;
+import cli.li.resolver.captcha.model.CaptchaType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("PlaceholderRewriter")
+class PlaceholderRewriterTest {
+
+    private static final String FIRST = "{{CAPTCHA[:]recaptchav2[:]key1[:]https://a.test}}";
+    private static final String SECOND = "{{CAPTCHA[:]hcaptcha[:]key2[:]https://b.test}}";
+
+    @Test
+    @DisplayName("Replaces every located placeholder with its token")
+    void replacesAllLocations() {
+        String source = "a=" + FIRST + "&b=" + SECOND + "&c=" + FIRST;
+
+        String result = PlaceholderRewriter.splice(source, locate(source, FIRST, SECOND),
+                Map.of(FIRST, "tok1", SECOND, "tok2"));
+
+        assertThat(result).isEqualTo("a=tok1&b=tok2&c=tok1");
+    }
+
+    @Test
+    @DisplayName("Leaves unsolved placeholders untouched")
+    void keepsUnsolvedPlaceholders() {
+        String source = FIRST + "|" + SECOND;
+
+        String result = PlaceholderRewriter.splice(source, locate(source, FIRST, SECOND), Map.of(SECOND, "tok2"));
+
+        assertThat(result).isEqualTo(FIRST + "|tok2");
+    }
+
+    @Test
+    @DisplayName("Returns the same instance when nothing is solved")
+    void returnsSourceWhenNothingSolved() {
+        String source = "x" + FIRST;
+
+        String result = PlaceholderRewriter.splice(source, locate(source, FIRST), Map.of());
+
+        assertThat(result == source).isTrue();
+    }
+
+    @Test
+    @DisplayName("Handles placeholders at the very start and end of the text")
+    void handlesBoundaries() {
+        String source = FIRST + SECOND;
+
+        String result = PlaceholderRewriter.splice(source, locate(source, FIRST, SECOND),
+                Map.of(FIRST, "A", SECOND, "B"));
+
+        assertThat(result).isEqualTo("AB");
+    }
+
+    @Test
+    @DisplayName("Ignores locations that fall outside the text")
+    void ignoresOutOfRangeLocations() {
+        String source = "short";
+        PlaceholderLocation stale = location(FIRST, 0, FIRST.length());
+
+        String result = PlaceholderRewriter.splice(source, List.of(stale), Map.of(FIRST, "tok"));
+
+        assertThat(result).isEqualTo("short");
+    }
+
+    @Test
+    @DisplayName("Byte splice keeps binary content around the placeholder intact")
+    void byteSplicePreservesBinaryContent() {
+        byte[] prefix = {(byte) 0xFF, (byte) 0xD8, 0x00, (byte) 0xC3, 0x28};
+        byte[] suffix = {(byte) 0x80, (byte) 0xFE, 0x0A};
+        byte[] source = concat(prefix, FIRST.getBytes(StandardCharsets.US_ASCII), suffix);
+        PlaceholderLocation location = location(FIRST, prefix.length, prefix.length + FIRST.length());
+
+        byte[] result = PlaceholderRewriter.splice(source, List.of(location), Map.of(FIRST, "tok"));
+
+        assertThat(result).isEqualTo(concat(prefix, "tok".getBytes(StandardCharsets.US_ASCII), suffix));
+    }
+
+    @Test
+    @DisplayName("Byte splice output is sized exactly for multiple replacements")
+    void byteSpliceSizesOutputExactly() {
+        String text = "a=" + FIRST + "&b=" + SECOND + "&c=" + FIRST;
+        byte[] source = text.getBytes(StandardCharsets.US_ASCII);
+
+        byte[] result = PlaceholderRewriter.splice(source, locate(text, FIRST, SECOND),
+                Map.of(FIRST, "token-one", SECOND, "2"));
+
+        assertThat(new String(result, StandardCharsets.US_ASCII)).isEqualTo("a=token-one&b=2&c=token-one");
+        assertThat(result.length).isEqualTo("a=token-one&b=2&c=token-one".length());
+    }
+
+    @Test
+    @DisplayName("Byte splice returns the same array when nothing is solved")
+    void byteSpliceReturnsSourceWhenNothingSolved() {
+        byte[] source = FIRST.getBytes(StandardCharsets.US_ASCII);
+
+        byte[] result = PlaceholderRewriter.splice(source, locate(FIRST, FIRST), Map.of());
+
+        assertThat(result == source).isTrue();
+    }
+
+    @Test
+    @DisplayName("Rewriting body and header keeps the Content-Length of the new body")
+    void bodyAndHeaderKeepContentLength() {
+        String body = "g-recaptcha-response=" + FIRST;
+        InMemoryRequest request = new InMemoryRequest("https://example.com/login", List.of(
+                new InMemoryRequest.Header("Host", "example.com"),
+                new InMemoryRequest.Header("Content-Length", String.valueOf(body.length())),
+                new InMemoryRequest.Header("X-Captcha", SECOND)),
+                body.getBytes(StandardCharsets.US_ASCII));
+        List<PlaceholderLocation> locations = new ArrayList<>(locate(body, FIRST));
+        locations.add(inHeader(SECOND, 2, 0));
+
+        InMemoryRequest result = PlaceholderRewriter.rewrite(request, locations,
+                Map.of(FIRST, "token-one", SECOND, "token-two"), InMemoryRequest.MODEL);
+
+        assertThat(new String(result.body(), StandardCharsets.US_ASCII)).isEqualTo("g-recaptcha-response=token-one");
+        assertThat(result.header("Content-Length")).isEqualTo(String.valueOf(result.body().length));
+        assertThat(result.header("X-Captcha")).isEqualTo("token-two");
+    }
+
+    @Test
+    @DisplayName("Header rewrite keeps the order and duplicates of the header list")
+    void headerRewriteKeepsOrderAndDuplicates() {
+        InMemoryRequest request = new InMemoryRequest("https://example.com/", List.of(
+                new InMemoryRequest.Header("Cookie", "a=1"),
+                new InMemoryRequest.Header("X-Captcha", "v=" + FIRST),
+                new InMemoryRequest.Header("Cookie", "b=2")), new byte[0]);
+
+        InMemoryRequest result = PlaceholderRewriter.rewrite(request, List.of(inHeader(FIRST, 1, 2)),
+                Map.of(FIRST, "tok"), InMemoryRequest.MODEL);
+
+        assertThat(result.headers()).containsExactly(
+                new InMemoryRequest.Header("Cookie", "a=1"),
+                new InMemoryRequest.Header("X-Captcha", "v=tok"),
+                new InMemoryRequest.Header("Cookie", "b=2"));
+    }
+
+    @Test
+    @DisplayName("Request rewrite returns the same request when nothing is solved")
+    void rewriteReturnsRequestWhenNothingSolved() {
+        InMemoryRequest request = new InMemoryRequest("https://example.com/",
+                List.of(new InMemoryRequest.Header("X-Captcha", FIRST)), new byte[0]);
+
+        InMemoryRequest result = PlaceholderRewriter.rewrite(request, List.of(inHeader(FIRST, 0, 0)),
+                Map.of(), InMemoryRequest.MODEL);
+
+        assertThat(result == request).isTrue();
+    }
+
+    /**
+     * Locate a placeholder in a header value, as the parser would
+     */
+    static PlaceholderLocation inHeader(String placeholder, int headerIndex, int start) {
+        CaptchaRequest request = new CaptchaRequest("key", "https://example.com", null, CaptchaType.RECAPTCHA_V2);
+        return new PlaceholderLocation(placeholder, request, PlaceholderLocationType.HEADER, "X-Captcha", headerIndex,
+                start, start + placeholder.length());
+    }
+
+    /**
+     * Locate every occurrence of the given placeholders in order, as the parser would
+     */
+    static List<PlaceholderLocation> locate(String source, String... placeholders) {
+        List<PlaceholderLocation> locations = new ArrayList<>();
+        for (String placeholder : placeholders) {
+            int index = source.indexOf(placeholder);
+            while (index >= 0) {
+                locations.add(location(placeholder, index, index + placeholder.length()));
+                index = source.indexOf(placeholder, index + placeholder.length());
+            }
+        }
+        locations.sort(Comparator.comparingInt(PlaceholderLocation::startIndex));
+        return locations;
+    }
+
+    private static PlaceholderLocation location(String placeholder, int start, int end) {
+        CaptchaRequest request = new CaptchaRequest("key", "https://example.com", null, CaptchaType.RECAPTCHA_V2);
+        return new PlaceholderLocation(placeholder, request, PlaceholderLocationType.BODY, null, -1, start, end);
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        int length = 0;
+        for (byte[] part : parts) {
+            length += part.length;
+        }
+        byte[] result = new byte[length];
+        int offset = 0;
+        for (byte[] part : parts) {
+            System.arraycopy(part, 0, result, offset, part.length);
+            offset += part.length;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,101 @@
+package cli.li.resolver.http;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Per-request overhead of the placeholder fast-reject stage on large bodies
+ * that contain no placeholder, compared with decoding the body and running
+ * the placeholder regex over it. Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+@DisplayName("PlaceholderScanner benchmark")
+class PlaceholderScannerBenchmarkTest {
+
+    // Same expression PlaceholderParser runs on every decoded body
+    private static final Pattern PLACEHOLDER_PATTERN = Pattern.compile(
+            "\\{\\{CAPTCHA\\[:\\]([^\\[:\\]]+)\\[:\\]([^\\[:\\]]+)\\[:\\]([^\\[\\]\\}]+)(?:\\[:\\]([^\\}]+))?\\}\\}"
+    );
+
+    // Bytes processed per measurement, so large bodies run fewer rounds
+    private static final long BYTES_PER_MEASUREMENT = 64L * 1024 * 1024;
+
+    @Test
+    @DisplayName("fast-reject vs decode-and-regex on text bodies without placeholders")
+    void textBodies() {
+        for (int size : new int[]{16 * 1024, 1024 * 1024, 8 * 1024 * 1024}) {
+            compare("text", textBody(size));
+        }
+    }
+
+    @Test
+    @DisplayName("fast-reject vs decode-and-regex on binary bodies without placeholders")
+    void binaryBodies() {
+        for (int size : new int[]{16 * 1024, 1024 * 1024, 8 * 1024 * 1024}) {
+            compare("binary", binaryBody(size));
+        }
+    }
+
+    private static void compare(String kind, byte[] body) {
+        assertThat(PlaceholderScanner.containsMarker(body)).isFalse();
+
+        // The copy mirrors ByteArray.getBytes() on the request path
+        int rounds = (int) Math.max(10, BYTES_PER_MEASUREMENT / body.length);
+        long scanNs = measure(rounds, () -> PlaceholderScanner.containsMarker(Arrays.copyOf(body, body.length)));
+        long regexNs = measure(rounds, () ->
+                PLACEHOLDER_PATTERN.matcher(new String(body, StandardCharsets.UTF_8)).find());
+
+        System.out.printf("%-6s body=%,11d bytes  fast-reject=%,12d ns/request  decode+regex=%,12d ns/request  (x%.1f)%n",
+                kind, body.length, scanNs, regexNs, (double) regexNs / Math.max(scanNs, 1));
+    }
+
+    private static long measure(int rounds, Check check) {
+        boolean sink = false;
+        for (int i = 0; i < rounds; i++) {
+            sink ^= check.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            sink ^= check.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        assertThat(sink).isFalse();
+        return elapsed / rounds;
+    }
+
+    /**
+     * Build a JSON-like body full of braces and near-misses, so the scanner
+     * has to inspect many candidate positions.
+     */
+    private static byte[] textBody(int size) {
+        byte[] chunk = "{\"user\":\"alice\",\"items\":[{{\"id\":1}}],\"note\":\"{{CAPT\"},"
+                .getBytes(StandardCharsets.UTF_8);
+        byte[] body = new byte[size];
+        for (int i = 0; i < size; i++) {
+            body[i] = chunk[i % chunk.length];
+        }
+        return body;
+    }
+
+    /**
+     * Build a random binary body such as a file upload; the marker cannot occur by chance.
+     */
+    private static byte[] binaryBody(int size) {
+        byte[] body = new byte[size];
+        new Random(42).nextBytes(body);
+        return body;
+    }
+
+    @FunctionalInterface
+    private interface Check {
+        boolean run();
+    }
+}
@@ -0,0 +1,70 @@
+package cli.li.resolver.http;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("PlaceholderScanner")
+class PlaceholderScannerTest {
+
+    @Test
+    @DisplayName("finds the marker in the middle of the data")
+    void findsMarkerInMiddle() {
+        byte[] data = bytes("token={{CAPTCHA[:]hcaptcha[:]key[:]https://example.com}}&a=b");
+
+        assertThat(PlaceholderScanner.containsMarker(data)).isTrue();
+        assertThat(PlaceholderScanner.indexOfMarker(data, 0, data.length)).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("finds the marker at the very start and very end of the data")
+    void findsMarkerAtBoundaries() {
+        assertThat(PlaceholderScanner.containsMarker(bytes("{{CAPTCHA"))).isTrue();
+        assertThat(PlaceholderScanner.containsMarker(bytes("abc{{CAPTCHA"))).isTrue();
+    }
+
+    @Test
+    @DisplayName("rejects data without the marker")
+    void rejectsDataWithoutMarker() {
+        assertThat(PlaceholderScanner.containsMarker(bytes("{\"a\":{{\"b\":1}}}"))).isFalse();
+        assertThat(PlaceholderScanner.containsMarker(bytes(""))).isFalse();
+        assertThat(PlaceholderScanner.containsMarker(null)).isFalse();
+    }
+
+    @Test
+    @DisplayName("rejects a truncated marker at the end of the data")
+    void rejectsTruncatedMarker() {
+        assertThat(PlaceholderScanner.containsMarker(bytes("value={{CAPTCH"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("marker matching is case-sensitive")
+    void markerIsCaseSensitive() {
+        assertThat(PlaceholderScanner.containsMarker(bytes("{{captcha[:]hcaptcha"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("respects the requested range")
+    void respectsRange() {
+        byte[] data = bytes("0123{{CAPTCHA}}");
+
+        assertThat(PlaceholderScanner.containsMarker(data, 0, 12)).isFalse();
+        assertThat(PlaceholderScanner.containsMarker(data, 5, data.length)).isFalse();
+        assertThat(PlaceholderScanner.containsMarker(data, 4, 13)).isTrue();
+    }
+
+    @Test
+    @DisplayName("finds the marker after a partial match")
+    void findsMarkerAfterPartialMatch() {
+        byte[] data = bytes("{{{CAPTCHA");
+
+        assertThat(PlaceholderScanner.indexOfMarker(data, 0, data.length)).isEqualTo(1);
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,50 @@
+package cli.li.resolver.provider;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import cli.li.resolver.captcha.exception.CaptchaSolverException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("AsyncPolling")
+class AsyncPollingTest {
+
+    @Test
+    @DisplayName("call runs a blocking step and completes with its result")
+    void callCompletesWithResult() throws Exception {
+        assertThat(AsyncPolling.call(() -> "token").get(5, TimeUnit.SECONDS)).isEqualTo("token");
+    }
+
+    @Test
+    @DisplayName("Other failures are wrapped in a CaptchaSolverException")
+    void failureIsWrapped() {
+        assertThatThrownBy(() -> AsyncPolling.await(AsyncPolling.call(() -> {
+            throw new IllegalStateException("connection reset");
+        }))).isInstanceOf(CaptchaSolverException.class)
+                .hasMessageContaining("connection reset");
+    }
+
+    @Test
+    @DisplayName("await rethrows the CaptchaSolverException of a failed step")
+    void awaitUnwrapsFailure() {
+        CaptchaSolverException failure = new CaptchaSolverException("ERROR_ZERO_BALANCE");
+
+        assertThatThrownBy(() -> AsyncPolling.await(AsyncPolling.call(() -> {
+            throw failure;
+        }))).isSameAs(failure);
+    }
+
+    @Test
+    @DisplayName("delay completes after the requested time")
+    void delayCompletes() throws Exception {
+        long start = System.currentTimeMillis();
+
+        AsyncPolling.delay(100).get(5, TimeUnit.SECONDS);
+
+        assertThat(System.currentTimeMillis() - start).isGreaterThanOrEqualTo(100L);
+    }
+}
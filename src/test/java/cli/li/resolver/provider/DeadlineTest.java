@@ -0,0 +1,67 @@
+package cli.li.resolver.provider;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import cli.li.resolver.captcha.exception.CaptchaTimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Deadline")
+class DeadlineTest {
+
+    private AtomicLong now;
+
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong(1_000_000L);
+    }
+
+    @Test
+    @DisplayName("remainingMillis counts down with the clock and stops at 0")
+    void remainingCountsDown() {
+        Deadline deadline = Deadline.after(10_000L, now::get);
+
+        assertThat(deadline.remainingMillis()).isEqualTo(10_000L);
+
+        now.addAndGet(4_000L);
+        assertThat(deadline.remainingMillis()).isEqualTo(6_000L);
+        assertThat(deadline.isExpired()).isFalse();
+
+        now.addAndGet(7_000L);
+        assertThat(deadline.remainingMillis()).isEqualTo(0L);
+        assertThat(deadline.isExpired()).isTrue();
+    }
+
+    @Test
+    @DisplayName("check passes before the deadline and throws after it")
+    void checkThrowsAfterDeadline() throws Exception {
+        Deadline deadline = Deadline.after(1_000L, now::get);
+
+        deadline.check("submitting the task");
+
+        now.addAndGet(1_000L);
+        assertThatThrownBy(() -> deadline.check("submitting the task"))
+                .isInstanceOf(CaptchaTimeoutException.class)
+                .hasMessageContaining("submitting the task");
+    }
+
+    @Test
+    @DisplayName("sleep is cut short at the deadline")
+    void sleepIsCutShort() throws Exception {
+        Deadline deadline = Deadline.afterSeconds(0);
+
+        assertThatThrownBy(() -> deadline.sleep(2_000L))
+                .isInstanceOf(CaptchaTimeoutException.class);
+
+        Deadline shortDeadline = Deadline.after(50L, System::currentTimeMillis);
+        long start = System.currentTimeMillis();
+        shortDeadline.sleep(2_000L);
+
+        assertThat(System.currentTimeMillis() - start < 1_000L).isTrue();
+    }
+}
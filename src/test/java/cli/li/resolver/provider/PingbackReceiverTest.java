@@ -0,0 +1,145 @@
+package cli.li.resolver.provider;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import cli.li.resolver.captcha.exception.CaptchaSolverException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("PingbackReceiver")
+class PingbackReceiverTest {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private AtomicLong now;
+    private PollScheduler scheduler;
+    private PingbackReceiver receiver;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        now = new AtomicLong(1_000_000L);
+        // The wheel is never advanced, so only a callback can complete a task
+        scheduler = new PollScheduler(50, 8, Runnable::run, now::get);
+        receiver = new PingbackReceiver(scheduler);
+        // No public URL: loopback only, reached by a stand-in provider on this host
+        receiver.start(0, "");
+    }
+
+    @AfterEach
+    void tearDown() {
+        receiver.stop();
+    }
+
+    // 2Captcha-style callback fields: id and code
+    private static PingbackReceiver.Pingback parse(Map<String, String> fields, String body) {
+        String code = fields.get("code");
+        return code.startsWith("ERROR")
+                ? new PingbackReceiver.Pingback(fields.get("id"),
+                        PollScheduler.PollOutcome.failed(new CaptchaSolverException(code)))
+                : new PingbackReceiver.Pingback(fields.get("id"), PollScheduler.PollOutcome.ready(code));
+    }
+
+    private CompletableFuture<String> pendingTask(String taskId) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        scheduler.poll("2captcha", "recaptchav2", taskId, result, Deadline.after(60_000L, now::get), () -> null);
+        return result;
+    }
+
+    // Stand-in provider calling back to the receiver on localhost
+    private int callBack(String url, String form) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode();
+    }
+
+    @Test
+    @DisplayName("A pushed result completes the pending task without polling")
+    void pushedResultCompletesTask() throws Exception {
+        CompletableFuture<String> result = pendingTask("1");
+        String url = receiver.localCallbackUrl("2captcha", PingbackReceiverTest::parse);
+
+        assertThat(url).startsWith("http://127.0.0.1:");
+        assertThat(callBack(url, "id=1&code=03AGdBq24")).isEqualTo(200);
+
+        assertThat(result.getNow(null)).isEqualTo("03AGdBq24");
+        assertThat(scheduler.getDelivered()).isEqualTo(1L);
+        assertThat(scheduler.getOutstanding()).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("A pushed error fails the pending task")
+    void pushedErrorFailsTask() throws Exception {
+        CompletableFuture<String> result = pendingTask("2");
+        String url = receiver.localCallbackUrl("2captcha", PingbackReceiverTest::parse);
+
+        assertThat(callBack(url, "id=2&code=ERROR_CAPTCHA_UNSOLVABLE")).isEqualTo(200);
+
+        assertThatThrownBy(result::get).isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(CaptchaSolverException.class);
+    }
+
+    @Test
+    @DisplayName("Callbacks without the session secret are rejected")
+    void rejectsWrongSecret() throws Exception {
+        CompletableFuture<String> result = pendingTask("3");
+        String url = receiver.localCallbackUrl("2captcha", PingbackReceiverTest::parse);
+        String forged = url.replaceFirst("/resolver/[0-9a-f]+/", "/resolver/0123456789abcdef/");
+
+        assertThat(callBack(forged, "id=3&code=token")).isEqualTo(404);
+
+        assertThat(result.isDone()).isFalse();
+        assertThat(receiver.getRejected()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("Callbacks for unknown tasks are not delivered")
+    void unknownTaskNotDelivered() throws Exception {
+        CompletableFuture<String> result = pendingTask("4");
+        String url = receiver.localCallbackUrl("2captcha", PingbackReceiverTest::parse);
+
+        assertThat(callBack(url, "id=5&code=token")).isEqualTo(404);
+
+        assertThat(result.isDone()).isFalse();
+        assertThat(scheduler.getDelivered()).isEqualTo(0L);
+    }
+
+    @Test
+    @DisplayName("Remote providers get no callback URL without a public URL")
+    void noCallbackUrlWithoutPublicUrl() {
+        assertThat(receiver.isRunning()).isTrue();
+        assertThat(receiver.callbackUrl("2captcha", PingbackReceiverTest::parse)).isNull();
+    }
+
+    @Test
+    @DisplayName("Callback URLs are built on the configured public URL")
+    void callbackUrlOnPublicUrl() throws Exception {
+        receiver.start(0, "https://callbacks.example.com/hook/");
+
+        assertThat(receiver.callbackUrl("2captcha", PingbackReceiverTest::parse))
+                .startsWith("https://callbacks.example.com/hook/resolver/")
+                .endsWith("/2captcha");
+    }
+
+    @Test
+    @DisplayName("No callback URL is handed out while stopped")
+    void noCallbackUrlWhenStopped() {
+        receiver.stop();
+
+        assertThat(receiver.isRunning()).isFalse();
+        assertThat(receiver.localCallbackUrl("2captcha", PingbackReceiverTest::parse)).isNull();
+    }
+}
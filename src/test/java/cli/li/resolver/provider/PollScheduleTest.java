@@ -0,0 +1,100 @@
+package cli.li.resolver.provider;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("PollSchedule")
+class PollScheduleTest {
+
+    private PollSchedule schedule;
+
+    @BeforeEach
+    void setUp() {
+        schedule = new PollSchedule();
+    }
+
+    // Solve times from 10s to 28s in 2s steps: p10 = 10s, median = 18s, p90 = 26s
+    private void recordTypicalHistory() {
+        for (int i = 0; i < 10; i++) {
+            schedule.recordSolveTime("2captcha", "recaptchav2", 10_000 + i * 2_000L);
+        }
+    }
+
+    @Test
+    @DisplayName("Polls at the fixed interval until enough solve times are known")
+    void fixedIntervalWithoutHistory() {
+        for (int i = 0; i < PollSchedule.MIN_SAMPLES - 1; i++) {
+            schedule.recordSolveTime("2captcha", "recaptchav2", 20_000);
+        }
+
+        assertThat(schedule.getDistribution("2captcha", "recaptchav2")).isNull();
+        assertThat(schedule.nextDelay("2captcha", "recaptchav2", 0, 2_000)).isEqualTo(2_000L);
+    }
+
+    @Test
+    @DisplayName("Computes percentiles of the recorded solve times")
+    void computesDistribution() {
+        recordTypicalHistory();
+
+        assertThat(schedule.getDistribution("2captcha", "recaptchav2"))
+                .isEqualTo(new PollSchedule.Distribution(10_000, 18_000, 26_000, 10));
+    }
+
+    @Test
+    @DisplayName("The first poll waits until the lower percentile")
+    void firstPollAtLowerPercentile() {
+        recordTypicalHistory();
+
+        assertThat(schedule.nextDelay("2captcha", "recaptchav2", 0, 2_000)).isEqualTo(10_000L);
+        assertThat(schedule.nextDelay("2captcha", "recaptchav2", 9_500, 2_000)).isEqualTo(1_000L);
+    }
+
+    @Test
+    @DisplayName("Polls most often around the median")
+    void densestAtMedian() {
+        recordTypicalHistory();
+
+        long atMedian = schedule.nextDelay("2captcha", "recaptchav2", 18_000, 2_000);
+        long nearEdge = schedule.nextDelay("2captcha", "recaptchav2", 11_000, 2_000);
+
+        assertThat(atMedian).isEqualTo(1_000L);
+        assertThat(nearEdge).isGreaterThan(atMedian).isLessThanOrEqualTo(2_000L);
+    }
+
+    @Test
+    @DisplayName("Backs off past the tail percentile, up to a limit")
+    void backsOffPastTail() {
+        recordTypicalHistory();
+
+        long justPast = schedule.nextDelay("2captcha", "recaptchav2", 27_000, 2_000);
+        long farPast = schedule.nextDelay("2captcha", "recaptchav2", 120_000, 2_000);
+
+        assertThat(justPast).isGreaterThan(2_000L);
+        assertThat(farPast).isEqualTo(2_000L * PollSchedule.MAX_BACKOFF_FACTOR);
+    }
+
+    @Test
+    @DisplayName("Histories are kept per provider and type")
+    void historyPerProviderAndType() {
+        recordTypicalHistory();
+
+        assertThat(schedule.getDistribution("2captcha", "hcaptcha")).isNull();
+        assertThat(schedule.getDistribution("anticaptcha", "recaptchav2")).isNull();
+    }
+
+    @Test
+    @DisplayName("Averages poll counts over finished tasks")
+    void averagesPollCounts() {
+        schedule.recordPolls(3);
+        schedule.recordPolls(5);
+
+        assertThat(schedule.getAveragePolls()).isEqualTo(4.0);
+        assertThat(schedule.getFinished()).isEqualTo(2L);
+
+        schedule.resetStatistics();
+        assertThat(schedule.getAveragePolls()).isEqualTo(0.0);
+    }
+}
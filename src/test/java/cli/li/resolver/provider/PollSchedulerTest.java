@@ -0,0 +1,321 @@
+package cli.li.resolver.provider;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import cli.li.resolver.captcha.exception.CaptchaSolverException;
+import cli.li.resolver.captcha.exception.CaptchaTimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("PollScheduler")
+class PollSchedulerTest {
+
+    private AtomicLong now;
+    private PollScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong(1_000_000L);
+        // Polls run inline and the wheel is advanced by hand
+        scheduler = new PollScheduler(50, 8, Runnable::run, now::get);
+        scheduler.setPollInterval(() -> 1000);
+    }
+
+    // Ticks fire at the clock time they are advanced to, so advance no further than one poll interval at once
+    private void advanceBy(long millis) {
+        now.addAndGet(millis);
+        scheduler.advance(now.get());
+    }
+
+    @Test
+    @DisplayName("Polls at the interval until the result is ready")
+    void pollsUntilReady() {
+        AtomicInteger polls = new AtomicInteger(0);
+        CompletableFuture<String> result = new CompletableFuture<>();
+
+        scheduler.poll("2captcha", "recaptchav2", "1", result, Deadline.after(60_000L, now::get),
+                () -> polls.incrementAndGet() < 3 ? null : "token");
+
+        advanceBy(999);
+        assertThat(polls.get()).isEqualTo(0);
+        advanceBy(1);
+        assertThat(polls.get()).isEqualTo(1);
+        advanceBy(1000);
+        advanceBy(1000);
+
+        assertThat(result.getNow(null)).isEqualTo("token");
+        assertThat(polls.get()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Tracks task state from created through polling to ready")
+    void tracksTaskState() {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        AtomicInteger polls = new AtomicInteger(0);
+
+        scheduler.poll("anticaptcha", "recaptchav2", "42", result, Deadline.after(60_000L, now::get),
+                () -> polls.incrementAndGet() < 2 ? null : "token");
+
+        assertThat(scheduler.getTasks()).containsExactly(
+                new PollScheduler.TaskInfo("anticaptcha", "42", PollScheduler.TaskState.CREATED, 0, 0));
+        advanceBy(1000);
+        assertThat(scheduler.getCount(PollScheduler.TaskState.POLLING)).isEqualTo(1L);
+        advanceBy(1000);
+
+        assertThat(scheduler.getOutstanding()).isEqualTo(0);
+        assertThat(scheduler.getCount(PollScheduler.TaskState.READY)).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("A failed poll fails the task")
+    void failedPollFailsTask() {
+        CompletableFuture<String> result = new CompletableFuture<>();
+
+        scheduler.poll("2captcha", "recaptchav2", "1", result, Deadline.after(60_000L, now::get), () -> {
+            throw new CaptchaSolverException("Error getting result: ERROR_CAPTCHA_UNSOLVABLE");
+        });
+        advanceBy(1000);
+
+        assertThatThrownBy(() -> AsyncPolling.await(result))
+                .isInstanceOf(CaptchaSolverException.class)
+                .hasMessageContaining("ERROR_CAPTCHA_UNSOLVABLE");
+        assertThat(scheduler.getCount(PollScheduler.TaskState.FAILED)).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("Cancelling the result stops polling")
+    void cancelStopsPolling() {
+        AtomicInteger polls = new AtomicInteger(0);
+        CompletableFuture<String> result = new CompletableFuture<>();
+
+        scheduler.poll("2captcha", "recaptchav2", "1", result, Deadline.after(60_000L, now::get), () -> {
+            polls.incrementAndGet();
+            return null;
+        });
+        advanceBy(1000);
+        result.cancel(true);
+        advanceBy(5000);
+
+        assertThat(polls.get()).isEqualTo(1);
+        assertThat(scheduler.getOutstanding()).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("The wait before a poll is cut short at the deadline")
+    void waitEndsAtDeadline() {
+        Deadline deadline = Deadline.after(300L, now::get);
+        CompletableFuture<String> result = new CompletableFuture<>();
+
+        scheduler.poll("2captcha", "recaptchav2", "1", result, deadline, () -> {
+            deadline.check("polling for the result");
+            return null;
+        });
+        advanceBy(300);
+
+        assertThatThrownBy(() -> AsyncPolling.await(result)).isInstanceOf(CaptchaTimeoutException.class);
+    }
+
+    @Test
+    @DisplayName("A changed interval applies from the next poll scheduled for tasks in flight")
+    void intervalChangeApplies() {
+        AtomicInteger polls = new AtomicInteger(0);
+        CompletableFuture<String> result = new CompletableFuture<>();
+
+        scheduler.poll("2captcha", "recaptchav2", "1", result, Deadline.after(60_000L, now::get), () -> {
+            polls.incrementAndGet();
+            return null;
+        });
+        scheduler.setPollInterval(() -> 5000);
+        // The first poll was scheduled at the old interval
+        advanceBy(1000);
+        assertThat(polls.get()).isEqualTo(1);
+        advanceBy(4950);
+        assertThat(polls.get()).isEqualTo(1);
+        advanceBy(50);
+
+        assertThat(polls.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Delays longer than one wheel revolution fire on time")
+    void delaysSpanRevolutions() {
+        // 8 buckets of 50ms make a 400ms wheel
+        CompletableFuture<Void> delay = scheduler.delay(1_030);
+
+        advanceBy(1_000);
+        assertThat(delay.isDone()).isFalse();
+        advanceBy(50);
+
+        assertThat(delay.isDone()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Handles thousands of outstanding tasks")
+    void handlesManyTasks() {
+        AtomicInteger polls = new AtomicInteger(0);
+        for (int i = 0; i < 5000; i++) {
+            scheduler.poll("capsolver", "recaptchav2", String.valueOf(i), new CompletableFuture<>(),
+                    Deadline.after(60_000L, now::get), () -> {
+                        polls.incrementAndGet();
+                        return null;
+                    });
+        }
+
+        advanceBy(1000);
+
+        assertThat(polls.get()).isEqualTo(5000);
+        assertThat(scheduler.getCount(PollScheduler.TaskState.POLLING)).isEqualTo(5000L);
+    }
+
+    @Test
+    @DisplayName("Tasks sharing a batch key are polled in one call and get their own results")
+    void batchesTasksWithSameKey() {
+        List<List<String>> calls = new ArrayList<>();
+        AtomicInteger individualPolls = new AtomicInteger(0);
+        PollScheduler.BatchPoll batch = (taskIds, deadline) -> {
+            calls.add(taskIds);
+            return Map.of("1", PollScheduler.PollOutcome.ready("token-1"),
+                    "2", PollScheduler.PollOutcome.notReady(),
+                    "3", PollScheduler.PollOutcome.failed(new CaptchaSolverException("ERROR_CAPTCHA_UNSOLVABLE")));
+        };
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            CompletableFuture<String> result = new CompletableFuture<>();
+            results.add(result);
+            scheduler.poll("2captcha", "recaptchav2", String.valueOf(i), result, Deadline.after(60_000L, now::get),
+                    () -> {
+                        individualPolls.incrementAndGet();
+                        return null;
+                    }, "2captcha:key", batch);
+            // Registered at different times, still due in the same tick
+            advanceBy(100);
+        }
+
+        advanceBy(1000);
+
+        assertThat(calls).hasSize(1);
+        assertThat(calls.get(0)).containsExactlyInAnyOrder("1", "2", "3");
+        assertThat(individualPolls.get()).isEqualTo(0);
+        assertThat(results.get(0).getNow(null)).isEqualTo("token-1");
+        assertThat(results.get(1).isDone()).isFalse();
+        assertThat(results.get(2).isCompletedExceptionally()).isTrue();
+        assertThat(scheduler.getBatchCalls()).isEqualTo(1L);
+        assertThat(scheduler.getBatchedPolls()).isEqualTo(3L);
+    }
+
+    @Test
+    @DisplayName("Tasks the batched call cannot answer for are polled individually, each in its own task")
+    void unansweredTasksPolledIndividually() {
+        AtomicInteger dispatched = new AtomicInteger(0);
+        scheduler = new PollScheduler(50, 8, task -> {
+            dispatched.incrementAndGet();
+            task.run();
+        }, now::get);
+        scheduler.setPollInterval(() -> 1000);
+        AtomicInteger individualPolls = new AtomicInteger(0);
+        PollScheduler.BatchPoll batch = (taskIds, deadline) -> Map.of();
+        for (int i = 1; i <= 2; i++) {
+            scheduler.poll("2captcha", "recaptchav2", String.valueOf(i), new CompletableFuture<>(),
+                    Deadline.after(60_000L, now::get), () -> {
+                        individualPolls.incrementAndGet();
+                        return null;
+                    }, "2captcha:key", batch);
+        }
+
+        advanceBy(1500);
+
+        assertThat(individualPolls.get()).isEqualTo(2);
+        // One dispatch for the batched call, then one per fallback poll so they run in parallel
+        assertThat(dispatched.get()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Different batch keys are polled in separate calls")
+    void separateCallsPerKey() {
+        List<List<String>> calls = new ArrayList<>();
+        PollScheduler.BatchPoll batch = (taskIds, deadline) -> {
+            calls.add(taskIds);
+            return Map.of();
+        };
+        List<String> keys = List.of("key-a", "key-a", "key-b", "key-b");
+        for (int i = 0; i < keys.size(); i++) {
+            scheduler.poll("2captcha", "recaptchav2", String.valueOf(i), new CompletableFuture<>(),
+                    Deadline.after(60_000L, now::get), () -> null, keys.get(i), batch);
+        }
+
+        advanceBy(1500);
+
+        assertThat(calls).hasSize(2);
+        assertThat(calls.get(0)).hasSize(2);
+        assertThat(calls.get(1)).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("A failed batched call falls back to individual polls instead of failing its tasks")
+    void failedBatchPollsIndividually() {
+        PollScheduler.BatchPoll batch = (taskIds, deadline) -> {
+            throw new IllegalStateException("connection reset");
+        };
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 1; i <= 2; i++) {
+            CompletableFuture<String> result = new CompletableFuture<>();
+            results.add(result);
+            String token = "token-" + i;
+            scheduler.poll("2captcha", "recaptchav2", String.valueOf(i), result, Deadline.after(60_000L, now::get),
+                    () -> token, "2captcha:key", batch);
+        }
+
+        advanceBy(1500);
+
+        assertThat(results.get(0).getNow(null)).isEqualTo("token-1");
+        assertThat(results.get(1).getNow(null)).isEqualTo("token-2");
+        assertThat(scheduler.getBatchCalls()).isEqualTo(0L);
+    }
+
+    @Test
+    @DisplayName("Learned solve times move the first poll to the lower percentile")
+    void firstPollFollowsHistory() {
+        for (int i = 0; i < 10; i++) {
+            scheduler.getSchedule().recordSolveTime("2captcha", "recaptchav2", 10_000);
+        }
+        AtomicInteger polls = new AtomicInteger(0);
+        CompletableFuture<String> result = new CompletableFuture<>();
+
+        scheduler.poll("2captcha", "recaptchav2", "1", result, Deadline.after(60_000L, now::get),
+                () -> polls.incrementAndGet() < 2 ? null : "token");
+        for (int i = 0; i < 9; i++) {
+            advanceBy(1000);
+        }
+        assertThat(polls.get()).isEqualTo(0);
+        advanceBy(1000);
+        assertThat(polls.get()).isEqualTo(1);
+        advanceBy(1000);
+
+        assertThat(result.getNow(null)).isEqualTo("token");
+        assertThat(scheduler.getSchedule().getAveragePolls()).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("Records the solve time of each task that becomes ready")
+    void recordsSolveTimes() {
+        for (int i = 0; i < PollSchedule.MIN_SAMPLES; i++) {
+            CompletableFuture<String> result = new CompletableFuture<>();
+            scheduler.poll("2captcha", "hcaptcha", String.valueOf(i), result, Deadline.after(60_000L, now::get),
+                    () -> "token");
+            advanceBy(1000);
+        }
+
+        // Ready at the first poll after one second: somewhere between submission and then
+        assertThat(scheduler.getSchedule().getDistribution("2captcha", "hcaptcha").median()).isEqualTo(500L);
+    }
+}
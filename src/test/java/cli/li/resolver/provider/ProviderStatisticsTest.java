@@ -97,4 +97,24 @@ class ProviderStatisticsTest {
 
         assertThat(statistics.getAvgSolveTimeMs()).isCloseTo(1000.0, within(0.01));
     }
+
+    @Test
+    @DisplayName("recordRetry counts retries and averages the latency they add")
+    void recordRetryTracksCountAndLatency() {
+        statistics.recordRetry(1200);
+        statistics.recordRetry(2800);
+
+        assertThat(statistics.getRetries()).isEqualTo(2);
+        assertThat(statistics.getAvgRetryLatencyMs()).isCloseTo(2000.0, within(0.01));
+    }
+
+    @Test
+    @DisplayName("reset clears retry statistics")
+    void resetClearsRetries() {
+        statistics.recordRetry(1000);
+        statistics.reset();
+
+        assertThat(statistics.getRetries()).isZero();
+        assertThat(statistics.getAvgRetryLatencyMs()).isEqualTo(0.0);
+    }
 }
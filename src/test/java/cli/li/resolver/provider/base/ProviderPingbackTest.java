@@ -0,0 +1,76 @@
+package cli.li.resolver.provider.base;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import cli.li.resolver.provider.PingbackReceiver;
+import cli.li.resolver.provider.impl.AntiCaptchaProvider;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Provider pingback parsing")
+class ProviderPingbackTest {
+
+    // Parsing is package-private in the protocol base class, so reach it through that type
+    private final JsonProtocolProvider antiCaptcha = new AntiCaptchaProvider();
+
+    @Test
+    @DisplayName("2Captcha pingback form carries the task ID and token")
+    void twoCaptchaFormCallback() {
+        PingbackReceiver.Pingback pingback = QueryParamProvider.parsePingback(
+                Map.of("id", "74372499131", "code", "03AGdBq24PBCbwiDRaS_MJ7Z"),
+                "id=74372499131&code=03AGdBq24PBCbwiDRaS_MJ7Z");
+
+        assertThat(pingback.taskId()).isEqualTo("74372499131");
+        assertThat(pingback.outcome().token()).isEqualTo("03AGdBq24PBCbwiDRaS_MJ7Z");
+        assertThat(pingback.outcome().error()).isNull();
+    }
+
+    @Test
+    @DisplayName("2Captcha pingback error code fails the task")
+    void twoCaptchaErrorCallback() {
+        PingbackReceiver.Pingback pingback = QueryParamProvider.parsePingback(
+                Map.of("id", "74372499131", "code", "ERROR_CAPTCHA_UNSOLVABLE"), "");
+
+        assertThat(pingback.outcome().error()).hasMessageContaining("ERROR_CAPTCHA_UNSOLVABLE");
+    }
+
+    @Test
+    @DisplayName("2Captcha pingback without a task ID is ignored")
+    void twoCaptchaCallbackWithoutTask() {
+        assertThat(QueryParamProvider.parsePingback(Map.of("code", "token"), "")).isNull();
+    }
+
+    @Test
+    @DisplayName("Anti-Captcha callback JSON carries the task ID and solution")
+    void antiCaptchaJsonCallback() {
+        String body = "{\"taskId\":7654321,\"errorId\":0,\"status\":\"ready\","
+                + "\"solution\":{\"gRecaptchaResponse\":\"3AHJ_VuvYIBNBW5yyv0zRYJ75VkOKvhKj9_xGBJKnQimF72rfoq3Iy\"},"
+                + "\"cost\":\"0.001500\",\"ip\":\"46.98.54.221\",\"solveCount\":0}";
+
+        PingbackReceiver.Pingback pingback = antiCaptcha.parsePingback(Map.of(), body);
+
+        assertThat(pingback.taskId()).isEqualTo("7654321");
+        assertThat(pingback.outcome().token()).isEqualTo("3AHJ_VuvYIBNBW5yyv0zRYJ75VkOKvhKj9_xGBJKnQimF72rfoq3Iy");
+    }
+
+    @Test
+    @DisplayName("Anti-Captcha callback error fails the task")
+    void antiCaptchaErrorCallback() {
+        String body = "{\"taskId\":7654321,\"errorId\":12,\"errorCode\":\"ERROR_CAPTCHA_UNSOLVABLE\","
+                + "\"errorDescription\":\"Captcha could not be solved by 5 different workers\"}";
+
+        PingbackReceiver.Pingback pingback = antiCaptcha.parsePingback(Map.of(), body);
+
+        assertThat(pingback.taskId()).isEqualTo("7654321");
+        assertThat(pingback.outcome().error()).hasMessageContaining("ERROR_CAPTCHA_UNSOLVABLE");
+    }
+
+    @Test
+    @DisplayName("Anti-Captcha callback without a task ID is ignored")
+    void antiCaptchaCallbackWithoutTask() {
+        assertThat(antiCaptcha.parsePingback(Map.of(), "{\"errorId\":0}")).isNull();
+    }
+}
@@ -0,0 +1,125 @@
+package cli.li.resolver.provider.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import cli.li.resolver.provider.Deadline;
+import cli.li.resolver.provider.SolveRequest;
+import cli.li.resolver.captcha.model.CaptchaType;
+import cli.li.resolver.captcha.model.CaptchaSolution;
+import cli.li.resolver.captcha.exception.CaptchaSolverException;
+import cli.li.resolver.captcha.exception.CaptchaTimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("SimulatedProvider")
+class SimulatedProviderTest {
+
+    private final List<Long> sleeps = new ArrayList<>();
+    private final Random random = new Random(42);
+
+    private SimulatedProvider provider(long medianMs, double spread, double failureRate, boolean useRecorded) {
+        SimulatedProvider.Profile profile = new SimulatedProvider.Profile(medianMs, spread, failureRate, useRecorded);
+        return new SimulatedProvider(() -> profile, () -> random, sleeps::add);
+    }
+
+    private static SolveRequest request(String type) {
+        return new SolveRequest("dry-run", type, "site-key", "https://example.com", Map.of());
+    }
+
+    @Test
+    @DisplayName("Waits for the median latency when there is no spread")
+    void waitsForMedianLatency() throws Exception {
+        String token = provider(2000, 0, 0, false).solve(request("recaptchav2"), Deadline.afterSeconds(60));
+
+        assertThat(sleeps).containsExactly(2000L);
+        assertThat(token).startsWith("03A");
+    }
+
+    @Test
+    @DisplayName("Latencies spread around the median")
+    void latenciesSpreadAroundMedian() throws Exception {
+        SimulatedProvider simulated = provider(10000, 0.5, 0, false);
+        for (int i = 0; i < 200; i++) {
+            simulated.solve(request("hcaptcha"), Deadline.afterSeconds(600));
+        }
+
+        long below = sleeps.stream().filter(ms -> ms < 10000).count();
+        assertThat(sleeps.stream().distinct().count()).isGreaterThan(100L);
+        assertThat(below).isBetween(70L, 130L);
+    }
+
+    @Test
+    @DisplayName("Recorded per-type average replaces the configured median")
+    void usesRecordedLatency() throws Exception {
+        SimulatedProvider simulated = provider(2000, 0, 0, true);
+        simulated.useRecordedLatencies(type -> type == CaptchaType.TURNSTILE ? 7000 : 0);
+
+        simulated.solve(request("turnstile"), Deadline.afterSeconds(60));
+        simulated.solve(request("hcaptcha"), Deadline.afterSeconds(60));
+
+        assertThat(sleeps).containsExactly(7000L, 2000L);
+    }
+
+    @Test
+    @DisplayName("Simulated solves do not feed the recorded latency they sample from")
+    void recordedLatencySnapshotExcludesSimulatedSolves() throws Exception {
+        SimulatedProvider simulated = provider(2000, 0, 0, true);
+        Map<CaptchaType, Double> averages = new HashMap<>(Map.of(CaptchaType.TURNSTILE, 7000.0));
+        simulated.useRecordedLatencies(type -> averages.getOrDefault(type, 0.0));
+
+        simulated.solve(request("turnstile"), Deadline.afterSeconds(60));
+        // The collector now averages in the simulated solve
+        averages.put(CaptchaType.TURNSTILE, 4500.0);
+        simulated.solve(request("turnstile"), Deadline.afterSeconds(60));
+
+        assertThat(sleeps).containsExactly(7000L, 7000L);
+    }
+
+    @Test
+    @DisplayName("Fails at the configured rate with a transient error")
+    void failsAtConfiguredRate() {
+        SimulatedProvider simulated = provider(0, 0, 1.0, false);
+
+        assertThatThrownBy(() -> simulated.solve(request("recaptchav2"), Deadline.afterSeconds(60)))
+                .isInstanceOf(CaptchaSolverException.class)
+                .hasMessageContaining("ERROR_CAPTCHA_UNSOLVABLE");
+    }
+
+    @Test
+    @DisplayName("Times out when the latency exceeds the deadline")
+    void timesOutAtDeadline() {
+        SimulatedProvider simulated = provider(600_000, 0, 0, false);
+
+        assertThatThrownBy(() -> simulated.solve(request("recaptchav2"), Deadline.afterSeconds(1)))
+                .isInstanceOf(CaptchaTimeoutException.class);
+        assertThat(sleeps.get(0)).isLessThanOrEqualTo(1000L);
+    }
+
+    @Test
+    @DisplayName("GeeTest tokens are JSON solutions with selectable fields")
+    void geetestTokenHasFields() throws Exception {
+        String token = provider(0, 0, 0, false).solve(request("geetest"), Deadline.afterSeconds(60));
+
+        CaptchaSolution solution = CaptchaSolution.parse(token);
+        assertThat(solution.select("challenge")).isNotNull();
+        assertThat(solution.select("seccode")).isEqualTo(solution.select("validate") + "|jordan");
+    }
+
+    @Test
+    @DisplayName("Accepts any non-blank key and supports all placeholder types")
+    void acceptsAnyKey() {
+        SimulatedProvider simulated = provider(0, 0, 0, false);
+
+        assertThat(simulated.isValidKeyFormat("dry-run")).isTrue();
+        assertThat(simulated.isValidKeyFormat(" ")).isFalse();
+        assertThat(simulated.supportedTypes()).contains("recaptchav2", "geetestv4", "awswaf");
+    }
+}
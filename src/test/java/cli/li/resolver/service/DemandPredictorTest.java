@@ -0,0 +1,102 @@
+package cli.li.resolver.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import cli.li.resolver.captcha.model.CaptchaType;
+import cli.li.resolver.captcha.model.CaptchaRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@DisplayName("DemandPredictor")
+class DemandPredictorTest {
+
+    private static final CaptchaRequest REQUEST =
+            new CaptchaRequest("site-key", "https://example.com/login", null, CaptchaType.RECAPTCHA_V2);
+
+    private DemandPredictor predictor;
+
+    @BeforeEach
+    void setUp() {
+        predictor = new DemandPredictor();
+    }
+
+    @Test
+    @DisplayName("unknown request has no demand")
+    void unknownRequestHasNoDemand() {
+        assertThat(predictor.targetDepth(REQUEST, 0)).isEqualTo(0);
+        assertThat(predictor.getArrivalRate(REQUEST, 0)).isEqualTo(0.0);
+    }
+
+    @Test
+    @DisplayName("a single arrival does not yet give a rate")
+    void singleArrivalGivesNoRate() {
+        predictor.recordArrival(REQUEST, 1000);
+
+        assertThat(predictor.targetDepth(REQUEST, 1000)).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("steady arrivals give their rate")
+    void steadyArrivalsGiveRate() {
+        arrive(0, 500, 20);
+
+        assertThat(predictor.getArrivalRate(REQUEST, 9500)).isCloseTo(2.0, within(0.001));
+    }
+
+    @Test
+    @DisplayName("target depth is rate times latency with headroom")
+    void targetDepthFollowsLittlesLaw() {
+        arrive(0, 1000, 10);
+        predictor.recordLatency(REQUEST, 10_000);
+
+        // 1 req/s x 10 s x 1.2
+        assertThat(predictor.targetDepth(REQUEST, 9000)).isEqualTo(12);
+    }
+
+    @Test
+    @DisplayName("default latency is assumed before any solve completes")
+    void defaultLatencyBeforeFirstSolve() {
+        arrive(0, 1000, 10);
+
+        // 1 req/s x 20 s x 1.2
+        assertThat(predictor.targetDepth(REQUEST, 9000)).isEqualTo(24);
+    }
+
+    @Test
+    @DisplayName("target depth is capped for very high rates")
+    void targetDepthIsCapped() {
+        arrive(0, 1, 100);
+
+        assertThat(predictor.targetDepth(REQUEST, 99)).isEqualTo(50);
+    }
+
+    @Test
+    @DisplayName("demand winds down once arrivals stop")
+    void demandWindsDownWhenQuiet() {
+        arrive(0, 500, 20);
+        long last = 19 * 500;
+
+        assertThat(predictor.targetDepth(REQUEST, last + 1000)).isPositive();
+        assertThat(predictor.targetDepth(REQUEST, last + 5001)).isEqualTo(0);
+        assertThat(predictor.getActiveCount(last + 5001)).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("evictIdle forgets requests idle for longer than the limit")
+    void evictIdleForgetsOldRequests() {
+        arrive(0, 500, 3);
+
+        predictor.evictIdle(100_000, 60_000);
+
+        assertThat(predictor.getArrivalRate(REQUEST, 1000)).isEqualTo(0.0);
+    }
+
+    private void arrive(long start, long interval, int count) {
+        for (int i = 0; i < count; i++) {
+            predictor.recordArrival(REQUEST, start + i * interval);
+        }
+    }
+}
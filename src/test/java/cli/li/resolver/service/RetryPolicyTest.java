@@ -0,0 +1,89 @@
+package cli.li.resolver.service;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import cli.li.resolver.captcha.exception.CaptchaSolverException;
+import cli.li.resolver.captcha.exception.CaptchaTimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@DisplayName("RetryPolicy")
+class RetryPolicyTest {
+
+    @Test
+    @DisplayName("provider-side temporary errors are transient")
+    void providerTemporaryErrorsAreTransient() {
+        assertThat(RetryPolicy.isTransient(new CaptchaSolverException(
+                "Error creating task: ERROR_NO_SLOT_AVAILABLE"))).isTrue();
+        assertThat(RetryPolicy.isTransient(new CaptchaSolverException(
+                "Error getting result: ERROR_NO_SLOT_AVAILABLE: No idle workers are available"))).isTrue();
+    }
+
+    @Test
+    @DisplayName("HTTP 5xx and network failures are transient")
+    void serverAndNetworkErrorsAreTransient() {
+        assertThat(RetryPolicy.isTransient(new CaptchaSolverException(
+                "Error solving CAPTCHA: HTTP error code: 503, response: busy", new IOException()))).isTrue();
+        assertThat(RetryPolicy.isTransient(new CaptchaSolverException(
+                "Error solving CAPTCHA: No response received from server: https://2captcha.com/in.php"))).isTrue();
+    }
+
+    @Test
+    @DisplayName("bad keys, zero balance and client errors are terminal")
+    void accountAndClientErrorsAreTerminal() {
+        assertThat(RetryPolicy.isTransient(new CaptchaSolverException(
+                "Error creating task: ERROR_WRONG_USER_KEY"))).isFalse();
+        assertThat(RetryPolicy.isTransient(new CaptchaSolverException(
+                "Error creating task: ERROR_ZERO_BALANCE: Account has zero balance"))).isFalse();
+        assertThat(RetryPolicy.isTransient(new CaptchaSolverException(
+                "Error solving CAPTCHA: HTTP error code: 403, response: forbidden"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("deadline and interruption failures are terminal")
+    void timeoutAndInterruptionAreTerminal() {
+        assertThat(RetryPolicy.isTransient(new CaptchaTimeoutException(
+                "Solve deadline passed before polling for the result"))).isFalse();
+        assertThat(RetryPolicy.isTransient(new CaptchaSolverException(
+                "CAPTCHA solving interrupted", new InterruptedException()))).isFalse();
+    }
+
+    @Test
+    @DisplayName("shouldRetry respects the per-provider and per-request budgets")
+    void shouldRetryRespectsBudgets() {
+        RetryPolicy policy = new RetryPolicy(2, 3, () -> 0.5);
+        CaptchaSolverException transientError = new CaptchaSolverException("ERROR_NO_SLOT_AVAILABLE");
+
+        assertThat(policy.shouldRetry(transientError, 0, 0)).isTrue();
+        assertThat(policy.shouldRetry(transientError, 1, 1)).isTrue();
+        assertThat(policy.shouldRetry(transientError, 2, 2)).isFalse();
+        assertThat(policy.shouldRetry(transientError, 0, 3)).isFalse();
+        assertThat(policy.shouldRetry(new CaptchaSolverException("ERROR_ZERO_BALANCE"), 0, 0)).isFalse();
+    }
+
+    @Test
+    @DisplayName("a max retries setting of 0 disables retries")
+    void zeroMaxRetriesDisablesRetries() {
+        RetryPolicy policy = new RetryPolicy(0);
+
+        assertThat(policy.shouldRetry(new CaptchaSolverException("ERROR_NO_SLOT_AVAILABLE"), 0, 0)).isFalse();
+    }
+
+    @Test
+    @DisplayName("backoff doubles per retry, stays in the upper half of its ceiling and is capped")
+    void backoffGrowsExponentiallyWithJitter() {
+        RetryPolicy low = new RetryPolicy(5, 10, () -> 0.0);
+        RetryPolicy high = new RetryPolicy(5, 10, () -> 0.999);
+
+        assertThat(low.backoffMillis(1)).isEqualTo(500L);
+        assertThat(low.backoffMillis(2)).isEqualTo(1000L);
+        assertThat(low.backoffMillis(3)).isEqualTo(2000L);
+        assertThat(high.backoffMillis(1)).isCloseTo(1000L, within(1L));
+        assertThat(high.backoffMillis(10)).isCloseTo(8000L, within(5L));
+        assertThat(low.backoffMillis(10)).isEqualTo(4000L);
+    }
+}
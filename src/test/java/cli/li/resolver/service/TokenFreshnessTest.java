@@ -0,0 +1,100 @@
+package cli.li.resolver.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import cli.li.resolver.captcha.model.CaptchaType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("TokenFreshness")
+class TokenFreshnessTest {
+
+    private AtomicLong now;
+    private TokenFreshness freshness;
+
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong(1_000_000L);
+        freshness = new TokenFreshness(now::get);
+    }
+
+    @Test
+    @DisplayName("Just issued token is fresh with its full lifetime left")
+    void justIssuedIsFresh() {
+        freshness.recordIssued("token", CaptchaType.RECAPTCHA_V2);
+
+        TokenFreshness.Freshness result = freshness.check("token");
+
+        assertThat(result.status()).isEqualTo(TokenFreshness.Status.FRESH);
+        assertThat(result.remainingMs()).isEqualTo(110_000L);
+    }
+
+    @Test
+    @DisplayName("Token with less than a quarter of its lifetime left is near expiry")
+    void lastQuarterIsNearExpiry() {
+        freshness.recordIssued("token", CaptchaType.RECAPTCHA_V2);
+        now.addAndGet(90_000);
+
+        TokenFreshness.Freshness result = freshness.check("token");
+
+        assertThat(result.status()).isEqualTo(TokenFreshness.Status.NEAR_EXPIRY);
+        assertThat(result.remainingMs()).isEqualTo(20_000L);
+        assertThat(freshness.getNearExpiry()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("Token past its lifetime is stale")
+    void pastLifetimeIsStale() {
+        freshness.recordIssued("token", CaptchaType.RECAPTCHA_V2);
+        now.addAndGet(110_000);
+
+        assertThat(freshness.check("token").status()).isEqualTo(TokenFreshness.Status.STALE);
+        assertThat(freshness.getStale()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("A stale token stays stale for every later check")
+    void staleOnEveryCheck() {
+        freshness.recordIssued("token", CaptchaType.RECAPTCHA_V2);
+        now.addAndGet(110_000);
+
+        assertThat(freshness.check("token").status()).isEqualTo(TokenFreshness.Status.STALE);
+        assertThat(freshness.check("token").status()).isEqualTo(TokenFreshness.Status.STALE);
+        assertThat(freshness.getStale()).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("Lifetime depends on the CAPTCHA type")
+    void lifetimeDependsOnType() {
+        freshness.recordIssued("recaptcha", CaptchaType.RECAPTCHA_V2);
+        freshness.recordIssued("turnstile", CaptchaType.TURNSTILE);
+        now.addAndGet(150_000);
+
+        assertThat(freshness.check("recaptcha").status()).isEqualTo(TokenFreshness.Status.STALE);
+        assertThat(freshness.check("turnstile").status()).isEqualTo(TokenFreshness.Status.FRESH);
+    }
+
+    @Test
+    @DisplayName("Token not issued through the resolver is unknown")
+    void untrackedTokenIsUnknown() {
+        assertThat(freshness.check("hard-coded").status()).isEqualTo(TokenFreshness.Status.UNKNOWN);
+        assertThat(freshness.check(null).status()).isEqualTo(TokenFreshness.Status.UNKNOWN);
+    }
+
+    @Test
+    @DisplayName("Long expired tokens are purged once many are tracked")
+    void expiredTokensArePurged() {
+        for (int i = 0; i < 256; i++) {
+            freshness.recordIssued("old-" + i, CaptchaType.RECAPTCHA_V2);
+        }
+        now.addAndGet(600_000);
+
+        freshness.recordIssued("new", CaptchaType.RECAPTCHA_V2);
+
+        assertThat(freshness.size()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,193 @@
+package cli.li.resolver.service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import cli.li.resolver.settings.SettingsManager;
+import cli.li.resolver.captcha.model.CaptchaType;
+import cli.li.resolver.captcha.model.CaptchaRequest;
+import cli.li.resolver.captcha.exception.CaptchaSolverException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@DisplayName("TokenPool")
+class TokenPoolTest {
+
+    private static final CaptchaRequest RECAPTCHA =
+            new CaptchaRequest("site-key", "https://example.com/login", null, CaptchaType.RECAPTCHA_V2);
+    private static final CaptchaRequest TURNSTILE =
+            new CaptchaRequest("site-key", "https://example.com/login", null, CaptchaType.TURNSTILE);
+
+    private SettingsManager settingsManager;
+    private AtomicLong now;
+    private AtomicInteger solves;
+    private TokenPool pool;
+
+    @BeforeEach
+    void setUp() {
+        settingsManager = new SettingsManager();
+        settingsManager.setTokenPoolSize(2);
+        settingsManager.setIntruderPrefetchEnabled(true);
+        now = new AtomicLong(1_000_000L);
+        solves = new AtomicInteger(0);
+        // Refills run synchronously on the calling thread; no background maintenance
+        pool = new TokenPool((request, deadline) -> "token-" + solves.incrementAndGet(), settingsManager,
+                now::get, Runnable::run, null);
+    }
+
+    @Test
+    @DisplayName("first request misses and fills the pool to its depth")
+    void firstRequestMissesAndFills() {
+        assertThat(pool.take(RECAPTCHA)).isNull();
+
+        assertThat(pool.getMisses()).isEqualTo(1L);
+        assertThat(pool.getDepth()).isEqualTo(2);
+        assertThat(pool.getRefilled()).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("subsequent request is served from the pool and topped up")
+    void subsequentRequestHits() {
+        pool.take(RECAPTCHA);
+
+        assertThat(pool.take(RECAPTCHA)).isEqualTo("token-1");
+        assertThat(pool.getHits()).isEqualTo(1L);
+        assertThat(pool.getDepth()).isEqualTo(2);
+        assertThat(pool.getHitRate()).isCloseTo(0.5, within(0.001));
+    }
+
+    @Test
+    @DisplayName("expired tokens are counted as waste and never handed out")
+    void expiredTokensAreWasted() {
+        pool.take(RECAPTCHA);
+        now.addAndGet(CaptchaType.RECAPTCHA_V2.getTokenLifetimeSeconds() * 1000L);
+
+        pool.maintain();
+
+        assertThat(pool.getWasted()).isEqualTo(2L);
+        assertThat(pool.take(RECAPTCHA)).isEqualTo("token-3");
+    }
+
+    @Test
+    @DisplayName("token lifetime depends on the CAPTCHA type")
+    void lifetimeDependsOnType() {
+        pool.take(RECAPTCHA);
+        pool.take(TURNSTILE);
+        now.addAndGet(200_000L);
+
+        pool.maintain();
+
+        assertThat(pool.getWasted()).isEqualTo(2L);
+        assertThat(pool.take(TURNSTILE)).isNotNull();
+        assertThat(pool.getHits()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("disabled pool returns null without solving")
+    void disabledPoolDoesNothing() {
+        settingsManager.setTokenPoolSize(0);
+
+        assertThat(pool.take(RECAPTCHA)).isNull();
+        assertThat(solves.get()).isEqualTo(0);
+        assertThat(pool.getMisses()).isEqualTo(0L);
+    }
+
+    @Test
+    @DisplayName("idle keys are no longer refilled")
+    void idleKeysAreDropped() {
+        pool.take(RECAPTCHA);
+        now.addAndGet(6 * 60 * 1000L);
+
+        pool.maintain();
+
+        assertThat(pool.getKeyCount()).isEqualTo(0);
+        assertThat(solves.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("failed refill backs off instead of retrying immediately")
+    void failedRefillBacksOff() {
+        AtomicInteger attempts = new AtomicInteger(0);
+        TokenPool failing = new TokenPool((request, deadline) -> {
+            attempts.incrementAndGet();
+            throw new CaptchaSolverException("provider down");
+        }, settingsManager, now::get, Runnable::run, null);
+
+        assertThat(failing.take(RECAPTCHA)).isNull();
+        failing.maintain();
+
+        assertThat(attempts.get()).isEqualTo(1);
+        assertThat(failing.getDepth()).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("concurrent refills are limited to the solver thread pool size")
+    void refillsBoundedByThreadPoolSize() {
+        settingsManager.setThreadPoolSize(1);
+        Deque<Runnable> dispatched = new ArrayDeque<>();
+        TokenPool bounded = new TokenPool((request, deadline) -> "token-" + solves.incrementAndGet(),
+                settingsManager, now::get, dispatched::add, null);
+
+        bounded.take(RECAPTCHA);
+        bounded.take(TURNSTILE);
+        assertThat(dispatched.size()).isEqualTo(1);
+
+        dispatched.poll().run();
+        bounded.maintain();
+        assertThat(dispatched.size()).isEqualTo(1);
+        assertThat(bounded.getDepth()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("resetStatistics clears counters but keeps pooled tokens")
+    void resetStatisticsKeepsTokens() {
+        pool.take(RECAPTCHA);
+
+        pool.resetStatistics();
+
+        assertThat(pool.getMisses()).isEqualTo(0L);
+        assertThat(pool.getRefilled()).isEqualTo(0L);
+        assertThat(pool.getDepth()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Intruder demand prefetches beyond the configured size and winds down")
+    void intruderDemandPrefetches() {
+        settingsManager.setTokenPoolSize(0);
+        for (int i = 0; i < 10; i++) {
+            pool.recordDemand(RECAPTCHA);
+            pool.take(RECAPTCHA);
+            now.addAndGet(1000);
+        }
+
+        // The first two requests establish the rate; the rest find prefetched tokens although the pool size is 0
+        assertThat(pool.getPrefetchingCount()).isEqualTo(1);
+        assertThat(pool.getHits()).isEqualTo(8L);
+
+        now.addAndGet(10_000);
+        pool.maintain();
+
+        assertThat(pool.getPrefetchingCount()).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("Intruder demand is ignored when prefetching is disabled")
+    void intruderDemandIgnoredWhenDisabled() {
+        settingsManager.setTokenPoolSize(0);
+        settingsManager.setIntruderPrefetchEnabled(false);
+        for (int i = 0; i < 5; i++) {
+            pool.recordDemand(RECAPTCHA);
+            pool.take(RECAPTCHA);
+            now.addAndGet(1000);
+        }
+
+        assertThat(solves.get()).isEqualTo(0);
+    }
+}
@@ -0,0 +1,209 @@
+package cli.li.resolver.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import cli.li.resolver.provider.Deadline;
+import cli.li.resolver.captcha.model.CaptchaType;
+import cli.li.resolver.captcha.model.CaptchaRequest;
+import cli.li.resolver.captcha.exception.CaptchaSolverException;
+import cli.li.resolver.captcha.exception.CaptchaTimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("TokenReuseCache")
+class TokenReuseCacheTest {
+
+    private AtomicLong now;
+    private AtomicInteger solves;
+    private TokenReuseCache cache;
+    private final Deadline deadline = Deadline.afterSeconds(60);
+
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong(1_000_000L);
+        solves = new AtomicInteger(0);
+        cache = new TokenReuseCache((request, deadline) -> "token-" + solves.incrementAndGet(), now::get);
+    }
+
+    @Test
+    @DisplayName("requests without reuse parameters are always solved")
+    void noReuseSolvesEveryTime() throws Exception {
+        CaptchaRequest request = request(Map.of());
+
+        assertThat(cache.resolve(request, deadline)).isEqualTo("token-1");
+        assertThat(cache.resolve(request, deadline)).isEqualTo("token-2");
+        assertThat(TokenReuseCache.isReusable(request)).isFalse();
+    }
+
+    @Test
+    @DisplayName("reuse=N serves one token to N requests")
+    void reuseCountBudget() throws Exception {
+        CaptchaRequest request = request(Map.of("reuse", "3"));
+
+        assertThat(cache.resolve(request, deadline)).isEqualTo("token-1");
+        assertThat(cache.resolve(request, deadline)).isEqualTo("token-1");
+        assertThat(cache.resolve(request, deadline)).isEqualTo("token-1");
+        assertThat(cache.resolve(request, deadline)).isEqualTo("token-2");
+        assertThat(cache.getReused()).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("reuse=N is bounded by the token lifetime")
+    void reuseCountBoundedByLifetime() throws Exception {
+        CaptchaRequest request = request(Map.of("reuse", "100"));
+
+        cache.resolve(request, deadline);
+        now.addAndGet(CaptchaType.RECAPTCHA_V2.getTokenLifetimeSeconds() * 1000L);
+
+        assertThat(cache.resolve(request, deadline)).isEqualTo("token-2");
+    }
+
+    @Test
+    @DisplayName("reuse_ttl serves the token for the window")
+    void reuseTtlWindow() throws Exception {
+        CaptchaRequest request = request(Map.of("reuse_ttl", "60"));
+
+        cache.resolve(request, deadline);
+        now.addAndGet(59_000L);
+        assertThat(cache.resolve(request, deadline)).isEqualTo("token-1");
+
+        now.addAndGet(1_000L);
+        assertThat(cache.resolve(request, deadline)).isEqualTo("token-2");
+    }
+
+    @Test
+    @DisplayName("reuse_ttl is bounded by the token lifetime")
+    void reuseTtlBoundedByLifetime() throws Exception {
+        CaptchaRequest request = request(Map.of("reuse_ttl", "3600"));
+
+        cache.resolve(request, deadline);
+        now.addAndGet(CaptchaType.RECAPTCHA_V2.getTokenLifetimeSeconds() * 1000L);
+
+        assertThat(cache.resolve(request, deadline)).isEqualTo("token-2");
+    }
+
+    @Test
+    @DisplayName("an invalidated stale token is no longer reused")
+    void invalidatedTokenNotReused() throws Exception {
+        CaptchaRequest request = request(Map.of("reuse", "5"));
+
+        cache.resolve(request, deadline);
+        cache.invalidate(request, "token-1");
+
+        assertThat(cache.resolve(request, deadline)).isEqualTo("token-2");
+    }
+
+    @Test
+    @DisplayName("invalidating an older token keeps the one cached since")
+    void invalidateKeepsNewerToken() throws Exception {
+        CaptchaRequest request = request(Map.of("reuse", "5"));
+
+        cache.resolve(request, deadline);
+        cache.invalidate(request, "token-0");
+
+        assertThat(cache.resolve(request, deadline)).isEqualTo("token-1");
+    }
+
+    @Test
+    @DisplayName("invalid reuse values disable reuse")
+    void invalidValuesDisableReuse() {
+        assertThat(TokenReuseCache.isReusable(request(Map.of("reuse", "abc")))).isFalse();
+        assertThat(TokenReuseCache.isReusable(request(Map.of("reuse", "1")))).isFalse();
+        assertThat(TokenReuseCache.isReusable(request(Map.of("reuse_ttl", "-5")))).isFalse();
+    }
+
+    @Test
+    @DisplayName("concurrent requests share one in-flight solve")
+    void concurrentRequestsShareSolve() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger slowSolves = new AtomicInteger(0);
+        TokenReuseCache slowCache = new TokenReuseCache((request, deadline) -> {
+            slowSolves.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "shared";
+        }, now::get);
+        CaptchaRequest request = request(Map.of("reuse", "10"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                results.add(executor.submit(() -> slowCache.resolve(request, deadline)));
+            }
+            Thread.sleep(200);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("shared");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(slowSolves.get()).isEqualTo(1);
+        assertThat(slowCache.getSharedSolves()).isEqualTo(4L);
+    }
+
+    @Test
+    @DisplayName("a waiter stops waiting for a shared solve once its deadline passes")
+    void waiterGivesUpAtDeadline() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        TokenReuseCache slowCache = new TokenReuseCache((request, deadline) -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "late";
+        }, now::get);
+        CaptchaRequest request = request(Map.of("reuse", "10"));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> leader = executor.submit(() -> slowCache.resolve(request, deadline));
+            Thread.sleep(200);
+
+            assertThatThrownBy(() -> slowCache.resolve(request, Deadline.afterSeconds(0)))
+                    .isInstanceOf(CaptchaTimeoutException.class);
+
+            release.countDown();
+            assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("late");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("a failed solve is propagated to the caller")
+    void failureIsShared() {
+        TokenReuseCache failing = new TokenReuseCache((request, deadline) -> {
+            throw new CaptchaSolverException("provider down");
+        }, now::get);
+
+        assertThatThrownBy(() -> failing.resolve(request(Map.of("reuse", "5")), deadline))
+                .isInstanceOf(CaptchaSolverException.class)
+                .hasMessageContaining("provider down");
+    }
+
+    private static CaptchaRequest request(Map<String, String> params) {
+        return new CaptchaRequest("site-key", "https://example.com/login", params, CaptchaType.RECAPTCHA_V2);
+    }
+}
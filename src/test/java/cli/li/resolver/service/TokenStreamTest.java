@@ -0,0 +1,138 @@
+package cli.li.resolver.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import cli.li.resolver.captcha.model.CaptchaType;
+import cli.li.resolver.captcha.model.CaptchaRequest;
+import cli.li.resolver.captcha.exception.CaptchaSolverException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("TokenStream")
+class TokenStreamTest {
+
+    private final CaptchaRequest request = new CaptchaRequest("key", "https://example.com", Map.of(),
+            CaptchaType.RECAPTCHA_V2);
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Produces the requested number of tokens, then ends")
+    void producesRequestedCount() throws Exception {
+        AtomicInteger solves = new AtomicInteger(0);
+        TokenStream stream = new TokenStream((r, d) -> "token-" + solves.incrementAndGet(), request,
+                3, 2, 60, Runnable::run, null);
+
+        List<String> tokens = new ArrayList<>();
+        String token;
+        while ((token = stream.next()) != null) {
+            tokens.add(token);
+        }
+
+        assertThat(tokens).containsExactlyInAnyOrder("token-1", "token-2", "token-3");
+        assertThat(stream.getProduced()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Keeps up to the concurrency limit of solves in flight")
+    void solvesRunInParallel() throws Exception {
+        CountDownLatch allStarted = new CountDownLatch(4);
+        AtomicInteger solves = new AtomicInteger(0);
+        TokenStream stream = new TokenStream((r, d) -> {
+            allStarted.countDown();
+            try {
+                allStarted.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "token-" + solves.incrementAndGet();
+        }, request, 10, 4, 60, executor, null);
+
+        // Four solves block until all four have started, so they must run concurrently
+        assertThat(allStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(stream.next()).startsWith("token-");
+    }
+
+    @Test
+    @DisplayName("Failed solves are replaced so the stream still produces the requested count")
+    void failedSolvesAreReplaced() throws Exception {
+        AtomicInteger attempts = new AtomicInteger(0);
+        TokenStream stream = new TokenStream((r, d) -> {
+            int attempt = attempts.incrementAndGet();
+            if (attempt % 2 == 0) {
+                throw new CaptchaSolverException("provider error");
+            }
+            return "token-" + attempt;
+        }, request, 3, 1, 60, Runnable::run, null);
+
+        int produced = 0;
+        while (stream.next() != null) {
+            produced++;
+        }
+
+        assertThat(produced).isEqualTo(3);
+        assertThat(stream.getFailed()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Stops after repeated consecutive failures")
+    void stopsAfterConsecutiveFailures() throws Exception {
+        AtomicInteger attempts = new AtomicInteger(0);
+        TokenStream stream = new TokenStream((r, d) -> {
+            attempts.incrementAndGet();
+            throw new CaptchaSolverException("provider down");
+        }, request, 100, 1, 60, Runnable::run, null);
+
+        assertThat(stream.next()).isNull();
+        assertThat(attempts.get()).isEqualTo(TokenStream.MAX_CONSECUTIVE_FAILURES);
+    }
+
+    @Test
+    @DisplayName("Tokens that expired before being taken are solved again")
+    void staleTokensAreReplaced() throws Exception {
+        AtomicLong now = new AtomicLong(1_000_000L);
+        TokenFreshness freshness = new TokenFreshness(now::get);
+        AtomicInteger solves = new AtomicInteger(0);
+        TokenStream stream = new TokenStream((r, d) -> {
+            String token = "token-" + solves.incrementAndGet();
+            freshness.recordIssued(token, CaptchaType.RECAPTCHA_V2);
+            return token;
+        }, request, 1, 1, 60, Runnable::run, freshness);
+
+        // The first token was solved in the constructor and has aged past its lifetime
+        now.addAndGet(120_000);
+
+        assertThat(stream.next()).isEqualTo("token-2");
+        assertThat(stream.next()).isNull();
+    }
+
+    @Test
+    @DisplayName("Closing stops new solves")
+    void closeStopsNewSolves() throws Exception {
+        AtomicInteger solves = new AtomicInteger(0);
+        TokenStream stream = new TokenStream((r, d) -> "token-" + solves.incrementAndGet(), request,
+                10, 1, 60, Runnable::run, null);
+
+        stream.close();
+
+        assertThat(stream.next()).isEqualTo("token-1");
+        assertThat(stream.next()).isNull();
+        assertThat(solves.get()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,67 @@
+package cli.li.resolver.settings;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ToolScope")
+class ToolScopeTest {
+
+    @Test
+    @DisplayName("default scope resolves placeholders for every tool")
+    void defaultResolvesEverywhere() {
+        assertThat(ToolScope.DEFAULT.isResolutionEnabled("PROXY")).isTrue();
+        assertThat(ToolScope.DEFAULT.isResolutionEnabled("INTRUDER")).isTrue();
+        assertThat(ToolScope.DEFAULT.isResolutionEnabled("SCANNER")).isTrue();
+    }
+
+    @Test
+    @DisplayName("default scope skips detection for Scanner and Intruder only")
+    void defaultSkipsDetectionForHighVolumeTools() {
+        assertThat(ToolScope.DEFAULT.isDetectionEnabled("SCANNER")).isFalse();
+        assertThat(ToolScope.DEFAULT.isDetectionEnabled("INTRUDER")).isFalse();
+        assertThat(ToolScope.DEFAULT.isDetectionEnabled("PROXY")).isTrue();
+        assertThat(ToolScope.DEFAULT.isDetectionEnabled("REPEATER")).isTrue();
+    }
+
+    @Test
+    @DisplayName("unknown tools are enabled")
+    void unknownToolsAreEnabled() {
+        assertThat(ToolScope.DEFAULT.isResolutionEnabled("NEW_TOOL")).isTrue();
+        assertThat(ToolScope.DEFAULT.isDetectionEnabled("NEW_TOOL")).isTrue();
+    }
+
+    @Test
+    @DisplayName("withResolution and withDetection toggle one tool without changing the original")
+    void togglesReturnUpdatedCopy() {
+        ToolScope scope = ToolScope.DEFAULT
+                .withResolution("PROXY", false)
+                .withDetection("SCANNER", true);
+
+        assertThat(scope.isResolutionEnabled("PROXY")).isFalse();
+        assertThat(scope.isDetectionEnabled("SCANNER")).isTrue();
+        assertThat(scope.isDetectionEnabled("INTRUDER")).isFalse();
+        assertThat(ToolScope.DEFAULT.isResolutionEnabled("PROXY")).isTrue();
+        assertThat(ToolScope.DEFAULT.isDetectionEnabled("SCANNER")).isFalse();
+    }
+
+    @Test
+    @DisplayName("stored tool lists round-trip through format and parse")
+    void formatAndParseRoundTrip() {
+        String stored = ToolScope.formatTools(Set.of("SCANNER", "INTRUDER"));
+
+        assertThat(stored).isEqualTo("INTRUDER,SCANNER");
+        assertThat(ToolScope.parseTools(stored)).containsExactlyInAnyOrder("INTRUDER", "SCANNER");
+    }
+
+    @Test
+    @DisplayName("empty or blank stored list parses to no tools")
+    void parseEmptyList() {
+        assertThat(ToolScope.parseTools("")).isEmpty();
+        assertThat(ToolScope.parseTools(" , ")).isEmpty();
+        assertThat(ToolScope.parseTools(null)).isEmpty();
+    }
+}
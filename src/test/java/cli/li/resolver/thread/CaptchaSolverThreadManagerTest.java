@@ -0,0 +1,77 @@
+package cli.li.resolver.thread;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import cli.li.resolver.logger.LoggerService;
+import cli.li.resolver.settings.SettingsManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("CaptchaSolverThreadManager")
+class CaptchaSolverThreadManagerTest {
+
+    private CaptchaSolverThreadManager threadManager;
+
+    @BeforeEach
+    void setUp() {
+        SettingsManager settingsManager = new SettingsManager();
+        settingsManager.setThreadPoolSize(1);
+        // 600 admissions per minute while load is high: one every 100ms
+        settingsManager.setHighLoadThreshold(600);
+        HighLoadDetector highLoadDetector = new HighLoadDetector(settingsManager);
+        for (int i = 0; i <= 600; i++) {
+            highLoadDetector.registerRequest();
+        }
+        threadManager = new CaptchaSolverThreadManager(new ThreadPoolManager(settingsManager), highLoadDetector,
+                LoggerService.getInstance());
+    }
+
+    @AfterEach
+    void tearDown() {
+        threadManager.shutdown();
+    }
+
+    @Test
+    @DisplayName("a paced task is submitted after its delay without holding the caller")
+    void pacedTaskDoesNotHoldCaller() throws Exception {
+        assertThat(threadManager.submit(() -> "first", TaskStrategy.RATE_LIMITED, 5_000L).get()).isEqualTo("first");
+
+        long start = System.nanoTime();
+        Future<String> paced = threadManager.submit(() -> "paced", TaskStrategy.RATE_LIMITED, 5_000L);
+        long submitMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(submitMillis).isLessThan(50L);
+        assertThat(paced.get(5, TimeUnit.SECONDS)).isEqualTo("paced");
+    }
+
+    @Test
+    @DisplayName("a paced task finding no free thread after its delay is rejected")
+    void pacedTaskRejectedWhenSaturated() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            ThreadPoolManager pool = threadManager.threadPoolManager();
+            for (int i = 0; i < pool.getPoolSize() + pool.getQueueCapacity(); i++) {
+                pool.trySubmit(() -> release.await(5, TimeUnit.SECONDS));
+            }
+            // Take the immediate admission, so the next task is paced
+            threadManager.highLoadDetector().reserveAdmissionDelay();
+
+            Future<String> paced = threadManager.submit(() -> "paced", TaskStrategy.RATE_LIMITED, 150L);
+
+            assertThatThrownBy(() -> paced.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(RejectedExecutionException.class);
+        } finally {
+            release.countDown();
+        }
+    }
+}
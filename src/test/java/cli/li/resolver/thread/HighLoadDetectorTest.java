@@ -7,6 +7,7 @@ import org.junit.jupiter.api.Test;
 import cli.li.resolver.settings.SettingsManager;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
 
 @DisplayName("HighLoadDetector")
 class HighLoadDetectorTest {
@@ -83,6 +84,32 @@ class HighLoadDetectorTest {
         assertThat(detector.isHighLoad()).isFalse();
     }
 
+    @Test
+    @DisplayName("reserveAdmissionDelay is 0 under normal load")
+    void reserveAdmissionDelayIsZeroUnderNormalLoad() {
+        detector.registerRequest();
+
+        assertThat(detector.reserveAdmissionDelay()).isEqualTo(0L);
+        assertThat(detector.reserveAdmissionDelay()).isEqualTo(0L);
+    }
+
+    @Test
+    @DisplayName("reserveAdmissionDelay spaces admissions evenly under high load")
+    void reserveAdmissionDelaySpacesAdmissionsUnderHighLoad() {
+        for (int i = 0; i < 4; i++) {
+            detector.registerRequest();
+        }
+
+        // Threshold 3 per minute: one admission every 20 seconds
+        long first = detector.reserveAdmissionDelay();
+        long second = detector.reserveAdmissionDelay();
+        long third = detector.reserveAdmissionDelay();
+
+        assertThat(first).isEqualTo(0L);
+        assertThat(second).isCloseTo(20_000L, within(100L));
+        assertThat(third).isCloseTo(40_000L, within(100L));
+    }
+
     @Test
     @DisplayName("shutdown completes without error")
     void shutdownCompletesWithoutError() {
@@ -1,5 +1,9 @@
 package cli.li.resolver.thread;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Future;
 
 import org.junit.jupiter.api.AfterEach;
@@ -56,6 +60,187 @@ class ThreadPoolManagerTest {
         assertThat(manager.cancelAllTasks()).isEqualTo(0);
     }
 
+    @Test
+    @DisplayName("getActiveThreadCount counts running tasks")
+    void getActiveThreadCountCountsRunningTasks() throws Exception {
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<Object>> futures = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            futures.add(manager.submit(() -> {
+                started.countDown();
+                release.await();
+                return null;
+            }));
+        }
+
+        started.await();
+        assertThat(manager.getActiveThreadCount()).isEqualTo(2);
+
+        release.countDown();
+        for (Future<Object> future : futures) {
+            future.get();
+        }
+        assertThat(manager.getActiveThreadCount()).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("trySubmit returns null once threads and queue are full, and accepts again when a slot frees")
+    void trySubmitRejectsWhenSaturated() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        int capacity = manager.getPoolSize() + manager.getQueueCapacity();
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < capacity; i++) {
+            futures.add(manager.trySubmit(() -> {
+                release.await();
+                return "done";
+            }));
+        }
+
+        assertThat(futures.stream().allMatch(future -> future != null)).isTrue();
+        assertThat(manager.trySubmit(() -> "rejected")).isNull();
+
+        release.countDown();
+        for (Future<String> future : futures) {
+            future.get();
+        }
+        assertThat(submitOnceFree().get()).isEqualTo("accepted");
+    }
+
+    @Test
+    @DisplayName("cancelling a queued task frees its slot")
+    void cancellingQueuedTaskFreesItsSlot() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        int capacity = manager.getPoolSize() + manager.getQueueCapacity();
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < capacity; i++) {
+            futures.add(manager.trySubmit(() -> {
+                release.await();
+                return "done";
+            }));
+        }
+
+        futures.get(capacity - 1).cancel(false);
+
+        assertThat(manager.trySubmit(() -> "accepted")).isNotNull();
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("cancelling a running task keeps its slot until its thread returns")
+    void cancellingRunningTaskKeepsSlotUntilThreadReturns() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch returned = new CountDownLatch(1);
+        int capacity = manager.getPoolSize() + manager.getQueueCapacity();
+        List<Future<String>> futures = new ArrayList<>();
+        futures.add(manager.trySubmit(() -> {
+            started.countDown();
+            try {
+                // Ignores interruption, like a solve stuck in a blocking call
+                while (release.getCount() > 0) {
+                    try {
+                        release.await();
+                    } catch (InterruptedException ignored) {
+                        // Keep running after cancellation
+                    }
+                }
+                return "done";
+            } finally {
+                returned.countDown();
+            }
+        }));
+        for (int i = 1; i < capacity; i++) {
+            futures.add(manager.trySubmit(() -> {
+                release.await();
+                return "done";
+            }));
+        }
+        started.await();
+
+        futures.get(0).cancel(true);
+
+        assertThat(manager.trySubmit(() -> "rejected")).isNull();
+        release.countDown();
+        returned.await();
+        for (int i = 1; i < capacity; i++) {
+            futures.get(i).get();
+        }
+        assertThat(submitOnceFree().get()).isEqualTo("accepted");
+    }
+
+    @Test
+    @DisplayName("outstanding async solves hold their slots until they complete")
+    void asyncSolvesHoldSlotsUntilComplete() throws Exception {
+        int capacity = manager.getPoolSize() + manager.getQueueCapacity();
+        List<CompletableFuture<String>> solves = new ArrayList<>();
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < capacity; i++) {
+            CompletableFuture<String> solve = new CompletableFuture<>();
+            solves.add(solve);
+            results.add(manager.trySubmitAsync(() -> solve));
+        }
+
+        assertThat(results.stream().allMatch(result -> result != null)).isTrue();
+        assertThat(manager.trySubmit(() -> "rejected")).isNull();
+        assertThat(manager.trySubmitAsync(() -> CompletableFuture.completedFuture("rejected"))).isNull();
+        // Only as many run at once as the pool has threads; the rest wait in the queue
+        assertThat(manager.getActiveThreadCount()).isEqualTo(manager.getPoolSize());
+        assertThat(manager.getQueuedTaskCount()).isEqualTo(manager.getQueueCapacity());
+
+        solves.get(0).complete("solved");
+
+        assertThat(results.get(0).get()).isEqualTo("solved");
+        assertThat(manager.trySubmit(() -> "accepted").get()).isEqualTo("accepted");
+    }
+
+    @Test
+    @DisplayName("queued async solves start as running ones complete")
+    void queuedAsyncSolvesStartInTurn() throws Exception {
+        List<CompletableFuture<String>> solves = new ArrayList<>();
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < manager.getPoolSize() + 1; i++) {
+            CompletableFuture<String> solve = new CompletableFuture<>();
+            solves.add(solve);
+            results.add(manager.trySubmitAsync(() -> solve));
+        }
+        assertThat(manager.getQueuedTaskCount()).isEqualTo(1);
+
+        solves.get(0).complete("first");
+        solves.get(manager.getPoolSize()).complete("queued");
+
+        assertThat(results.get(manager.getPoolSize()).get()).isEqualTo("queued");
+        assertThat(manager.getQueuedTaskCount()).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("cancelling an async solve cancels it and frees its slot")
+    void cancellingAsyncSolveFreesSlot() {
+        int capacity = manager.getPoolSize() + manager.getQueueCapacity();
+        CompletableFuture<String> first = new CompletableFuture<>();
+        CompletableFuture<String> firstResult = manager.trySubmitAsync(() -> first);
+        for (int i = 1; i < capacity; i++) {
+            manager.trySubmitAsync(CompletableFuture::new);
+        }
+        assertThat(manager.trySubmitAsync(CompletableFuture::new)).isNull();
+
+        firstResult.cancel(true);
+
+        assertThat(first.isCancelled()).isTrue();
+        assertThat(manager.trySubmitAsync(CompletableFuture::new)).isNotNull();
+    }
+
+    // A slot is given back just after the task's result is published, so retry briefly
+    private Future<String> submitOnceFree() throws InterruptedException {
+        long giveUpAt = System.currentTimeMillis() + 5000;
+        Future<String> future = manager.trySubmit(() -> "accepted");
+        while (future == null && System.currentTimeMillis() < giveUpAt) {
+            Thread.sleep(10);
+            future = manager.trySubmit(() -> "accepted");
+        }
+        return future;
+    }
+
     @Test
     @DisplayName("shutdown completes without error")
     void shutdownCompletesWithoutError() {